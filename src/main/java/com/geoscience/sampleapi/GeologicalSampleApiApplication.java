@@ -3,6 +3,7 @@ package com.geoscience.sampleapi;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
 
 /**
@@ -13,8 +14,11 @@ import org.springframework.boot.web.servlet.support.SpringBootServletInitializer
  * other geological specimens.
  * 
  * Extends SpringBootServletInitializer to enable WAR deployment to Tomcat.
+ * The {@code *Properties} classes in {@code config} are registered by
+ * scanning, so each feature only declares its own settings class.
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class GeologicalSampleApiApplication extends SpringBootServletInitializer {
 
     @Override
@@ -0,0 +1,298 @@
+package com.geoscience.sampleapi.columnar;
+
+import com.geoscience.sampleapi.model.GeologicalSample;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Writer for the Apache Arrow IPC streaming format (columnar format 1.0,
+ * metadata V5).
+ *
+ * The stream is the schema, the dictionaries, then one record batch per
+ * {@link SampleBatch}, and the end-of-stream marker. Message metadata is
+ * written with {@link FlatBuffer}; bodies are little-endian buffers padded to
+ * 8 bytes. {@code sampleType} and {@code collectorName} are dictionary-encoded
+ * with {@code int32} indices. The sample type dictionary is sent once; the
+ * collector dictionary is sent with the names known at the first batch, and
+ * names first seen in later batches follow as delta dictionaries.
+ */
+public final class ArrowStreamWriter implements SampleBatchWriter {
+
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final int METADATA_V5 = 4;
+    private static final int HEADER_SCHEMA = 1;
+    private static final int HEADER_DICTIONARY_BATCH = 2;
+    private static final int HEADER_RECORD_BATCH = 3;
+    private static final int TYPE_FLOATING_POINT = 3;
+    private static final int TYPE_UTF8 = 5;
+    private static final int TYPE_DATE = 8;
+    private static final int TYPE_TIMESTAMP = 10;
+    private static final int PRECISION_DOUBLE = 2;
+    private static final int DATE_UNIT_DAY = 0;
+    private static final int TIME_UNIT_MILLISECOND = 1;
+    private static final long SAMPLE_TYPE_DICTIONARY = 0;
+    private static final long COLLECTOR_DICTIONARY = 1;
+    private static final GeologicalSample.SampleType[] TYPES = GeologicalSample.SampleType.values();
+
+    private final OutputStream out;
+    private final ByteSink header = new ByteSink();
+    private final ByteSink body = new ByteSink();
+    private final ByteSink text = new ByteSink();
+    private final List<long[]> nodes = new ArrayList<>();
+    private final List<long[]> buffers = new ArrayList<>();
+    private boolean started;
+    private int collectorsSent;
+
+    public ArrowStreamWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(SampleBatch batch) throws IOException {
+        Dictionary collectors = batch.collectors;
+        if (!started) {
+            start(collectors);
+        } else if (collectors.size() > collectorsSent) {
+            writeCollectors(collectors, true);
+        }
+        int rows = batch.size();
+        if (rows == 0) {
+            return;
+        }
+
+        startBody();
+        utf8(batch.ids, rows);
+        utf8(batch.sampleIdentifiers, rows);
+        utf8(batch.sampleNames, rows);
+        validity(rows, row -> false);
+        int32(batch.sampleTypes, rows, 0);
+        validity(rows, row -> false);
+        int32(batch.collectionDates, rows, 0);
+        float64(batch.latitudes, rows);
+        float64(batch.longitudes, rows);
+        utf8(batch.locationNames, rows);
+        // Dictionary code 0 stands for null, so indices are one less than codes
+        validity(rows, row -> false);
+        int32(batch.collectorNames, rows, -1);
+        utf8(batch.descriptions, rows);
+        utf8(batch.storageLocations, rows);
+        validity(rows, row -> false);
+        int64(batch.createdAt, rows);
+        validity(rows, row -> false);
+        int64(batch.updatedAt, rows);
+        writeMessage(HEADER_RECORD_BATCH, recordBatch(rows));
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (!started) {
+            start(new Dictionary());
+        }
+        header.reset().putInt(CONTINUATION).putInt(0);
+        header.writeTo(out);
+    }
+
+    /**
+     * Write the schema and the initial dictionaries.
+     */
+    private void start(Dictionary collectors) throws IOException {
+        started = true;
+        body.reset();
+        writeMessage(HEADER_SCHEMA, schema());
+
+        startBody();
+        String[] types = new String[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            types[i] = TYPES[i].name();
+        }
+        utf8(types, types.length);
+        writeMessage(HEADER_DICTIONARY_BATCH, new FlatBuffer.Table()
+                .int64(0, SAMPLE_TYPE_DICTIONARY)
+                .table(1, recordBatch(types.length))
+                .bool(2, false));
+
+        writeCollectors(collectors, false);
+    }
+
+    /**
+     * Send the collector names not sent yet.
+     */
+    private void writeCollectors(Dictionary collectors, boolean delta) throws IOException {
+        int first = Math.max(1, collectorsSent);
+        String[] names = new String[collectors.size() - first];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = collectors.decode(first + i);
+        }
+        collectorsSent = collectors.size();
+
+        startBody();
+        utf8(names, names.length);
+        writeMessage(HEADER_DICTIONARY_BATCH, new FlatBuffer.Table()
+                .int64(0, COLLECTOR_DICTIONARY)
+                .table(1, recordBatch(names.length))
+                .bool(2, delta));
+    }
+
+    private static FlatBuffer.Table schema() {
+        FlatBuffer.Table utf8 = new FlatBuffer.Table();
+        FlatBuffer.Table float64 = new FlatBuffer.Table().int16(0, PRECISION_DOUBLE);
+        FlatBuffer.Table date32 = new FlatBuffer.Table().int16(0, DATE_UNIT_DAY);
+        FlatBuffer.Table timestamp = new FlatBuffer.Table().int16(0, TIME_UNIT_MILLISECOND);
+        List<FlatBuffer.Table> fields = List.of(
+                field("id", false, TYPE_UTF8, utf8, null),
+                field("sampleIdentifier", false, TYPE_UTF8, utf8, null),
+                field("sampleName", false, TYPE_UTF8, utf8, null),
+                field("sampleType", false, TYPE_UTF8, utf8, dictionary(SAMPLE_TYPE_DICTIONARY)),
+                field("collectionDate", false, TYPE_DATE, date32, null),
+                field("latitude", true, TYPE_FLOATING_POINT, float64, null),
+                field("longitude", true, TYPE_FLOATING_POINT, float64, null),
+                field("locationName", true, TYPE_UTF8, utf8, null),
+                field("collectorName", false, TYPE_UTF8, utf8, dictionary(COLLECTOR_DICTIONARY)),
+                field("description", true, TYPE_UTF8, utf8, null),
+                field("storageLocation", true, TYPE_UTF8, utf8, null),
+                field("createdAt", false, TYPE_TIMESTAMP, timestamp, null),
+                field("updatedAt", false, TYPE_TIMESTAMP, timestamp, null));
+        return new FlatBuffer.Table()
+                .int16(0, 0)
+                .tables(1, fields);
+    }
+
+    private static FlatBuffer.Table field(String name, boolean nullable, int typeType, FlatBuffer.Table type,
+                                          FlatBuffer.Table dictionary) {
+        FlatBuffer.Table field = new FlatBuffer.Table()
+                .string(0, name)
+                .bool(1, nullable)
+                .int8(2, typeType)
+                .table(3, type)
+                .tables(5, List.of());
+        if (dictionary != null) {
+            field.table(4, dictionary);
+        }
+        return field;
+    }
+
+    private static FlatBuffer.Table dictionary(long id) {
+        FlatBuffer.Table int32 = new FlatBuffer.Table()
+                .int32(0, 32)
+                .bool(1, true);
+        return new FlatBuffer.Table()
+                .int64(0, id)
+                .table(1, int32)
+                .bool(2, false);
+    }
+
+    private FlatBuffer.Table recordBatch(long rows) {
+        return new FlatBuffer.Table()
+                .int64(0, rows)
+                .structs(1, 2, flatten(nodes))
+                .structs(2, 2, flatten(buffers));
+    }
+
+    private static long[] flatten(List<long[]> structs) {
+        long[] values = new long[structs.size() * 2];
+        for (int i = 0; i < structs.size(); i++) {
+            values[2 * i] = structs.get(i)[0];
+            values[2 * i + 1] = structs.get(i)[1];
+        }
+        return values;
+    }
+
+    private void writeMessage(int headerType, FlatBuffer.Table message) throws IOException {
+        byte[] metadata = FlatBuffer.encode(new FlatBuffer.Table()
+                .int16(0, METADATA_V5)
+                .int8(1, headerType)
+                .table(2, message)
+                .int64(3, body.size()));
+        int padded = (metadata.length + 7) & ~7;
+        header.reset().putInt(CONTINUATION).putInt(padded).putBytes(metadata).align(8);
+        header.writeTo(out);
+        body.writeTo(out);
+    }
+
+    private void startBody() {
+        body.reset();
+        nodes.clear();
+        buffers.clear();
+    }
+
+    /**
+     * Add a column's validity bitmap (empty when nothing is null) and its
+     * field node.
+     */
+    private void validity(int rows, IntPredicate isNull) {
+        int nulls = 0;
+        for (int row = 0; row < rows; row++) {
+            if (isNull.test(row)) {
+                nulls++;
+            }
+        }
+        nodes.add(new long[] {rows, nulls});
+        if (nulls == 0) {
+            buffers.add(new long[] {body.size(), 0});
+            return;
+        }
+        int start = body.size();
+        for (int from = 0; from < rows; from += 8) {
+            int bits = 0;
+            for (int bit = 0; bit < 8 && from + bit < rows; bit++) {
+                if (!isNull.test(from + bit)) {
+                    bits |= 1 << bit;
+                }
+            }
+            body.putByte(bits);
+        }
+        endBuffer(start);
+    }
+
+    private void utf8(String[] values, int rows) {
+        validity(rows, row -> values[row] == null);
+        int start = body.size();
+        text.reset();
+        for (int row = 0; row < rows; row++) {
+            body.putInt(text.size());
+            if (values[row] != null) {
+                text.putBytes(values[row].getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        body.putInt(text.size());
+        endBuffer(start);
+        start = body.size();
+        body.putBytes(text);
+        endBuffer(start);
+    }
+
+    private void int32(int[] values, int rows, int shift) {
+        int start = body.size();
+        for (int row = 0; row < rows; row++) {
+            body.putInt(values[row] + shift);
+        }
+        endBuffer(start);
+    }
+
+    private void int64(long[] values, int rows) {
+        int start = body.size();
+        for (int row = 0; row < rows; row++) {
+            body.putLong(values[row]);
+        }
+        endBuffer(start);
+    }
+
+    private void float64(double[] values, int rows) {
+        validity(rows, row -> Double.isNaN(values[row]));
+        int start = body.size();
+        for (int row = 0; row < rows; row++) {
+            body.putDouble(Double.isNaN(values[row]) ? 0 : values[row]);
+        }
+        endBuffer(start);
+    }
+
+    private void endBuffer(int start) {
+        buffers.add(new long[] {start, body.size() - start});
+        body.align(8);
+    }
+}
@@ -0,0 +1,99 @@
+package com.geoscience.sampleapi.columnar;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable little-endian byte buffer for assembling pages and message bodies
+ * before they are written out.
+ */
+final class ByteSink {
+
+    private byte[] bytes = new byte[1024];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    ByteSink reset() {
+        size = 0;
+        return this;
+    }
+
+    ByteSink putByte(int value) {
+        ensure(1);
+        bytes[size++] = (byte) value;
+        return this;
+    }
+
+    ByteSink putInt(int value) {
+        ensure(4);
+        for (int i = 0; i < 4; i++) {
+            bytes[size++] = (byte) (value >>> (8 * i));
+        }
+        return this;
+    }
+
+    ByteSink putLong(long value) {
+        ensure(8);
+        for (int i = 0; i < 8; i++) {
+            bytes[size++] = (byte) (value >>> (8 * i));
+        }
+        return this;
+    }
+
+    ByteSink putDouble(double value) {
+        return putLong(Double.doubleToLongBits(value));
+    }
+
+    ByteSink putBytes(byte[] value) {
+        ensure(value.length);
+        System.arraycopy(value, 0, bytes, size, value.length);
+        size += value.length;
+        return this;
+    }
+
+    ByteSink putBytes(ByteSink value) {
+        ensure(value.size);
+        System.arraycopy(value.bytes, 0, bytes, size, value.size);
+        size += value.size;
+        return this;
+    }
+
+    /**
+     * Write an unsigned LEB128 varint.
+     */
+    ByteSink putVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            putByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        return putByte((int) value);
+    }
+
+    /**
+     * Pad with zeros to a multiple of {@code alignment}.
+     */
+    ByteSink align(int alignment) {
+        while (size % alignment != 0) {
+            putByte(0);
+        }
+        return this;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.geoscience.sampleapi.columnar;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoder for the Thrift compact protocol, in which Parquet writes its page
+ * headers and file metadata.
+ *
+ * Fields must be written in increasing ID order within each struct. A
+ * struct, whether a field or a list element, is opened with a begin method
+ * and closed with {@link #end()}; the outermost struct is closed with
+ * {@link #end()} as well.
+ */
+final class CompactProtocol {
+
+    static final int TYPE_I16 = 4;
+    static final int TYPE_I32 = 5;
+    static final int TYPE_I64 = 6;
+    static final int TYPE_BINARY = 8;
+    static final int TYPE_STRUCT = 12;
+
+    private static final int TYPE_BOOLEAN_TRUE = 1;
+    private static final int TYPE_BOOLEAN_FALSE = 2;
+    private static final int TYPE_LIST = 9;
+
+    private final ByteSink sink;
+    private final int[] lastFieldIds = new int[16];
+    private int depth;
+
+    CompactProtocol(ByteSink sink) {
+        this.sink = sink;
+    }
+
+    CompactProtocol bool(int field, boolean value) {
+        return fieldHeader(field, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+    }
+
+    CompactProtocol i16(int field, int value) {
+        fieldHeader(field, TYPE_I16);
+        sink.putVarint(zigZag(value));
+        return this;
+    }
+
+    CompactProtocol i32(int field, int value) {
+        fieldHeader(field, TYPE_I32);
+        sink.putVarint(zigZag(value));
+        return this;
+    }
+
+    CompactProtocol i64(int field, long value) {
+        fieldHeader(field, TYPE_I64);
+        sink.putVarint(zigZag(value));
+        return this;
+    }
+
+    CompactProtocol string(int field, String value) {
+        fieldHeader(field, TYPE_BINARY);
+        return stringElement(value);
+    }
+
+    /**
+     * Open a struct-valued field.
+     */
+    CompactProtocol beginStruct(int field) {
+        fieldHeader(field, TYPE_STRUCT);
+        return beginStructElement();
+    }
+
+    /**
+     * Open a struct that is a list element.
+     */
+    CompactProtocol beginStructElement() {
+        lastFieldIds[++depth] = 0;
+        return this;
+    }
+
+    /**
+     * Close the innermost open struct.
+     */
+    CompactProtocol end() {
+        sink.putByte(0);
+        depth--;
+        return this;
+    }
+
+    /**
+     * Start a list field; its {@code size} elements must follow.
+     */
+    CompactProtocol beginList(int field, int elementType, int size) {
+        fieldHeader(field, TYPE_LIST);
+        if (size < 15) {
+            sink.putByte((size << 4) | elementType);
+        } else {
+            sink.putByte(0xF0 | elementType);
+            sink.putVarint(size);
+        }
+        return this;
+    }
+
+    CompactProtocol i32Element(int value) {
+        sink.putVarint(zigZag(value));
+        return this;
+    }
+
+    CompactProtocol stringElement(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        sink.putVarint(bytes.length);
+        sink.putBytes(bytes);
+        return this;
+    }
+
+    private CompactProtocol fieldHeader(int field, int type) {
+        int delta = field - lastFieldIds[depth];
+        if (delta > 0 && delta <= 15) {
+            sink.putByte((delta << 4) | type);
+        } else {
+            sink.putByte(type);
+            sink.putVarint(zigZag(field));
+        }
+        lastFieldIds[depth] = field;
+        return this;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
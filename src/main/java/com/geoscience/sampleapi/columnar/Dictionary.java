@@ -0,0 +1,64 @@
+package com.geoscience.sampleapi.columnar;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for a string column with few distinct values.
+ *
+ * Each distinct value gets a small integer code, so the column itself is an
+ * {@code int[]}. Code 0 always stands for null. Codes are never reused; a
+ * value that no sample uses any more keeps its code until the table is
+ * rebuilt.
+ */
+final class Dictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    Dictionary() {
+        values.add(null);
+    }
+
+    /**
+     * @return the code of {@code value}, adding it if it is new
+     */
+    int encode(String value) {
+        if (value == null) {
+            return 0;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * @return the number of codes, including the null code
+     */
+    int size() {
+        return values.size();
+    }
+
+    /**
+     * Mark the codes of all values equal to {@code value}, ignoring case.
+     *
+     * @return a lookup table indexed by code
+     */
+    boolean[] matchIgnoreCase(String value) {
+        boolean[] accepted = new boolean[values.size()];
+        for (int code = 1; code < accepted.length; code++) {
+            accepted[code] = values.get(code).equalsIgnoreCase(value);
+        }
+        return accepted;
+    }
+}
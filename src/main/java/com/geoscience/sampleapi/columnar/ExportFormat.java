@@ -0,0 +1,66 @@
+package com.geoscience.sampleapi.columnar;
+
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Columnar export formats.
+ */
+public enum ExportFormat {
+
+    /** Apache Parquet file, one row group per batch. */
+    PARQUET("application/vnd.apache.parquet", "parquet", ParquetWriter::new),
+
+    /** Apache Arrow IPC stream, one record batch per batch. */
+    ARROW("application/vnd.apache.arrow.stream", "arrows", ArrowStreamWriter::new);
+
+    private final String mediaType;
+    private final String extension;
+    private final Function<OutputStream, SampleBatchWriter> factory;
+
+    ExportFormat(String mediaType, String extension, Function<OutputStream, SampleBatchWriter> factory) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+        this.factory = factory;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Start writing this format to a stream.
+     */
+    public SampleBatchWriter open(OutputStream out) {
+        return factory.apply(out);
+    }
+
+    /**
+     * Look up a format by name, ignoring case.
+     *
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static ExportFormat fromName(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + name
+                + " (expected one of " + String.join(", ", formatNames()) + ")");
+    }
+
+    private static String[] formatNames() {
+        ExportFormat[] formats = values();
+        String[] names = new String[formats.length];
+        for (int i = 0; i < formats.length; i++) {
+            names[i] = formats[i].name().toLowerCase(Locale.ROOT);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,255 @@
+package com.geoscience.sampleapi.columnar;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Minimal FlatBuffers encoder for the small metadata messages of the Arrow
+ * IPC format.
+ *
+ * Tables are assembled as trees and serialized front to back: each table is
+ * written after its vtable and before the objects it refers to, so every
+ * offset points forwards as the format requires. Scalars are aligned to
+ * their size relative to the start of the buffer, which readers verify.
+ */
+final class FlatBuffer {
+
+    private FlatBuffer() {
+    }
+
+    /**
+     * Serialize a root table.
+     *
+     * @return the buffer, starting with the offset of the root table
+     */
+    static byte[] encode(Table root) {
+        Writer writer = new Writer();
+        writer.putInt(0);
+        writer.patchOffset(0, writer.place(root));
+        return writer.toByteArray();
+    }
+
+    /**
+     * A table under construction. Fields are set by slot, which is the
+     * field's position in the schema (a union takes two slots: its type,
+     * then its value).
+     */
+    static final class Table {
+
+        private final List<Field> fields = new ArrayList<>();
+
+        Table bool(int slot, boolean value) {
+            return scalar(slot, 1, value ? 1 : 0);
+        }
+
+        Table int8(int slot, int value) {
+            return scalar(slot, 1, value);
+        }
+
+        Table int16(int slot, int value) {
+            return scalar(slot, 2, value);
+        }
+
+        Table int32(int slot, int value) {
+            return scalar(slot, 4, value);
+        }
+
+        Table int64(int slot, long value) {
+            return scalar(slot, 8, value);
+        }
+
+        Table table(int slot, Table value) {
+            fields.add(new Field(slot, 4, 0, value));
+            return this;
+        }
+
+        Table string(int slot, String value) {
+            fields.add(new Field(slot, 4, 0, value.getBytes(StandardCharsets.UTF_8)));
+            return this;
+        }
+
+        Table tables(int slot, List<Table> value) {
+            fields.add(new Field(slot, 4, 0, List.copyOf(value)));
+            return this;
+        }
+
+        /**
+         * A vector of structs of 64-bit fields, given as the longs of all
+         * structs in order.
+         */
+        Table structs(int slot, int fieldsPerStruct, long[] values) {
+            fields.add(new Field(slot, 4, 0, new Structs(fieldsPerStruct, values)));
+            return this;
+        }
+
+        private Table scalar(int slot, int size, long value) {
+            fields.add(new Field(slot, size, value, null));
+            return this;
+        }
+    }
+
+    /**
+     * A field: a scalar of {@code size} bytes, or an offset to {@code reference}.
+     */
+    private record Field(int slot, int size, long value, Object reference) {
+    }
+
+    private record Structs(int fieldsPerStruct, long[] values) {
+    }
+
+    /**
+     * Growable little-endian byte buffer.
+     */
+    private static final class Writer {
+
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        /**
+         * Write an object and the objects it refers to.
+         *
+         * @return the position of the object
+         */
+        int place(Object object) {
+            if (object instanceof Table table) {
+                return placeTable(table);
+            }
+            if (object instanceof byte[] string) {
+                align(4, 0);
+                int at = size;
+                putInt(string.length);
+                putBytes(string);
+                putByte(0);
+                return at;
+            }
+            if (object instanceof Structs structs) {
+                // The elements, not the length, must be 8-byte aligned
+                align(8, 4);
+                int at = size;
+                putInt(structs.values().length / structs.fieldsPerStruct());
+                for (long value : structs.values()) {
+                    putLong(value);
+                }
+                return at;
+            }
+            List<?> tables = (List<?>) object;
+            align(4, 0);
+            int at = size;
+            putInt(tables.size());
+            for (int i = 0; i < tables.size(); i++) {
+                putInt(0);
+            }
+            for (int i = 0; i < tables.size(); i++) {
+                patchOffset(at + 4 + 4 * i, place(tables.get(i)));
+            }
+            return at;
+        }
+
+        private int placeTable(Table table) {
+            // Lay the fields out largest first, after the vtable offset
+            List<Field> layout = new ArrayList<>(table.fields);
+            layout.sort(Comparator.comparingInt(Field::size).reversed());
+            int[] offsets = new int[layout.size()];
+            int cursor = 4;
+            int alignment = 4;
+            int slots = 0;
+            for (int i = 0; i < layout.size(); i++) {
+                Field field = layout.get(i);
+                cursor = (cursor + field.size() - 1) / field.size() * field.size();
+                offsets[i] = cursor;
+                cursor += field.size();
+                alignment = Math.max(alignment, field.size());
+                slots = Math.max(slots, field.slot() + 1);
+            }
+
+            align(2, 0);
+            int vtable = size;
+            short[] entries = new short[slots];
+            for (int i = 0; i < layout.size(); i++) {
+                entries[layout.get(i).slot()] = (short) offsets[i];
+            }
+            putShort(4 + 2 * slots);
+            putShort(cursor);
+            for (short entry : entries) {
+                putShort(entry);
+            }
+
+            align(alignment, 0);
+            int at = size;
+            putInt(at - vtable);
+            for (int i = 0; i < layout.size(); i++) {
+                Field field = layout.get(i);
+                while (size < at + offsets[i]) {
+                    putByte(0);
+                }
+                switch (field.size()) {
+                    case 1 -> putByte((int) field.value());
+                    case 2 -> putShort((int) field.value());
+                    case 4 -> putInt((int) field.value());
+                    default -> putLong(field.value());
+                }
+            }
+            while (size < at + cursor) {
+                putByte(0);
+            }
+            for (int i = 0; i < layout.size(); i++) {
+                Field field = layout.get(i);
+                if (field.reference() != null) {
+                    patchOffset(at + offsets[i], place(field.reference()));
+                }
+            }
+            return at;
+        }
+
+        /**
+         * Pad until {@code size + skip} is a multiple of {@code alignment}.
+         */
+        void align(int alignment, int skip) {
+            while ((size + skip) % alignment != 0) {
+                putByte(0);
+            }
+        }
+
+        void patchOffset(int at, int target) {
+            int offset = target - at;
+            for (int i = 0; i < 4; i++) {
+                bytes[at + i] = (byte) (offset >>> (8 * i));
+            }
+        }
+
+        void putByte(int value) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void putShort(int value) {
+            putByte(value);
+            putByte(value >>> 8);
+        }
+
+        void putInt(int value) {
+            putShort(value);
+            putShort(value >>> 16);
+        }
+
+        void putLong(long value) {
+            putInt((int) value);
+            putInt((int) (value >>> 32));
+        }
+
+        void putBytes(byte[] value) {
+            for (byte b : value) {
+                putByte(b);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
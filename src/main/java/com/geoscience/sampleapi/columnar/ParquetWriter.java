@@ -0,0 +1,381 @@
+package com.geoscience.sampleapi.columnar;
+
+import com.geoscience.sampleapi.model.GeologicalSample;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Writer for uncompressed Apache Parquet files (format version 1).
+ *
+ * Each {@link SampleBatch} becomes a row group with one v1 data page per
+ * column. Values are PLAIN-encoded; {@code sampleType} and
+ * {@code collectorName} are dictionary-encoded, with a dictionary page in
+ * each row group. Nullable columns carry RLE definition levels. Only the
+ * file metadata (the schema and the offsets of the row groups) is kept until
+ * {@link #finish()} writes the footer.
+ */
+public final class ParquetWriter implements SampleBatchWriter {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    private static final String CREATED_BY = "geological-sample-api";
+    private static final int MAX_BIT_PACKED_GROUPS = 63;
+
+    private static final int INT32 = 1;
+    private static final int INT64 = 2;
+    private static final int DOUBLE = 5;
+    private static final int BYTE_ARRAY = 6;
+
+    private static final int PLAIN = 0;
+    private static final int PLAIN_DICTIONARY = 2;
+    private static final int RLE = 3;
+
+    private static final int DATA_PAGE = 0;
+    private static final int DICTIONARY_PAGE = 2;
+
+    private static final int CONVERTED_UTF8 = 0;
+    private static final int CONVERTED_DATE = 6;
+
+    private static final Column[] COLUMNS = {
+            new Column("id", BYTE_ARRAY, false, Logical.STRING),
+            new Column("sampleIdentifier", BYTE_ARRAY, false, Logical.STRING),
+            new Column("sampleName", BYTE_ARRAY, false, Logical.STRING),
+            new Column("sampleType", BYTE_ARRAY, false, Logical.STRING),
+            new Column("collectionDate", INT32, false, Logical.DATE),
+            new Column("latitude", DOUBLE, true, Logical.NONE),
+            new Column("longitude", DOUBLE, true, Logical.NONE),
+            new Column("locationName", BYTE_ARRAY, true, Logical.STRING),
+            new Column("collectorName", BYTE_ARRAY, false, Logical.STRING),
+            new Column("description", BYTE_ARRAY, true, Logical.STRING),
+            new Column("storageLocation", BYTE_ARRAY, true, Logical.STRING),
+            new Column("createdAt", INT64, false, Logical.TIMESTAMP),
+            new Column("updatedAt", INT64, false, Logical.TIMESTAMP),
+    };
+
+    private static final String[] TYPES;
+
+    static {
+        GeologicalSample.SampleType[] types = GeologicalSample.SampleType.values();
+        TYPES = new String[types.length];
+        for (int i = 0; i < types.length; i++) {
+            TYPES[i] = types[i].name();
+        }
+    }
+
+    private final OutputStream out;
+    private final ByteSink header = new ByteSink();
+    private final ByteSink page = new ByteSink();
+    private final ByteSink levels = new ByteSink();
+    private final List<RowGroup> rowGroups = new ArrayList<>();
+    private final List<Chunk> chunks = new ArrayList<>();
+    private long position;
+    private long rows;
+
+    public ParquetWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(SampleBatch batch) throws IOException {
+        start();
+        int count = batch.size();
+        if (count == 0) {
+            return;
+        }
+        long groupOffset = position;
+        chunks.clear();
+        plainStrings(0, batch.ids, count);
+        plainStrings(1, batch.sampleIdentifiers, count);
+        plainStrings(2, batch.sampleNames, count);
+        dictionary(3, TYPES, count, row -> batch.sampleTypes[row]);
+        plainInts(4, batch.collectionDates, count);
+        plainDoubles(5, batch.latitudes, count);
+        plainDoubles(6, batch.longitudes, count);
+        plainStrings(7, batch.locationNames, count);
+        // Dictionary code 0 stands for null, so indices are one less than codes
+        String[] collectors = new String[batch.collectors.size() - 1];
+        for (int i = 0; i < collectors.length; i++) {
+            collectors[i] = batch.collectors.decode(i + 1);
+        }
+        dictionary(8, collectors, count, row -> batch.collectorNames[row] - 1);
+        plainStrings(9, batch.descriptions, count);
+        plainStrings(10, batch.storageLocations, count);
+        plainLongs(11, batch.createdAt, count);
+        plainLongs(12, batch.updatedAt, count);
+        rowGroups.add(new RowGroup(List.copyOf(chunks), count, groupOffset, position - groupOffset));
+        rows += count;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        start();
+        header.reset();
+        CompactProtocol metadata = new CompactProtocol(header)
+                .i32(1, 1)
+                .beginList(2, CompactProtocol.TYPE_STRUCT, COLUMNS.length + 1)
+                .beginStructElement()
+                .string(4, "schema")
+                .i32(5, COLUMNS.length)
+                .end();
+        for (Column column : COLUMNS) {
+            schemaElement(metadata, column);
+        }
+        metadata.i64(3, rows)
+                .beginList(4, CompactProtocol.TYPE_STRUCT, rowGroups.size());
+        for (int ordinal = 0; ordinal < rowGroups.size(); ordinal++) {
+            RowGroup group = rowGroups.get(ordinal);
+            metadata.beginStructElement()
+                    .beginList(1, CompactProtocol.TYPE_STRUCT, group.chunks().size());
+            for (Chunk chunk : group.chunks()) {
+                columnChunk(metadata, chunk);
+            }
+            metadata.i64(2, group.size())
+                    .i64(3, group.rows())
+                    .i64(5, group.offset())
+                    .i64(6, group.size())
+                    .i16(7, ordinal)
+                    .end();
+        }
+        metadata.string(6, CREATED_BY).end();
+        int length = header.size();
+        header.putInt(length).putBytes(MAGIC);
+        emit(header);
+        out.flush();
+    }
+
+    private void start() throws IOException {
+        if (position == 0) {
+            out.write(MAGIC);
+            position = MAGIC.length;
+        }
+    }
+
+    private static void schemaElement(CompactProtocol metadata, Column column) {
+        metadata.beginStructElement()
+                .i32(1, column.type())
+                .i32(3, column.optional() ? 1 : 0)
+                .string(4, column.name());
+        switch (column.logical()) {
+            case STRING -> metadata.i32(6, CONVERTED_UTF8)
+                    .beginStruct(10).beginStruct(1).end().end();
+            case DATE -> metadata.i32(6, CONVERTED_DATE)
+                    .beginStruct(10).beginStruct(6).end().end();
+            // Local date-times: not adjusted to UTC, which no converted type can express
+            case TIMESTAMP -> metadata.beginStruct(10)
+                    .beginStruct(8)
+                    .bool(1, false)
+                    .beginStruct(2).beginStruct(1).end().end()
+                    .end()
+                    .end();
+            case NONE -> {
+            }
+        }
+        metadata.end();
+    }
+
+    private static void columnChunk(CompactProtocol metadata, Chunk chunk) {
+        Column column = COLUMNS[chunk.column()];
+        metadata.beginStructElement()
+                .i64(2, chunk.offset())
+                .beginStruct(3)
+                .i32(1, column.type())
+                .beginList(2, CompactProtocol.TYPE_I32, 2)
+                .i32Element(chunk.dictionaryOffset() >= 0 ? PLAIN_DICTIONARY : PLAIN)
+                .i32Element(RLE)
+                .beginList(3, CompactProtocol.TYPE_BINARY, 1)
+                .stringElement(column.name())
+                .i32(4, 0)
+                .i64(5, chunk.values())
+                .i64(6, chunk.size())
+                .i64(7, chunk.size())
+                .i64(9, chunk.dataOffset());
+        if (chunk.dictionaryOffset() >= 0) {
+            metadata.i64(11, chunk.dictionaryOffset());
+        }
+        metadata.end().end();
+    }
+
+    private void plainStrings(int column, String[] values, int count) throws IOException {
+        startPage(column, count, row -> values[row] == null);
+        for (int row = 0; row < count; row++) {
+            if (values[row] != null) {
+                byte[] bytes = values[row].getBytes(StandardCharsets.UTF_8);
+                page.putInt(bytes.length).putBytes(bytes);
+            }
+        }
+        long offset = position;
+        writeDataPage(count, PLAIN);
+        chunks.add(new Chunk(column, offset, -1, offset, count, position - offset));
+    }
+
+    private void plainInts(int column, int[] values, int count) throws IOException {
+        startPage(column, count, row -> false);
+        for (int row = 0; row < count; row++) {
+            page.putInt(values[row]);
+        }
+        long offset = position;
+        writeDataPage(count, PLAIN);
+        chunks.add(new Chunk(column, offset, -1, offset, count, position - offset));
+    }
+
+    private void plainLongs(int column, long[] values, int count) throws IOException {
+        startPage(column, count, row -> false);
+        for (int row = 0; row < count; row++) {
+            page.putLong(values[row]);
+        }
+        long offset = position;
+        writeDataPage(count, PLAIN);
+        chunks.add(new Chunk(column, offset, -1, offset, count, position - offset));
+    }
+
+    private void plainDoubles(int column, double[] values, int count) throws IOException {
+        startPage(column, count, row -> Double.isNaN(values[row]));
+        for (int row = 0; row < count; row++) {
+            if (!Double.isNaN(values[row])) {
+                page.putDouble(values[row]);
+            }
+        }
+        long offset = position;
+        writeDataPage(count, PLAIN);
+        chunks.add(new Chunk(column, offset, -1, offset, count, position - offset));
+    }
+
+    /**
+     * Write a required dictionary-encoded column: the dictionary page, then
+     * a data page of indices into it.
+     */
+    private void dictionary(int column, String[] dictionary, int count, IntUnaryOperator index) throws IOException {
+        long offset = position;
+        page.reset();
+        for (String value : dictionary) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            page.putInt(bytes.length).putBytes(bytes);
+        }
+        header.reset();
+        new CompactProtocol(header)
+                .i32(1, DICTIONARY_PAGE)
+                .i32(2, page.size())
+                .i32(3, page.size())
+                .beginStruct(7)
+                .i32(1, dictionary.length)
+                .i32(2, PLAIN_DICTIONARY)
+                .end()
+                .end();
+        emit(header);
+        emit(page);
+
+        long dataOffset = position;
+        int bitWidth = Math.max(1, 32 - Integer.numberOfLeadingZeros(dictionary.length - 1));
+        page.reset();
+        page.putByte(bitWidth);
+        encodeHybrid(page, count, index, bitWidth);
+        writeDataPage(count, PLAIN_DICTIONARY);
+        chunks.add(new Chunk(column, offset, offset, dataOffset, count, position - offset));
+    }
+
+    /**
+     * Start a data page, writing the definition levels of an optional column.
+     */
+    private void startPage(int column, int count, IntPredicate isNull) {
+        page.reset();
+        if (!COLUMNS[column].optional()) {
+            return;
+        }
+        levels.reset();
+        encodeHybrid(levels, count, row -> isNull.test(row) ? 0 : 1, 1);
+        page.putInt(levels.size()).putBytes(levels);
+    }
+
+    private void writeDataPage(int count, int encoding) throws IOException {
+        header.reset();
+        new CompactProtocol(header)
+                .i32(1, DATA_PAGE)
+                .i32(2, page.size())
+                .i32(3, page.size())
+                .beginStruct(5)
+                .i32(1, count)
+                .i32(2, encoding)
+                .i32(3, RLE)
+                .i32(4, RLE)
+                .end()
+                .end();
+        emit(header);
+        emit(page);
+    }
+
+    private void emit(ByteSink bytes) throws IOException {
+        bytes.writeTo(out);
+        position += bytes.size();
+    }
+
+    /**
+     * Encode values with the RLE / bit-packing hybrid: runs of 8 or more
+     * equal values as RLE runs, everything else bit-packed in groups of 8.
+     */
+    static void encodeHybrid(ByteSink sink, int count, IntUnaryOperator value, int bitWidth) {
+        int byteWidth = (bitWidth + 7) / 8;
+        int row = 0;
+        while (row < count) {
+            int run = runLength(count, value, row, Integer.MAX_VALUE);
+            if (run >= 8) {
+                sink.putVarint((long) run << 1);
+                int repeated = value.applyAsInt(row);
+                for (int i = 0; i < byteWidth; i++) {
+                    sink.putByte(repeated >>> (8 * i));
+                }
+                row += run;
+                continue;
+            }
+            // Bit-packed groups end where a run starts; only the last group is padded
+            int start = row;
+            int groups = 0;
+            do {
+                row += 8;
+                groups++;
+            } while (row < count && groups < MAX_BIT_PACKED_GROUPS && runLength(count, value, row, 8) < 8);
+            sink.putVarint(((long) groups << 1) | 1);
+            long buffer = 0;
+            int bits = 0;
+            for (int i = start; i < start + groups * 8; i++) {
+                buffer |= (long) (i < count ? value.applyAsInt(i) : 0) << bits;
+                bits += bitWidth;
+                while (bits >= 8) {
+                    sink.putByte((int) buffer);
+                    buffer >>>= 8;
+                    bits -= 8;
+                }
+            }
+        }
+    }
+
+    private static int runLength(int count, IntUnaryOperator value, int start, int limit) {
+        int first = value.applyAsInt(start);
+        int end = start + 1;
+        while (end < count && end - start < limit && value.applyAsInt(end) == first) {
+            end++;
+        }
+        return end - start;
+    }
+
+    private enum Logical {
+        NONE, STRING, DATE, TIMESTAMP
+    }
+
+    private record Column(String name, int type, boolean optional, Logical logical) {
+    }
+
+    /**
+     * Location of a column chunk; {@code dictionaryOffset} is -1 without a
+     * dictionary page.
+     */
+    private record Chunk(int column, long offset, long dictionaryOffset, long dataOffset, long values, long size) {
+    }
+
+    private record RowGroup(List<Chunk> chunks, long rows, long offset, long size) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.geoscience.sampleapi.columnar;
+
+import com.geoscience.sampleapi.dto.SampleResponse;
+
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * A bounded batch of samples in column form: the unit of a columnar export,
+ * written as one Arrow record batch or one Parquet row group.
+ *
+ * Columns follow {@link SampleResponse}. Sample types are stored by ordinal.
+ * Collector names are dictionary-encoded with codes that stay the same from
+ * one batch to the next ({@link #clear()} keeps the dictionary), so a stream
+ * only has to send the names it has not sent yet. Dates are days since the
+ * epoch and timestamps are milliseconds since the epoch of the local
+ * date-time read as UTC. Missing coordinates are stored as NaN.
+ */
+public final class SampleBatch {
+
+    final String[] ids;
+    final String[] sampleIdentifiers;
+    final String[] sampleNames;
+    final int[] sampleTypes;
+    final int[] collectionDates;
+    final double[] latitudes;
+    final double[] longitudes;
+    final String[] locationNames;
+    final int[] collectorNames;
+    final String[] descriptions;
+    final String[] storageLocations;
+    final long[] createdAt;
+    final long[] updatedAt;
+    final Dictionary collectors = new Dictionary();
+    private int size;
+
+    /**
+     * @param capacity maximum number of samples in the batch
+     */
+    public SampleBatch(int capacity) {
+        ids = new String[capacity];
+        sampleIdentifiers = new String[capacity];
+        sampleNames = new String[capacity];
+        sampleTypes = new int[capacity];
+        collectionDates = new int[capacity];
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        locationNames = new String[capacity];
+        collectorNames = new int[capacity];
+        descriptions = new String[capacity];
+        storageLocations = new String[capacity];
+        createdAt = new long[capacity];
+        updatedAt = new long[capacity];
+    }
+
+    /**
+     * Append a sample.
+     *
+     * @throws IllegalStateException if the batch is full
+     */
+    public void add(SampleResponse sample) {
+        if (isFull()) {
+            throw new IllegalStateException("Batch is full");
+        }
+        int row = size++;
+        ids[row] = sample.getId().toString();
+        sampleIdentifiers[row] = sample.getSampleIdentifier();
+        sampleNames[row] = sample.getSampleName();
+        sampleTypes[row] = sample.getSampleType().ordinal();
+        collectionDates[row] = (int) sample.getCollectionDate().toEpochDay();
+        latitudes[row] = sample.getLatitude() != null ? sample.getLatitude() : Double.NaN;
+        longitudes[row] = sample.getLongitude() != null ? sample.getLongitude() : Double.NaN;
+        locationNames[row] = sample.getLocationName();
+        collectorNames[row] = collectors.encode(sample.getCollectorName());
+        descriptions[row] = sample.getDescription();
+        storageLocations[row] = sample.getStorageLocation();
+        createdAt[row] = sample.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+        updatedAt[row] = sample.getUpdatedAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == ids.length;
+    }
+
+    /**
+     * Empty the batch for reuse, keeping the collector dictionary.
+     */
+    public void clear() {
+        Arrays.fill(ids, 0, size, null);
+        Arrays.fill(sampleIdentifiers, 0, size, null);
+        Arrays.fill(sampleNames, 0, size, null);
+        Arrays.fill(locationNames, 0, size, null);
+        Arrays.fill(descriptions, 0, size, null);
+        Arrays.fill(storageLocations, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,23 @@
+package com.geoscience.sampleapi.columnar;
+
+import java.io.IOException;
+
+/**
+ * Writes a stream of {@link SampleBatch}es in a columnar file format.
+ *
+ * The same batch instance must be passed to every {@link #write} call (it
+ * may be cleared in between), since dictionary codes are shared across
+ * batches. The writer does not close the underlying stream.
+ */
+public interface SampleBatchWriter {
+
+    /**
+     * Write a batch; the caller may clear and refill it afterwards.
+     */
+    void write(SampleBatch batch) throws IOException;
+
+    /**
+     * Write the end of the stream. Must be called once, after the last batch.
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,423 @@
+package com.geoscience.sampleapi.columnar;
+
+import com.geoscience.sampleapi.model.GeologicalSample;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Column-oriented, in-memory copy of the sample catalogue for analytic scans.
+ *
+ * Every sample occupies a slot, and every attribute is a primitive array
+ * indexed by slot:
+ * <ul>
+ *   <li>the ID as two {@code long}s;</li>
+ *   <li>the type as a {@code byte} (enum ordinal);</li>
+ *   <li>the collection date as an {@code int} epoch day;</li>
+ *   <li>the coordinates as {@code double}s, NaN when missing;</li>
+ *   <li>collector and location as dictionary codes (see {@link Dictionary});</li>
+ *   <li>the description off-heap (see {@link TextArena}).</li>
+ * </ul>
+ * IDs are found through an open-addressing hash table of slot numbers. The
+ * slots of removed samples are reused.
+ *
+ * Filters work on bitmaps with one bit per slot, 64 slots per {@code long}.
+ * Start from {@link #liveMask()}; each {@code retain} method scans one column
+ * and clears the bits of slots that do not match. Apart from the description
+ * search, the scans are branch-free loops over a primitive array, which the
+ * JIT can unroll and vectorise.
+ *
+ * Not thread-safe: callers must keep writes apart from concurrent reads.
+ */
+public final class SampleColumns {
+
+    /**
+     * Epoch-day bounds for open-ended date ranges. They are far outside any
+     * real collection date, but their differences still fit an {@code int}.
+     */
+    public static final int MIN_DAY = -500_000_000;
+    public static final int MAX_DAY = 500_000_000;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final GeologicalSample.SampleType[] TYPES = GeologicalSample.SampleType.values();
+
+    private int capacity;
+    private int slots;
+    private int size;
+    private long[] live;
+    private long[] idHigh;
+    private long[] idLow;
+    private byte[] types;
+    private int[] days;
+    private double[] latitudes;
+    private double[] longitudes;
+    private int[] collectors;
+    private int[] locations;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int[] index;
+    private final Dictionary collectorNames = new Dictionary();
+    private final Dictionary locationNames = new Dictionary();
+    private final TextArena descriptions = new TextArena();
+
+    public SampleColumns() {
+        resize(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Insert a sample, or replace all values of a sample that is already present.
+     */
+    public void upsert(UUID id, GeologicalSample.SampleType type, LocalDate collectionDate, Double latitude,
+                       Double longitude, String collectorName, String locationName, String description) {
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        int slot = find(high, low);
+        if (slot < 0) {
+            slot = allocate();
+            idHigh[slot] = high;
+            idLow[slot] = low;
+            insertIndex(slot);
+            live[slot >>> 6] |= 1L << slot;
+            size++;
+        }
+        types[slot] = (byte) type.ordinal();
+        days[slot] = (int) collectionDate.toEpochDay();
+        latitudes[slot] = latitude == null ? Double.NaN : latitude;
+        longitudes[slot] = longitude == null ? Double.NaN : longitude;
+        collectors[slot] = collectorNames.encode(collectorName);
+        locations[slot] = locationNames.encode(locationName);
+        descriptions.set(slot, description);
+    }
+
+    /**
+     * @return true if the sample was present
+     */
+    public boolean remove(UUID id) {
+        int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (slot < 0) {
+            return false;
+        }
+        deleteIndex(slot);
+        live[slot >>> 6] &= ~(1L << slot);
+        descriptions.set(slot, null);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        size--;
+        return true;
+    }
+
+    /**
+     * @return the number of samples
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a new bitmap selecting every sample
+     */
+    public long[] liveMask() {
+        return Arrays.copyOf(live, words());
+    }
+
+    /**
+     * Keep only samples whose type is in {@code typeBits}, a bit set of
+     * {@link GeologicalSample.SampleType} ordinals.
+     */
+    public void retainTypes(long[] mask, int typeBits) {
+        for (int w = 0; w < mask.length; w++) {
+            if (mask[w] == 0) {
+                continue;
+            }
+            int base = w << 6;
+            int end = Math.min(64, slots - base);
+            long bits = 0;
+            for (int b = 0; b < end; b++) {
+                bits |= (long) ((typeBits >>> types[base + b]) & 1) << b;
+            }
+            mask[w] &= bits;
+        }
+    }
+
+    /**
+     * Keep only samples collected between two epoch days, inclusive. Use
+     * {@link #MIN_DAY} and {@link #MAX_DAY} for open ends.
+     */
+    public void retainCollectionDays(long[] mask, int fromDay, int toDay) {
+        for (int w = 0; w < mask.length; w++) {
+            if (mask[w] == 0) {
+                continue;
+            }
+            int base = w << 6;
+            int end = Math.min(64, slots - base);
+            long bits = 0;
+            for (int b = 0; b < end; b++) {
+                int day = days[base + b];
+                // Both differences are non-negative exactly when the day is in range
+                bits |= (long) ((((day - fromDay) | (toDay - day)) >>> 31) ^ 1) << b;
+            }
+            mask[w] &= bits;
+        }
+    }
+
+    /**
+     * Keep only samples inside a bounding box, edges included. Samples
+     * without coordinates never match.
+     */
+    public void retainBoundingBox(long[] mask, double minLatitude, double maxLatitude,
+                                  double minLongitude, double maxLongitude) {
+        for (int w = 0; w < mask.length; w++) {
+            if (mask[w] == 0) {
+                continue;
+            }
+            int base = w << 6;
+            int end = Math.min(64, slots - base);
+            long bits = 0;
+            for (int b = 0; b < end; b++) {
+                double latitude = latitudes[base + b];
+                double longitude = longitudes[base + b];
+                boolean inside = latitude >= minLatitude & latitude <= maxLatitude
+                        & longitude >= minLongitude & longitude <= maxLongitude;
+                bits |= (inside ? 1L : 0L) << b;
+            }
+            mask[w] &= bits;
+        }
+    }
+
+    /**
+     * Keep only samples whose collector name equals {@code name}, ignoring case.
+     */
+    public void retainCollector(long[] mask, String name) {
+        retainCodes(mask, collectors, collectorNames.matchIgnoreCase(name));
+    }
+
+    /**
+     * Keep only samples whose location name equals {@code name}, ignoring case.
+     */
+    public void retainLocation(long[] mask, String name) {
+        retainCodes(mask, locations, locationNames.matchIgnoreCase(name));
+    }
+
+    /**
+     * Keep only samples whose description contains {@code text}. Case is
+     * ignored for ASCII letters only.
+     */
+    public void retainDescriptionContaining(long[] mask, String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        byte[] needle = text.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        for (int slot = next(mask, 0); slot >= 0; slot = next(mask, slot + 1)) {
+            if (!descriptions.containsIgnoreAsciiCase(slot, needle)) {
+                mask[slot >>> 6] &= ~(1L << slot);
+            }
+        }
+    }
+
+    /**
+     * @return the first slot at or after {@code from} that is set in the
+     *         mask, or -1 if there is none
+     */
+    public static int next(long[] mask, int from) {
+        int w = from >>> 6;
+        if (w >= mask.length) {
+            return -1;
+        }
+        long word = mask[w] & (-1L << from);
+        while (word == 0) {
+            if (++w == mask.length) {
+                return -1;
+            }
+            word = mask[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * @return the number of slots set in the mask
+     */
+    public static int count(long[] mask) {
+        int count = 0;
+        for (long word : mask) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public UUID id(int slot) {
+        return new UUID(idHigh[slot], idLow[slot]);
+    }
+
+    public GeologicalSample.SampleType type(int slot) {
+        return TYPES[types[slot]];
+    }
+
+    public int collectionDay(int slot) {
+        return days[slot];
+    }
+
+    /**
+     * @return the latitude, or NaN if the sample has no coordinates
+     */
+    public double latitude(int slot) {
+        return latitudes[slot];
+    }
+
+    /**
+     * @return the longitude, or NaN if the sample has no coordinates
+     */
+    public double longitude(int slot) {
+        return longitudes[slot];
+    }
+
+    /**
+     * @return the dictionary code of the collector name, below {@link #collectorCodes()}
+     */
+    public int collectorCode(int slot) {
+        return collectors[slot];
+    }
+
+    public int collectorCodes() {
+        return collectorNames.size();
+    }
+
+    public String collectorName(int code) {
+        return collectorNames.decode(code);
+    }
+
+    /**
+     * @return the dictionary code of the location name (0 when there is none),
+     *         below {@link #locationCodes()}
+     */
+    public int locationCode(int slot) {
+        return locations[slot];
+    }
+
+    public int locationCodes() {
+        return locationNames.size();
+    }
+
+    public String locationName(int code) {
+        return locationNames.decode(code);
+    }
+
+    public String description(int slot) {
+        return descriptions.get(slot);
+    }
+
+    /**
+     * @return approximate bytes used by the columns on the heap
+     */
+    public long heapBytes() {
+        // ID, type, day, coordinates, two codes, text offset and length, hash table and bitmap
+        return (long) capacity * (16 + 1 + 4 + 16 + 8 + 8) + (long) index.length * 4 + (long) live.length * 8;
+    }
+
+    /**
+     * @return bytes reserved outside the heap for descriptions
+     */
+    public long offHeapBytes() {
+        return descriptions.offHeapBytes();
+    }
+
+    private int words() {
+        return (slots + 63) >>> 6;
+    }
+
+    private void retainCodes(long[] mask, int[] codes, boolean[] accepted) {
+        for (int w = 0; w < mask.length; w++) {
+            if (mask[w] == 0) {
+                continue;
+            }
+            int base = w << 6;
+            int end = Math.min(64, slots - base);
+            long bits = 0;
+            for (int b = 0; b < end; b++) {
+                bits |= (accepted[codes[base + b]] ? 1L : 0L) << b;
+            }
+            mask[w] &= bits;
+        }
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slots == capacity) {
+            resize(capacity * 2);
+        }
+        return slots++;
+    }
+
+    private void resize(int newCapacity) {
+        capacity = newCapacity;
+        live = live == null ? new long[newCapacity >>> 6] : Arrays.copyOf(live, newCapacity >>> 6);
+        idHigh = idHigh == null ? new long[newCapacity] : Arrays.copyOf(idHigh, newCapacity);
+        idLow = idLow == null ? new long[newCapacity] : Arrays.copyOf(idLow, newCapacity);
+        types = types == null ? new byte[newCapacity] : Arrays.copyOf(types, newCapacity);
+        days = days == null ? new int[newCapacity] : Arrays.copyOf(days, newCapacity);
+        latitudes = latitudes == null ? new double[newCapacity] : Arrays.copyOf(latitudes, newCapacity);
+        longitudes = longitudes == null ? new double[newCapacity] : Arrays.copyOf(longitudes, newCapacity);
+        collectors = collectors == null ? new int[newCapacity] : Arrays.copyOf(collectors, newCapacity);
+        locations = locations == null ? new int[newCapacity] : Arrays.copyOf(locations, newCapacity);
+        // Keep the hash table at most half full
+        index = new int[newCapacity * 2];
+        for (int slot = next(live, 0); slot >= 0; slot = next(live, slot + 1)) {
+            insertIndex(slot);
+        }
+    }
+
+    private static int hash(long high, long low) {
+        long h = (high ^ Long.rotateLeft(low, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32);
+    }
+
+    private int find(long high, long low) {
+        int mask = index.length - 1;
+        for (int i = hash(high, low) & mask; ; i = (i + 1) & mask) {
+            int entry = index[i];
+            if (entry == 0) {
+                return -1;
+            }
+            int slot = entry - 1;
+            if (idHigh[slot] == high && idLow[slot] == low) {
+                return slot;
+            }
+        }
+    }
+
+    private void insertIndex(int slot) {
+        int mask = index.length - 1;
+        int i = hash(idHigh[slot], idLow[slot]) & mask;
+        while (index[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        index[i] = slot + 1;
+    }
+
+    /**
+     * Remove a slot from the hash table, shifting later entries of the probe
+     * sequence back so that lookups never stop early.
+     */
+    private void deleteIndex(int slot) {
+        int mask = index.length - 1;
+        int i = hash(idHigh[slot], idLow[slot]) & mask;
+        while (index[i] != slot + 1) {
+            i = (i + 1) & mask;
+        }
+        for (int j = (i + 1) & mask; index[j] != 0; j = (j + 1) & mask) {
+            int other = index[j] - 1;
+            int home = hash(idHigh[other], idLow[other]) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                index[i] = index[j];
+                i = j;
+            }
+        }
+        index[i] = 0;
+    }
+}
@@ -0,0 +1,128 @@
+package com.geoscience.sampleapi.columnar;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Off-heap storage for a long text column, such as sample descriptions.
+ *
+ * Texts are stored as UTF-8 in one direct buffer, outside the Java heap, and
+ * each slot records the offset and length of its text. Replacing or removing a
+ * text leaves the old bytes as garbage. The garbage is dropped the next time
+ * the buffer has to grow, when live texts are copied into a new buffer.
+ *
+ * Searching works on the stored bytes, so it never creates strings.
+ */
+final class TextArena {
+
+    private static final int MIN_CAPACITY = 64 * 1024;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(MIN_CAPACITY);
+    private int position;
+    private int[] offsets = new int[0];
+    private int[] lengths = new int[0];
+
+    /**
+     * Store the text of a slot, replacing any previous text.
+     *
+     * @param text the text; null removes it
+     */
+    void set(int slot, String text) {
+        if (slot >= lengths.length) {
+            int capacity = Math.max(slot + 1, lengths.length * 2);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        lengths[slot] = 0;
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (buffer.capacity() - position < utf8.length) {
+            compact(utf8.length);
+        }
+        buffer.put(position, utf8);
+        offsets[slot] = position;
+        lengths[slot] = utf8.length;
+        position += utf8.length;
+    }
+
+    /**
+     * @return the text of a slot, or null if it has none
+     */
+    String get(int slot) {
+        if (slot >= lengths.length || lengths[slot] == 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[lengths[slot]];
+        buffer.get(offsets[slot], utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Test whether the text of a slot contains a byte sequence, ignoring the
+     * case of ASCII letters.
+     *
+     * @param lowerNeedle the UTF-8 bytes to look for, with ASCII letters in lower case
+     */
+    boolean containsIgnoreAsciiCase(int slot, byte[] lowerNeedle) {
+        if (slot >= lengths.length) {
+            return false;
+        }
+        int offset = offsets[slot];
+        int last = offset + lengths[slot] - lowerNeedle.length;
+        byte first = lowerNeedle[0];
+        for (int i = offset; i <= last; i++) {
+            if (lower(buffer.get(i)) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < lowerNeedle.length && lower(buffer.get(i + j)) == lowerNeedle[j]) {
+                j++;
+            }
+            if (j == lowerNeedle.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return bytes reserved outside the heap
+     */
+    long offHeapBytes() {
+        return buffer.capacity();
+    }
+
+    private static byte lower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    /**
+     * Copy the live texts into a new buffer with room for {@code needed} more
+     * bytes and about 50% headroom.
+     */
+    private void compact(int needed) {
+        long live = 0;
+        for (int length : lengths) {
+            live += length;
+        }
+        long wanted = Math.max(MIN_CAPACITY, (live + needed) * 3 / 2);
+        if (live + needed > MAX_CAPACITY) {
+            throw new IllegalStateException("Text column exceeds " + MAX_CAPACITY + " bytes");
+        }
+        ByteBuffer next = ByteBuffer.allocateDirect((int) Math.min(MAX_CAPACITY, wanted));
+        int nextPosition = 0;
+        for (int slot = 0; slot < lengths.length; slot++) {
+            if (lengths[slot] > 0) {
+                next.put(nextPosition, buffer, offsets[slot], lengths[slot]);
+                offsets[slot] = nextPosition;
+                nextPosition += lengths[slot];
+            }
+        }
+        buffer = next;
+        position = nextPosition;
+    }
+}
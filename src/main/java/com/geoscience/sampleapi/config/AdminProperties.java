@@ -0,0 +1,18 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the operational endpoints under {@code /api/v1/admin}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.admin")
+public class AdminProperties {
+
+    /**
+     * Shared secret expected in the {@code X-Admin-Token} header. When empty,
+     * all admin endpoints are disabled.
+     */
+    private String token = "";
+}
@@ -0,0 +1,39 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for batch analytics ({@code /api/v1/samples/analytics}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.analytics")
+public class AnalyticsProperties {
+
+    /**
+     * Worker threads for analytics queries; 0 uses the common fork/join pool
+     * (one thread per core).
+     */
+    private int parallelism = 0;
+
+    /**
+     * Most query points accepted in one nearest-neighbour request.
+     */
+    private int maxPoints = 100_000;
+
+    /**
+     * Most neighbours that may be requested per query point.
+     */
+    private int maxNeighbors = 100;
+
+    /**
+     * Query points answered per streamed chunk; results of a chunk are
+     * written and flushed before the next chunk is computed.
+     */
+    private int chunkSize = 1024;
+
+    /**
+     * Largest density grid (rows times columns) that may be requested.
+     */
+    private int maxDensityCells = 1_000_000;
+}
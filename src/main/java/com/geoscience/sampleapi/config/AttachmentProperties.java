@@ -0,0 +1,31 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings for the content-addressed attachment store.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.attachments")
+public class AttachmentProperties {
+
+    /**
+     * Directory holding attachment content, one file per distinct SHA-256.
+     */
+    private String directory = "./data/attachments";
+
+    /**
+     * Largest accepted upload.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(100);
+
+    /**
+     * Partial uploads older than this are treated as abandoned and removed by
+     * the garbage collector.
+     */
+    private Duration orphanGrace = Duration.ofHours(1);
+}
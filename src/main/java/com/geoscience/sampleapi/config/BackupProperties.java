@@ -0,0 +1,47 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Online backup, snapshot retention and restore-on-startup settings.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.backup")
+public class BackupProperties {
+
+    public static final String PREFIX = "app.backup";
+
+    /**
+     * Directory that receives snapshot files.
+     */
+    private String directory = "./data/backups";
+
+    /**
+     * Cron expression for scheduled backups; "-" disables the schedule.
+     */
+    private String cron = "-";
+
+    /**
+     * Number of snapshots kept; older ones are deleted after each backup.
+     */
+    private int retain = 7;
+
+    /**
+     * Database pages copied per backup step.
+     */
+    private int pagesPerStep = 256;
+
+    /**
+     * Pause between backup steps so the copy does not saturate disk I/O.
+     */
+    private Duration stepPause = Duration.ofMillis(20);
+
+    /**
+     * Snapshot file copied into place on startup when the database file does
+     * not exist yet (e.g. a fresh pod volume).
+     */
+    private String restoreFrom = "";
+}
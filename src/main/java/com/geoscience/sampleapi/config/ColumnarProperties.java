@@ -0,0 +1,30 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the in-memory columnar copy of the catalogue that serves the
+ * stats and filter endpoints ({@code /api/v1/samples/analytics}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.columnar")
+public class ColumnarProperties {
+
+    /**
+     * Keep the columnar copy. It costs about 100 bytes of heap plus the
+     * description text (off-heap) per sample; when disabled, the stats and
+     * filter endpoints return {@code 404}.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Largest page of samples a filter request may ask for.
+     */
+    private int maxResults = 1000;
+
+    /**
+     * Samples reloaded from the database per query when applying changes.
+     */
+    private int reloadBatchSize = 500;
+}
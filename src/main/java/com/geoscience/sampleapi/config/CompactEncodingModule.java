@@ -0,0 +1,114 @@
+package com.geoscience.sampleapi.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.geoscience.sampleapi.model.GeologicalSample;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Schema-stable encodings for the binary wire formats (CBOR and Smile).
+ *
+ * Values are written as plain integers so that payloads stay small and do not
+ * depend on enum names or date formatting:
+ * <ul>
+ *   <li>{@link LocalDate} as days since 1970-01-01;</li>
+ *   <li>{@link LocalDateTime} as milliseconds since 1970-01-01T00:00, read as
+ *   a UTC wall-clock time (the value carries no zone);</li>
+ *   <li>{@link GeologicalSample.SampleType} as its fixed
+ *   {@link GeologicalSample.SampleType#getCode() code}.</li>
+ * </ul>
+ * UUIDs need no help: both formats write them as 16-byte binary values.
+ *
+ * Readers also accept the JSON representations (ISO strings and enum names)
+ * so that clients can migrate field by field.
+ */
+public class CompactEncodingModule extends SimpleModule {
+
+    public CompactEncodingModule() {
+        super("CompactEncodingModule");
+        addSerializer(LocalDate.class, new LocalDateSerializer());
+        addDeserializer(LocalDate.class, new LocalDateDeserializer());
+        addSerializer(LocalDateTime.class, new LocalDateTimeSerializer());
+        addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer());
+        addSerializer(GeologicalSample.SampleType.class, new SampleTypeSerializer());
+        addDeserializer(GeologicalSample.SampleType.class, new SampleTypeDeserializer());
+    }
+
+    static class LocalDateSerializer extends JsonSerializer<LocalDate> {
+        @Override
+        public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.toEpochDay());
+        }
+    }
+
+    static class LocalDateDeserializer extends JsonDeserializer<LocalDate> {
+        @Override
+        public LocalDate deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                return LocalDate.ofEpochDay(parser.getLongValue());
+            }
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                return LocalDate.parse(parser.getText());
+            }
+            return (LocalDate) context.handleUnexpectedToken(LocalDate.class, parser);
+        }
+    }
+
+    static class LocalDateTimeSerializer extends JsonSerializer<LocalDateTime> {
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+    }
+
+    static class LocalDateTimeDeserializer extends JsonDeserializer<LocalDateTime> {
+        @Override
+        public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(parser.getLongValue()), ZoneOffset.UTC);
+            }
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                return LocalDateTime.parse(parser.getText());
+            }
+            return (LocalDateTime) context.handleUnexpectedToken(LocalDateTime.class, parser);
+        }
+    }
+
+    static class SampleTypeSerializer extends JsonSerializer<GeologicalSample.SampleType> {
+        @Override
+        public void serialize(GeologicalSample.SampleType value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeNumber(value.getCode());
+        }
+    }
+
+    static class SampleTypeDeserializer extends JsonDeserializer<GeologicalSample.SampleType> {
+        @Override
+        public GeologicalSample.SampleType deserialize(JsonParser parser, DeserializationContext context)
+                throws IOException {
+            try {
+                if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                    return GeologicalSample.SampleType.fromCode(parser.getIntValue());
+                }
+                if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                    return GeologicalSample.SampleType.valueOf(parser.getText());
+                }
+            } catch (IllegalArgumentException e) {
+                return (GeologicalSample.SampleType) context.handleWeirdStringValue(
+                        GeologicalSample.SampleType.class, parser.getText(), e.getMessage());
+            }
+            return (GeologicalSample.SampleType) context.handleUnexpectedToken(GeologicalSample.SampleType.class, parser);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the background compactor that purges deleted samples and
+ * returns free pages to the file system.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.compaction")
+public class CompactionProperties {
+
+    /**
+     * Whether the compactor runs on its schedule ({@code app.compaction.interval}).
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long soft-deleted samples are kept before they are purged.
+     */
+    private Duration purgeAfter = Duration.ofDays(7);
+
+    /**
+     * Number of rows purged per transaction.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Pause between purge transactions, so regular writes can interleave.
+     */
+    private Duration batchPause = Duration.ofMillis(50);
+
+    /**
+     * Maximum free pages released per run by {@code PRAGMA incremental_vacuum}.
+     */
+    private int vacuumPagesPerRun = 4096;
+}
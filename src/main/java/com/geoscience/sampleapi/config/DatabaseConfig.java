@@ -1,17 +1,105 @@
 package com.geoscience.sampleapi.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
 
 /**
  * Database configuration for SQLite.
- * 
- * The SQLite dialect is configured in application.yml.
- * This class serves as a placeholder for any future database-specific
- * configuration that may be needed.
+ *
+ * The SQLite dialect and connection pragmas are configured in application.yml.
+ * This class resolves the database file behind the JDBC URL and, when
+ * {@code app.backup.restore-from} is set, seeds a missing database file from
+ * a snapshot before the DataSource is first used. {@link PartitionConfig}
+ * puts the routing DataSource of partitioned storage in front of the main one.
  */
 @Configuration
 public class DatabaseConfig {
-    // Database configuration is handled via application.yml
-    // SQLite dialect is automatically detected by Hibernate
-}
 
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
+
+    private static final String SQLITE_URL_PREFIX = "jdbc:sqlite:";
+
+    @Bean
+    public static BeanPostProcessor snapshotRestorer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource) {
+                    restoreIfMissing(environment);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Resolve the database file referenced by a SQLite JDBC URL.
+     *
+     * @param jdbcUrl the JDBC URL, e.g. {@code jdbc:sqlite:./data/samples.db}
+     * @return the database file, or empty for in-memory and non-SQLite URLs
+     */
+    public static Optional<Path> resolveDatabaseFile(String jdbcUrl) {
+        if (jdbcUrl == null || !jdbcUrl.startsWith(SQLITE_URL_PREFIX)) {
+            return Optional.empty();
+        }
+        String location = jdbcUrl.substring(SQLITE_URL_PREFIX.length());
+        int query = location.indexOf('?');
+        if (query >= 0) {
+            location = location.substring(0, query);
+        }
+        if (location.startsWith("file:")) {
+            location = location.substring("file:".length());
+        }
+        if (location.isEmpty() || location.contains(":memory:")) {
+            return Optional.empty();
+        }
+        return Optional.of(Paths.get(location).toAbsolutePath().normalize());
+    }
+
+    private static void restoreIfMissing(Environment environment) {
+        String restoreFrom = environment.getProperty(BackupProperties.PREFIX + ".restore-from", "");
+        if (!StringUtils.hasText(restoreFrom)) {
+            return;
+        }
+        Optional<Path> databaseFile = resolveDatabaseFile(environment.getProperty("spring.datasource.url"));
+        if (databaseFile.isEmpty()) {
+            logger.warn("Ignoring restore-from: datasource is not a file-backed SQLite database");
+            return;
+        }
+        Path target = databaseFile.get();
+        Path snapshot = Paths.get(restoreFrom).toAbsolutePath().normalize();
+        try {
+            if (Files.exists(target) && Files.size(target) > 0) {
+                logger.info("Database {} already exists, skipping restore from {}", target, snapshot);
+                return;
+            }
+            if (!Files.isRegularFile(snapshot)) {
+                throw new IllegalStateException("Snapshot to restore does not exist: " + snapshot);
+            }
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            Files.deleteIfExists(Paths.get(target + "-wal"));
+            Files.deleteIfExists(Paths.get(target + "-shm"));
+            Path partial = Paths.get(target + ".restoring");
+            Files.copy(snapshot, partial, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Restored database {} from snapshot {} ({} bytes)", target, snapshot, Files.size(target));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to restore database from snapshot " + snapshot, e);
+        }
+    }
+}
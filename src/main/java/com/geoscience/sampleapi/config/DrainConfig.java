@@ -0,0 +1,32 @@
+package com.geoscience.sampleapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geoscience.sampleapi.filter.InFlightRequestFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registers in-flight request tracking in front of the versioned API, ahead
+ * of admission control, so shutdown can drain requests (see
+ * {@link com.geoscience.sampleapi.service.GracefulDrain}).
+ */
+@Configuration
+public class DrainConfig {
+
+    @Bean
+    public InFlightRequestFilter inFlightRequestFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new InFlightRequestFilter(objectMapper, meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<InFlightRequestFilter> inFlightRequestFilterRegistration(
+            InFlightRequestFilter filter) {
+        FilterRegistrationBean<InFlightRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
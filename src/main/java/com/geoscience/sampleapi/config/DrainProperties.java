@@ -0,0 +1,27 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for draining the API on shutdown (rolling deploys).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.drain")
+public class DrainProperties {
+
+    /**
+     * How long requests are still served after readiness turns to failing,
+     * so that load balancers stop routing to the instance before it starts
+     * turning requests away.
+     */
+    private Duration readinessDelay = Duration.ZERO;
+
+    /**
+     * Longest wait for in-flight API requests to finish. Requests arriving
+     * meanwhile are rejected with {@code 503} and {@code Connection: close}.
+     */
+    private Duration timeout = Duration.ofSeconds(30);
+}
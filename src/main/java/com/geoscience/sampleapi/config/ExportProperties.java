@@ -0,0 +1,18 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the columnar export ({@code /api/v1/samples/export}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.export")
+public class ExportProperties {
+
+    /**
+     * Rows per Parquet row group or Arrow record batch; also bounds the
+     * memory an export holds at a time.
+     */
+    private int batchSize = 65536;
+}
@@ -0,0 +1,47 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings for the background health sampler behind {@code /healthcheck/ready}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.health")
+public class HealthProperties {
+
+    /**
+     * Pause between two health samples.
+     */
+    private Duration interval = Duration.ofSeconds(5);
+
+    /**
+     * A snapshot older than this counts as a failure, so a stuck sampler
+     * cannot keep an instance ready.
+     */
+    private Duration staleAfter = Duration.ofSeconds(30);
+
+    /**
+     * Longest acceptable wait for the SQLite write lock.
+     */
+    private Duration maxWriteLockWait = Duration.ofSeconds(1);
+
+    /**
+     * Most threads that may be waiting for a pooled connection.
+     */
+    private int maxPoolWaiting = 5;
+
+    /**
+     * Least free space on the volume holding the database.
+     */
+    private DataSize minFreeDisk = DataSize.ofMegabytes(256);
+
+    /**
+     * Write-behind queue fill ratio (0-1) at which the instance stops
+     * reporting ready.
+     */
+    private double maxWriteQueueFill = 0.9;
+}
@@ -0,0 +1,25 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the sample revision history
+ * ({@code GET /api/v1/samples/{id}/history} and {@code ?asOf=}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.history")
+public class HistoryProperties {
+
+    /**
+     * Every revision whose number is a multiple of this also stores the full
+     * state of the sample. Reconstructing a past state applies at most this
+     * many deltas; smaller values trade more storage for faster lookups.
+     */
+    private int snapshotInterval = 16;
+
+    /**
+     * Most revisions returned by one history request, newest first.
+     */
+    private int maxRevisions = 1000;
+}
@@ -0,0 +1,66 @@
+package com.geoscience.sampleapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geoscience.sampleapi.partition.PartitionRoutingDataSource;
+import com.geoscience.sampleapi.repository.SampleRepository;
+import com.geoscience.sampleapi.repository.SampleRevisionRepository;
+import com.geoscience.sampleapi.repository.SampleTombstoneRepository;
+import com.geoscience.sampleapi.service.PartitionedSampleService;
+import com.geoscience.sampleapi.service.SampleHistoryService;
+import com.geoscience.sampleapi.service.SamplePartitions;
+import com.geoscience.sampleapi.service.SampleService;
+import com.geoscience.sampleapi.service.StorageInventoryService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.validation.Validator;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Puts a {@link PartitionRoutingDataSource} in front of the main database,
+ * so JPA, JdbcTemplate and Flyway reach the partition bound to the current
+ * thread, and picks the sample service for the configured storage. The main
+ * pool is built from {@code spring.datasource} exactly as Spring Boot would
+ * build it.
+ *
+ * Both are registered whether or not partitioned storage is enabled, and the
+ * choice is made when the beans are created: an AOT-processed build fixes
+ * its bean definitions at build time, so conditions on
+ * {@code app.partitions.enabled} would ignore the runtime setting. Without
+ * partitions the routing DataSource always hands out main connections.
+ */
+@Configuration
+public class PartitionConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource mainDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public PartitionRoutingDataSource dataSource(HikariDataSource mainDataSource) {
+        return new PartitionRoutingDataSource(mainDataSource);
+    }
+
+    @Bean
+    public SampleService sampleService(SampleRepository sampleRepository, SampleTombstoneRepository tombstoneRepository,
+                                       SampleHistoryService historyService, StorageInventoryService inventory,
+                                       SpatialProperties spatialProperties, SyncProperties syncProperties,
+                                       ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+                                       Validator validator, SamplePartitions partitions,
+                                       PartitionProperties partitionProperties,
+                                       SampleRevisionRepository revisionRepository) {
+        if (partitionProperties.isEnabled()) {
+            return new PartitionedSampleService(sampleRepository, tombstoneRepository, historyService, inventory,
+                    spatialProperties, syncProperties, eventPublisher, objectMapper, validator, partitions,
+                    partitionProperties, revisionRepository);
+        }
+        return new SampleService(sampleRepository, tombstoneRepository, historyService, inventory,
+                spatialProperties, syncProperties, eventPublisher, objectMapper, validator);
+    }
+}
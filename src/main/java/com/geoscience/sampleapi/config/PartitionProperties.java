@@ -0,0 +1,56 @@
+package com.geoscience.sampleapi.config;
+
+import com.geoscience.sampleapi.partition.PartitionKey;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for partitioned storage, which keeps samples in one SQLite file
+ * per partition instead of the main database (see
+ * {@link com.geoscience.sampleapi.service.SamplePartitions}).
+ */
+@Data
+@ConfigurationProperties(prefix = PartitionProperties.PREFIX)
+public class PartitionProperties {
+
+    public static final String PREFIX = "app.partitions";
+
+    /**
+     * Store samples in partition files. Samples already in the main database
+     * are not moved and are no longer served once this is switched on.
+     */
+    private boolean enabled = false;
+
+    /**
+     * How samples are assigned to partitions. Changing it only affects new
+     * samples; existing partitions keep their contents and stay readable.
+     */
+    private PartitionKey key = PartitionKey.COLLECTION_YEAR;
+
+    /**
+     * Cell size in degrees for {@link PartitionKey#GRID_CELL}.
+     */
+    private double gridDegrees = 10.0;
+
+    /**
+     * Directory holding the partition files ({@code samples-<partition>.db}).
+     */
+    private String directory = "./data/partitions";
+
+    /**
+     * Most connections per partition file; idle connections are closed, so
+     * partitions that are not in use hold no open files.
+     */
+    private int poolSize = 4;
+
+    /**
+     * Threads querying partitions in parallel; 0 = one per core.
+     */
+    private int readThreads = 0;
+
+    /**
+     * Writes that may wait for a partition's writer thread before new writes
+     * to that partition are rejected with {@code 503}.
+     */
+    private int writeQueueCapacity = 1000;
+}
@@ -0,0 +1,48 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings for on-demand Flight Recorder recordings
+ * ({@code /api/v1/admin/recordings}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.profiling")
+public class ProfilingProperties {
+
+    /**
+     * Directory that receives the recording files.
+     */
+    private String directory = "./data/recordings";
+
+    /**
+     * Length of a recording when the request does not give one.
+     */
+    private Duration defaultDuration = Duration.ofMinutes(1);
+
+    /**
+     * Longest recording that may be requested.
+     */
+    private Duration maxDuration = Duration.ofMinutes(10);
+
+    /**
+     * Size cap of a recording; the oldest data is dropped beyond it.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(100);
+
+    /**
+     * Built-in JFR settings used when the request does not name any:
+     * "default" (about 1% overhead) or "profile" (more detail, about 2%).
+     */
+    private String settings = "default";
+
+    /**
+     * Number of finished recordings kept; older ones are deleted when a new
+     * recording starts.
+     */
+    private int retain = 5;
+}
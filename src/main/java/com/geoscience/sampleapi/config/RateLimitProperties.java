@@ -0,0 +1,103 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Admission control settings for the samples API.
+ *
+ * Reads and writes are budgeted separately per client using token buckets,
+ * and write paths are additionally guarded by an adaptive concurrency limit
+ * so that bursts of bulk writes cannot starve interactive readers.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Master switch for per-client rate limiting and write load-shedding.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Request header identifying the calling client. Only honoured on
+     * requests from a {@link #trustedProxies trusted proxy}; other clients
+     * are identified by their remote address.
+     */
+    private String clientHeader = "X-Client-Id";
+
+    /**
+     * Remote addresses (e.g. the API gateway) allowed to name the client in
+     * {@link #clientHeader}. Empty: the header is ignored.
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+
+    /**
+     * Client buckets idle for longer than this are evicted.
+     */
+    private Duration clientIdleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Upper bound on tracked clients. When it is reached and no bucket is
+     * idle, new clients share a single overflow budget.
+     */
+    private int maxClients = 10_000;
+
+    private Bucket read = new Bucket(200, 100);
+
+    private Bucket write = new Bucket(20, 10);
+
+    private WriteConcurrency writeConcurrency = new WriteConcurrency();
+
+    /**
+     * Token bucket budget: burst capacity and steady-state refill rate.
+     */
+    @Data
+    public static class Bucket {
+        private long capacity;
+        private double refillPerSecond;
+
+        public Bucket() {
+        }
+
+        public Bucket(long capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+
+    /**
+     * Adaptive concurrency limit applied to write requests.
+     */
+    @Data
+    public static class WriteConcurrency {
+        private boolean enabled = true;
+        private int initialLimit = 4;
+        private int minLimit = 1;
+        private int maxLimit = 8;
+
+        /**
+         * Maximum number of writes allowed to wait for a permit.
+         */
+        private int maxQueue = 32;
+
+        /**
+         * Longest a write may wait for a permit before being shed.
+         */
+        private Duration maxQueueWait = Duration.ofSeconds(2);
+
+        /**
+         * Writes slower than this shrink the limit; faster ones grow it.
+         */
+        private Duration latencyTarget = Duration.ofMillis(250);
+
+        /**
+         * Value of the Retry-After header on shed writes.
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,12 @@
+package com.geoscience.sampleapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs such as periodic backups.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,33 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for precomputed spatial keys, proximity and area search.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.spatial")
+public class SpatialProperties {
+
+    /**
+     * Whether rows without spatial keys are backfilled in the background on startup.
+     */
+    private boolean backfillOnStartup = true;
+
+    /**
+     * Number of rows updated per backfill transaction.
+     */
+    private int backfillBatchSize = 500;
+
+    /**
+     * Maximum number of key ranges (index range scans) per proximity query.
+     * Fewer ranges mean fewer queries but more rows filtered in memory.
+     */
+    private int maxCoverRanges = 16;
+
+    /**
+     * Largest number of vertices accepted in an area search polygon.
+     */
+    private int maxPolygonVertices = 100_000;
+}
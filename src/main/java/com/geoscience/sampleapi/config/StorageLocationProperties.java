@@ -0,0 +1,22 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the storage-location inventory.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.storage-locations")
+public class StorageLocationProperties {
+
+    /**
+     * Whether rows without a storage path are backfilled in the background on startup.
+     */
+    private boolean backfillOnStartup = true;
+
+    /**
+     * Number of rows updated per backfill transaction.
+     */
+    private int backfillBatchSize = 500;
+}
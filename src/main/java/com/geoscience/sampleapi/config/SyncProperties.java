@@ -0,0 +1,40 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for incremental sync ({@code GET /api/v1/samples/sync}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.sync")
+public class SyncProperties {
+
+    /**
+     * Changes newer than this are held back until the next sync. Modification
+     * times are assigned before a transaction commits, so a change that is
+     * still being written could otherwise end up behind a client's cursor.
+     * Must exceed the longest write transaction, including the busy timeout.
+     */
+    private Duration settleWindow = Duration.ofSeconds(10);
+
+    /**
+     * Changed samples (and, separately, deletions) returned per batch when
+     * the client does not ask for a size.
+     */
+    private int defaultBatchSize = 500;
+
+    /**
+     * Largest batch a client may ask for.
+     */
+    private int maxBatchSize = 2000;
+
+    /**
+     * How long deletions stay visible to sync clients. The compactor purges
+     * older tombstones, and clients that have not synced for longer get
+     * {@code 410 Gone} and must start over with a full sync.
+     */
+    private Duration tombstoneRetention = Duration.ofDays(90);
+}
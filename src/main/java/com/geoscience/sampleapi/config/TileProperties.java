@@ -0,0 +1,41 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for the Mapbox Vector Tile endpoint ({@code /api/v1/tiles}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.tiles")
+public class TileProperties {
+
+    /**
+     * Memory for rendered tiles (gzipped bytes plus the IDs used for
+     * invalidation); least recently used tiles are dropped first.
+     */
+    private DataSize cacheSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Highest zoom level served.
+     */
+    private int maxZoom = 20;
+
+    /**
+     * Tile coordinate range (MVT extent).
+     */
+    private int extent = 4096;
+
+    /**
+     * Extra margin around each tile, in tile coordinates, so that symbols of
+     * points just outside the tile are not cut off at its edge.
+     */
+    private int buffer = 64;
+
+    /**
+     * Points are merged into one feature (with a {@code count}) per cell of a
+     * grid this many cells wide, which bounds the size of low-zoom tiles.
+     */
+    private int clusterGrid = 256;
+}
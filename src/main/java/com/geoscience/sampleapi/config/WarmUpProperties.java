@@ -0,0 +1,36 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the warm-up that runs before the instance reports ready.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.warm-up")
+public class WarmUpProperties {
+
+    /**
+     * Run the warm-up; when disabled the instance is ready as soon as it has
+     * started.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Rounds of the main read paths (list, get by ID, nearby search, sync).
+     */
+    private int iterations = 100;
+
+    /**
+     * Readiness is reported after this long even if rounds are left.
+     */
+    private Duration maxDuration = Duration.ofSeconds(60);
+
+    /**
+     * Leading list pages cycled through, and so loaded into the cache when
+     * it is enabled.
+     */
+    private int pages = 10;
+}
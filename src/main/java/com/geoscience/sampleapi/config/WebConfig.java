@@ -1,24 +1,92 @@
 package com.geoscience.sampleapi.config;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geoscience.sampleapi.filter.AdminTokenInterceptor;
+import com.geoscience.sampleapi.filter.PartitionedStorageInterceptor;
+import com.geoscience.sampleapi.profiling.ProfilingMessageConverter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.resource.PathResourceResolver;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Web configuration for serving static frontend files.
  * 
  * This configuration allows Spring Boot to serve the React frontend
  * as static files and handles client-side routing by serving index.html
- * for all non-API routes.
+ * for all non-API routes. Admin endpoints are guarded by {@link AdminTokenInterceptor}.
+ * With partitioned storage, endpoints that only work on the main database
+ * are turned away by {@link PartitionedStorageInterceptor}.
+ * Besides JSON, API payloads can be exchanged as CBOR or Smile (see
+ * {@link CompactEncodingModule}). Reading and writing payloads is timed for
+ * Flight Recorder by {@link ProfilingMessageConverter}.
+ *
+ * The settings of both interceptors are registered here as well as by the
+ * application's properties scan, because {@code @WebMvcTest} slices load
+ * this class but skip the scan.
  */
 @Configuration
+@EnableConfigurationProperties({AdminProperties.class, PartitionProperties.class})
 public class WebConfig implements WebMvcConfigurer {
 
+    private final AdminProperties adminProperties;
+    private final PartitionProperties partitionProperties;
+    private final ObjectMapper objectMapper;
+
+    public WebConfig(AdminProperties adminProperties, PartitionProperties partitionProperties, ObjectMapper objectMapper) {
+        this.adminProperties = adminProperties;
+        this.partitionProperties = partitionProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdminTokenInterceptor(adminProperties, objectMapper))
+                .addPathPatterns("/api/v1/admin/**");
+        if (partitionProperties.isEnabled()) {
+            registry.addInterceptor(new PartitionedStorageInterceptor())
+                    .addPathPatterns(PartitionedStorageInterceptor.UNSUPPORTED_PATHS);
+        }
+    }
+
+    /**
+     * Swap Spring's default binary converters (registered whenever the format
+     * libraries are present) for ones using the compact encoding. They stay
+     * behind the JSON converter, so JSON remains the default for clients that
+     * do not ask for anything else. All Jackson converters are then wrapped
+     * to emit serialization events while a recording is running.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(compactMapper(Jackson2ObjectMapperBuilder.cbor())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(compactMapper(Jackson2ObjectMapperBuilder.smile())));
+        converters.replaceAll(converter -> converter instanceof AbstractJackson2HttpMessageConverter jackson
+                ? new ProfilingMessageConverter(jackson)
+                : converter);
+    }
+
+    private static ObjectMapper compactMapper(Jackson2ObjectMapperBuilder builder) {
+        // Null fields are omitted: absent and null mean the same to every reader
+        return builder.serializationInclusion(JsonInclude.Include.NON_NULL)
+                .postConfigurer(mapper -> mapper.registerModule(new CompactEncodingModule()))
+                .build();
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Serve static files from /static/ directory
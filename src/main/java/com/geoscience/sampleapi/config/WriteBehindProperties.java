@@ -0,0 +1,40 @@
+package com.geoscience.sampleapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for accepted-async sample creation (write-behind queue).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.write-behind")
+public class WriteBehindProperties {
+
+    /**
+     * Whether clients may request async creation with {@code Prefer: respond-async}.
+     * When disabled, such requests are processed synchronously.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of queued samples; further submissions are rejected with 503.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Maximum number of samples committed in one transaction.
+     */
+    private int maxBatchSize = 500;
+
+    /**
+     * How long the writer waits for more samples before committing a partial batch.
+     */
+    private Duration maxBatchDelay = Duration.ofMillis(20);
+
+    /**
+     * How long completed tickets remain queryable.
+     */
+    private Duration ticketRetention = Duration.ofMinutes(15);
+}
@@ -0,0 +1,54 @@
+package com.geoscience.sampleapi.controller;
+
+import com.geoscience.sampleapi.dto.BackupSnapshotResponse;
+import com.geoscience.sampleapi.service.BackupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Admin endpoints for online database backups.
+ *
+ * Requires the {@code X-Admin-Token} header.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/backups")
+public class BackupController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackupController.class);
+    private final BackupService backupService;
+
+    public BackupController(BackupService backupService) {
+        this.backupService = backupService;
+    }
+
+    /**
+     * Take a consistent snapshot while the API keeps serving traffic.
+     *
+     * @return the snapshot metadata with 201 status, or 409 if a backup is running
+     */
+    @PostMapping
+    public ResponseEntity<BackupSnapshotResponse> createBackup() {
+        logger.info("POST /api/v1/admin/backups - Starting online backup");
+        BackupSnapshotResponse response = backupService.createSnapshot();
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * List retained snapshots, newest first.
+     *
+     * @return list of snapshots with 200 status
+     */
+    @GetMapping
+    public ResponseEntity<List<BackupSnapshotResponse>> listBackups() {
+        logger.info("GET /api/v1/admin/backups - Listing backup snapshots");
+        return ResponseEntity.ok(backupService.listSnapshots());
+    }
+}
@@ -0,0 +1,42 @@
+package com.geoscience.sampleapi.controller;
+
+import com.geoscience.sampleapi.dto.VacuumConversionResponse;
+import com.geoscience.sampleapi.service.SampleCompactor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Admin endpoints for database compaction.
+ *
+ * Requires the {@code X-Admin-Token} header.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/compaction")
+public class CompactionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactionController.class);
+    private final SampleCompactor compactor;
+
+    public CompactionController(SampleCompactor compactor) {
+        this.compactor = compactor;
+    }
+
+    /**
+     * Convert the database files to incremental auto-vacuum, once, so that
+     * the scheduled compaction can release free pages. Blocks writes to each
+     * file while it is rewritten.
+     *
+     * @return one entry per database file with 200 status
+     */
+    @PostMapping("/convert-to-incremental")
+    public ResponseEntity<List<VacuumConversionResponse>> convertToIncremental() {
+        logger.info("POST /api/v1/admin/compaction/convert-to-incremental - Converting to incremental auto-vacuum");
+        return ResponseEntity.ok(compactor.convertToIncremental());
+    }
+}
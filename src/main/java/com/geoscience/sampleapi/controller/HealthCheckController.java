@@ -1,7 +1,10 @@
 package com.geoscience.sampleapi.controller;
 
+import com.geoscience.sampleapi.dto.HealthSnapshot;
+import com.geoscience.sampleapi.service.HealthSampler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -11,15 +14,25 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Health check endpoint for monitoring and load balancer health checks.
- * 
- * Provides a simple endpoint to verify the API is running and responsive.
+ * Health check endpoints for monitoring, load balancers and Kubernetes probes.
+ *
+ * {@code /healthcheck/live} and {@code /healthcheck/ready} never query the
+ * database; readiness is served from the snapshot kept by {@link HealthSampler}.
  */
 @RestController
 public class HealthCheckController {
 
     private static final Logger logger = LoggerFactory.getLogger(HealthCheckController.class);
 
+    private static final Map<String, String> LIVE = Map.of("status", HealthSnapshot.UP);
+    private static final Map<String, String> NOT_LIVE = Map.of("status", HealthSnapshot.DOWN);
+
+    private final HealthSampler healthSampler;
+
+    public HealthCheckController(HealthSampler healthSampler) {
+        this.healthSampler = healthSampler;
+    }
+
     @GetMapping("/healthcheck")
     public ResponseEntity<Map<String, Object>> healthCheck() {
         logger.debug("Health check endpoint called");
@@ -29,5 +42,25 @@ public class HealthCheckController {
         response.put("service", "Geological Sample Management API");
         return ResponseEntity.ok(response);
     }
-}
 
+    /**
+     * Liveness: 200 while the process is working, 503 once it is broken.
+     */
+    @GetMapping("/healthcheck/live")
+    public ResponseEntity<Map<String, String>> live() {
+        return healthSampler.isLive()
+                ? ResponseEntity.ok(LIVE)
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(NOT_LIVE);
+    }
+
+    /**
+     * Readiness: 200 with the latest health snapshot when the instance should
+     * receive traffic, 503 with the reasons when it should not.
+     */
+    @GetMapping("/healthcheck/ready")
+    public ResponseEntity<HealthSnapshot> ready() {
+        HealthSnapshot snapshot = healthSampler.readiness();
+        HttpStatus status = HealthSnapshot.UP.equals(snapshot.getStatus()) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(snapshot);
+    }
+}
@@ -0,0 +1,128 @@
+package com.geoscience.sampleapi.controller;
+
+import com.geoscience.sampleapi.dto.RecordingResponse;
+import com.geoscience.sampleapi.service.ProfilingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Admin endpoints for on-demand Java Flight Recorder recordings.
+ *
+ * Requires the {@code X-Admin-Token} header.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/recordings")
+public class ProfilingController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfilingController.class);
+    private final ProfilingService profilingService;
+
+    public ProfilingController(ProfilingService profilingService) {
+        this.profilingService = profilingService;
+    }
+
+    /**
+     * Start a recording that stops by itself after the duration.
+     *
+     * @param duration how long to record, e.g. {@code 30s} or {@code PT2M} (optional)
+     * @param settings JFR settings, "default" or "profile" (optional)
+     * @return the recording with 201 status, 400 if the parameters are invalid,
+     *         or 409 if one is already running
+     */
+    @PostMapping
+    public ResponseEntity<RecordingResponse> startRecording(
+            @RequestParam(required = false) String duration,
+            @RequestParam(required = false) String settings) {
+        logger.info("POST /api/v1/admin/recordings - Starting recording (duration={}, settings={})",
+                duration, settings);
+        Duration length = duration == null ? null : DurationStyle.detectAndParse(duration);
+        RecordingResponse response = profilingService.start(length, settings);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * List recordings, newest first.
+     *
+     * @return list of recordings with 200 status
+     */
+    @GetMapping
+    public ResponseEntity<List<RecordingResponse>> listRecordings() {
+        logger.info("GET /api/v1/admin/recordings - Listing recordings");
+        return ResponseEntity.ok(profilingService.list());
+    }
+
+    /**
+     * Get a recording.
+     *
+     * @param id the recording ID
+     * @return the recording with 200 status, or 404 if not found
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<RecordingResponse> getRecording(@PathVariable long id) {
+        logger.info("GET /api/v1/admin/recordings/{} - Fetching recording", id);
+        return ResponseEntity.ok(profilingService.get(id));
+    }
+
+    /**
+     * Stop a recording before its duration is over.
+     *
+     * @param id the recording ID
+     * @return the stopped recording with 200 status, or 404 if not found
+     */
+    @PostMapping("/{id}/stop")
+    public ResponseEntity<RecordingResponse> stopRecording(@PathVariable long id) {
+        logger.info("POST /api/v1/admin/recordings/{}/stop - Stopping recording", id);
+        return ResponseEntity.ok(profilingService.stop(id));
+    }
+
+    /**
+     * Download the {@code .jfr} file of a stopped recording.
+     *
+     * @param id the recording ID
+     * @return the file with 200 status, 404 if not found, or 409 if still running
+     */
+    @GetMapping("/{id}/file")
+    public ResponseEntity<Resource> downloadRecording(@PathVariable long id) {
+        logger.info("GET /api/v1/admin/recordings/{}/file - Downloading recording", id);
+        Path file = profilingService.file(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(file.getFileName().toString())
+                        .build()
+                        .toString())
+                .body(new FileSystemResource(file));
+    }
+
+    /**
+     * Delete a recording and its file, stopping it first if it is running.
+     *
+     * @param id the recording ID
+     * @return 204 status, or 404 if not found
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRecording(@PathVariable long id) {
+        logger.info("DELETE /api/v1/admin/recordings/{} - Deleting recording", id);
+        profilingService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,158 @@
+package com.geoscience.sampleapi.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.geoscience.sampleapi.dto.DensityResponse;
+import com.geoscience.sampleapi.dto.NearestNeighborRequest;
+import com.geoscience.sampleapi.dto.NearestNeighborResult;
+import com.geoscience.sampleapi.dto.SampleFilter;
+import com.geoscience.sampleapi.dto.SampleFilterResponse;
+import com.geoscience.sampleapi.dto.SampleStatsResponse;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import com.geoscience.sampleapi.service.PartitionedSampleAnalytics;
+import com.geoscience.sampleapi.service.SampleAnalyticsService;
+import com.geoscience.sampleapi.service.SampleColumnStore;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * REST controller for batch geospatial analytics over the sample catalogue.
+ *
+ * Nearest-neighbour results are streamed as newline-delimited JSON, one line
+ * per query point, so clients can process them while later points are still
+ * being computed.
+ *
+ * Stats and filter queries are answered from the columnar copy of the
+ * catalogue when it is enabled ({@code COLUMNAR_ENABLED}), or from the
+ * partition files with partitioned storage ({@link PartitionedSampleAnalytics}).
+ */
+@RestController
+@RequestMapping("/api/v1/samples/analytics")
+public class SampleAnalyticsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleAnalyticsController.class);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final SampleAnalyticsService analyticsService;
+    private final SampleColumnStore columnStore;
+    private final PartitionedSampleAnalytics partitionedAnalytics;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter;
+
+    public SampleAnalyticsController(SampleAnalyticsService analyticsService, SampleColumnStore columnStore,
+                                     PartitionedSampleAnalytics partitionedAnalytics, ObjectMapper objectMapper) {
+        this.analyticsService = analyticsService;
+        this.columnStore = columnStore;
+        this.partitionedAnalytics = partitionedAnalytics;
+        this.objectMapper = objectMapper;
+        // Flushed once per chunk rather than after every line
+        this.lineWriter = objectMapper.writerFor(NearestNeighborResult.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Find the nearest samples to each of a batch of points.
+     *
+     * @param request the query points, {@code k}, and optional type and distance filters
+     * @return one JSON line per point, in request order, with 200 status
+     */
+    @PostMapping(value = "/nearest", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> findNearest(@Valid @RequestBody NearestNeighborRequest request) {
+        logger.info("POST /api/v1/samples/analytics/nearest - {} points, k={}",
+                request.getPoints().size(), request.getK());
+        // Validated before the response starts, so errors still get a status code
+        Iterator<List<NearestNeighborResult>> chunks = analyticsService.findNearest(request);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                while (chunks.hasNext()) {
+                    for (NearestNeighborResult result : chunks.next()) {
+                        lineWriter.writeValue(generator, result);
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * Count samples per grid cell (heatmap).
+     *
+     * @param cellDegrees cell size in degrees
+     * @param sampleType only count samples of this type
+     * @param minLat southern edge
+     * @param maxLat northern edge
+     * @param minLon western edge
+     * @param maxLon eastern edge
+     * @return the non-empty cells with 200 status
+     */
+    @GetMapping("/density")
+    public ResponseEntity<DensityResponse> density(
+            @RequestParam(defaultValue = "1.0") double cellDegrees,
+            @RequestParam(required = false) GeologicalSample.SampleType sampleType,
+            @RequestParam(defaultValue = "-90") double minLat,
+            @RequestParam(defaultValue = "90") double maxLat,
+            @RequestParam(defaultValue = "-180") double minLon,
+            @RequestParam(defaultValue = "180") double maxLon) {
+        logger.info("GET /api/v1/samples/analytics/density - {} degree cells", cellDegrees);
+        return ResponseEntity.ok(analyticsService.density(cellDegrees, sampleType, minLat, maxLat, minLon, maxLon));
+    }
+
+    /**
+     * Summary statistics over the samples matching a filter: counts by type,
+     * date and coordinate ranges, top collectors and locations, and a
+     * collection date histogram.
+     *
+     * @param filter optional criteria, see {@link SampleFilter}
+     * @param interval histogram period
+     * @param top number of collectors and locations to list
+     * @return the statistics with 200 status
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<SampleStatsResponse> stats(
+            SampleFilter filter,
+            @RequestParam(defaultValue = "YEAR") SampleStatsResponse.Interval interval,
+            @RequestParam(required = false) Integer top) {
+        logger.info("GET /api/v1/samples/analytics/stats - {}", filter);
+        if (partitionedAnalytics.isEnabled()) {
+            return ResponseEntity.ok(partitionedAnalytics.stats(filter, interval, top));
+        }
+        return ResponseEntity.ok(columnStore.stats(filter, interval, top));
+    }
+
+    /**
+     * List the samples matching a filter, one page at a time.
+     *
+     * @param filter optional criteria, see {@link SampleFilter}
+     * @param offset matching samples to skip
+     * @param limit page size
+     * @return the page and total number of matches with 200 status
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<SampleFilterResponse> filter(
+            SampleFilter filter,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "100") int limit) {
+        logger.info("GET /api/v1/samples/analytics/filter - {}, offset={}, limit={}", filter, offset, limit);
+        if (partitionedAnalytics.isEnabled()) {
+            return ResponseEntity.ok(partitionedAnalytics.filter(filter, offset, limit));
+        }
+        return ResponseEntity.ok(columnStore.filter(filter, offset, limit));
+    }
+}
@@ -0,0 +1,212 @@
+package com.geoscience.sampleapi.controller;
+
+import com.geoscience.sampleapi.dto.AttachmentResponse;
+import com.geoscience.sampleapi.service.AttachmentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST controller for files attached to a sample (photos, thin sections,
+ * instrument output).
+ *
+ * Uploads are sent as the raw request body and streamed to the attachment
+ * store. Downloads support single byte ranges and conditional requests on the
+ * content's SHA-256 (ETag). When the connector supports it, the file is
+ * handed to Tomcat's sendfile so the kernel copies it to the socket; otherwise
+ * it is written with {@link FileChannel#transferTo}.
+ */
+@RestController
+@RequestMapping("/api/v1/samples/{sampleId}/attachments")
+public class SampleAttachmentController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleAttachmentController.class);
+
+    // Request attributes of Tomcat's sendfile support (see org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AttachmentService attachmentService;
+
+    public SampleAttachmentController(AttachmentService attachmentService) {
+        this.attachmentService = attachmentService;
+    }
+
+    /**
+     * Upload an attachment as the raw request body.
+     *
+     * @param sampleId the sample's ID
+     * @param filename file name; defaults to the {@code Content-Disposition} file name
+     * @param request the request whose body is the file content
+     * @return the attachment's metadata with 201 status
+     */
+    @PostMapping
+    public ResponseEntity<AttachmentResponse> upload(
+            @PathVariable UUID sampleId,
+            @RequestParam(required = false) String filename,
+            HttpServletRequest request) throws IOException {
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.toLowerCase().startsWith("multipart/")) {
+            throw new IllegalArgumentException("Send the file as the raw request body, not as multipart form data");
+        }
+        if (filename == null && request.getHeader(HttpHeaders.CONTENT_DISPOSITION) != null) {
+            filename = ContentDisposition.parse(request.getHeader(HttpHeaders.CONTENT_DISPOSITION)).getFilename();
+        }
+        logger.info("POST /api/v1/samples/{}/attachments - Uploading {} ({} bytes)", sampleId, filename,
+                request.getContentLengthLong());
+        AttachmentResponse attachment = attachmentService.store(sampleId, filename, contentType,
+                request.getContentLengthLong(), request.getInputStream());
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/{attachmentId}")
+                .buildAndExpand(attachment.getId())
+                .toUri();
+        return ResponseEntity.created(location).eTag(attachment.getSha256()).body(attachment);
+    }
+
+    /**
+     * List the attachments of a sample.
+     *
+     * @param sampleId the sample's ID
+     * @return the attachments' metadata, oldest first
+     */
+    @GetMapping
+    public ResponseEntity<List<AttachmentResponse>> list(@PathVariable UUID sampleId) {
+        logger.info("GET /api/v1/samples/{}/attachments - Listing attachments", sampleId);
+        return ResponseEntity.ok(attachmentService.list(sampleId));
+    }
+
+    /**
+     * Download an attachment, or the byte range given in the {@code Range} header.
+     *
+     * @param sampleId the sample's ID
+     * @param attachmentId the attachment's ID
+     */
+    @GetMapping("/{attachmentId}")
+    public void download(@PathVariable UUID sampleId, @PathVariable UUID attachmentId,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.debug("GET /api/v1/samples/{}/attachments/{} - Range {}", sampleId, attachmentId,
+                request.getHeader(HttpHeaders.RANGE));
+        AttachmentService.StoredAttachment attachment = attachmentService.open(sampleId, attachmentId);
+        AttachmentResponse metadata = attachment.metadata();
+        String etag = "\"" + metadata.getSha256() + "\"";
+        long size = metadata.getSize();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        response.setContentType(metadata.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                .filename(metadata.getFileName(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+
+        long start = 0;
+        long length = size;
+        HttpRange range = requestedRange(request, etag);
+        if (range != null) {
+            if (size == 0 || range.getRangeStart(size) >= size) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+            start = range.getRangeStart(size);
+            long end = range.getRangeEnd(size);
+            length = end - start + 1;
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat sends the file after the request returns
+            request.setAttribute(SENDFILE_FILENAME, attachment.file().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(attachment.file(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long transferred = file.transferTo(position, end - position, out);
+                if (transferred == 0) {
+                    throw new IOException("Attachment file ended before byte " + end);
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    /**
+     * Delete an attachment.
+     *
+     * @param sampleId the sample's ID
+     * @param attachmentId the attachment's ID
+     * @return 204 No Content
+     */
+    @DeleteMapping("/{attachmentId}")
+    public ResponseEntity<Void> delete(@PathVariable UUID sampleId, @PathVariable UUID attachmentId) {
+        logger.info("DELETE /api/v1/samples/{}/attachments/{} - Deleting attachment", sampleId, attachmentId);
+        attachmentService.delete(sampleId, attachmentId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * The single range to serve, or null to serve the whole file: when there is
+     * no {@code Range} header, when {@code If-Range} does not match, or when the
+     * header is malformed or asks for several ranges.
+     */
+    private static HttpRange requestedRange(HttpServletRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (header == null || (ifRange != null && !ifRange.trim().equals(etag))) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
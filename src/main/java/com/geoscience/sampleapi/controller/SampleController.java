@@ -1,18 +1,40 @@
 package com.geoscience.sampleapi.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.geoscience.sampleapi.dto.NearbySampleResponse;
+import com.geoscience.sampleapi.dto.SampleBatchRequest;
+import com.geoscience.sampleapi.dto.SampleBulkPatchRequest;
+import com.geoscience.sampleapi.dto.SampleBulkPatchResponse;
 import com.geoscience.sampleapi.dto.SampleRequest;
 import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.dto.SampleRevisionResponse;
+import com.geoscience.sampleapi.dto.SyncResponse;
+import com.geoscience.sampleapi.dto.WriteTicketResponse;
+import com.geoscience.sampleapi.exception.ResourceNotFoundException;
 import com.geoscience.sampleapi.service.SampleService;
+import com.geoscience.sampleapi.service.SampleWriteQueue;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -20,31 +42,104 @@ import java.util.UUID;
  * 
  * Provides CRUD operations for managing geological samples with proper
  * HTTP verbs, status codes, and API versioning.
+ *
+ * Creation requests carrying {@code Prefer: respond-async} are queued for
+ * group commit and answered with 202 Accepted and a write ticket that can be
+ * polled at {@code /api/v1/samples/writes/{ticketId}}.
+ *
+ * PATCH requests take a JSON Merge Patch (RFC 7396), sent as
+ * {@code application/merge-patch+json} or plain {@code application/json}.
+ *
+ * Past states of a sample are served from its revision history: all
+ * revisions at {@code /{id}/history}, one point in time with {@code ?asOf=}.
  */
 @RestController
 @RequestMapping("/api/v1/samples")
 public class SampleController {
 
     private static final Logger logger = LoggerFactory.getLogger(SampleController.class);
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+    private static final String GEO_JSON = "application/geo+json";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
     private final SampleService sampleService;
+    private final SampleWriteQueue writeQueue;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter;
 
-    public SampleController(SampleService sampleService) {
+    public SampleController(SampleService sampleService, SampleWriteQueue writeQueue, ObjectMapper objectMapper) {
         this.sampleService = sampleService;
+        this.writeQueue = writeQueue;
+        this.objectMapper = objectMapper;
+        // Flushed once per chunk rather than after every line
+        this.lineWriter = objectMapper.writerFor(SampleResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     /**
      * Create a new geological sample.
      * 
      * @param request the sample creation request
-     * @return the created sample with 201 status
+     * @param prefer optional {@code Prefer} header; {@code respond-async} queues the write
+     * @return the created sample with 201 status, or a write ticket with 202 status
      */
     @PostMapping
-    public ResponseEntity<SampleResponse> createSample(@Valid @RequestBody SampleRequest request) {
+    public ResponseEntity<?> createSample(
+            @Valid @RequestBody SampleRequest request,
+            @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (isAsync(prefer)) {
+            logger.info("POST /api/v1/samples - Queueing new sample: {}", request.getSampleIdentifier());
+            WriteTicketResponse ticket = writeQueue.submit(request);
+            return ResponseEntity.accepted()
+                    .location(ticketLocation(ticket))
+                    .header("Preference-Applied", RESPOND_ASYNC)
+                    .body(ticket);
+        }
         logger.info("POST /api/v1/samples - Creating new sample: {}", request.getSampleIdentifier());
         SampleResponse response = sampleService.createSample(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Create several geological samples at once.
+     *
+     * Synchronous batches are committed in a single transaction and fail as a
+     * whole; async batches are queued together and get one ticket per sample.
+     *
+     * @param request the batch of samples
+     * @param prefer optional {@code Prefer} header; {@code respond-async} queues the writes
+     * @return the created samples with 201 status, or write tickets with 202 status
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> createSamples(
+            @Valid @RequestBody SampleBatchRequest request,
+            @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (isAsync(prefer)) {
+            logger.info("POST /api/v1/samples/batch - Queueing {} samples", request.getSamples().size());
+            List<WriteTicketResponse> tickets = writeQueue.submitAll(request.getSamples());
+            return ResponseEntity.accepted()
+                    .header("Preference-Applied", RESPOND_ASYNC)
+                    .body(tickets);
+        }
+        logger.info("POST /api/v1/samples/batch - Creating {} samples", request.getSamples().size());
+        List<SampleResponse> response = sampleService.createSamples(request.getSamples());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Get the status of an async write.
+     *
+     * @param ticketId the ticket returned when the write was accepted
+     * @return the ticket with 200 status, or 404 if unknown or expired
+     */
+    @GetMapping("/writes/{ticketId}")
+    public ResponseEntity<WriteTicketResponse> getWriteStatus(@PathVariable UUID ticketId) {
+        logger.info("GET /api/v1/samples/writes/{} - Fetching write status", ticketId);
+        WriteTicketResponse ticket = writeQueue.getTicket(ticketId)
+                .orElseThrow(() -> new ResourceNotFoundException("Write ticket", ticketId));
+        return ResponseEntity.ok(ticket);
+    }
+
     /**
      * Get all geological samples with pagination.
      * 
@@ -60,18 +155,107 @@ public class SampleController {
     }
 
     /**
-     * Get a geological sample by ID.
+     * Find samples near a point, nearest first.
+     *
+     * @param lat centre latitude in degrees
+     * @param lon centre longitude in degrees
+     * @param radius search radius in meters
+     * @param limit maximum number of samples (1-500)
+     * @return samples with their distance in meters, with 200 status
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbySampleResponse>> findNearby(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "10000") double radius,
+            @RequestParam(defaultValue = "50") int limit) {
+        logger.info("GET /api/v1/samples/nearby - Finding samples within {} m of ({}, {})", radius, lat, lon);
+        if (limit < 1 || limit > 500) {
+            throw new IllegalArgumentException("Limit must be between 1 and 500");
+        }
+        return ResponseEntity.ok(sampleService.findNearby(lat, lon, radius, limit));
+    }
+
+    /**
+     * Find the samples inside a GeoJSON polygon or multipolygon (holes are
+     * excluded), e.g. a permit or concession area.
+     *
+     * Results are streamed as newline-delimited JSON, one sample per line, in
+     * no particular order.
+     *
+     * @param area a GeoJSON Polygon, MultiPolygon, Feature or FeatureCollection
+     * @return the matching samples with 200 status
+     */
+    @PostMapping(value = "/within", consumes = {GEO_JSON, MediaType.APPLICATION_JSON_VALUE},
+            produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> findWithin(@RequestBody JsonNode area) {
+        logger.info("POST /api/v1/samples/within - Finding samples inside {}", area.path("type").asText());
+        // Validated before the response starts, so errors still get a status code
+        Iterator<List<SampleResponse>> chunks = sampleService.findWithin(area);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                while (chunks.hasNext()) {
+                    for (SampleResponse sample : chunks.next()) {
+                        lineWriter.writeValue(generator, sample);
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * Incremental sync: samples changed and deleted since a sync token.
+     *
+     * @param token the {@code nextToken} of the previous batch; omit for a full sync
+     * @param limit maximum changed samples (and deletions) in this batch
+     * @return one batch of changes with 200 status
+     */
+    @GetMapping("/sync")
+    public ResponseEntity<SyncResponse> sync(
+            @RequestParam(required = false) String token,
+            @RequestParam(required = false) Integer limit) {
+        logger.info("GET /api/v1/samples/sync - Fetching changes since token");
+        return ResponseEntity.ok(sampleService.getChanges(token, limit));
+    }
+
+    /**
+     * Get a geological sample by ID, optionally as it was at a past time.
      * 
      * @param id the sample ID
-     * @return the sample with 200 status, or 404 if not found
+     * @param asOf ISO-8601 local date-time to reconstruct the sample at; omit for the current state
+     * @return the sample with 200 status, or 404 if not found (or not existing at {@code asOf})
      */
     @GetMapping("/{id}")
-    public ResponseEntity<SampleResponse> getSampleById(@PathVariable UUID id) {
+    public ResponseEntity<SampleResponse> getSampleById(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        if (asOf != null) {
+            logger.info("GET /api/v1/samples/{} - Fetching sample as of {}", id, asOf);
+            return ResponseEntity.ok(sampleService.getSampleAsOf(id, asOf));
+        }
         logger.info("GET /api/v1/samples/{} - Fetching sample by id", id);
         SampleResponse response = sampleService.getSampleById(id);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * List the revisions of a sample, newest first.
+     *
+     * @param id the sample ID
+     * @param limit maximum number of revisions
+     * @return the revisions with the fields each one changed, with 200 status
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<SampleRevisionResponse>> getSampleHistory(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "100") int limit) {
+        logger.info("GET /api/v1/samples/{}/history - Fetching revision history", id);
+        return ResponseEntity.ok(sampleService.getHistory(id, limit));
+    }
+
     /**
      * Update an existing geological sample.
      * 
@@ -88,6 +272,33 @@ public class SampleController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Partially update a geological sample with a JSON Merge Patch.
+     *
+     * @param id the sample ID
+     * @param patch the fields to change; {@code null} clears a field
+     * @return the updated sample with 200 status, or 404 if not found
+     */
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<SampleResponse> patchSample(@PathVariable UUID id, @RequestBody JsonNode patch) {
+        logger.info("PATCH /api/v1/samples/{} - Patching fields {}", id, fieldNames(patch));
+        return ResponseEntity.ok(sampleService.patchSample(id, patch));
+    }
+
+    /**
+     * Apply the same JSON Merge Patch to many geological samples in one
+     * statement, e.g. to move them to another storage location.
+     *
+     * @param request the sample IDs and the patch
+     * @return the number of samples requested and updated, with 200 status
+     */
+    @PatchMapping(consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<SampleBulkPatchResponse> patchSamples(@Valid @RequestBody SampleBulkPatchRequest request) {
+        logger.info("PATCH /api/v1/samples - Patching fields {} of {} samples", fieldNames(request.getPatch()),
+                request.getIds().size());
+        return ResponseEntity.ok(sampleService.patchSamples(request.getIds(), request.getPatch()));
+    }
+
     /**
      * Delete a geological sample by ID.
      * 
@@ -100,5 +311,20 @@ public class SampleController {
         sampleService.deleteSample(id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    private boolean isAsync(String prefer) {
+        return prefer != null && writeQueue.isEnabled() && prefer.toLowerCase().contains(RESPOND_ASYNC);
+    }
+
+    private static List<String> fieldNames(JsonNode patch) {
+        List<String> names = new ArrayList<>();
+        if (patch != null) {
+            patch.fieldNames().forEachRemaining(names::add);
+        }
+        return names;
+    }
+
+    private static URI ticketLocation(WriteTicketResponse ticket) {
+        return URI.create("/api/v1/samples/writes/" + ticket.getTicketId());
+    }
+}
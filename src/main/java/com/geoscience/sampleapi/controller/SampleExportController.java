@@ -0,0 +1,53 @@
+package com.geoscience.sampleapi.controller;
+
+import com.geoscience.sampleapi.columnar.ExportFormat;
+import com.geoscience.sampleapi.service.SampleExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * REST controller for bulk export of the sample catalogue in columnar
+ * formats, for loading into analytics tools (pandas, Spark, DuckDB).
+ */
+@RestController
+@RequestMapping("/api/v1/samples")
+public class SampleExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleExportController.class);
+
+    private final SampleExportService exportService;
+
+    public SampleExportController(SampleExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Export all samples as an Apache Parquet file or an Apache Arrow IPC
+     * stream. The response is streamed as it is produced, without a
+     * {@code Content-Length}.
+     *
+     * @param format {@code parquet} (the default) or {@code arrow}
+     * @throws IllegalArgumentException if the format is unknown
+     */
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "parquet") String format,
+                       HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        logger.info("GET /api/v1/samples/export - Exporting samples as {}", exportFormat);
+        response.setContentType(exportFormat.getMediaType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("samples." + exportFormat.getExtension())
+                .build()
+                .toString());
+        exportService.export(exportFormat, response.getOutputStream());
+    }
+}
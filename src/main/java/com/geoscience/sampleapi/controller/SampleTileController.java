@@ -0,0 +1,94 @@
+package com.geoscience.sampleapi.controller;
+
+import com.geoscience.sampleapi.service.SampleTileService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * REST controller serving samples as Mapbox Vector Tiles.
+ *
+ * Tiles are cached gzipped and sent as they are to clients accepting gzip
+ * (all browsers do); other clients get them decompressed. Tiles carry an
+ * ETag, so a map revalidating a tile gets 304 Not Modified unless a write
+ * changed it.
+ */
+@RestController
+@RequestMapping("/api/v1/tiles")
+public class SampleTileController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleTileController.class);
+
+    static final MediaType VECTOR_TILE = MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+
+    private final SampleTileService tileService;
+
+    public SampleTileController(SampleTileService tileService) {
+        this.tileService = tileService;
+    }
+
+    /**
+     * Get the samples in a tile as a vector tile with one {@code samples}
+     * layer. Each point feature has the {@code id}, {@code type} and
+     * {@code name} of a sample and the {@code count} of samples merged into it.
+     *
+     * @param z zoom level
+     * @param x tile column
+     * @param y tile row, counted from the north
+     * @param acceptEncoding the client's {@code Accept-Encoding}
+     * @return the tile, or 304 Not Modified if it matches {@code If-None-Match}
+     */
+    @GetMapping("/{z}/{x}/{y}.mvt")
+    public ResponseEntity<byte[]> getTile(
+            @PathVariable int z,
+            @PathVariable int x,
+            @PathVariable int y,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) throws IOException {
+        logger.debug("GET /api/v1/tiles/{}/{}/{}.mvt", z, x, y);
+        SampleTileService.RenderedTile tile = tileService.getTile(z, x, y);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(VECTOR_TILE)
+                .eTag(tile.etag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(tile.gzipped());
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(tile.gzipped()))) {
+            return response.body(in.readAllBytes());
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim().replace(" ", "");
+                    if (parameter.equals("q=0") || parameter.matches("q=0\\.0*")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,77 @@
+package com.geoscience.sampleapi.controller;
+
+import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.dto.StorageLocationResponse;
+import com.geoscience.sampleapi.dto.StorageRelocationRequest;
+import com.geoscience.sampleapi.dto.StorageRelocationResponse;
+import com.geoscience.sampleapi.service.SampleService;
+import com.geoscience.sampleapi.service.StorageInventoryService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for the storage-location inventory.
+ *
+ * Locations are addressed by their free-text form in the {@code path} query
+ * parameter, e.g. {@code ?path=Core Shed 2 / Rack 14}; segments are matched
+ * after trimming, case-sensitively.
+ */
+@RestController
+@RequestMapping("/api/v1/storage-locations")
+public class StorageLocationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageLocationController.class);
+    private final StorageInventoryService inventoryService;
+    private final SampleService sampleService;
+
+    public StorageLocationController(StorageInventoryService inventoryService, SampleService sampleService) {
+        this.inventoryService = inventoryService;
+        this.sampleService = sampleService;
+    }
+
+    /**
+     * Get a storage location's occupancy and that of its children.
+     *
+     * @param path the location; omitted for the top-level locations
+     * @return the location with 200 status
+     */
+    @GetMapping
+    public ResponseEntity<StorageLocationResponse> getLocation(@RequestParam(required = false) String path) {
+        logger.info("GET /api/v1/storage-locations - Fetching location: {}", path);
+        return ResponseEntity.ok(inventoryService.getLocation(path));
+    }
+
+    /**
+     * List the samples stored in a location or below it.
+     *
+     * @param path the location
+     * @param pageable pagination parameters (page, size, sort)
+     * @return page of samples with 200 status
+     */
+    @GetMapping("/samples")
+    public ResponseEntity<Page<SampleResponse>> getSamples(
+            @RequestParam String path,
+            @PageableDefault(size = 20, sort = "id") Pageable pageable) {
+        logger.info("GET /api/v1/storage-locations/samples - Fetching samples in {}: {}", path, pageable);
+        return ResponseEntity.ok(inventoryService.getSamples(path, pageable));
+    }
+
+    /**
+     * Move a location, with everything stored in it or below it, to another
+     * place in the tree.
+     *
+     * @param request the source and target locations
+     * @return the number of samples moved with 200 status
+     */
+    @PostMapping("/relocate")
+    public ResponseEntity<StorageRelocationResponse> relocate(@Valid @RequestBody StorageRelocationRequest request) {
+        logger.info("POST /api/v1/storage-locations/relocate - Moving {} to {}", request.getFrom(), request.getTo());
+        return ResponseEntity.ok(sampleService.relocateStorage(request.getFrom(), request.getTo()));
+    }
+}
@@ -0,0 +1,32 @@
+package com.geoscience.sampleapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Metadata of a sample attachment; the content is downloaded separately.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttachmentResponse {
+
+    private UUID id;
+    private UUID sampleId;
+    private String fileName;
+    private String contentType;
+    private long size;
+
+    /**
+     * Hex SHA-256 of the content, also sent as the download's ETag.
+     */
+    private String sha256;
+
+    private LocalDateTime createdAt;
+}
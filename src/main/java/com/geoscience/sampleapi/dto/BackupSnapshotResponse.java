@@ -0,0 +1,28 @@
+package com.geoscience.sampleapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object describing a database backup snapshot.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BackupSnapshotResponse {
+
+    private String fileName;
+    private String path;
+    private long sizeBytes;
+    private LocalDateTime createdAt;
+
+    /**
+     * Time taken to write the snapshot; only set on the response of a new backup.
+     */
+    private Long durationMs;
+}
@@ -0,0 +1,48 @@
+package com.geoscience.sampleapi.dto;
+
+import com.geoscience.sampleapi.model.GeologicalSample;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Data Transfer Object for a sample density grid (heatmap). Only cells that
+ * contain samples are listed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DensityResponse {
+
+    private double cellDegrees;
+    private GeologicalSample.SampleType sampleType;
+
+    /**
+     * Samples counted in all cells.
+     */
+    private long total;
+
+    /**
+     * When the catalogue snapshot the grid was computed from was taken.
+     */
+    private LocalDateTime snapshotAt;
+
+    private List<Cell> cells;
+
+    /**
+     * A grid cell, identified by its south-west corner.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cell {
+        private double latitude;
+        private double longitude;
+        private int count;
+    }
+}
@@ -0,0 +1,67 @@
+package com.geoscience.sampleapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Result of one background health sample, as served by {@code /healthcheck/ready}.
+ *
+ * Measurements that could not be taken (for example pool figures when the
+ * data source is not pooled) are null.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class HealthSnapshot {
+
+    public static final String UP = "UP";
+    public static final String DOWN = "DOWN";
+
+    /**
+     * {@code UP} when no problems were found, otherwise {@code DOWN}.
+     */
+    private String status;
+
+    /**
+     * Why the instance is not ready; empty when {@code UP}.
+     */
+    private List<String> problems;
+
+    /**
+     * When the sample was taken.
+     */
+    private LocalDateTime sampledAt;
+
+    /**
+     * Time to borrow a connection and run {@code SELECT 1}.
+     */
+    private Long databaseLatencyMs;
+
+    /**
+     * Time to acquire (and immediately release) the SQLite write lock.
+     */
+    private Long writeLockWaitMs;
+
+    private Integer poolActive;
+    private Integer poolIdle;
+    private Integer poolMax;
+
+    /**
+     * Threads waiting for a pooled connection.
+     */
+    private Integer poolWaiting;
+
+    /**
+     * Usable bytes on the volume holding the database file.
+     */
+    private Long diskFreeBytes;
+
+    private Integer writeQueueDepth;
+    private Integer writeQueueCapacity;
+}
@@ -0,0 +1,23 @@
+package com.geoscience.sampleapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a sample found by a proximity search, with its
+ * great-circle distance from the search centre.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NearbySampleResponse {
+
+    @JsonUnwrapped
+    private SampleResponse sample;
+
+    private double distanceMeters;
+}
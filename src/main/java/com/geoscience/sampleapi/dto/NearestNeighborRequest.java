@@ -0,0 +1,50 @@
+package com.geoscience.sampleapi.dto;
+
+import com.geoscience.sampleapi.model.GeologicalSample;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for a batch of nearest-neighbour queries: the
+ * {@code k} nearest samples to each of the given points.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NearestNeighborRequest {
+
+    @NotEmpty(message = "At least one point is required")
+    private List<Point> points;
+
+    /**
+     * Neighbours per point (default 5).
+     */
+    private Integer k;
+
+    /**
+     * Only consider samples of this type; all types when null.
+     */
+    private GeologicalSample.SampleType sampleType;
+
+    /**
+     * Only consider samples within this distance of the point; unlimited when null.
+     */
+    private Double maxDistanceMeters;
+
+    /**
+     * A query location in degrees.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private Double latitude;
+        private Double longitude;
+    }
+}
@@ -0,0 +1,39 @@
+package com.geoscience.sampleapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for the nearest samples to one query point; one of
+ * these is streamed per line of a nearest-neighbour response.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearestNeighborResult {
+
+    /**
+     * Position of the query point in the request.
+     */
+    private int index;
+
+    /**
+     * Nearest samples, nearest first.
+     */
+    private List<Neighbor> neighbors;
+
+    /**
+     * A sample and its great-circle distance from the query point.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Neighbor {
+        private UUID id;
+        private double distanceMeters;
+    }
+}
@@ -0,0 +1,38 @@
+package com.geoscience.sampleapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object describing a Flight Recorder recording.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecordingResponse {
+
+    private long id;
+    private String name;
+
+    /**
+     * RUNNING, or STOPPED once the file has been written.
+     */
+    private String state;
+
+    private String settings;
+    private LocalDateTime startedAt;
+    private LocalDateTime stoppedAt;
+    private long durationSeconds;
+    private long maxSizeBytes;
+    private String fileName;
+
+    /**
+     * Size of the recording file; null until the recording has stopped.
+     */
+    private Long sizeBytes;
+}
@@ -0,0 +1,25 @@
+package com.geoscience.sampleapi.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for creating several geological samples in one request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SampleBatchRequest {
+
+    @NotEmpty(message = "At least one sample is required")
+    @Size(max = 1000, message = "A batch may contain at most 1000 samples")
+    private List<@Valid SampleRequest> samples;
+}
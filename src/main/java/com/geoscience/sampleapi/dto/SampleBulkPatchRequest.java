@@ -0,0 +1,30 @@
+package com.geoscience.sampleapi.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for applying one JSON Merge Patch to many samples.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SampleBulkPatchRequest {
+
+    @NotEmpty(message = "At least one sample ID is required")
+    @Size(max = 10000, message = "A bulk patch may name at most 10000 samples")
+    private List<@NotNull UUID> ids;
+
+    @NotNull(message = "Patch is required")
+    private JsonNode patch;
+}
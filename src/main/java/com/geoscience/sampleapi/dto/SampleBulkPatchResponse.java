@@ -0,0 +1,22 @@
+package com.geoscience.sampleapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the result of a bulk patch.
+ *
+ * {@code updated} is lower than {@code requested} when some IDs were unknown
+ * or deleted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SampleBulkPatchResponse {
+
+    private int requested;
+    private int updated;
+}
@@ -0,0 +1,53 @@
+package com.geoscience.sampleapi.dto;
+
+import com.geoscience.sampleapi.model.GeologicalSample;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Criteria for analytic scans over the catalogue, bound from query
+ * parameters. All criteria are optional and combined with AND.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SampleFilter {
+
+    /**
+     * Any of these types, e.g. {@code sampleTypes=ROCK,MINERAL}.
+     */
+    private List<GeologicalSample.SampleType> sampleTypes;
+
+    /**
+     * Collector name, matched exactly but ignoring case.
+     */
+    private String collector;
+
+    /**
+     * Location name, matched exactly but ignoring case.
+     */
+    private String location;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate collectedFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate collectedTo;
+
+    private Double minLat;
+    private Double maxLat;
+    private Double minLon;
+    private Double maxLon;
+
+    /**
+     * Text the description must contain; case is ignored for ASCII letters.
+     */
+    private String text;
+}
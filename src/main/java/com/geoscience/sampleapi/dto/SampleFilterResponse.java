@@ -0,0 +1,50 @@
+package com.geoscience.sampleapi.dto;
+
+import com.geoscience.sampleapi.model.GeologicalSample;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for one page of the samples matching a
+ * {@link SampleFilter}, with the summary fields held by the columnar copy.
+ * Full samples are available from {@code GET /api/v1/samples/{id}}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SampleFilterResponse {
+
+    /**
+     * Number of matching samples, across all pages.
+     */
+    private long total;
+    private int offset;
+    private List<Row> samples;
+
+    /**
+     * All writes committed before this time are included.
+     */
+    private LocalDateTime asOf;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Row {
+        private UUID id;
+        private GeologicalSample.SampleType sampleType;
+        private LocalDate collectionDate;
+        private Double latitude;
+        private Double longitude;
+        private String collectorName;
+        private String locationName;
+    }
+}
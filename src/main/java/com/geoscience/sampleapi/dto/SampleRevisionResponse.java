@@ -0,0 +1,41 @@
+package com.geoscience.sampleapi.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.geoscience.sampleapi.model.SampleRevision;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * One revision in the history of a sample.
+ *
+ * {@code changes} maps each field the revision changed to its values before
+ * and after, with the same names and formats as {@link SampleResponse}. It
+ * lists every field for a creation and is empty for a deletion.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SampleRevisionResponse {
+
+    private int revision;
+    private SampleRevision.Kind kind;
+    private LocalDateTime changedAt;
+    private Map<String, FieldChange> changes;
+
+    /**
+     * Values of a field before and after a revision.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FieldChange {
+        private JsonNode from;
+        private JsonNode to;
+    }
+}
@@ -0,0 +1,81 @@
+package com.geoscience.sampleapi.dto;
+
+import com.geoscience.sampleapi.model.GeologicalSample;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for summary statistics over the samples matching a
+ * {@link SampleFilter}. Ranges are null when no matching sample has a value.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SampleStatsResponse {
+
+    private long total;
+    private Map<GeologicalSample.SampleType, Long> byType;
+
+    private LocalDate earliestCollectionDate;
+    private LocalDate latestCollectionDate;
+
+    /**
+     * Matching samples that have coordinates.
+     */
+    private long located;
+    private Double minLatitude;
+    private Double maxLatitude;
+    private Double minLongitude;
+    private Double maxLongitude;
+
+    /**
+     * Most frequent collectors and locations, most samples first.
+     */
+    private List<ValueCount> topCollectors;
+    private List<ValueCount> topLocations;
+
+    /**
+     * Samples per collection period, oldest first; empty periods are left out.
+     */
+    private Interval interval;
+    private List<Bucket> histogram;
+
+    /**
+     * All writes committed before this time are included.
+     */
+    private LocalDateTime asOf;
+
+    /**
+     * Histogram period.
+     */
+    public enum Interval {
+        DAY, MONTH, YEAR
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ValueCount {
+        private String value;
+        private long count;
+    }
+
+    /**
+     * A histogram period, identified by its first day.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private LocalDate start;
+        private long count;
+    }
+}
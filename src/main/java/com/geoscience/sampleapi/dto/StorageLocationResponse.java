@@ -0,0 +1,38 @@
+package com.geoscience.sampleapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for a storage location and its occupancy.
+ *
+ * {@code path} is the normalised location (segments separated by
+ * {@code " / "}), empty for the root of the tree. {@code children} is only
+ * set on the requested location.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageLocationResponse {
+
+    private String path;
+    private String name;
+    private int depth;
+
+    /**
+     * Samples stored directly in this location.
+     */
+    private int sampleCount;
+
+    /**
+     * Samples stored in this location or below it.
+     */
+    private int totalCount;
+
+    private List<StorageLocationResponse> children;
+}
@@ -0,0 +1,27 @@
+package com.geoscience.sampleapi.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for moving a storage location, with everything stored
+ * in it or below it, to another place in the tree.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageRelocationRequest {
+
+    @NotBlank(message = "Source location is required")
+    @Size(max = 200, message = "Storage location must not exceed 200 characters")
+    private String from;
+
+    @NotBlank(message = "Target location is required")
+    @Size(max = 200, message = "Storage location must not exceed 200 characters")
+    private String to;
+}
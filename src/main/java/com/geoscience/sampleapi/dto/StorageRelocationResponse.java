@@ -0,0 +1,21 @@
+package com.geoscience.sampleapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the result of a storage relocation. Locations are
+ * given in their normalised form.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageRelocationResponse {
+
+    private String from;
+    private String to;
+    private int relocated;
+}
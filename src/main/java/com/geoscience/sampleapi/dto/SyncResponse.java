@@ -0,0 +1,42 @@
+package com.geoscience.sampleapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One batch of the incremental sync change feed.
+ *
+ * Clients apply {@code changed} (upserts by ID) and then {@code deleted},
+ * store {@code nextToken}, and repeat while {@code hasMore} is true.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncResponse {
+
+    /**
+     * Samples created or updated since the token, oldest change first.
+     */
+    private List<SampleResponse> changed;
+
+    /**
+     * IDs of samples deleted since the token.
+     */
+    private List<UUID> deleted;
+
+    /**
+     * Token to send with the next sync request.
+     */
+    private String nextToken;
+
+    /**
+     * Whether more changes are available right away.
+     */
+    private boolean hasMore;
+}
@@ -0,0 +1,31 @@
+package com.geoscience.sampleapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object describing the conversion of one database file to
+ * incremental auto-vacuum.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VacuumConversionResponse {
+
+    /**
+     * "main", or the name of a partition.
+     */
+    private String database;
+
+    /**
+     * False if the file already used incremental auto-vacuum.
+     */
+    private boolean converted;
+
+    private long sizeBeforeBytes;
+    private long sizeAfterBytes;
+    private long durationMs;
+}
@@ -0,0 +1,40 @@
+package com.geoscience.sampleapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object describing the state of an accepted-async write.
+ *
+ * A ticket is {@code PENDING} until its sample has been committed
+ * ({@code COMMITTED}, with {@code sampleId} set) or rejected ({@code FAILED},
+ * with {@code error} set).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class WriteTicketResponse {
+
+    private UUID ticketId;
+    private Status status;
+    private String sampleIdentifier;
+    private UUID sampleId;
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+
+    /**
+     * Durability state of an accepted write.
+     */
+    public enum Status {
+        PENDING,
+        COMMITTED,
+        FAILED
+    }
+}
@@ -0,0 +1,11 @@
+package com.geoscience.sampleapi.exception;
+
+/**
+ * Exception thrown when an uploaded attachment exceeds the configured size limit.
+ */
+public class AttachmentTooLargeException extends RuntimeException {
+
+    public AttachmentTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.geoscience.sampleapi.exception;
+
+/**
+ * Exception thrown when an endpoint belongs to an optional feature that is
+ * switched off in the configuration.
+ */
+public class FeatureDisabledException extends RuntimeException {
+
+    public FeatureDisabledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.geoscience.sampleapi.exception;
+
+/**
+ * Exception thrown when a requested object other than a sample (a write
+ * ticket, an attachment, a recording) is not found.
+ */
+public class ResourceNotFoundException extends RuntimeException {
+
+    /**
+     * @param resource what was looked up, e.g. "Write ticket"
+     * @param id the ID it was looked up by
+     */
+    public ResourceNotFoundException(String resource, Object id) {
+        super(resource + " not found with id: " + id);
+    }
+}
@@ -0,0 +1,12 @@
+package com.geoscience.sampleapi.exception;
+
+/**
+ * Exception thrown when a sync token is older than the tombstone retention,
+ * so deletions the client has not seen may already have been purged.
+ */
+public class SyncTokenExpiredException extends RuntimeException {
+
+    public SyncTokenExpiredException(String message) {
+        super(message);
+    }
+}
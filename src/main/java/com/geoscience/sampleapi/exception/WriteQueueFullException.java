@@ -0,0 +1,11 @@
+package com.geoscience.sampleapi.exception;
+
+/**
+ * Exception thrown when the write-behind queue cannot accept more samples.
+ */
+public class WriteQueueFullException extends RuntimeException {
+
+    public WriteQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,132 @@
+package com.geoscience.sampleapi.filter;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limiter whose limit adapts to observed latency (AIMD).
+ *
+ * While completed requests finish within the latency target and the limit is
+ * saturated, the limit grows additively; a slow or lock-contended completion
+ * shrinks it multiplicatively. Requests beyond the limit wait in a bounded queue for a
+ * bounded time and are shed when either bound is exceeded, which keeps the
+ * SQLite writer from building an unbounded backlog.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    /**
+     * Outcome of an acquire attempt.
+     */
+    public enum Outcome {
+        ACQUIRED,
+        QUEUE_FULL,
+        QUEUE_TIMEOUT
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long latencyTargetNanos;
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueue,
+                                      long latencyTargetNanos) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = Math.max(0, maxQueue);
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Acquire a permit, waiting up to {@code maxWaitNanos} behind at most
+     * {@code maxQueue} other waiters.
+     */
+    public Outcome acquire(long maxWaitNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return Outcome.ACQUIRED;
+            }
+            if (waiting >= maxQueue) {
+                return Outcome.QUEUE_FULL;
+            }
+            waiting++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return Outcome.QUEUE_TIMEOUT;
+                    }
+                    remaining = permitReleased.awaitNanos(remaining);
+                }
+                inFlight++;
+                return Outcome.ACQUIRED;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release a permit and feed the observed latency back into the limit.
+     *
+     * @param latencyNanos time the request held its permit
+     * @param congested whether the request failed due to lock contention
+     */
+    public void release(long latencyNanos, boolean congested) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= (int) limit;
+            inFlight--;
+            if (congested || latencyNanos > latencyTargetNanos) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            permitReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
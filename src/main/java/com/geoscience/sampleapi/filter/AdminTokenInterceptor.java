@@ -0,0 +1,69 @@
+package com.geoscience.sampleapi.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geoscience.sampleapi.config.AdminProperties;
+import com.geoscience.sampleapi.exception.GlobalExceptionHandler.ErrorResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+
+/**
+ * Guards admin endpoints with a shared token sent in {@code X-Admin-Token}.
+ *
+ * Admin endpoints are disabled (403) unless a token is configured; a missing
+ * or wrong token is rejected with 401.
+ */
+public class AdminTokenInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminTokenInterceptor.class);
+
+    public static final String HEADER = "X-Admin-Token";
+
+    private final AdminProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public AdminTokenInterceptor(AdminProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        String expected = properties.getToken();
+        if (!StringUtils.hasText(expected)) {
+            reject(response, HttpStatus.FORBIDDEN, "Admin endpoints are disabled");
+            return false;
+        }
+        String provided = request.getHeader(HEADER);
+        if (provided == null || !MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.UTF_8), provided.getBytes(StandardCharsets.UTF_8))) {
+            logger.warn("Rejected admin request to {} from {}", request.getRequestURI(), request.getRemoteAddr());
+            reject(response, HttpStatus.UNAUTHORIZED, "Missing or invalid admin token");
+            return false;
+        }
+        return true;
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .build();
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
@@ -0,0 +1,152 @@
+package com.geoscience.sampleapi.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geoscience.sampleapi.exception.GlobalExceptionHandler.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks API requests in flight so that shutdown can wait for them.
+ *
+ * Once {@link #drain} has been called, new requests are rejected with 503,
+ * {@code Retry-After} and {@code Connection: close}, so clients retry on
+ * another instance instead of reusing a connection to this one. Streaming
+ * responses count as in flight until the stream completes.
+ */
+public class InFlightRequestFilter extends OncePerRequestFilter {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Object idle = new Object();
+    private final ObjectMapper objectMapper;
+    private final Counter rejected;
+    private volatile boolean draining;
+
+    public InFlightRequestFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        Gauge.builder("sampleapi.requests.in.flight", inFlight, AtomicInteger::get)
+                .description("API requests currently being processed")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(RateLimitFilter.SHED_METRIC)
+                .description("Requests rejected by admission control")
+                .tag("reason", "draining")
+                .tag("kind", "any")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // Count before checking, so a drain that starts meanwhile either
+        // waits for this request or sees it rejected
+        inFlight.incrementAndGet();
+        if (draining) {
+            finished();
+            reject(response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        finished();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                finished();
+            }
+        }
+    }
+
+    /**
+     * Reject new requests from now on and wait for those in flight.
+     *
+     * @param timeout longest wait
+     * @return true if no request was left in flight
+     */
+    public boolean drain(Duration timeout) {
+        draining = true;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (idle) {
+            while (inFlight.get() > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(idle, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of API requests being processed
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+
+    private void finished() {
+        if (inFlight.decrementAndGet() == 0 && draining) {
+            synchronized (idle) {
+                idle.notifyAll();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        rejected.increment();
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message("This instance is shutting down, please retry")
+                .build();
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
@@ -0,0 +1,33 @@
+package com.geoscience.sampleapi.filter;
+
+import com.geoscience.sampleapi.exception.FeatureDisabledException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Turns away endpoints that read or copy the main database file directly and
+ * would miss every sample once partitioned storage is enabled (tiles,
+ * nearest-neighbour and density analytics, attachments and backups), or that
+ * only see one database's storage-location counts. They answer 404 as if the
+ * feature were switched off.
+ */
+public class PartitionedStorageInterceptor implements HandlerInterceptor {
+
+    /**
+     * Paths that are not available with partitioned storage.
+     */
+    public static final String[] UNSUPPORTED_PATHS = {
+            "/api/v1/tiles/**",
+            "/api/v1/samples/analytics/nearest",
+            "/api/v1/samples/analytics/density",
+            "/api/v1/samples/*/attachments/**",
+            "/api/v1/admin/backups/**",
+            "/api/v1/storage-locations/**"
+    };
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        throw new FeatureDisabledException("Not available with partitioned storage: " + request.getRequestURI());
+    }
+}
@@ -0,0 +1,241 @@
+package com.geoscience.sampleapi.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geoscience.sampleapi.config.RateLimitProperties;
+import com.geoscience.sampleapi.exception.GlobalExceptionHandler.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the samples API.
+ *
+ * Every request is charged against a per-client token bucket (separate read
+ * and write budgets) and rejected with 429 when the bucket is empty. Clients
+ * are identified by their remote address; the client header is only believed
+ * when a trusted proxy sends it, so a client cannot get fresh budgets by
+ * making up new IDs. At most {@code maxClients} clients are tracked: when
+ * that many are active, new clients share one overflow budget. Write
+ * requests then pass through an {@link AdaptiveConcurrencyLimiter} and are
+ * shed with 503 when its queue is full or the wait exceeds the configured
+ * bound. Both rejections carry a Retry-After header and are counted in the
+ * {@code sampleapi.requests.shed} metric.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    static final String SHED_METRIC = "sampleapi.requests.shed";
+    private static final String ANALYTICS_PATH = "/api/v1/samples/analytics/";
+    private static final String ATTACHMENTS_SUFFIX = "/attachments";
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final Map<String, ClientBuckets> clients = new ConcurrentHashMap<>();
+    private final Set<String> trustedProxies;
+    private final ClientBuckets overflow;
+    private long lastSweepNanos;
+    private final Map<String, Counter> shedCounters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.trustedProxies = Set.copyOf(properties.getTrustedProxies());
+        this.overflow = newBuckets(System.nanoTime());
+        this.lastSweepNanos = System.nanoTime() - SWEEP_INTERVAL_NANOS;
+
+        RateLimitProperties.WriteConcurrency concurrency = properties.getWriteConcurrency();
+        this.writeLimiter = concurrency.isEnabled()
+                ? new AdaptiveConcurrencyLimiter(
+                        concurrency.getInitialLimit(),
+                        concurrency.getMinLimit(),
+                        concurrency.getMaxLimit(),
+                        concurrency.getMaxQueue(),
+                        concurrency.getLatencyTarget().toNanos())
+                : null;
+
+        if (writeLimiter != null) {
+            Gauge.builder("sampleapi.writes.concurrency.limit", writeLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit for write requests")
+                    .register(meterRegistry);
+            Gauge.builder("sampleapi.writes.in.flight", writeLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Write requests currently holding a permit")
+                    .register(meterRegistry);
+            Gauge.builder("sampleapi.writes.queued", writeLimiter, AdaptiveConcurrencyLimiter::getWaiting)
+                    .description("Write requests waiting for a permit")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("sampleapi.ratelimit.clients", clients, Map::size)
+                .description("Clients with their own rate-limit buckets")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean write = isWrite(request);
+        String kind = write ? "write" : "read";
+        long now = System.nanoTime();
+
+        ClientBuckets buckets = bucketsFor(resolveClientId(request), now);
+        long waitNanos = (write ? buckets.write : buckets.read).tryConsume(now);
+        if (waitNanos > 0) {
+            shed(response, HttpStatus.TOO_MANY_REQUESTS, "rate_limited", kind, toRetryAfterSeconds(waitNanos),
+                    "Rate limit exceeded for " + kind + " requests");
+            return;
+        }
+
+        // Uploads take as long as the client's connection needs, not the
+        // database, so they must not shrink the write concurrency limit
+        if (!write || writeLimiter == null || isAttachmentUpload(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimitProperties.WriteConcurrency concurrency = properties.getWriteConcurrency();
+        AdaptiveConcurrencyLimiter.Outcome outcome;
+        try {
+            outcome = writeLimiter.acquire(concurrency.getMaxQueueWait().toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = AdaptiveConcurrencyLimiter.Outcome.QUEUE_TIMEOUT;
+        }
+        if (outcome != AdaptiveConcurrencyLimiter.Outcome.ACQUIRED) {
+            String reason = outcome == AdaptiveConcurrencyLimiter.Outcome.QUEUE_FULL ? "queue_full" : "queue_timeout";
+            shed(response, HttpStatus.SERVICE_UNAVAILABLE, reason, kind,
+                    toRetryAfterSeconds(concurrency.getRetryAfter().toNanos()),
+                    "Write capacity exhausted, please retry later");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            writeLimiter.release(System.nanoTime() - start,
+                    response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value());
+        }
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (request.getRequestURI().contains(ANALYTICS_PATH)) {
+            // Batch queries are POSTed for their large bodies but never write
+            return false;
+        }
+        return !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+    }
+
+    private static boolean isAttachmentUpload(HttpServletRequest request) {
+        return "POST".equals(request.getMethod()) && request.getRequestURI().endsWith(ATTACHMENTS_SUFFIX);
+    }
+
+    /**
+     * The remote address, or the client header when a trusted proxy sent it.
+     * Behind a proxy the remote address is only the client's own when the
+     * server resolves forwarded headers ({@code server.forward-headers-strategy}).
+     */
+    private String resolveClientId(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (trustedProxies.contains(remoteAddress)) {
+            String clientId = request.getHeader(properties.getClientHeader());
+            if (StringUtils.hasText(clientId)) {
+                return "id:" + clientId;
+            }
+        }
+        return "addr:" + remoteAddress;
+    }
+
+    private ClientBuckets bucketsFor(String clientId, long now) {
+        ClientBuckets buckets = clients.get(clientId);
+        return buckets != null ? buckets : addClient(clientId, now);
+    }
+
+    /**
+     * Give a new client its own buckets if there is room, after evicting idle
+     * clients at most once per {@link #SWEEP_INTERVAL_NANOS}; otherwise it
+     * shares the overflow buckets.
+     */
+    private synchronized ClientBuckets addClient(String clientId, long now) {
+        ClientBuckets buckets = clients.get(clientId);
+        if (buckets != null) {
+            return buckets;
+        }
+        if (clients.size() >= properties.getMaxClients() && now - lastSweepNanos >= SWEEP_INTERVAL_NANOS) {
+            lastSweepNanos = now;
+            long idleNanos = properties.getClientIdleTimeout().toNanos();
+            clients.values().removeIf(b -> now - b.lastAccessNanos() > idleNanos);
+            logger.debug("Evicted idle rate-limit buckets, {} clients tracked", clients.size());
+        }
+        if (clients.size() >= properties.getMaxClients()) {
+            return overflow;
+        }
+        buckets = newBuckets(now);
+        clients.put(clientId, buckets);
+        return buckets;
+    }
+
+    private ClientBuckets newBuckets(long now) {
+        return new ClientBuckets(
+                new TokenBucket(properties.getRead().getCapacity(), properties.getRead().getRefillPerSecond(), now),
+                new TokenBucket(properties.getWrite().getCapacity(), properties.getWrite().getRefillPerSecond(), now));
+    }
+
+    private void shed(HttpServletResponse response, HttpStatus status, String reason, String kind,
+                      long retryAfterSeconds, String message) throws IOException {
+        shedCounters.computeIfAbsent(reason + ':' + kind, key -> Counter.builder(SHED_METRIC)
+                        .description("Requests rejected by admission control")
+                        .tag("reason", reason)
+                        .tag("kind", kind)
+                        .register(meterRegistry))
+                .increment();
+
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .build();
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    private static long toRetryAfterSeconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private record ClientBuckets(TokenBucket read, TokenBucket write) {
+        long lastAccessNanos() {
+            return Math.max(read.getLastAccessNanos(), write.getLastAccessNanos());
+        }
+    }
+}
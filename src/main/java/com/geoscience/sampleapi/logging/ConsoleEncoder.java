@@ -0,0 +1,77 @@
+package com.geoscience.sampleapi.logging;
+
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+import java.nio.charset.Charset;
+
+/**
+ * Console encoder whose output format is chosen by configuration:
+ * {@code TEXT} uses {@code pattern}, {@code JSON} uses {@link JsonLineEncoder}.
+ *
+ * Logback resolves appender definitions before Spring properties are known,
+ * so the format is switched here rather than by declaring one appender per
+ * format.
+ */
+public class ConsoleEncoder extends EncoderBase<ILoggingEvent> {
+
+    private String format = "TEXT";
+    private String pattern;
+    private Charset charset;
+    private Encoder<ILoggingEvent> delegate;
+
+    @Override
+    public void start() {
+        if ("JSON".equalsIgnoreCase(format)) {
+            delegate = new JsonLineEncoder();
+        } else {
+            if (!"TEXT".equalsIgnoreCase(format)) {
+                addWarn("Unknown log format [" + format + "], using TEXT");
+            }
+            PatternLayoutEncoder patternEncoder = new PatternLayoutEncoder();
+            patternEncoder.setPattern(pattern);
+            patternEncoder.setCharset(charset);
+            delegate = patternEncoder;
+        }
+        delegate.setContext(getContext());
+        delegate.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (delegate != null) {
+            delegate.stop();
+        }
+        super.stop();
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return delegate.headerBytes();
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        return delegate.encode(event);
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return delegate.footerBytes();
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+}
@@ -0,0 +1,157 @@
+package com.geoscience.sampleapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback turbo filter that thins out high-volume application logs.
+ *
+ * Events are grouped by their message template (the format string before
+ * arguments are substituted), which for the request logs in
+ * {@code SampleController} means one group per endpoint:
+ * <ul>
+ *   <li>INFO events from the {@code sampledLoggers} are sampled: the first
+ *   event of each template is logged, then one in {@code infoSampleEvery};</li>
+ *   <li>WARN events from the {@code rateLimitedLoggers} are limited to
+ *   {@code warnPerSecond} per template, so a flood of not-found or
+ *   duplicate-identifier requests cannot flood the log. When the next second
+ *   starts, the number of suppressed events is reported once.</li>
+ * </ul>
+ * ERROR events and DEBUG/TRACE events are never touched. Turbo filters run
+ * before the message is formatted, so dropped events cost no formatting.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    /**
+     * Upper bound on tracked templates, in case a caller builds format
+     * strings dynamically; further templates are passed through unfiltered.
+     */
+    static final int MAX_TEMPLATES = 1024;
+
+    private static final String SELF = SamplingTurboFilter.class.getName();
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private List<String> sampledLoggers = List.of();
+    private List<String> rateLimitedLoggers = List.of();
+    private int infoSampleEvery = 1;
+    private int warnPerSecond = 0;
+
+    private final ConcurrentMap<String, AtomicLong> infoCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, WarnWindow> warnWindows = new ConcurrentHashMap<>();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format == null || !isStarted()) {
+            return FilterReply.NEUTRAL;
+        }
+        if (level == Level.INFO && infoSampleEvery > 1 && matches(logger.getName(), sampledLoggers)) {
+            return sampleInfo(format);
+        }
+        if (level == Level.WARN && warnPerSecond > 0 && matches(logger.getName(), rateLimitedLoggers)
+                && !SELF.equals(logger.getName())) {
+            return limitWarn(format);
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private FilterReply sampleInfo(String format) {
+        AtomicLong counter = infoCounters.get(format);
+        if (counter == null) {
+            if (infoCounters.size() >= MAX_TEMPLATES) {
+                return FilterReply.NEUTRAL;
+            }
+            counter = infoCounters.computeIfAbsent(format, key -> new AtomicLong());
+        }
+        return counter.getAndIncrement() % infoSampleEvery == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private FilterReply limitWarn(String format) {
+        WarnWindow window = warnWindows.get(format);
+        if (window == null) {
+            if (warnWindows.size() >= MAX_TEMPLATES) {
+                return FilterReply.NEUTRAL;
+            }
+            window = warnWindows.computeIfAbsent(format, key -> new WarnWindow());
+        }
+        long suppressed;
+        synchronized (window) {
+            long now = System.nanoTime();
+            if (now - window.start < WINDOW_NANOS) {
+                if (window.count < warnPerSecond) {
+                    window.count++;
+                    return FilterReply.NEUTRAL;
+                }
+                window.suppressed++;
+                return FilterReply.DENY;
+            }
+            suppressed = window.suppressed;
+            window.start = now;
+            window.count = 1;
+            window.suppressed = 0;
+        }
+        if (suppressed > 0) {
+            ((LoggerContext) getContext()).getLogger(SELF).warn("Suppressed {} more warnings like \"{}\"", suppressed, format);
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private static boolean matches(String loggerName, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> split(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(prefix -> !prefix.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Comma-separated logger name prefixes whose INFO events are sampled.
+     */
+    public void setSampledLoggers(String sampledLoggers) {
+        this.sampledLoggers = split(sampledLoggers);
+    }
+
+    /**
+     * Comma-separated logger name prefixes whose WARN events are rate-limited.
+     */
+    public void setRateLimitedLoggers(String rateLimitedLoggers) {
+        this.rateLimitedLoggers = split(rateLimitedLoggers);
+    }
+
+    /**
+     * Log one in this many INFO events per template; 1 logs all of them.
+     */
+    public void setInfoSampleEvery(int infoSampleEvery) {
+        this.infoSampleEvery = Math.max(1, infoSampleEvery);
+    }
+
+    /**
+     * Maximum WARN events per template and second; 0 disables the limit.
+     */
+    public void setWarnPerSecond(int warnPerSecond) {
+        this.warnPerSecond = Math.max(0, warnPerSecond);
+    }
+
+    private static final class WarnWindow {
+        private long start = System.nanoTime();
+        private int count;
+        private long suppressed;
+    }
+}
@@ -7,6 +7,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UuidGenerator;
 
 import java.time.LocalDate;
@@ -19,15 +23,43 @@ import java.util.UUID;
  * Samples can include rocks, minerals, soil, fossils, sediments, and other
  * geological specimens with associated metadata such as location, collection
  * date, and storage information.
+ *
+ * The spatial key and unit-sphere columns are derived from latitude/longitude
+ * on every write (see {@link com.geoscience.sampleapi.spatial.SpatialKeys}) and
+ * are null when the sample has no coordinates. Likewise the storage path is
+ * the materialized path of the storage location (see
+ * {@link com.geoscience.sampleapi.service.StoragePaths}).
+ *
+ * Deleted samples are kept as tombstone rows with {@code deletedAt} set until
+ * the compactor purges them; every entity query skips them.
+ *
+ * Samples are cached in the {@value #CACHE_REGION} second-level cache region
+ * when the cache is enabled ({@code CACHE_ENABLED}).
+ *
+ * Updates only write the columns that changed, so moving a sample does not
+ * rewrite its (possibly long) description.
  */
 @Entity
-@Table(name = "samples")
+@Table(name = "samples", indexes = {
+        @Index(name = "idx_spatial_key", columnList = "spatial_key"),
+        @Index(name = "idx_updated_at_id", columnList = "updated_at, id"),
+        @Index(name = "idx_storage_path", columnList = "storage_path")
+})
+@SQLRestriction("deleted_at IS NULL")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = GeologicalSample.CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class GeologicalSample {
 
+    /**
+     * Second-level cache region for samples (configured in ehcache.xml).
+     */
+    public static final String CACHE_REGION = "samples";
+
     @Id
     @UuidGenerator
     private UUID id;
@@ -55,6 +87,18 @@ public class GeologicalSample {
     @Column(name = "longitude")
     private Double longitude;
 
+    @Column(name = "spatial_key")
+    private Long spatialKey;
+
+    @Column(name = "unit_x")
+    private Double unitX;
+
+    @Column(name = "unit_y")
+    private Double unitY;
+
+    @Column(name = "unit_z")
+    private Double unitZ;
+
     @Column(name = "location_name", length = 200)
     private String locationName;
 
@@ -68,12 +112,18 @@ public class GeologicalSample {
     @Column(name = "storage_location", length = 200)
     private String storageLocation;
 
+    @Column(name = "storage_path", length = 255)
+    private String storagePath;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -87,14 +137,41 @@ public class GeologicalSample {
 
     /**
      * Enumeration of geological sample types.
+     *
+     * Each type has a fixed numeric code used by the binary wire formats;
+     * codes must never be reused or renumbered.
      */
     public enum SampleType {
-        ROCK,
-        MINERAL,
-        SOIL,
-        FOSSIL,
-        SEDIMENT,
-        OTHER
+        ROCK(1),
+        MINERAL(2),
+        SOIL(3),
+        FOSSIL(4),
+        SEDIMENT(5),
+        OTHER(6);
+
+        private final int code;
+
+        SampleType(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * Look up a type by its wire code.
+         *
+         * @throws IllegalArgumentException if the code is unknown
+         */
+        public static SampleType fromCode(int code) {
+            for (SampleType type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown sample type code: " + code);
+        }
     }
 }
 
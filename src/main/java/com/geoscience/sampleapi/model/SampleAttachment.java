@@ -0,0 +1,65 @@
+package com.geoscience.sampleapi.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Metadata of a file attached to a sample.
+ *
+ * The content itself is kept in the attachment store under its SHA-256
+ * (see {@link com.geoscience.sampleapi.service.AttachmentService}); attachments
+ * with identical content share one stored file.
+ */
+@Entity
+@Table(name = "sample_attachments", indexes = {
+        @Index(name = "idx_attachment_sample_id", columnList = "sample_id, created_at"),
+        @Index(name = "idx_attachment_sha256", columnList = "sha256")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SampleAttachment {
+
+    @Id
+    @UuidGenerator
+    private UUID id;
+
+    @Column(name = "sample_id", nullable = false)
+    private UUID sampleId;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    /**
+     * Hex SHA-256 of the content; names the stored file and serves as ETag.
+     */
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,79 @@
+package com.geoscience.sampleapi.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One entry of a sample's append-only revision history.
+ *
+ * Revisions are numbered from 1 per sample. {@code previous} holds the
+ * values the changed fields had before this revision (JSON, keyed like
+ * {@link com.geoscience.sampleapi.dto.SampleResponse}); {@code snapshot}, when
+ * present, holds the full state after it. The newest state is the samples
+ * row itself (see {@link com.geoscience.sampleapi.service.SampleHistoryService}).
+ */
+@Entity
+@Table(name = "sample_revisions")
+@IdClass(SampleRevision.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SampleRevision {
+
+    @Id
+    @Column(name = "sample_id")
+    private UUID sampleId;
+
+    @Id
+    @Column(name = "revision")
+    private int revision;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 10)
+    private Kind kind;
+
+    /**
+     * When the change was made: the sample's {@code updatedAt} after it, or
+     * the deletion time.
+     */
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    @Column(name = "previous", columnDefinition = "TEXT")
+    private String previous;
+
+    @Column(name = "snapshot", columnDefinition = "TEXT")
+    private String snapshot;
+
+    /**
+     * Kind of change.
+     */
+    public enum Kind {
+        CREATED, UPDATED, DELETED
+    }
+
+    /**
+     * Composite primary key: sample and revision number.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID sampleId;
+        private int revision;
+    }
+}
@@ -0,0 +1,36 @@
+package com.geoscience.sampleapi.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Record of a deleted sample, kept so that sync clients can remove their
+ * local copy (see {@code GET /api/v1/samples/sync}).
+ */
+@Entity
+@Table(name = "sample_tombstones", indexes = @Index(name = "idx_tombstone_deleted_at_id", columnList = "deleted_at, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SampleTombstone {
+
+    /**
+     * ID of the deleted sample.
+     */
+    @Id
+    private UUID id;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,57 @@
+package com.geoscience.sampleapi.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A node of the storage-location tree with its occupancy.
+ *
+ * Nodes are keyed by materialized path (see
+ * {@link com.geoscience.sampleapi.service.StoragePaths}) and exist while at
+ * least one live sample is stored in them or below them; the counts are
+ * maintained with every sample write (see
+ * {@link com.geoscience.sampleapi.service.StorageInventoryService}).
+ */
+@Entity
+@Table(name = "storage_locations", indexes = @Index(name = "idx_storage_location_parent", columnList = "parent_path"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageLocation {
+
+    @Id
+    @Column(name = "path", length = 255)
+    private String path;
+
+    /**
+     * Path of the parent node, empty for top-level locations.
+     */
+    @Column(name = "parent_path", nullable = false, length = 255)
+    private String parentPath;
+
+    @Column(name = "name", nullable = false, length = 200)
+    private String name;
+
+    @Column(name = "depth", nullable = false)
+    private int depth;
+
+    /**
+     * Samples stored directly in this location.
+     */
+    @Column(name = "sample_count", nullable = false)
+    private int sampleCount;
+
+    /**
+     * Samples stored in this location or below it.
+     */
+    @Column(name = "total_count", nullable = false)
+    private int totalCount;
+}
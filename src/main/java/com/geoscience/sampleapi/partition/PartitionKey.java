@@ -0,0 +1,100 @@
+package com.geoscience.sampleapi.partition;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * How samples are assigned to partitions, and which partitions a query can
+ * skip.
+ *
+ * Partition names describe their own contents: {@code year-2024}, or
+ * {@code cell-10-13-28} for the 10 degree cell in row 13 (counted from the
+ * south pole) and column 28 (counted eastwards from the antimeridian), or
+ * {@code cell-none} for samples without coordinates. Pruning works from the
+ * name alone, so partitions created under a different key or grid size are
+ * still searched correctly. Names are safe to use in file names.
+ */
+public enum PartitionKey {
+
+    /**
+     * One partition per year of the collection date.
+     */
+    COLLECTION_YEAR,
+
+    /**
+     * One partition per latitude/longitude grid cell.
+     */
+    GRID_CELL;
+
+    private static final String YEAR_PREFIX = "year-";
+    private static final String CELL_PREFIX = "cell-";
+    private static final String NO_CELL = "cell-none";
+
+    /**
+     * Name of the partition a sample belongs to.
+     *
+     * @param collectionDate the sample's collection date
+     * @param latitude latitude in degrees, or null
+     * @param longitude longitude in degrees, or null
+     * @param gridDegrees cell size for {@link #GRID_CELL}
+     * @return the partition name
+     */
+    public String partitionOf(LocalDate collectionDate, Double latitude, Double longitude, double gridDegrees) {
+        return switch (this) {
+            case COLLECTION_YEAR -> YEAR_PREFIX + collectionDate.getYear();
+            case GRID_CELL -> cellOf(latitude, longitude, gridDegrees);
+        };
+    }
+
+    /**
+     * Whether a partition may hold samples collected in a date range and
+     * located in one of a set of boxes. Names that are not understood are
+     * never ruled out.
+     *
+     * @param partition the partition name
+     * @param from earliest collection date, or null
+     * @param to latest collection date, or null
+     * @param boxes boxes as {@code {minLat, maxLat, minLon, maxLon}}, or null for no location constraint
+     * @return false only if the partition cannot hold a matching sample
+     */
+    public static boolean mayContain(String partition, LocalDate from, LocalDate to, List<double[]> boxes) {
+        try {
+            if (partition.startsWith(YEAR_PREFIX)) {
+                int year = Integer.parseInt(partition.substring(YEAR_PREFIX.length()));
+                return (from == null || year >= from.getYear()) && (to == null || year <= to.getYear());
+            }
+            if (partition.equals(NO_CELL)) {
+                return boxes == null;
+            }
+            if (partition.startsWith(CELL_PREFIX) && boxes != null) {
+                String[] parts = partition.substring(CELL_PREFIX.length()).split("-");
+                double size = Double.parseDouble(parts[0]);
+                double south = -90.0 + Integer.parseInt(parts[1]) * size;
+                double west = -180.0 + Integer.parseInt(parts[2]) * size;
+                for (double[] box : boxes) {
+                    if (box[0] <= south + size && box[1] >= south && box[2] <= west + size && box[3] >= west) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            // Not a name this version creates
+        }
+        return true;
+    }
+
+    private static String cellOf(Double latitude, Double longitude, double gridDegrees) {
+        if (latitude == null || longitude == null) {
+            return NO_CELL;
+        }
+        int rows = (int) Math.ceil(180.0 / gridDegrees);
+        int columns = (int) Math.ceil(360.0 / gridDegrees);
+        // The north pole and the antimeridian at +180 belong to the last cell
+        int row = Math.min(rows - 1, (int) Math.floor((latitude + 90.0) / gridDegrees));
+        int column = Math.min(columns - 1, (int) Math.floor((longitude + 180.0) / gridDegrees));
+        return CELL_PREFIX + BigDecimal.valueOf(gridDegrees).stripTrailingZeros().toPlainString()
+                + "-" + row + "-" + column;
+    }
+}
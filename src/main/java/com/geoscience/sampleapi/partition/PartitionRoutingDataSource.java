@@ -0,0 +1,86 @@
+package com.geoscience.sampleapi.partition;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * DataSource that hands out connections to the partition bound to the
+ * current thread, or to the main database when no partition is bound.
+ *
+ * A transaction keeps the connection it started with, so a partition must be
+ * bound before the transaction begins; everything the transaction does
+ * (JPA, JdbcTemplate, Flyway) then goes to that partition's file.
+ */
+public class PartitionRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource main;
+    private final Map<String, DataSource> partitions = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> current = new ThreadLocal<>();
+
+    public PartitionRoutingDataSource(DataSource main) {
+        this.main = main;
+    }
+
+    /**
+     * @return the DataSource of the main database
+     */
+    public DataSource getMain() {
+        return main;
+    }
+
+    /**
+     * Make a partition available for binding.
+     */
+    public void addPartition(String partition, DataSource dataSource) {
+        partitions.put(partition, dataSource);
+    }
+
+    /**
+     * Run {@code work} on this thread with connections going to a partition.
+     *
+     * @param partition the partition name
+     * @param work what to run
+     * @return the result of {@code work}
+     */
+    public <T> T callIn(String partition, Supplier<T> work) {
+        String previous = current.get();
+        current.set(partition);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    private DataSource target() {
+        String partition = current.get();
+        if (partition == null) {
+            return main;
+        }
+        DataSource dataSource = partitions.get(partition);
+        if (dataSource == null) {
+            throw new IllegalStateException("Partition is not open: " + partition);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,242 @@
+package com.geoscience.sampleapi.profiling;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Message converter that emits a {@link SerializationEvent} for every body
+ * another converter reads or writes, with the number of bytes.
+ *
+ * When no recording is running it calls the wrapped converter directly; the
+ * body is only wrapped in a counting stream while the event is enabled.
+ */
+public class ProfilingMessageConverter implements GenericHttpMessageConverter<Object> {
+
+    private final GenericHttpMessageConverter<Object> delegate;
+
+    public ProfilingMessageConverter(GenericHttpMessageConverter<Object> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return delegate.canRead(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return delegate.canRead(type, contextClass, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return delegate.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return delegate.canWrite(type, clazz, mediaType);
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return delegate.getSupportedMediaTypes();
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return delegate.getSupportedMediaTypes(clazz);
+    }
+
+    @Override
+    public Object read(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        SerializationEvent event = new SerializationEvent();
+        if (!event.isEnabled()) {
+            return delegate.read(clazz, inputMessage);
+        }
+        CountingInputMessage counting = new CountingInputMessage(inputMessage);
+        event.begin();
+        Object body = delegate.read(clazz, counting);
+        commit(event, "read", inputMessage.getHeaders().getContentType(), clazz.getTypeName(), counting.count());
+        return body;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        SerializationEvent event = new SerializationEvent();
+        if (!event.isEnabled()) {
+            return delegate.read(type, contextClass, inputMessage);
+        }
+        CountingInputMessage counting = new CountingInputMessage(inputMessage);
+        event.begin();
+        Object body = delegate.read(type, contextClass, counting);
+        commit(event, "read", inputMessage.getHeaders().getContentType(), type.getTypeName(), counting.count());
+        return body;
+    }
+
+    @Override
+    public void write(Object body, MediaType contentType, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        SerializationEvent event = new SerializationEvent();
+        if (!event.isEnabled()) {
+            delegate.write(body, contentType, outputMessage);
+            return;
+        }
+        CountingOutputMessage counting = new CountingOutputMessage(outputMessage);
+        event.begin();
+        delegate.write(body, contentType, counting);
+        commit(event, "write", outputMessage.getHeaders().getContentType(), body.getClass().getTypeName(),
+                counting.count());
+    }
+
+    @Override
+    public void write(Object body, Type type, MediaType contentType, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        SerializationEvent event = new SerializationEvent();
+        if (!event.isEnabled()) {
+            delegate.write(body, type, contentType, outputMessage);
+            return;
+        }
+        CountingOutputMessage counting = new CountingOutputMessage(outputMessage);
+        event.begin();
+        delegate.write(body, type, contentType, counting);
+        commit(event, "write", outputMessage.getHeaders().getContentType(), body.getClass().getTypeName(),
+                counting.count());
+    }
+
+    private static void commit(SerializationEvent event, String direction, MediaType mediaType, String payloadType,
+                               long bytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.direction = direction;
+            event.mediaType = mediaType == null ? null : mediaType.toString();
+            event.payloadType = payloadType;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    private static final class CountingInputMessage implements HttpInputMessage {
+
+        private final HttpInputMessage delegate;
+        private CountingInputStream body;
+
+        CountingInputMessage(HttpInputMessage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingInputStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        long count() {
+            return body == null ? 0 : body.count;
+        }
+    }
+
+    private static final class CountingOutputMessage implements HttpOutputMessage {
+
+        private final HttpOutputMessage delegate;
+        private CountingOutputStream body;
+
+        CountingOutputMessage(HttpOutputMessage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingOutputStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        long count() {
+            return body == null ? 0 : body.count;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
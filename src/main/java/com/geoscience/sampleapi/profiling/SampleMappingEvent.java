@@ -0,0 +1,58 @@
+package com.geoscience.sampleapi.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for converting a batch of samples between entities
+ * and DTOs.
+ */
+@Name(SampleMappingEvent.NAME)
+@Label("Sample Mapping")
+@Category("Geological Sample API")
+@Description("Conversion of samples between entities and request or response DTOs")
+@StackTrace(false)
+public class SampleMappingEvent extends Event {
+
+    public static final String NAME = "com.geoscience.sampleapi.SampleMapping";
+
+    public static final String TO_ENTITY = "entity";
+    public static final String TO_RESPONSE = "response";
+
+    @Label("Target")
+    @Description("What the samples were converted to: entity or response")
+    String target;
+
+    @Label("Rows")
+    int rows;
+
+    /**
+     * Start timing a conversion.
+     *
+     * @param target {@link #TO_ENTITY} or {@link #TO_RESPONSE}
+     */
+    public static SampleMappingEvent start(String target) {
+        SampleMappingEvent event = new SampleMappingEvent();
+        if (event.isEnabled()) {
+            event.target = target;
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Commit the event.
+     *
+     * @param rows number of samples converted
+     */
+    public void finish(int rows) {
+        if (isEnabled()) {
+            this.rows = rows;
+            commit();
+        }
+    }
+}
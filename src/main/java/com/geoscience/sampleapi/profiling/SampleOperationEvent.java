@@ -0,0 +1,83 @@
+package com.geoscience.sampleapi.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Flight Recorder event for one call of a sample service operation.
+ *
+ * Inside a transaction the event is committed when the transaction
+ * completes, so its duration includes the commit and it is recorded even if
+ * the operation fails. When no recording is running, {@link #start} and
+ * {@link #finish} do nothing beyond allocating the event, which the JIT
+ * usually removes.
+ */
+@Name(SampleOperationEvent.NAME)
+@Label("Sample Operation")
+@Category("Geological Sample API")
+@Description("A sample service call, up to the end of its transaction")
+@StackTrace(false)
+public class SampleOperationEvent extends Event {
+
+    public static final String NAME = "com.geoscience.sampleapi.SampleOperation";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Rows")
+    @Description("Number of samples returned or written")
+    int rows;
+
+    @Label("Outcome")
+    @Description("committed, rolled back, or completed outside a transaction")
+    String outcome;
+
+    private transient boolean deferred;
+
+    /**
+     * Start timing an operation.
+     *
+     * @param operation the name of the service method
+     */
+    public static SampleOperationEvent start(String operation) {
+        SampleOperationEvent event = new SampleOperationEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.begin();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                event.deferred = true;
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        event.outcome = status == STATUS_COMMITTED ? "committed" : "rolled back";
+                        event.commit();
+                    }
+                });
+            }
+        }
+        return event;
+    }
+
+    /**
+     * Record the result of the operation; the event is committed now, or
+     * when the surrounding transaction completes.
+     *
+     * @param rows number of samples returned or written
+     */
+    public void finish(int rows) {
+        if (!isEnabled()) {
+            return;
+        }
+        this.rows = rows;
+        if (!deferred) {
+            outcome = "completed";
+            commit();
+        }
+    }
+}
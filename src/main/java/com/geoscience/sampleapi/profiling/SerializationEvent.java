@@ -0,0 +1,38 @@
+package com.geoscience.sampleapi.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for reading a request body or writing a response
+ * body with a Jackson message converter (JSON, CBOR or Smile). See
+ * {@link ProfilingMessageConverter}.
+ */
+@Name(SerializationEvent.NAME)
+@Label("Payload Serialization")
+@Category("Geological Sample API")
+@Description("Reading a request body or writing a response body")
+@StackTrace(false)
+public class SerializationEvent extends Event {
+
+    public static final String NAME = "com.geoscience.sampleapi.Serialization";
+
+    @Label("Direction")
+    @Description("read (request body) or write (response body)")
+    String direction;
+
+    @Label("Media Type")
+    String mediaType;
+
+    @Label("Payload Type")
+    String payloadType;
+
+    @Label("Payload Size")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,52 @@
+package com.geoscience.sampleapi.repository;
+
+import com.geoscience.sampleapi.model.SampleAttachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for attachment metadata.
+ */
+@Repository
+public interface SampleAttachmentRepository extends JpaRepository<SampleAttachment, UUID> {
+
+    /**
+     * Attachments of a sample, oldest first.
+     *
+     * @param sampleId the sample's ID
+     * @return the sample's attachments
+     */
+    List<SampleAttachment> findBySampleIdOrderByCreatedAt(UUID sampleId);
+
+    /**
+     * @param id the attachment's ID
+     * @param sampleId the sample it must belong to
+     * @return the attachment if it belongs to the sample
+     */
+    Optional<SampleAttachment> findByIdAndSampleId(UUID id, UUID sampleId);
+
+    /**
+     * Whether any attachment still refers to the stored content.
+     *
+     * @param sha256 hex SHA-256 of the content
+     * @return true if the content is referenced
+     */
+    boolean existsBySha256(String sha256);
+
+    /**
+     * Remove attachments of samples that have been purged.
+     *
+     * @return number of removed attachments
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM sample_attachments WHERE sample_id NOT IN (SELECT id FROM samples)", nativeQuery = true)
+    int deleteOrphaned();
+}
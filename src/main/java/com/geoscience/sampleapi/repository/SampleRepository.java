@@ -1,9 +1,20 @@
 package com.geoscience.sampleapi.repository;
 
 import com.geoscience.sampleapi.model.GeologicalSample;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,7 +24,25 @@ import java.util.UUID;
  * Provides CRUD operations and custom query methods for sample management.
  */
 @Repository
-public interface SampleRepository extends JpaRepository<GeologicalSample, UUID> {
+public interface SampleRepository extends JpaRepository<GeologicalSample, UUID>, SampleRepositoryCustom {
+
+    /**
+     * Native statements that write the samples table declare it as their
+     * query space, so only cached samples and sample queries are invalidated
+     * (without it Hibernate clears every cache region).
+     */
+    String SAMPLES_SPACE = "samples";
+
+    /**
+     * List a page of samples. The page (and its count query) is served from
+     * the query cache when enabled.
+     *
+     * @param pageable page number, size and sort
+     * @return the requested page
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<GeologicalSample> findAll(Pageable pageable);
 
     /**
      * Find a sample by its unique identifier.
@@ -21,6 +50,7 @@ public interface SampleRepository extends JpaRepository<GeologicalSample, UUID>
      * @param sampleIdentifier the unique sample identifier
      * @return Optional containing the sample if found
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<GeologicalSample> findBySampleIdentifier(String sampleIdentifier);
 
     /**
@@ -30,5 +60,186 @@ public interface SampleRepository extends JpaRepository<GeologicalSample, UUID>
      * @return true if exists, false otherwise
      */
     boolean existsBySampleIdentifier(String sampleIdentifier);
-}
 
+    /**
+     * Find which of the given identifiers are already taken, in one query.
+     *
+     * @param sampleIdentifiers candidate sample identifiers
+     * @return the subset of identifiers that already exist
+     */
+    @Query("select s.sampleIdentifier from GeologicalSample s where s.sampleIdentifier in :sampleIdentifiers")
+    List<String> findExistingIdentifiers(@Param("sampleIdentifiers") Collection<String> sampleIdentifiers);
+
+    /**
+     * Find the unit-sphere positions of samples whose spatial key falls in an
+     * inclusive range (index range scan). Only the columns needed for exact
+     * distance filtering are read, so large candidate sets stay cheap.
+     *
+     * @param from lowest spatial key
+     * @param to highest spatial key
+     * @return candidate positions in the key range
+     */
+    @Query("select s.id as id, s.unitX as unitX, s.unitY as unitY, s.unitZ as unitZ "
+            + "from GeologicalSample s where s.spatialKey between :from and :to")
+    List<SpatialCandidate> findSpatialCandidates(@Param("from") long from, @Param("to") long to);
+
+    /**
+     * Find the coordinates of samples whose spatial key falls in an inclusive
+     * range (index range scan), for exact point-in-polygon filtering. Rows are
+     * read into plain records rather than projection proxies, since an area
+     * search may test hundreds of thousands of them.
+     *
+     * @param from lowest spatial key
+     * @param to highest spatial key
+     * @return candidate positions in the key range
+     */
+    @Query("select new com.geoscience.sampleapi.repository.SampleRepository$SamplePosition(s.id, s.latitude, s.longitude) "
+            + "from GeologicalSample s where s.spatialKey between :from and :to")
+    List<SamplePosition> findPositionsInKeyRange(@Param("from") long from, @Param("to") long to);
+
+    /**
+     * Find the coordinates of the given samples, skipping samples without
+     * coordinates.
+     *
+     * @param ids sample IDs
+     * @return positions of the samples that exist and have coordinates
+     */
+    @Query("select new com.geoscience.sampleapi.repository.SampleRepository$SamplePosition(s.id, s.latitude, s.longitude) "
+            + "from GeologicalSample s where s.id in :ids and s.spatialKey is not null")
+    List<SamplePosition> findPositionsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Find what a map tile shows of the samples whose spatial key falls in an
+     * inclusive range (index range scan).
+     *
+     * @param from lowest spatial key
+     * @param to highest spatial key
+     * @return tile points in the key range
+     */
+    @Query("select new com.geoscience.sampleapi.repository.SampleRepository$TilePoint("
+            + "s.id, s.latitude, s.longitude, s.sampleType, s.sampleName) "
+            + "from GeologicalSample s where s.spatialKey between :from and :to")
+    List<TilePoint> findTilePointsInKeyRange(@Param("from") long from, @Param("to") long to);
+
+    /**
+     * List a page of the samples whose storage path falls in {@code [from, to)},
+     * i.e. everything stored in a location or below it (index range scan).
+     *
+     * @param from the location's path
+     * @param to the exclusive upper bound of its subtree
+     * @param pageable page number, size and sort
+     * @return the requested page
+     */
+    @Query(value = "select s from GeologicalSample s where s.storagePath >= :from and s.storagePath < :to",
+            countQuery = "select count(s) from GeologicalSample s where s.storagePath >= :from and s.storagePath < :to")
+    Page<GeologicalSample> findByStoragePathRange(@Param("from") String from, @Param("to") String to,
+                                                  Pageable pageable);
+
+    /**
+     * The storage fields of the samples whose storage path falls in
+     * {@code [from, to)}, for relocating them.
+     *
+     * @return {@code [id, storageLocation, updatedAt, storagePath]} rows
+     */
+    @Query("select s.id, s.storageLocation, s.updatedAt, s.storagePath from GeologicalSample s "
+            + "where s.storagePath >= :from and s.storagePath < :to")
+    List<Object[]> findStorageInPathRange(@Param("from") String from, @Param("to") String to);
+
+    /**
+     * Move every live sample whose storage path falls in {@code [from, to)}
+     * below another location with one set-based update: the path prefix
+     * {@code from} is replaced by {@code target}, and the storage location is
+     * rewritten from the new path.
+     *
+     * @param from the path of the location being moved
+     * @param to the exclusive upper bound of its subtree
+     * @param target the path it moves to
+     * @param updatedAt the new modification time
+     * @return the number of samples moved
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SAMPLES_SPACE))
+    @Query(value = "UPDATE samples SET storage_path = :target || substr(storage_path, length(:from) + 1), "
+            + "storage_location = rtrim(replace(:target || substr(storage_path, length(:from) + 1), '/', ' / '), ' /'), "
+            + "updated_at = :updatedAt "
+            + "WHERE storage_path >= :from AND storage_path < :to AND deleted_at IS NULL", nativeQuery = true)
+    int relocateStorage(@Param("from") String from, @Param("to") String to, @Param("target") String target,
+                        @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Samples changed after a keyset cursor, in (updatedAt, id) order (index
+     * range scan). Used by incremental sync.
+     *
+     * @param afterUpdatedAt modification time of the last sample already seen
+     * @param afterId ID of the last sample already seen
+     * @param until newest modification time to include
+     * @param limit maximum number of samples
+     * @return the next changed samples
+     */
+    @Query(value = "SELECT * FROM samples WHERE (updated_at, id) > (:afterUpdatedAt, :afterId) "
+            + "AND updated_at <= :until AND deleted_at IS NULL ORDER BY updated_at, id LIMIT :limit", nativeQuery = true)
+    List<GeologicalSample> findChangedAfter(@Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                                            @Param("afterId") UUID afterId,
+                                            @Param("until") LocalDateTime until,
+                                            @Param("limit") int limit);
+
+    /**
+     * Mark a sample as deleted, leaving a tombstone row.
+     *
+     * @param id the sample ID
+     * @param deletedAt the deletion time
+     * @return 1 if a live sample was marked, 0 if none exists
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SAMPLES_SPACE))
+    @Query(value = "UPDATE samples SET deleted_at = :deletedAt WHERE id = :id AND deleted_at IS NULL", nativeQuery = true)
+    int softDelete(@Param("id") UUID id, @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Load a sample even if it is marked as deleted.
+     *
+     * @param id the sample ID
+     * @return the sample, unless it does not exist or has been purged
+     */
+    @Query(value = "SELECT * FROM samples WHERE id = :id", nativeQuery = true)
+    Optional<GeologicalSample> findIncludingDeleted(@Param("id") UUID id);
+
+    /**
+     * Remove tombstone rows still holding the given identifiers, so the
+     * identifiers can be reused.
+     *
+     * @param sampleIdentifiers identifiers about to be written
+     * @return the number of tombstone rows removed
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SAMPLES_SPACE))
+    @Query(value = "DELETE FROM samples WHERE sample_identifier IN (:sampleIdentifiers) AND deleted_at IS NOT NULL",
+            nativeQuery = true)
+    int purgeDeletedIdentifiers(@Param("sampleIdentifiers") Collection<String> sampleIdentifiers);
+
+    /**
+     * Position of a sample on the unit sphere.
+     */
+    interface SpatialCandidate {
+        UUID getId();
+
+        double getUnitX();
+
+        double getUnitY();
+
+        double getUnitZ();
+    }
+
+    /**
+     * Coordinates of a sample with a spatial key.
+     */
+    record SamplePosition(UUID id, double latitude, double longitude) {
+    }
+
+    /**
+     * Position and label of a sample on a map tile.
+     */
+    record TilePoint(UUID id, double latitude, double longitude, GeologicalSample.SampleType sampleType,
+                     String sampleName) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.geoscience.sampleapi.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sample queries that are built at runtime (see {@link SampleRepositoryImpl}).
+ */
+public interface SampleRepositoryCustom {
+
+    /**
+     * Set the same values on many samples with a single {@code UPDATE}.
+     * Deleted samples are skipped; cached samples are evicted.
+     *
+     * @param ids IDs of the samples to update
+     * @param values new values by entity attribute name; a null value clears the column
+     * @param updatedAt new modification time
+     * @return number of samples updated
+     */
+    int updateAll(Collection<UUID> ids, Map<String, Object> values, LocalDateTime updatedAt);
+
+    /**
+     * Read a few attributes of many live samples without loading them.
+     *
+     * @param ids IDs of the samples
+     * @param attributes entity attribute names
+     * @return for each live sample, its values in the order of {@code attributes}
+     */
+    Map<UUID, Object[]> findValues(Collection<UUID> ids, List<String> attributes);
+}
@@ -0,0 +1,65 @@
+package com.geoscience.sampleapi.repository;
+
+import com.geoscience.sampleapi.model.GeologicalSample;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Criteria-based implementation of {@link SampleRepositoryCustom}.
+ */
+class SampleRepositoryImpl implements SampleRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int updateAll(Collection<UUID> ids, Map<String, Object> values, LocalDateTime updatedAt) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<GeologicalSample> update = builder.createCriteriaUpdate(GeologicalSample.class);
+        Root<GeologicalSample> sample = update.from(GeologicalSample.class);
+        values.forEach((attribute, value) -> {
+            Path<Object> column = sample.get(attribute);
+            if (value == null) {
+                update.<Object>set(column, builder.nullLiteral(column.getJavaType()));
+            } else {
+                update.<Object, Object>set(column, value);
+            }
+        });
+        update.set(sample.get("updatedAt"), updatedAt);
+        update.where(sample.get("id").in(ids), builder.isNull(sample.get("deletedAt")));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public Map<UUID, Object[]> findValues(Collection<UUID> ids, List<String> attributes) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = builder.createQuery(Object[].class);
+        Root<GeologicalSample> sample = query.from(GeologicalSample.class);
+        List<Selection<?>> selections = new ArrayList<>(attributes.size() + 1);
+        selections.add(sample.get("id"));
+        for (String attribute : attributes) {
+            selections.add(sample.get(attribute));
+        }
+        query.multiselect(selections).where(sample.get("id").in(ids));
+        Map<UUID, Object[]> values = new HashMap<>();
+        for (Object[] row : entityManager.createQuery(query).getResultList()) {
+            values.put((UUID) row[0], Arrays.copyOfRange(row, 1, row.length));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,70 @@
+package com.geoscience.sampleapi.repository;
+
+import com.geoscience.sampleapi.model.SampleRevision;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for the append-only sample revision history. Every query reads
+ * one sample's rows, which are stored together in primary key order.
+ */
+@Repository
+public interface SampleRevisionRepository extends JpaRepository<SampleRevision, SampleRevision.Key> {
+
+    /**
+     * Append a revision (a plain insert; {@code save} would look the key up first).
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sample_revisions"))
+    @Query(value = "INSERT INTO sample_revisions (sample_id, revision, kind, changed_at, previous, snapshot) "
+            + "VALUES (:sampleId, :revision, :kind, :changedAt, :previous, :snapshot)", nativeQuery = true)
+    void append(@Param("sampleId") UUID sampleId,
+                @Param("revision") int revision,
+                @Param("kind") String kind,
+                @Param("changedAt") LocalDateTime changedAt,
+                @Param("previous") String previous,
+                @Param("snapshot") String snapshot);
+
+    /**
+     * @return the newest revision number of a sample, or null if it has no history
+     */
+    @Query("select max(r.revision) from SampleRevision r where r.sampleId = :sampleId")
+    Integer findLatestRevision(@Param("sampleId") UUID sampleId);
+
+    /**
+     * Newest revision numbers of several samples.
+     *
+     * @return {@code [sampleId, revision]} pairs; samples without history are missing
+     */
+    @Query("select r.sampleId, max(r.revision) from SampleRevision r where r.sampleId in :sampleIds group by r.sampleId")
+    List<Object[]> findLatestRevisions(@Param("sampleIds") Collection<UUID> sampleIds);
+
+    /**
+     * A sample's revisions, newest first.
+     */
+    List<SampleRevision> findBySampleIdOrderByRevisionDesc(UUID sampleId, Limit limit);
+
+    /**
+     * The first revision of a sample made after a point in time.
+     */
+    Optional<SampleRevision> findFirstBySampleIdAndChangedAtAfterOrderByRevision(UUID sampleId, LocalDateTime after);
+
+    /**
+     * A sample's revisions from a revision number on, oldest first.
+     */
+    List<SampleRevision> findBySampleIdAndRevisionGreaterThanEqualOrderByRevision(UUID sampleId, int revision,
+                                                                                 Limit limit);
+}
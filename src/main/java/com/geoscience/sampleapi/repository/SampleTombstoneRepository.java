@@ -0,0 +1,50 @@
+package com.geoscience.sampleapi.repository;
+
+import com.geoscience.sampleapi.model.SampleTombstone;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for tombstones of deleted samples.
+ */
+@Repository
+public interface SampleTombstoneRepository extends JpaRepository<SampleTombstone, UUID> {
+
+    /**
+     * Record the deletion of a sample (a plain insert; {@code save} would
+     * look the ID up first).
+     *
+     * @param id the deleted sample's ID
+     * @param deletedAt the deletion time
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sample_tombstones"))
+    @Query(value = "INSERT INTO sample_tombstones (id, deleted_at) VALUES (:id, :deletedAt)", nativeQuery = true)
+    void recordDeletion(@Param("id") UUID id, @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Tombstones after a keyset cursor, in (deletedAt, id) order (index range scan).
+     *
+     * @param afterDeletedAt deletion time of the last tombstone already seen
+     * @param afterId ID of the last tombstone already seen
+     * @param until newest deletion time to include
+     * @param limit maximum number of tombstones
+     * @return the next tombstones
+     */
+    @Query(value = "SELECT * FROM sample_tombstones WHERE (deleted_at, id) > (:afterDeletedAt, :afterId) "
+            + "AND deleted_at <= :until ORDER BY deleted_at, id LIMIT :limit", nativeQuery = true)
+    List<SampleTombstone> findDeletedAfter(@Param("afterDeletedAt") LocalDateTime afterDeletedAt,
+                                           @Param("afterId") UUID afterId,
+                                           @Param("until") LocalDateTime until,
+                                           @Param("limit") int limit);
+}
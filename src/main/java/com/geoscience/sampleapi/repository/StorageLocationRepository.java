@@ -0,0 +1,68 @@
+package com.geoscience.sampleapi.repository;
+
+import com.geoscience.sampleapi.model.StorageLocation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the storage-location tree. Subtrees are read and removed
+ * with primary key range scans on the materialized path.
+ */
+@Repository
+public interface StorageLocationRepository extends JpaRepository<StorageLocation, String> {
+
+    /**
+     * Add to the counts of a node, creating it if needed (one upsert).
+     *
+     * @param sampleCount change to the samples stored directly in the node
+     * @param totalCount change to the samples stored in or below the node
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "storage_locations"))
+    @Query(value = "INSERT INTO storage_locations (path, parent_path, name, depth, sample_count, total_count) "
+            + "VALUES (:path, :parentPath, :name, :depth, :sampleCount, :totalCount) ON CONFLICT (path) DO UPDATE "
+            + "SET sample_count = sample_count + excluded.sample_count, total_count = total_count + excluded.total_count",
+            nativeQuery = true)
+    void adjust(@Param("path") String path,
+                @Param("parentPath") String parentPath,
+                @Param("name") String name,
+                @Param("depth") int depth,
+                @Param("sampleCount") int sampleCount,
+                @Param("totalCount") int totalCount);
+
+    /**
+     * Remove those of the given nodes that no longer hold any sample.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "storage_locations"))
+    @Query(value = "DELETE FROM storage_locations WHERE path IN (:paths) AND total_count <= 0", nativeQuery = true)
+    int deleteEmpty(@Param("paths") Collection<String> paths);
+
+    /**
+     * Nodes whose path falls in {@code [from, to)}, i.e. a subtree.
+     */
+    @Query("select l from StorageLocation l where l.path >= :from and l.path < :to order by l.path")
+    List<StorageLocation> findInRange(@Param("from") String from, @Param("to") String to);
+
+    /**
+     * Remove the nodes whose path falls in {@code [from, to)}.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "storage_locations"))
+    @Query(value = "DELETE FROM storage_locations WHERE path >= :from AND path < :to", nativeQuery = true)
+    int deleteInRange(@Param("from") String from, @Param("to") String to);
+
+    /**
+     * The children of a node ({@code ""} for the top-level locations), by path.
+     */
+    List<StorageLocation> findByParentPathOrderByPath(String parentPath);
+}
@@ -0,0 +1,326 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.AttachmentProperties;
+import com.geoscience.sampleapi.dto.AttachmentResponse;
+import com.geoscience.sampleapi.exception.AttachmentTooLargeException;
+import com.geoscience.sampleapi.exception.ResourceNotFoundException;
+import com.geoscience.sampleapi.exception.SampleNotFoundException;
+import com.geoscience.sampleapi.model.SampleAttachment;
+import com.geoscience.sampleapi.repository.SampleAttachmentRepository;
+import com.geoscience.sampleapi.repository.SampleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for sample attachments.
+ *
+ * Uploads are streamed to a partial file while their SHA-256 is computed, then
+ * moved to {@code <directory>/<first two hex digits>/<sha256>}. If that file
+ * already exists the upload is discarded and the stored copy is shared. Only
+ * metadata is written to SQLite.
+ *
+ * Deleting an attachment removes its metadata row; the garbage collector
+ * later removes stored files that no attachment refers to any more, along
+ * with attachments of purged samples and abandoned partial uploads. Linking a
+ * file to a new row and collecting it hold the same lock, so the collector
+ * never removes a file that an upload has just reused.
+ */
+@Service
+public class AttachmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentService.class);
+
+    private static final String PARTIAL_DIRECTORY = "tmp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FILE_NAME_LENGTH = 255;
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private final SampleAttachmentRepository attachmentRepository;
+    private final SampleRepository sampleRepository;
+    private final AttachmentProperties properties;
+    private final ReentrantLock linkLock = new ReentrantLock();
+
+    public AttachmentService(SampleAttachmentRepository attachmentRepository, SampleRepository sampleRepository,
+                             AttachmentProperties properties) {
+        this.attachmentRepository = attachmentRepository;
+        this.sampleRepository = sampleRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * A stored attachment: its metadata and the file holding its content.
+     */
+    public record StoredAttachment(AttachmentResponse metadata, Path file) {
+    }
+
+    /**
+     * Store an attachment, streaming the content to disk.
+     *
+     * @param sampleId the sample to attach to
+     * @param fileName the client's file name; reduced to its last path segment
+     * @param contentType media type of the content, or null for {@code application/octet-stream}
+     * @param declaredSize the {@code Content-Length}, or -1 if unknown; checked before reading
+     * @param content the content, read to its end
+     * @return the new attachment's metadata
+     * @throws SampleNotFoundException if the sample does not exist
+     * @throws AttachmentTooLargeException if the content exceeds {@code app.attachments.max-size}
+     */
+    public AttachmentResponse store(UUID sampleId, String fileName, String contentType, long declaredSize,
+                                    InputStream content) {
+        requireSample(sampleId);
+        String name = sanitizeFileName(fileName);
+        String type = StringUtils.hasText(contentType)
+                ? MediaType.parseMediaType(contentType).toString()
+                : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        long maxBytes = properties.getMaxSize().toBytes();
+        if (declaredSize > maxBytes) {
+            throw tooLarge(maxBytes);
+        }
+
+        Path partial = null;
+        try {
+            Path partials = Files.createDirectories(root().resolve(PARTIAL_DIRECTORY));
+            partial = Files.createTempFile(partials, "upload-", ".part");
+            MessageDigest digest = sha256();
+            long size = 0;
+            try (FileChannel out = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw tooLarge(maxBytes);
+                    }
+                    digest.update(buffer, 0, read);
+                    wrapped.clear().limit(read);
+                    while (wrapped.hasRemaining()) {
+                        out.write(wrapped);
+                    }
+                }
+                // The stored file must be complete before anything refers to it
+                out.force(false);
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+
+            SampleAttachment saved;
+            linkLock.lock();
+            try {
+                Path file = contentPath(sha256);
+                if (!Files.exists(file)) {
+                    Files.createDirectories(file.getParent());
+                    Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+                }
+                saved = attachmentRepository.save(SampleAttachment.builder()
+                        .sampleId(sampleId)
+                        .fileName(name)
+                        .contentType(type)
+                        .sizeBytes(size)
+                        .sha256(sha256)
+                        .build());
+            } finally {
+                linkLock.unlock();
+            }
+            logger.info("Stored attachment {} ({} bytes, sha256 {}) for sample {}", saved.getId(), size, sha256,
+                    sampleId);
+            return toResponse(saved);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store attachment", e);
+        } finally {
+            deleteQuietly(partial);
+        }
+    }
+
+    /**
+     * List a sample's attachments, oldest first.
+     *
+     * @param sampleId the sample's ID
+     * @return the attachments' metadata
+     * @throws SampleNotFoundException if the sample does not exist
+     */
+    public List<AttachmentResponse> list(UUID sampleId) {
+        requireSample(sampleId);
+        return attachmentRepository.findBySampleIdOrderByCreatedAt(sampleId).stream()
+                .map(AttachmentService::toResponse)
+                .toList();
+    }
+
+    /**
+     * Look up an attachment for download.
+     *
+     * @param sampleId the sample's ID
+     * @param attachmentId the attachment's ID
+     * @return the metadata and the file holding the content
+     * @throws SampleNotFoundException if the sample does not exist
+     * @throws ResourceNotFoundException if the attachment does not exist
+     */
+    public StoredAttachment open(UUID sampleId, UUID attachmentId) {
+        requireSample(sampleId);
+        SampleAttachment attachment = findAttachment(sampleId, attachmentId);
+        Path file = contentPath(attachment.getSha256());
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalStateException("Content of attachment " + attachmentId + " is missing from the store");
+        }
+        return new StoredAttachment(toResponse(attachment), file);
+    }
+
+    /**
+     * Delete an attachment. The stored content is removed by the next garbage
+     * collection unless another attachment shares it.
+     *
+     * @param sampleId the sample's ID
+     * @param attachmentId the attachment's ID
+     * @throws ResourceNotFoundException if the attachment does not exist
+     */
+    public void delete(UUID sampleId, UUID attachmentId) {
+        attachmentRepository.delete(findAttachment(sampleId, attachmentId));
+        logger.info("Deleted attachment {} of sample {}", attachmentId, sampleId);
+    }
+
+    /**
+     * Scheduled entry point for {@link #collectGarbage()}.
+     */
+    @Scheduled(fixedDelayString = "${app.attachments.gc-interval:PT1H}",
+            initialDelayString = "${app.attachments.gc-initial-delay:PT5M}")
+    public void scheduledCollection() {
+        try {
+            collectGarbage();
+        } catch (RuntimeException e) {
+            logger.error("Attachment garbage collection failed", e);
+        }
+    }
+
+    /**
+     * Remove attachments of purged samples, stored files no attachment refers
+     * to, and partial uploads older than {@code app.attachments.orphan-grace}.
+     *
+     * @return number of files removed from the store
+     */
+    public int collectGarbage() {
+        int orphaned = attachmentRepository.deleteOrphaned();
+        Path root = root();
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        int removed = 0;
+        Instant partialCutoff = Instant.now().minus(properties.getOrphanGrace());
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                if (file.getParent().getFileName().toString().equals(PARTIAL_DIRECTORY)) {
+                    if (Files.getLastModifiedTime(file).toInstant().isBefore(partialCutoff) && deleteQuietly(file)) {
+                        removed++;
+                    }
+                } else if (SHA256_HEX.matcher(file.getFileName().toString()).matches() && removeIfUnreferenced(file)) {
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not scan attachment store", e);
+        }
+        if (orphaned > 0 || removed > 0) {
+            logger.info("Attachment garbage collection removed {} orphaned attachments and {} files", orphaned, removed);
+        }
+        return removed;
+    }
+
+    private boolean removeIfUnreferenced(Path file) {
+        linkLock.lock();
+        try {
+            return !attachmentRepository.existsBySha256(file.getFileName().toString()) && deleteQuietly(file);
+        } finally {
+            linkLock.unlock();
+        }
+    }
+
+    private void requireSample(UUID sampleId) {
+        if (!sampleRepository.existsById(sampleId)) {
+            throw new SampleNotFoundException(sampleId);
+        }
+    }
+
+    private SampleAttachment findAttachment(UUID sampleId, UUID attachmentId) {
+        return attachmentRepository.findByIdAndSampleId(attachmentId, sampleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment", attachmentId));
+    }
+
+    private Path root() {
+        return Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+    }
+
+    private Path contentPath(String sha256) {
+        return root().resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    static String sanitizeFileName(String fileName) {
+        if (!StringUtils.hasText(fileName)) {
+            return "attachment";
+        }
+        String name = fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1)
+                .replaceAll("\\p{Cntrl}", "")
+                .trim();
+        if (name.isEmpty() || name.equals(".") || name.equals("..")) {
+            return "attachment";
+        }
+        return name.length() > MAX_FILE_NAME_LENGTH ? name.substring(0, MAX_FILE_NAME_LENGTH) : name;
+    }
+
+    private static AttachmentTooLargeException tooLarge(long maxBytes) {
+        return new AttachmentTooLargeException("Attachment exceeds the limit of " + maxBytes + " bytes");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean deleteQuietly(Path file) {
+        if (file == null) {
+            return false;
+        }
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    private static AttachmentResponse toResponse(SampleAttachment attachment) {
+        return AttachmentResponse.builder()
+                .id(attachment.getId())
+                .sampleId(attachment.getSampleId())
+                .fileName(attachment.getFileName())
+                .contentType(attachment.getContentType())
+                .size(attachment.getSizeBytes())
+                .sha256(attachment.getSha256())
+                .createdAt(attachment.getCreatedAt())
+                .build();
+    }
+}
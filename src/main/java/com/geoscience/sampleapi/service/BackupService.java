@@ -0,0 +1,187 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.BackupProperties;
+import com.geoscience.sampleapi.dto.BackupSnapshotResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.sqlite.SQLiteConnection;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Point-in-time snapshots of the SQLite store taken while the API keeps serving.
+ *
+ * A snapshot is copied with the SQLite online backup API from a connection
+ * that holds an open read transaction, so every page comes from the same
+ * committed state while other connections continue to write (WAL mode).
+ * The copy proceeds a bounded number of pages at a time with a pause between
+ * steps, keeping backup I/O from spiking request latency.
+ */
+@Service
+public class BackupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackupService.class);
+
+    private static final String SNAPSHOT_PREFIX = "samples-";
+    private static final String SNAPSHOT_SUFFIX = ".db";
+    private static final DateTimeFormatter SNAPSHOT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final DataSource dataSource;
+    private final BackupProperties properties;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public BackupService(DataSource dataSource, BackupProperties properties) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+    }
+
+    /**
+     * Take a consistent snapshot of the database.
+     *
+     * @return metadata of the written snapshot
+     * @throws IllegalStateException if another backup is already running
+     */
+    public BackupSnapshotResponse createSnapshot() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A backup is already in progress");
+        }
+        try {
+            Path directory = Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+            Files.createDirectories(directory);
+            String name = SNAPSHOT_PREFIX + LocalDateTime.now().format(SNAPSHOT_TIMESTAMP) + SNAPSHOT_SUFFIX;
+            Path snapshot = directory.resolve(name);
+            Path partial = directory.resolve(name + ".partial");
+
+            logger.info("Starting online backup to {}", snapshot);
+            long start = System.nanoTime();
+            copyDatabase(partial);
+            Files.move(partial, snapshot, StandardCopyOption.ATOMIC_MOVE);
+            long durationMs = (System.nanoTime() - start) / 1_000_000;
+            logger.info("Online backup {} completed in {} ms ({} bytes)", name, durationMs, Files.size(snapshot));
+
+            applyRetention(directory);
+            return toResponse(snapshot, durationMs);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write backup snapshot", e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Online backup failed: " + e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Scheduled backup, enabled by setting {@code app.backup.cron}.
+     */
+    @Scheduled(cron = "${app.backup.cron:-}")
+    public void scheduledSnapshot() {
+        if (running.get()) {
+            logger.info("Skipping scheduled backup, another backup is in progress");
+            return;
+        }
+        createSnapshot();
+    }
+
+    /**
+     * List existing snapshots, newest first.
+     */
+    public List<BackupSnapshotResponse> listSnapshots() {
+        Path directory = Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        return snapshotFiles(directory).stream()
+                .map(path -> toResponse(path, null))
+                .toList();
+    }
+
+    private void copyDatabase(Path target) throws SQLException {
+        long pauseMs = properties.getStepPause().toMillis();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                // Pin a read snapshot for the duration of the copy
+                try (Statement statement = connection.createStatement();
+                     ResultSet ignored = statement.executeQuery("SELECT count(*) FROM sqlite_master")) {
+                    ignored.next();
+                }
+                SQLiteConnection sqlite = connection.unwrap(SQLiteConnection.class);
+                int rc = sqlite.getDatabase().backup("main", target.toString(), (remaining, pageCount) -> {
+                    if (remaining > 0 && pauseMs > 0) {
+                        sleep(pauseMs);
+                    }
+                }, (int) pauseMs, 100, properties.getPagesPerStep());
+                if (rc != 0) {
+                    throw new SQLException("SQLite backup returned error code " + rc);
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private void applyRetention(Path directory) throws IOException {
+        List<Path> snapshots = snapshotFiles(directory);
+        for (Path expired : snapshots.subList(Math.min(properties.getRetain(), snapshots.size()), snapshots.size())) {
+            Files.deleteIfExists(expired);
+            logger.info("Deleted expired backup snapshot {}", expired.getFileName());
+        }
+    }
+
+    private static List<Path> snapshotFiles(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String fileName = path.getFileName().toString();
+                        return fileName.startsWith(SNAPSHOT_PREFIX) && fileName.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparing((Path path) -> path.getFileName().toString()).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list backup snapshots", e);
+        }
+    }
+
+    private static BackupSnapshotResponse toResponse(Path snapshot, Long durationMs) {
+        try {
+            return BackupSnapshotResponse.builder()
+                    .fileName(snapshot.getFileName().toString())
+                    .path(snapshot.toString())
+                    .sizeBytes(Files.size(snapshot))
+                    .createdAt(LocalDateTime.ofInstant(Files.getLastModifiedTime(snapshot).toInstant(),
+                            ZoneId.systemDefault()))
+                    .durationMs(durationMs)
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read backup snapshot " + snapshot, e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
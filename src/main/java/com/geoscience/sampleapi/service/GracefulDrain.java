@@ -0,0 +1,91 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.DrainProperties;
+import com.geoscience.sampleapi.filter.InFlightRequestFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * First step of a graceful shutdown.
+ *
+ * Stops before every other lifecycle bean, including the web server:
+ * <ol>
+ *   <li>readiness turns to {@code REFUSING_TRAFFIC}, so the readiness probe fails;</li>
+ *   <li>requests are still served for {@code app.drain.readiness-delay}, while
+ *       load balancers notice;</li>
+ *   <li>new API requests are rejected and in-flight ones are given up to
+ *       {@code app.drain.timeout} to finish.</li>
+ * </ol>
+ * The web server and then the write-behind queue (which flushes queued
+ * samples) stop after this.
+ */
+@Component
+public class GracefulDrain implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GracefulDrain.class);
+
+    private final InFlightRequestFilter inFlightRequests;
+    private final DrainProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private volatile boolean running;
+
+    public GracefulDrain(InFlightRequestFilter inFlightRequests, DrainProperties properties,
+                         ApplicationEventPublisher eventPublisher) {
+        this.inFlightRequests = inFlightRequests;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Duration readinessDelay = properties.getReadinessDelay();
+        logger.info("Shutting down: readiness set to REFUSING_TRAFFIC, still serving for {} ms",
+                readinessDelay.toMillis());
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        if (!readinessDelay.isZero()) {
+            try {
+                Thread.sleep(readinessDelay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        long start = System.nanoTime();
+        int inFlight = inFlightRequests.getInFlight();
+        if (inFlightRequests.drain(properties.getTimeout())) {
+            logger.info("Drained {} in-flight requests in {} ms", inFlight, (System.nanoTime() - start) / 1_000_000);
+        } else {
+            logger.warn("{} requests still in flight after {} ms, continuing shutdown",
+                    inFlightRequests.getInFlight(), properties.getTimeout().toMillis());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop first, while the web server still accepts connections.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,289 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.HealthProperties;
+import com.geoscience.sampleapi.config.WriteBehindProperties;
+import com.geoscience.sampleapi.dto.HealthSnapshot;
+import com.geoscience.sampleapi.partition.PartitionRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples database and queue health in the background, so that probes are
+ * answered from a cached snapshot without touching the database.
+ *
+ * Every {@code app.health.interval} a dedicated thread borrows a connection,
+ * runs {@code SELECT 1}, briefly takes the SQLite write lock
+ * ({@code BEGIN IMMEDIATE} followed by {@code ROLLBACK}) and records pool
+ * usage, free disk space and write-behind queue depth. It runs apart from the
+ * shared scheduler, so a long backup or compaction cannot delay it.
+ *
+ * {@link #readiness()} combines the latest snapshot with the application's
+ * readiness state and the warm-up, which change without a new sample. As a
+ * health indicator it serves the sampled part to {@code /actuator/health},
+ * in place of Spring Boot's database and disk space indicators.
+ */
+@Component
+public class HealthSampler implements HealthIndicator, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(HealthSampler.class);
+
+    private final DataSource dataSource;
+    private final HealthProperties properties;
+    private final SampleWriteQueue writeQueue;
+    private final WriteBehindProperties writeBehindProperties;
+    private final WarmUp warmUp;
+    private final ApplicationAvailability availability;
+
+    private volatile Sample latest;
+    private Path databaseFile;
+    private ScheduledExecutorService executor;
+
+    public HealthSampler(DataSource dataSource, HealthProperties properties, SampleWriteQueue writeQueue,
+                         WriteBehindProperties writeBehindProperties, WarmUp warmUp,
+                         ApplicationAvailability availability) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+        this.writeQueue = writeQueue;
+        this.writeBehindProperties = writeBehindProperties;
+        this.warmUp = warmUp;
+        this.availability = availability;
+    }
+
+    /**
+     * Whether the process is healthy enough to keep running. Never touches the
+     * database: a locked or slow database is a reason to stop routing traffic,
+     * not to restart.
+     */
+    public boolean isLive() {
+        return availability.getLivenessState() != LivenessState.BROKEN;
+    }
+
+    /**
+     * The latest snapshot, marked {@code DOWN} while warming up, while shutting
+     * down or when the snapshot is stale.
+     */
+    public HealthSnapshot readiness() {
+        HealthSnapshot snapshot = sampled();
+        if (availability.getReadinessState() == ReadinessState.REFUSING_TRAFFIC) {
+            return withProblem(snapshot, "Shutting down");
+        }
+        if (!warmUp.isFinished()) {
+            return withProblem(snapshot, "Warming up");
+        }
+        return snapshot;
+    }
+
+    @Override
+    public Health health() {
+        HealthSnapshot snapshot = sampled();
+        Health.Builder health = HealthSnapshot.UP.equals(snapshot.getStatus()) ? Health.up() : Health.down();
+        return health.withDetail("snapshot", snapshot).build();
+    }
+
+    /**
+     * Take one sample and make it the current snapshot.
+     */
+    void sample() {
+        long startNanos = System.nanoTime();
+        List<String> problems = new ArrayList<>();
+        HealthSnapshot.HealthSnapshotBuilder snapshot = HealthSnapshot.builder().sampledAt(LocalDateTime.now());
+
+        // Before borrowing a connection, so the sampler does not count itself
+        samplePool(snapshot, problems);
+        sampleDatabase(snapshot, problems);
+        sampleDisk(snapshot, problems);
+
+        int depth = writeQueue.getQueued();
+        int capacity = writeBehindProperties.getQueueCapacity();
+        snapshot.writeQueueDepth(depth).writeQueueCapacity(capacity);
+        if (writeBehindProperties.isEnabled() && depth >= capacity * properties.getMaxWriteQueueFill()) {
+            problems.add("Write-behind queue holds " + depth + " of " + capacity + " samples");
+        }
+
+        HealthSnapshot current = snapshot
+                .status(problems.isEmpty() ? HealthSnapshot.UP : HealthSnapshot.DOWN)
+                .problems(List.copyOf(problems))
+                .build();
+        Sample previous = latest;
+        latest = new Sample(current, startNanos);
+        if (previous == null || !previous.snapshot().getStatus().equals(current.getStatus())) {
+            if (problems.isEmpty()) {
+                logger.info("Health sample is UP");
+            } else {
+                logger.warn("Health sample is DOWN: {}", problems);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "health-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::sampleSafely, 0, properties.getInterval().toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * Keep sampling while requests drain; stop before the data source is closed.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void sampleSafely() {
+        try {
+            sample();
+        } catch (RuntimeException e) {
+            // Keep the executor alive; the snapshot goes stale and fails readiness
+            logger.error("Health sample failed", e);
+        }
+    }
+
+    private HealthSnapshot sampled() {
+        Sample sample = latest;
+        if (sample == null) {
+            return HealthSnapshot.builder()
+                    .status(HealthSnapshot.DOWN)
+                    .problems(List.of("No health sample taken yet"))
+                    .build();
+        }
+        if (System.nanoTime() - sample.nanos() > properties.getStaleAfter().toNanos()) {
+            return withProblem(sample.snapshot(), "Health sample is older than " + properties.getStaleAfter());
+        }
+        return sample.snapshot();
+    }
+
+    private void samplePool(HealthSnapshot.HealthSnapshotBuilder snapshot, List<String> problems) {
+        DataSource main = dataSource instanceof PartitionRoutingDataSource routing ? routing.getMain() : dataSource;
+        if (!(main instanceof HikariDataSource hikari) || hikari.getHikariPoolMXBean() == null) {
+            return;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        int waiting = pool.getThreadsAwaitingConnection();
+        snapshot.poolActive(pool.getActiveConnections())
+                .poolIdle(pool.getIdleConnections())
+                .poolMax(hikari.getMaximumPoolSize())
+                .poolWaiting(waiting);
+        if (waiting > properties.getMaxPoolWaiting()) {
+            problems.add(waiting + " threads waiting for a database connection");
+        }
+    }
+
+    private void sampleDatabase(HealthSnapshot.HealthSnapshotBuilder snapshot, List<String> problems) {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            try (ResultSet result = statement.executeQuery("SELECT 1")) {
+                result.next();
+            }
+            snapshot.databaseLatencyMs(millisSince(start));
+
+            long lockStart = System.nanoTime();
+            try {
+                statement.execute("BEGIN IMMEDIATE");
+                statement.execute("ROLLBACK");
+                long waitMs = millisSince(lockStart);
+                snapshot.writeLockWaitMs(waitMs);
+                if (waitMs > properties.getMaxWriteLockWait().toMillis()) {
+                    problems.add("Waited " + waitMs + " ms for the write lock");
+                }
+            } catch (SQLException e) {
+                snapshot.writeLockWaitMs(millisSince(lockStart));
+                problems.add("Write lock unavailable: " + e.getMessage());
+            }
+
+            if (databaseFile == null) {
+                databaseFile = resolveDatabaseFile(statement);
+            }
+        } catch (SQLException e) {
+            problems.add("Database unavailable: " + e.getMessage());
+        }
+    }
+
+    private void sampleDisk(HealthSnapshot.HealthSnapshotBuilder snapshot, List<String> problems) {
+        if (databaseFile == null) {
+            return;
+        }
+        try {
+            long free = Files.getFileStore(databaseFile).getUsableSpace();
+            snapshot.diskFreeBytes(free);
+            if (free < properties.getMinFreeDisk().toBytes()) {
+                problems.add("Only " + free / (1024 * 1024) + " MB free on the database volume");
+            }
+        } catch (IOException e) {
+            problems.add("Cannot read free disk space: " + e.getMessage());
+        }
+    }
+
+    private static Path resolveDatabaseFile(Statement statement) throws SQLException {
+        try (ResultSet databases = statement.executeQuery("PRAGMA database_list")) {
+            while (databases.next()) {
+                String file = databases.getString("file");
+                if ("main".equals(databases.getString("name")) && file != null && !file.isEmpty()) {
+                    return Paths.get(file);
+                }
+            }
+        }
+        // In-memory database; there is no volume to watch
+        return null;
+    }
+
+    private static HealthSnapshot withProblem(HealthSnapshot snapshot, String problem) {
+        List<String> problems = new ArrayList<>(snapshot.getProblems().size() + 1);
+        problems.add(problem);
+        problems.addAll(snapshot.getProblems());
+        return snapshot.toBuilder().status(HealthSnapshot.DOWN).problems(problems).build();
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private record Sample(HealthSnapshot snapshot, long nanos) {
+    }
+}
@@ -0,0 +1,337 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.ColumnarProperties;
+import com.geoscience.sampleapi.dto.SampleFilter;
+import com.geoscience.sampleapi.dto.SampleFilterResponse;
+import com.geoscience.sampleapi.dto.SampleStatsResponse;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Filtered statistics and listings (the {@code /analytics/stats} and
+ * {@code /analytics/filter} endpoints) over partitioned storage.
+ *
+ * The in-memory columnar copy only covers the main database, so with
+ * partitioned storage each partition that may hold matching samples (see
+ * {@link SamplePartitions#prune}) is queried in parallel with aggregate SQL,
+ * and the partial results are merged: counts are added, ranges widened and
+ * per-day counts folded into the histogram. Matching follows
+ * {@link SampleColumnStore}, except that case is ignored for ASCII letters
+ * only.
+ */
+@Service
+public class PartitionedSampleAnalytics {
+
+    private static final int DEFAULT_TOP = 10;
+    private static final String ROW_COLUMNS = "id, sample_type, collection_date, latitude, longitude, "
+            + "collector_name, location_name";
+
+    private final SamplePartitions partitions;
+    private final JdbcTemplate jdbcTemplate;
+    private final ColumnarProperties columnarProperties;
+
+    public PartitionedSampleAnalytics(SamplePartitions partitions, JdbcTemplate jdbcTemplate,
+                                      ColumnarProperties columnarProperties) {
+        this.partitions = partitions;
+        this.jdbcTemplate = jdbcTemplate;
+        this.columnarProperties = columnarProperties;
+    }
+
+    /**
+     * @return whether analytics are served from the partitions
+     */
+    public boolean isEnabled() {
+        return partitions.isEnabled();
+    }
+
+    /**
+     * Compute summary statistics over the matching samples.
+     *
+     * @param filter which samples to include
+     * @param interval histogram period
+     * @param top how many of the most frequent collectors and locations to list
+     * @return the statistics
+     * @throws IllegalArgumentException if the filter is invalid
+     */
+    public SampleStatsResponse stats(SampleFilter filter, SampleStatsResponse.Interval interval, Integer top) {
+        int limit = top == null ? DEFAULT_TOP : top;
+        if (limit < 0 || limit > 100) {
+            throw new IllegalArgumentException("top must be between 0 and 100");
+        }
+        Where where = Where.of(filter);
+        LocalDateTime asOf = LocalDateTime.now();
+        List<PartialStats> partials = partitions.readAll(prune(filter), () -> partialStats(where, limit > 0));
+
+        Map<GeologicalSample.SampleType, Long> byType = new EnumMap<>(GeologicalSample.SampleType.class);
+        for (GeologicalSample.SampleType type : GeologicalSample.SampleType.values()) {
+            byType.put(type, 0L);
+        }
+        Map<String, Long> collectors = new HashMap<>();
+        Map<String, Long> locations = new HashMap<>();
+        TreeMap<LocalDate, Long> perDay = new TreeMap<>();
+        PartialStats total = new PartialStats();
+        for (PartialStats partial : partials) {
+            partial.byType.forEach((type, count) -> byType.merge(type, count, Long::sum));
+            partial.collectors.forEach((name, count) -> collectors.merge(name, count, Long::sum));
+            partial.locations.forEach((name, count) -> locations.merge(name, count, Long::sum));
+            partial.perDay.forEach((day, count) -> perDay.merge(day, count, Long::sum));
+            total.add(partial);
+        }
+        return SampleStatsResponse.builder()
+                .total(total.total)
+                .byType(byType)
+                .earliestCollectionDate(perDay.isEmpty() ? null : perDay.firstKey())
+                .latestCollectionDate(perDay.isEmpty() ? null : perDay.lastKey())
+                .located(total.located)
+                .minLatitude(total.minLatitude)
+                .maxLatitude(total.maxLatitude)
+                .minLongitude(total.minLongitude)
+                .maxLongitude(total.maxLongitude)
+                .topCollectors(top(collectors, limit))
+                .topLocations(top(locations, limit))
+                .interval(interval)
+                .histogram(histogram(perDay, interval))
+                .asOf(asOf)
+                .build();
+    }
+
+    /**
+     * List one page of the matching samples, ordered by ID.
+     *
+     * @param filter which samples to include
+     * @param offset matching samples to skip
+     * @param limit page size, at most {@code app.columnar.max-results}
+     * @return the page and the total number of matches
+     * @throws IllegalArgumentException if the filter or page is invalid
+     */
+    public SampleFilterResponse filter(SampleFilter filter, int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        if (limit < 0 || limit > columnarProperties.getMaxResults()) {
+            throw new IllegalArgumentException("limit must be between 0 and " + columnarProperties.getMaxResults());
+        }
+        Where where = Where.of(filter);
+        LocalDateTime asOf = LocalDateTime.now();
+        // Each partition returns its first offset + limit matches, which are merged
+        List<Object> args = new ArrayList<>(where.args());
+        args.add((long) offset + limit);
+        List<PartialPage> pages = partitions.readAll(prune(filter), () -> new PartialPage(
+                jdbcTemplate.queryForObject("SELECT count(*) FROM samples WHERE " + where.sql(), Long.class,
+                        where.args().toArray()),
+                jdbcTemplate.query("SELECT " + ROW_COLUMNS + " FROM samples WHERE " + where.sql()
+                        + " ORDER BY id LIMIT ?", (row, rowNum) -> {
+                    ByteBuffer id = ByteBuffer.wrap(row.getBytes("id"));
+                    double latitude = row.getDouble("latitude");
+                    Double boxedLatitude = row.wasNull() ? null : latitude;
+                    double longitude = row.getDouble("longitude");
+                    Double boxedLongitude = row.wasNull() ? null : longitude;
+                    return SampleFilterResponse.Row.builder()
+                            .id(new UUID(id.getLong(), id.getLong()))
+                            .sampleType(GeologicalSample.SampleType.valueOf(row.getString("sample_type")))
+                            .collectionDate(row.getDate("collection_date").toLocalDate())
+                            .latitude(boxedLatitude)
+                            .longitude(boxedLongitude)
+                            .collectorName(row.getString("collector_name"))
+                            .locationName(row.getString("location_name"))
+                            .build();
+                }, args.toArray())));
+
+        return SampleFilterResponse.builder()
+                .total(pages.stream().mapToLong(PartialPage::total).sum())
+                .offset(offset)
+                .samples(pages.stream()
+                        .flatMap(page -> page.rows().stream())
+                        .sorted(Comparator.comparing(SampleFilterResponse.Row::getId, SamplePartitions.ID_ORDER))
+                        .skip(offset)
+                        .limit(limit)
+                        .toList())
+                .asOf(asOf)
+                .build();
+    }
+
+    private List<String> prune(SampleFilter filter) {
+        if (filter == null) {
+            return partitions.names();
+        }
+        boolean boxed = filter.getMinLat() != null || filter.getMaxLat() != null
+                || filter.getMinLon() != null || filter.getMaxLon() != null;
+        List<double[]> boxes = boxed ? List.<double[]>of(new double[] {
+                filter.getMinLat() == null ? -90.0 : filter.getMinLat(),
+                filter.getMaxLat() == null ? 90.0 : filter.getMaxLat(),
+                filter.getMinLon() == null ? -180.0 : filter.getMinLon(),
+                filter.getMaxLon() == null ? 180.0 : filter.getMaxLon()}) : null;
+        return partitions.prune(filter.getCollectedFrom(), filter.getCollectedTo(), boxes);
+    }
+
+    /**
+     * Aggregate the matching samples of the partition bound to this thread.
+     */
+    private PartialStats partialStats(Where where, boolean withTop) {
+        PartialStats stats = new PartialStats();
+        Object[] args = where.args().toArray();
+        jdbcTemplate.query("SELECT sample_type, count(*), count(latitude), min(latitude), max(latitude), "
+                + "min(longitude), max(longitude) FROM samples WHERE " + where.sql() + " GROUP BY sample_type", row -> {
+            long count = row.getLong(2);
+            long located = row.getLong(3);
+            stats.byType.put(GeologicalSample.SampleType.valueOf(row.getString(1)), count);
+            stats.total += count;
+            if (located > 0) {
+                stats.addLocated(located, row.getDouble(4), row.getDouble(5), row.getDouble(6), row.getDouble(7));
+            }
+        }, args);
+        jdbcTemplate.query("SELECT collection_date, count(*) FROM samples WHERE " + where.sql()
+                        + " GROUP BY collection_date",
+                row -> {
+                    stats.perDay.merge(row.getDate(1).toLocalDate(), row.getLong(2), Long::sum);
+                }, args);
+        if (withTop) {
+            jdbcTemplate.query("SELECT collector_name, count(*) FROM samples WHERE " + where.sql()
+                            + " GROUP BY collector_name",
+                    row -> {
+                        stats.collectors.put(row.getString(1), row.getLong(2));
+                    }, args);
+            jdbcTemplate.query("SELECT location_name, count(*) FROM samples WHERE " + where.sql()
+                            + " AND location_name IS NOT NULL GROUP BY location_name",
+                    row -> {
+                        stats.locations.put(row.getString(1), row.getLong(2));
+                    }, args);
+        }
+        return stats;
+    }
+
+    private static List<SampleStatsResponse.ValueCount> top(Map<String, Long> counts, int limit) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> new SampleStatsResponse.ValueCount(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private static List<SampleStatsResponse.Bucket> histogram(TreeMap<LocalDate, Long> perDay,
+                                                              SampleStatsResponse.Interval interval) {
+        List<SampleStatsResponse.Bucket> buckets = new ArrayList<>();
+        SampleStatsResponse.Bucket current = null;
+        for (Map.Entry<LocalDate, Long> day : perDay.entrySet()) {
+            LocalDate start = switch (interval) {
+                case DAY -> day.getKey();
+                case MONTH -> day.getKey().withDayOfMonth(1);
+                case YEAR -> day.getKey().withDayOfYear(1);
+            };
+            if (current == null || !current.getStart().equals(start)) {
+                current = new SampleStatsResponse.Bucket(start, 0);
+                buckets.add(current);
+            }
+            current.setCount(current.getCount() + day.getValue());
+        }
+        return buckets;
+    }
+
+    /**
+     * A filter as an SQL condition on live samples, with its arguments.
+     */
+    record Where(String sql, List<Object> args) {
+
+        static Where of(SampleFilter filter) {
+            StringBuilder sql = new StringBuilder("deleted_at IS NULL");
+            List<Object> args = new ArrayList<>();
+            if (filter == null) {
+                return new Where(sql.toString(), args);
+            }
+            if (filter.getSampleTypes() != null && !filter.getSampleTypes().isEmpty()) {
+                sql.append(" AND sample_type IN (")
+                        .append(String.join(",", Collections.nCopies(filter.getSampleTypes().size(), "?")))
+                        .append(")");
+                filter.getSampleTypes().forEach(type -> args.add(type.name()));
+            }
+            if (filter.getCollectedFrom() != null || filter.getCollectedTo() != null) {
+                if (filter.getCollectedFrom() != null && filter.getCollectedTo() != null
+                        && filter.getCollectedFrom().isAfter(filter.getCollectedTo())) {
+                    throw new IllegalArgumentException("collectedFrom must not be after collectedTo");
+                }
+                if (filter.getCollectedFrom() != null) {
+                    sql.append(" AND collection_date >= ?");
+                    args.add(Date.valueOf(filter.getCollectedFrom()));
+                }
+                if (filter.getCollectedTo() != null) {
+                    sql.append(" AND collection_date <= ?");
+                    args.add(Date.valueOf(filter.getCollectedTo()));
+                }
+            }
+            if (filter.getMinLat() != null || filter.getMaxLat() != null
+                    || filter.getMinLon() != null || filter.getMaxLon() != null) {
+                double minLatitude = filter.getMinLat() == null ? -90.0 : filter.getMinLat();
+                double maxLatitude = filter.getMaxLat() == null ? 90.0 : filter.getMaxLat();
+                double minLongitude = filter.getMinLon() == null ? -180.0 : filter.getMinLon();
+                double maxLongitude = filter.getMaxLon() == null ? 180.0 : filter.getMaxLon();
+                if (!(minLatitude <= maxLatitude) || !(minLongitude <= maxLongitude)) {
+                    throw new IllegalArgumentException("Invalid bounding box");
+                }
+                sql.append(" AND latitude BETWEEN ? AND ? AND longitude BETWEEN ? AND ?");
+                args.addAll(List.of(minLatitude, maxLatitude, minLongitude, maxLongitude));
+            }
+            if (filter.getCollector() != null && !filter.getCollector().isBlank()) {
+                sql.append(" AND collector_name = ? COLLATE NOCASE");
+                args.add(filter.getCollector().trim());
+            }
+            if (filter.getLocation() != null && !filter.getLocation().isBlank()) {
+                sql.append(" AND location_name = ? COLLATE NOCASE");
+                args.add(filter.getLocation().trim());
+            }
+            if (filter.getText() != null && !filter.getText().isBlank()) {
+                sql.append(" AND description LIKE ? ESCAPE '\\'");
+                args.add("%" + filter.getText().trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+            }
+            return new Where(sql.toString(), args);
+        }
+    }
+
+    private record PartialPage(long total, List<SampleFilterResponse.Row> rows) {
+    }
+
+    /**
+     * Aggregates of one partition, or the running total over several.
+     */
+    private static final class PartialStats {
+        final Map<GeologicalSample.SampleType, Long> byType = new EnumMap<>(GeologicalSample.SampleType.class);
+        final Map<String, Long> collectors = new HashMap<>();
+        final Map<String, Long> locations = new HashMap<>();
+        final Map<LocalDate, Long> perDay = new HashMap<>();
+        long total;
+        long located;
+        Double minLatitude;
+        Double maxLatitude;
+        Double minLongitude;
+        Double maxLongitude;
+
+        void addLocated(long count, double minLat, double maxLat, double minLon, double maxLon) {
+            located += count;
+            minLatitude = minLatitude == null ? minLat : Math.min(minLatitude, minLat);
+            maxLatitude = maxLatitude == null ? maxLat : Math.max(maxLatitude, maxLat);
+            minLongitude = minLongitude == null ? minLon : Math.min(minLongitude, minLon);
+            maxLongitude = maxLongitude == null ? maxLon : Math.max(maxLongitude, maxLon);
+        }
+
+        void add(PartialStats other) {
+            total += other.total;
+            if (other.located > 0) {
+                addLocated(other.located, other.minLatitude, other.maxLatitude, other.minLongitude, other.maxLongitude);
+            }
+        }
+    }
+}
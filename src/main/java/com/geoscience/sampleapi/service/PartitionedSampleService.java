@@ -0,0 +1,401 @@
+package com.geoscience.sampleapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geoscience.sampleapi.config.PartitionProperties;
+import com.geoscience.sampleapi.config.SpatialProperties;
+import com.geoscience.sampleapi.config.SyncProperties;
+import com.geoscience.sampleapi.dto.NearbySampleResponse;
+import com.geoscience.sampleapi.dto.SampleBulkPatchResponse;
+import com.geoscience.sampleapi.dto.SampleRequest;
+import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.dto.SampleRevisionResponse;
+import com.geoscience.sampleapi.dto.StorageRelocationResponse;
+import com.geoscience.sampleapi.dto.SyncResponse;
+import com.geoscience.sampleapi.exception.FeatureDisabledException;
+import com.geoscience.sampleapi.exception.SampleNotFoundException;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import com.geoscience.sampleapi.model.SampleTombstone;
+import com.geoscience.sampleapi.partition.PartitionKey;
+import com.geoscience.sampleapi.repository.SampleRepository;
+import com.geoscience.sampleapi.repository.SampleRevisionRepository;
+import com.geoscience.sampleapi.repository.SampleTombstoneRepository;
+import com.geoscience.sampleapi.spatial.SpatialKeys;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Sample service for partitioned storage (see {@link SamplePartitions}).
+ *
+ * Each operation runs the regular {@link SampleService} logic inside the
+ * partition it concerns: writes on that partition's writer thread, reads on
+ * every partition that may hold a match, in parallel, with the results merged
+ * in the requested order. Nothing here runs in a transaction of its own, as a
+ * transaction on the calling thread would be bound to the main database.
+ *
+ * Sample identifiers stay unique across partitions: they are checked in every
+ * partition and reserved until the write has committed. A sample cannot
+ * change partition, so updates to its partition key are rejected; area search
+ * and storage relocation are not available. Location counts are kept per
+ * partition.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PartitionedSampleService extends SampleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedSampleService.class);
+
+    /**
+     * Bulk patch fields that decide the partition, by key.
+     */
+    private static final Map<PartitionKey, Set<String>> KEY_FIELDS = Map.of(
+            PartitionKey.COLLECTION_YEAR, Set.of("collectionDate"),
+            PartitionKey.GRID_CELL, Set.of("latitude", "longitude"));
+
+    private final SamplePartitions partitions;
+    private final PartitionProperties properties;
+    private final SampleRepository sampleRepository;
+    private final SampleRevisionRepository revisionRepository;
+    private final Map<String, Object> reservedIdentifiers = new ConcurrentHashMap<>();
+
+    public PartitionedSampleService(SampleRepository sampleRepository, SampleTombstoneRepository tombstoneRepository,
+                                    SampleHistoryService historyService, StorageInventoryService inventory,
+                                    SpatialProperties spatialProperties, SyncProperties syncProperties,
+                                    ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+                                    Validator validator, SamplePartitions partitions, PartitionProperties properties,
+                                    SampleRevisionRepository revisionRepository) {
+        super(sampleRepository, tombstoneRepository, historyService, inventory, spatialProperties, syncProperties,
+                eventPublisher, objectMapper, validator);
+        this.partitions = partitions;
+        this.properties = properties;
+        this.sampleRepository = sampleRepository;
+        this.revisionRepository = revisionRepository;
+    }
+
+    @Override
+    public SampleResponse createSample(SampleRequest request) {
+        String partition = partitionOf(request);
+        Object reservation = reserve(List.of(request.getSampleIdentifier()), null);
+        try {
+            return partitions.write(partition, () -> super.createSample(request));
+        } finally {
+            release(List.of(request.getSampleIdentifier()), reservation);
+        }
+    }
+
+    /**
+     * Create several samples; either all of them are created, in whichever
+     * partitions they belong to, or none are.
+     */
+    @Override
+    public List<SampleResponse> createSamples(List<SampleRequest> requests) {
+        Map<String, List<SampleRequest>> byPartition = new LinkedHashMap<>();
+        Set<String> identifiers = new LinkedHashSet<>();
+        for (SampleRequest request : requests) {
+            if (!identifiers.add(request.getSampleIdentifier())) {
+                throw new IllegalArgumentException("Duplicate sample identifier in batch: " + request.getSampleIdentifier());
+            }
+            byPartition.computeIfAbsent(partitionOf(request), partition -> new ArrayList<>()).add(request);
+        }
+        Object reservation = reserve(identifiers, null);
+        try {
+            Map<String, Supplier<List<SampleResponse>>> work = new LinkedHashMap<>();
+            byPartition.forEach((partition, batch) -> work.put(partition, () -> super.createSamples(batch)));
+            Map<String, SampleResponse> created = new HashMap<>();
+            for (List<SampleResponse> batch : partitions.writeAll(work).values()) {
+                batch.forEach(response -> created.put(response.getSampleIdentifier(), response));
+            }
+            return requests.stream().map(request -> created.get(request.getSampleIdentifier())).toList();
+        } finally {
+            release(identifiers, reservation);
+        }
+    }
+
+    /**
+     * Get a page of samples from all partitions. Each partition returns its
+     * first {@code offset + size} rows in the requested order (ties broken by
+     * ID), which are then merged, so deep pages cost more than in a single
+     * database.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Page<SampleResponse> getAllSamples(Pageable pageable) {
+        Sort sort = pageable.getSort().and(Sort.by("id"));
+        Comparator<SampleResponse> order = comparator(sort);
+        Pageable perPartition = pageable.isPaged()
+                ? PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize()), sort)
+                : Pageable.unpaged(sort);
+        List<Page<SampleResponse>> pages = partitions.readAll(partitions.names(), () -> super.getAllSamples(perPartition));
+
+        long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+        List<SampleResponse> merged = pages.stream()
+                .flatMap(page -> page.getContent().stream())
+                .sorted(order)
+                .skip(pageable.isPaged() ? pageable.getOffset() : 0)
+                .limit(pageable.isPaged() ? pageable.getPageSize() : Long.MAX_VALUE)
+                .toList();
+        return new PageImpl<>(merged, pageable, total);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SampleResponse getSampleById(UUID id) {
+        return partitions.readAll(partitions.names(), () -> sampleRepository.findById(id).map(SampleService::mapToResponse))
+                .stream()
+                .flatMap(Optional::stream)
+                .findFirst()
+                .orElseThrow(() -> new SampleNotFoundException(id));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<NearbySampleResponse> findNearby(double latitude, double longitude, double radiusMeters, int limit) {
+        if (latitude < -90.0 || latitude > 90.0 || longitude < -180.0 || longitude > 180.0) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + ", " + longitude);
+        }
+        if (!(radiusMeters > 0)) {
+            throw new IllegalArgumentException("Radius must be positive");
+        }
+        List<String> candidates = partitions.prune(null, null, SpatialKeys.boundingBoxes(latitude, longitude, radiusMeters));
+        return partitions.readAll(candidates, () -> super.findNearby(latitude, longitude, radiusMeters, limit))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingDouble(NearbySampleResponse::getDistanceMeters))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public Iterator<List<SampleResponse>> findWithin(JsonNode geoJson) {
+        throw new FeatureDisabledException("Area search is not available with partitioned storage");
+    }
+
+    @Override
+    public StorageRelocationResponse relocateStorage(String from, String to) {
+        throw new FeatureDisabledException("Storage relocation is not available with partitioned storage");
+    }
+
+    @Override
+    public SampleResponse updateSample(UUID id, SampleRequest request) {
+        String partition = locate(id);
+        if (!partition.equals(partitionOf(request))) {
+            throw new IllegalArgumentException("Update would move sample " + id + " to another partition");
+        }
+        Object reservation = reserve(List.of(request.getSampleIdentifier()), id);
+        try {
+            return partitions.write(partition, () -> super.updateSample(id, request));
+        } finally {
+            release(List.of(request.getSampleIdentifier()), reservation);
+        }
+    }
+
+    @Override
+    public SampleResponse patchSample(UUID id, JsonNode patch) {
+        String partition = locate(id);
+        JsonNode identifier = patch == null ? null : patch.get("sampleIdentifier");
+        List<String> identifiers = identifier != null && identifier.isTextual() ? List.of(identifier.asText()) : List.of();
+        Object reservation = reserve(identifiers, id);
+        try {
+            return partitions.write(partition, () -> {
+                SampleResponse patched = super.patchSample(id, patch);
+                // Thrown inside the transaction, so the patch is rolled back
+                if (!partition.equals(partitionOf(patched))) {
+                    throw new IllegalArgumentException("Patch would move sample " + id + " to another partition");
+                }
+                return patched;
+            });
+        } finally {
+            release(identifiers, reservation);
+        }
+    }
+
+    /**
+     * Apply a bulk patch in every partition, all or nothing. Fields that
+     * decide the partition cannot be patched in bulk.
+     */
+    @Override
+    public SampleBulkPatchResponse patchSamples(Collection<UUID> ids, JsonNode patch) {
+        if (patch != null && patch.isObject()) {
+            for (String field : KEY_FIELDS.get(properties.getKey())) {
+                if (patch.has(field)) {
+                    throw new IllegalArgumentException("Field decides the partition and cannot be patched in bulk: " + field);
+                }
+            }
+        }
+        Map<String, Supplier<SampleBulkPatchResponse>> work = new LinkedHashMap<>();
+        for (String partition : partitions.names()) {
+            work.put(partition, () -> super.patchSamples(ids, patch));
+        }
+        int updated = work.isEmpty() ? 0 : partitions.writeAll(work).values().stream().mapToInt(SampleBulkPatchResponse::getUpdated).sum();
+        return SampleBulkPatchResponse.builder()
+                .requested(new HashSet<>(ids).size())
+                .updated(updated)
+                .build();
+    }
+
+    @Override
+    public void deleteSample(UUID id) {
+        String partition = locate(id);
+        partitions.write(partition, () -> {
+            super.deleteSample(id);
+            return null;
+        });
+    }
+
+    /**
+     * Fetch the next batch of changes across all partitions; the sync token
+     * is the same as for a single database, as the cursors order changes by
+     * time and ID, not by partition.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResponse getChanges(String token, Integer limit) {
+        return super.getChanges(token, limit);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SampleRevisionResponse> getHistory(UUID id, int limit) {
+        return partitions.read(locate(id), () -> super.getHistory(id, limit));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SampleResponse getSampleAsOf(UUID id, LocalDateTime asOf) {
+        return partitions.read(locate(id), () -> super.getSampleAsOf(id, asOf));
+    }
+
+    @Override
+    protected List<GeologicalSample> findChangedAfter(LocalDateTime changedAt, UUID changedId,
+                                                      LocalDateTime until, int limit) {
+        return partitions.readAll(partitions.names(), () -> super.findChangedAfter(changedAt, changedId, until, limit))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(GeologicalSample::getUpdatedAt)
+                        .thenComparing(GeologicalSample::getId, SamplePartitions.ID_ORDER))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    protected List<SampleTombstone> findDeletedAfter(LocalDateTime deletedAt, UUID deletedId,
+                                                     LocalDateTime until, int limit) {
+        return partitions.readAll(partitions.names(), () -> super.findDeletedAfter(deletedAt, deletedId, until, limit))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(SampleTombstone::getDeletedAt)
+                        .thenComparing(SampleTombstone::getId, SamplePartitions.ID_ORDER))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * The partition holding a sample, its deleted row or its history.
+     */
+    private String locate(UUID id) {
+        List<String> names = partitions.names();
+        List<Boolean> found = partitions.readAll(names, () ->
+                sampleRepository.findIncludingDeleted(id).isPresent() || revisionRepository.findLatestRevision(id) != null);
+        for (int i = 0; i < names.size(); i++) {
+            if (found.get(i)) {
+                return names.get(i);
+            }
+        }
+        logger.warn("Sample not found with id: {}", id);
+        throw new SampleNotFoundException(id);
+    }
+
+    private String partitionOf(SampleRequest request) {
+        return partitions.partitionOf(request.getCollectionDate(), request.getLatitude(), request.getLongitude());
+    }
+
+    private String partitionOf(SampleResponse sample) {
+        return partitions.partitionOf(sample.getCollectionDate(), sample.getLatitude(), sample.getLongitude());
+    }
+
+    /**
+     * Reserve identifiers for a write and check that no partition holds them
+     * yet. Another write reserving the same identifier at the same time fails.
+     *
+     * @param identifiers the identifiers the write will use
+     * @param owner the sample being updated, which may keep its own identifier; null for new samples
+     * @return the token to release the reservation with
+     */
+    private Object reserve(Collection<String> identifiers, UUID owner) {
+        Object reservation = new Object();
+        List<String> taken = new ArrayList<>();
+        for (String identifier : identifiers) {
+            if (reservedIdentifiers.putIfAbsent(identifier, reservation) != null) {
+                taken.add(identifier);
+            }
+        }
+        if (taken.isEmpty() && !identifiers.isEmpty() && !partitions.names().isEmpty()) {
+            partitions.readAll(partitions.names(), () -> owner == null
+                            ? sampleRepository.findExistingIdentifiers(identifiers)
+                            : identifiers.stream()
+                                    .filter(identifier -> sampleRepository.findBySampleIdentifier(identifier)
+                                            .filter(sample -> !sample.getId().equals(owner))
+                                            .isPresent())
+                                    .toList())
+                    .forEach(taken::addAll);
+        }
+        if (!taken.isEmpty()) {
+            release(identifiers, reservation);
+            logger.warn("Sample identifiers already exist: {}", taken);
+            throw new IllegalArgumentException("Sample identifier already exists: " + String.join(", ", taken));
+        }
+        return reservation;
+    }
+
+    private void release(Collection<String> identifiers, Object reservation) {
+        identifiers.forEach(identifier -> reservedIdentifiers.remove(identifier, reservation));
+    }
+
+    /**
+     * Order of {@link SampleResponse}s for a sort, matching how SQLite sorts
+     * the columns: nulls first, enums by name, IDs as unsigned bytes.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Comparator<SampleResponse> comparator(Sort sort) {
+        Comparator<SampleResponse> result = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            String property = order.getProperty();
+            if (order.isIgnoreCase() || !new BeanWrapperImpl(SampleResponse.class).isReadableProperty(property)) {
+                throw new IllegalArgumentException("Cannot sort partitioned samples by " + order);
+            }
+            Comparator<Object> values = property.equals("id")
+                    ? (Comparator) SamplePartitions.ID_ORDER
+                    : (a, b) -> a instanceof Enum<?> ea ? ea.name().compareTo(((Enum<?>) b).name()) : ((Comparable) a).compareTo(b);
+            Comparator<SampleResponse> field = Comparator.comparing(
+                    sample -> new BeanWrapperImpl(sample).getPropertyValue(property), Comparator.nullsFirst(values));
+            result = result.thenComparing(order.isAscending() ? field : field.reversed());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,235 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.ProfilingProperties;
+import com.geoscience.sampleapi.dto.RecordingResponse;
+import com.geoscience.sampleapi.exception.ResourceNotFoundException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * On-demand Java Flight Recorder recordings, for looking into latency
+ * problems in production.
+ *
+ * One recording runs at a time. Every recording is bounded: it stops by
+ * itself after its duration and drops its oldest data beyond the size cap.
+ * When it stops, JFR writes it to a file in the recording directory (also on
+ * shutdown). Besides the JDK's own events, recordings contain the API's
+ * events (package {@code profiling}): sample operations, entity mapping and
+ * payload serialization.
+ */
+@Service
+public class ProfilingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfilingService.class);
+
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+    private static final String RECORDING_PREFIX = "samples-";
+    private static final String RECORDING_SUFFIX = ".jfr";
+    private static final DateTimeFormatter RECORDING_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final ProfilingProperties properties;
+    private final Map<Long, Entry> recordings = new LinkedHashMap<>();
+
+    public ProfilingService(ProfilingProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Start a recording.
+     *
+     * @param duration how long to record; null for the configured default
+     * @param settings "default" or "profile"; null for the configured settings
+     * @return the new recording
+     * @throws IllegalArgumentException if the duration or settings are invalid
+     * @throws IllegalStateException if a recording is already running
+     */
+    public synchronized RecordingResponse start(Duration duration, String settings) {
+        Duration length = duration == null ? properties.getDefaultDuration() : duration;
+        if (length.isNegative() || length.isZero() || length.compareTo(properties.getMaxDuration()) > 0) {
+            throw new IllegalArgumentException("duration must be positive and at most " + properties.getMaxDuration());
+        }
+        String settingsName = settings == null ? properties.getSettings() : settings;
+        if (!SETTINGS.contains(settingsName)) {
+            throw new IllegalArgumentException("settings must be one of " + SETTINGS);
+        }
+        if (recordings.values().stream().anyMatch(entry -> entry.recording().getState() == RecordingState.RUNNING)) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        applyRetention();
+
+        try {
+            Path directory = Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+            Files.createDirectories(directory);
+            String name = RECORDING_PREFIX + LocalDateTime.now().format(RECORDING_TIMESTAMP);
+            Path file = directory.resolve(name + RECORDING_SUFFIX);
+
+            Recording recording = new Recording(Configuration.getConfiguration(settingsName));
+            recording.setName(name);
+            recording.setDuration(length);
+            recording.setMaxSize(properties.getMaxSize().toBytes());
+            recording.setToDisk(true);
+            recording.setDumpOnExit(true);
+            recording.setDestination(file);
+            recording.start();
+
+            Entry entry = new Entry(recording, file, settingsName);
+            recordings.put(recording.getId(), entry);
+            logger.info("Started recording {} ({} settings) for {}", name, settingsName, length);
+            return toResponse(entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start recording", e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid JFR settings: " + settingsName, e);
+        }
+    }
+
+    /**
+     * List recordings, newest first.
+     */
+    public synchronized List<RecordingResponse> list() {
+        List<RecordingResponse> responses = new ArrayList<>();
+        recordings.values().forEach(entry -> responses.add(0, toResponse(entry)));
+        return responses;
+    }
+
+    /**
+     * @throws ResourceNotFoundException if there is no such recording
+     */
+    public synchronized RecordingResponse get(long id) {
+        return toResponse(find(id));
+    }
+
+    /**
+     * Stop a recording early and write its file. Stopping a stopped
+     * recording does nothing.
+     *
+     * @throws ResourceNotFoundException if there is no such recording
+     */
+    public synchronized RecordingResponse stop(long id) {
+        Entry entry = find(id);
+        if (entry.recording().getState() == RecordingState.RUNNING) {
+            entry.recording().stop();
+            logger.info("Stopped recording {}", entry.recording().getName());
+        }
+        return toResponse(entry);
+    }
+
+    /**
+     * Get the file of a stopped recording.
+     *
+     * @throws ResourceNotFoundException if there is no such recording
+     * @throws IllegalStateException if the recording is still running
+     */
+    public synchronized Path file(long id) {
+        Entry entry = find(id);
+        if (entry.recording().getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("Recording " + id + " is still running; stop it first");
+        }
+        if (!Files.exists(entry.file())) {
+            throw new IllegalStateException("File of recording " + id + " is missing");
+        }
+        return entry.file();
+    }
+
+    /**
+     * Discard a recording, stopping it if it is running, and delete its file.
+     *
+     * @throws ResourceNotFoundException if there is no such recording
+     */
+    public synchronized void delete(long id) {
+        Entry entry = find(id);
+        recordings.remove(id);
+        discard(entry);
+        logger.info("Deleted recording {}", entry.recording().getName());
+    }
+
+    private Entry find(long id) {
+        Entry entry = recordings.get(id);
+        if (entry == null) {
+            throw new ResourceNotFoundException("Recording", id);
+        }
+        return entry;
+    }
+
+    /**
+     * Delete the oldest finished recordings beyond the retention count,
+     * leaving room for one more.
+     */
+    private void applyRetention() {
+        List<Long> finished = recordings.entrySet().stream()
+                .filter(entry -> entry.getValue().recording().getState() != RecordingState.RUNNING)
+                .map(Map.Entry::getKey)
+                .sorted(Comparator.reverseOrder())
+                .toList();
+        for (Long id : finished.subList(Math.min(finished.size(), Math.max(0, properties.getRetain() - 1)),
+                finished.size())) {
+            Entry entry = recordings.remove(id);
+            discard(entry);
+            logger.info("Deleted old recording {}", entry.recording().getName());
+        }
+    }
+
+    private static void discard(Entry entry) {
+        entry.recording().close();
+        try {
+            Files.deleteIfExists(entry.file());
+        } catch (IOException e) {
+            logger.warn("Could not delete recording file {}", entry.file(), e);
+        }
+    }
+
+    private static RecordingResponse toResponse(Entry entry) {
+        Recording recording = entry.recording();
+        // JFR closes a recording once it has written it to its destination
+        boolean running = recording.getState() == RecordingState.RUNNING;
+        Long size = null;
+        if (!running) {
+            try {
+                size = Files.exists(entry.file()) ? Files.size(entry.file()) : null;
+            } catch (IOException e) {
+                logger.warn("Could not read size of recording file {}", entry.file(), e);
+            }
+        }
+        return RecordingResponse.builder()
+                .id(recording.getId())
+                .name(recording.getName())
+                .state(running ? RecordingState.RUNNING.name() : RecordingState.STOPPED.name())
+                .settings(entry.settings())
+                .startedAt(toLocal(recording.getStartTime()))
+                .stoppedAt(running ? null : toLocal(recording.getStopTime()))
+                .durationSeconds(recording.getDuration().toSeconds())
+                .maxSizeBytes(recording.getMaxSize())
+                .fileName(entry.file().getFileName().toString())
+                .sizeBytes(size)
+                .build();
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private record Entry(Recording recording, Path file, String settings) {
+    }
+}
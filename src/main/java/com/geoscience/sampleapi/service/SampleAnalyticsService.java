@@ -0,0 +1,401 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.AnalyticsProperties;
+import com.geoscience.sampleapi.dto.DensityResponse;
+import com.geoscience.sampleapi.dto.NearestNeighborRequest;
+import com.geoscience.sampleapi.dto.NearestNeighborResult;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import com.geoscience.sampleapi.spatial.KdTree;
+import com.geoscience.sampleapi.spatial.SpatialKeys;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Batch geospatial analytics over an in-memory snapshot of the catalogue.
+ *
+ * The snapshot holds every sample with coordinates in primitive arrays, with
+ * one k-d tree over all samples and one per sample type. It is loaded on first
+ * use and rebuilt in the background after samples change (see
+ * {@link SampleChangedEvent}), so results may lag writes by up to
+ * {@code app.analytics.refresh-interval} plus the rebuild time.
+ *
+ * Query batches are split across cores with fork/join; each query only reads
+ * the immutable snapshot, so no locking is needed.
+ */
+@Service
+public class SampleAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleAnalyticsService.class);
+
+    private static final String SELECT_POSITIONS = "SELECT id, sample_type, latitude, longitude, unit_x, unit_y, unit_z "
+            + "FROM samples WHERE deleted_at IS NULL AND unit_x IS NOT NULL";
+    private static final int DEFAULT_NEIGHBORS = 5;
+    private static final int SEQUENTIAL_THRESHOLD = 64;
+    private static final GeologicalSample.SampleType[] TYPES = GeologicalSample.SampleType.values();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AnalyticsProperties properties;
+    private final ForkJoinPool pool;
+    private final AtomicBoolean stale = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    public SampleAnalyticsService(JdbcTemplate jdbcTemplate, AnalyticsProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.pool = properties.getParallelism() > 0 ? new ForkJoinPool(properties.getParallelism()) : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Mark the snapshot as outdated once a write has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSampleChanged(SampleChangedEvent event) {
+        stale.set(true);
+    }
+
+    /**
+     * Rebuild an outdated snapshot in the background. Nothing is loaded until
+     * the first analytics request.
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.refresh-interval:PT10S}",
+            initialDelayString = "${app.analytics.refresh-interval:PT10S}")
+    public void refreshIfStale() {
+        if (snapshot == null || !stale.get()) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.error("Analytics snapshot refresh failed", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pool != ForkJoinPool.commonPool()) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Find the nearest samples to each point of a batch.
+     *
+     * The request is validated and the snapshot taken before this returns;
+     * the results are computed one chunk ({@code app.analytics.chunk-size}
+     * points) at a time as the iterator is consumed, so they can be streamed.
+     *
+     * @param request the query points and options
+     * @return chunks of results, in request order
+     * @throws IllegalArgumentException if the request is invalid
+     */
+    public Iterator<List<NearestNeighborResult>> findNearest(NearestNeighborRequest request) {
+        List<NearestNeighborRequest.Point> points = request.getPoints();
+        if (points == null || points.isEmpty()) {
+            throw new IllegalArgumentException("At least one point is required");
+        }
+        if (points.size() > properties.getMaxPoints()) {
+            throw new IllegalArgumentException("At most " + properties.getMaxPoints() + " points are allowed per request");
+        }
+        int k = request.getK() == null ? DEFAULT_NEIGHBORS : request.getK();
+        if (k < 1 || k > properties.getMaxNeighbors()) {
+            throw new IllegalArgumentException("k must be between 1 and " + properties.getMaxNeighbors());
+        }
+        Double maxDistance = request.getMaxDistanceMeters();
+        if (maxDistance != null && !(maxDistance > 0)) {
+            throw new IllegalArgumentException("maxDistanceMeters must be positive");
+        }
+        double maxChord2 = maxDistance == null ? Double.POSITIVE_INFINITY : KdTree.metersToChord2(maxDistance);
+
+        double[] queries = new double[points.size() * 3];
+        for (int i = 0; i < points.size(); i++) {
+            NearestNeighborRequest.Point point = points.get(i);
+            if (point == null || point.getLatitude() == null || point.getLongitude() == null) {
+                throw new IllegalArgumentException("Point " + i + " needs a latitude and a longitude");
+            }
+            double latitude = point.getLatitude();
+            double longitude = point.getLongitude();
+            if (latitude < -90.0 || latitude > 90.0 || longitude < -180.0 || longitude > 180.0) {
+                throw new IllegalArgumentException("Point " + i + " is out of range: " + latitude + ", " + longitude);
+            }
+            double[] unit = SpatialKeys.unitVector(latitude, longitude);
+            System.arraycopy(unit, 0, queries, i * 3, 3);
+        }
+
+        Snapshot current = snapshot();
+        GeologicalSample.SampleType type = request.getSampleType();
+        KdTree tree = type == null ? current.all() : current.byType()[type.ordinal()];
+        int[] indexMap = type == null ? null : current.byTypeIndex()[type.ordinal()];
+        logger.debug("Nearest-neighbour batch: {} points, k={}, type={}, {} candidates",
+                points.size(), k, type, tree.size());
+
+        int total = points.size();
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < total;
+            }
+
+            @Override
+            public List<NearestNeighborResult> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int from = next;
+                int to = Math.min(total, from + chunkSize);
+                NearestNeighborResult[] results = new NearestNeighborResult[to - from];
+                pool.invoke(new RangeTask(from, to, (lo, hi) -> {
+                    int[] found = new int[k];
+                    double[] chord2 = new double[k];
+                    for (int i = lo; i < hi; i++) {
+                        int n = tree.nearest(queries[i * 3], queries[i * 3 + 1], queries[i * 3 + 2],
+                                k, maxChord2, found, chord2);
+                        List<NearestNeighborResult.Neighbor> neighbors = new ArrayList<>(n);
+                        for (int j = 0; j < n; j++) {
+                            int sample = indexMap == null ? found[j] : indexMap[found[j]];
+                            neighbors.add(new NearestNeighborResult.Neighbor(current.id(sample),
+                                    KdTree.chordToMeters(chord2[j])));
+                        }
+                        results[i - from] = new NearestNeighborResult(i, neighbors);
+                    }
+                }));
+                next = to;
+                return Arrays.asList(results);
+            }
+        };
+    }
+
+    /**
+     * Count samples per grid cell.
+     *
+     * @param cellDegrees cell size in degrees of latitude and longitude
+     * @param sampleType only count samples of this type; all types when null
+     * @param minLatitude southern edge of the grid
+     * @param maxLatitude northern edge of the grid
+     * @param minLongitude western edge of the grid
+     * @param maxLongitude eastern edge of the grid
+     * @return the non-empty cells
+     * @throws IllegalArgumentException if the grid is invalid or too large
+     */
+    public DensityResponse density(double cellDegrees, GeologicalSample.SampleType sampleType,
+                                   double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {
+        if (!(cellDegrees > 0)) {
+            throw new IllegalArgumentException("cellDegrees must be positive");
+        }
+        if (minLatitude < -90.0 || maxLatitude > 90.0 || minLongitude < -180.0 || maxLongitude > 180.0
+                || !(minLatitude < maxLatitude) || !(minLongitude < maxLongitude)) {
+            throw new IllegalArgumentException("Invalid bounding box");
+        }
+        long rows = (long) Math.ceil((maxLatitude - minLatitude) / cellDegrees);
+        long columns = (long) Math.ceil((maxLongitude - minLongitude) / cellDegrees);
+        if (rows * columns > properties.getMaxDensityCells()) {
+            throw new IllegalArgumentException("Grid of " + rows + " x " + columns + " cells exceeds the limit of "
+                    + properties.getMaxDensityCells() + " cells; use larger cells or a smaller area");
+        }
+
+        Snapshot current = snapshot();
+        int size = current.size();
+        byte type = sampleType == null ? -1 : (byte) sampleType.ordinal();
+        int[] cellOf = new int[size];
+        pool.invoke(new RangeTask(0, size, (lo, hi) -> {
+            for (int i = lo; i < hi; i++) {
+                double latitude = current.latitudes()[i];
+                double longitude = current.longitudes()[i];
+                if ((type >= 0 && current.types()[i] != type) || latitude < minLatitude || latitude > maxLatitude
+                        || longitude < minLongitude || longitude > maxLongitude) {
+                    cellOf[i] = -1;
+                    continue;
+                }
+                // Points on the northern or eastern edge belong to the last cell
+                int row = (int) Math.min(rows - 1, (long) ((latitude - minLatitude) / cellDegrees));
+                int column = (int) Math.min(columns - 1, (long) ((longitude - minLongitude) / cellDegrees));
+                cellOf[i] = (int) (row * columns + column);
+            }
+        }));
+
+        int[] counts = new int[(int) (rows * columns)];
+        long total = 0;
+        for (int cell : cellOf) {
+            if (cell >= 0) {
+                counts[cell]++;
+                total++;
+            }
+        }
+        List<DensityResponse.Cell> cells = new ArrayList<>();
+        for (int cell = 0; cell < counts.length; cell++) {
+            if (counts[cell] > 0) {
+                cells.add(new DensityResponse.Cell(minLatitude + (cell / columns) * cellDegrees,
+                        minLongitude + (cell % columns) * cellDegrees, counts[cell]));
+            }
+        }
+        return DensityResponse.builder()
+                .cellDegrees(cellDegrees)
+                .sampleType(sampleType)
+                .total(total)
+                .snapshotAt(current.takenAt())
+                .cells(cells)
+                .build();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            return snapshot != null ? snapshot : rebuild();
+        }
+    }
+
+    /**
+     * Load a fresh snapshot of the catalogue and build its trees.
+     *
+     * @return the new snapshot, which is also published to queries
+     */
+    synchronized Snapshot rebuild() {
+        long start = System.nanoTime();
+        stale.set(false);
+        LocalDateTime takenAt = LocalDateTime.now();
+        Loader loader = new Loader();
+        jdbcTemplate.query(SELECT_POSITIONS, loader::add);
+        Snapshot built = loader.build(takenAt);
+        snapshot = built;
+        logger.info("Built analytics snapshot of {} samples in {} ms", built.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+
+    /**
+     * Immutable, array-backed view of all samples with coordinates.
+     */
+    record Snapshot(LocalDateTime takenAt, int size, long[] idHigh, long[] idLow, byte[] types,
+                    double[] latitudes, double[] longitudes, KdTree all, KdTree[] byType, int[][] byTypeIndex) {
+
+        UUID id(int index) {
+            return new UUID(idHigh[index], idLow[index]);
+        }
+    }
+
+    /**
+     * Collects result rows into growable primitive arrays.
+     */
+    private static final class Loader {
+        private int size;
+        private long[] idHigh = new long[1024];
+        private long[] idLow = new long[1024];
+        private byte[] types = new byte[1024];
+        private double[] latitudes = new double[1024];
+        private double[] longitudes = new double[1024];
+        private double[] xs = new double[1024];
+        private double[] ys = new double[1024];
+        private double[] zs = new double[1024];
+
+        void add(ResultSet row) throws SQLException {
+            if (size == xs.length) {
+                int capacity = size * 2;
+                idHigh = Arrays.copyOf(idHigh, capacity);
+                idLow = Arrays.copyOf(idLow, capacity);
+                types = Arrays.copyOf(types, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                zs = Arrays.copyOf(zs, capacity);
+            }
+            ByteBuffer id = ByteBuffer.wrap(row.getBytes("id"));
+            idHigh[size] = id.getLong();
+            idLow[size] = id.getLong();
+            types[size] = (byte) GeologicalSample.SampleType.valueOf(row.getString("sample_type")).ordinal();
+            latitudes[size] = row.getDouble("latitude");
+            longitudes[size] = row.getDouble("longitude");
+            xs[size] = row.getDouble("unit_x");
+            ys[size] = row.getDouble("unit_y");
+            zs[size] = row.getDouble("unit_z");
+            size++;
+        }
+
+        Snapshot build(LocalDateTime takenAt) {
+            KdTree all = KdTree.build(xs, ys, zs, size);
+            KdTree[] byType = new KdTree[TYPES.length];
+            int[][] byTypeIndex = new int[TYPES.length][];
+            for (int t = 0; t < TYPES.length; t++) {
+                int count = 0;
+                for (int i = 0; i < size; i++) {
+                    if (types[i] == t) {
+                        count++;
+                    }
+                }
+                int[] index = new int[count];
+                double[] x = new double[count];
+                double[] y = new double[count];
+                double[] z = new double[count];
+                for (int i = 0, j = 0; i < size; i++) {
+                    if (types[i] == t) {
+                        index[j] = i;
+                        x[j] = xs[i];
+                        y[j] = ys[i];
+                        z[j] = zs[i];
+                        j++;
+                    }
+                }
+                byType[t] = KdTree.build(x, y, z, count);
+                byTypeIndex[t] = index;
+            }
+            return new Snapshot(takenAt, size, Arrays.copyOf(idHigh, size), Arrays.copyOf(idLow, size),
+                    Arrays.copyOf(types, size), Arrays.copyOf(latitudes, size), Arrays.copyOf(longitudes, size),
+                    all, byType, byTypeIndex);
+        }
+    }
+
+    /**
+     * Work on an index range, split in halves across the pool down to
+     * {@link #SEQUENTIAL_THRESHOLD} indices.
+     */
+    private static final class RangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final RangeBody body;
+
+        RangeTask(int from, int to, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                body.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, body), new RangeTask(mid, to, body));
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeBody {
+        void run(int from, int to);
+    }
+}
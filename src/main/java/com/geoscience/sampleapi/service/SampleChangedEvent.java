@@ -0,0 +1,25 @@
+package com.geoscience.sampleapi.service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published whenever samples are created, updated or deleted, so that
+ * in-memory views of the catalogue can be refreshed.
+ *
+ * The event is published inside the writing transaction; listeners that read
+ * the database should use {@code @TransactionalEventListener} to run after
+ * the commit.
+ *
+ * @param kind what happened to the samples
+ * @param ids the affected samples; empty when a bulk job changed an unknown set
+ */
+public record SampleChangedEvent(Kind kind, List<UUID> ids) {
+
+    /**
+     * Kind of change.
+     */
+    public enum Kind {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,419 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.columnar.SampleColumns;
+import com.geoscience.sampleapi.config.ColumnarProperties;
+import com.geoscience.sampleapi.dto.SampleFilter;
+import com.geoscience.sampleapi.dto.SampleFilterResponse;
+import com.geoscience.sampleapi.dto.SampleStatsResponse;
+import com.geoscience.sampleapi.exception.FeatureDisabledException;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+/**
+ * Keeps a columnar copy of the catalogue in memory (see {@link SampleColumns})
+ * and answers stats and filter queries from it without touching SQLite.
+ *
+ * The copy is loaded once and then kept current from {@link SampleChangedEvent}s:
+ * the IDs of changed samples are queued, and their current rows are read back
+ * and applied every {@code app.columnar.refresh-interval} and before each
+ * query, so a query sees every write committed before it started. A change
+ * without IDs (a bulk job) reloads the whole copy.
+ *
+ * Queries share a read lock; applying changes takes the write lock briefly.
+ */
+@Service
+public class SampleColumnStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleColumnStore.class);
+
+    private static final String SELECT_COLUMNS = "SELECT id, sample_type, collection_date, latitude, longitude, "
+            + "collector_name, location_name, description FROM samples WHERE deleted_at IS NULL";
+    private static final int DEFAULT_TOP = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ColumnarProperties properties;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
+    private final Object refreshLock = new Object();
+    private SampleColumns columns;
+    private volatile LocalDateTime asOf;
+
+    public SampleColumnStore(JdbcTemplate jdbcTemplate, ColumnarProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Queue the changed samples once the write has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSampleChanged(SampleChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (event.ids().isEmpty()) {
+            reloadRequested.set(true);
+        } else {
+            pending.addAll(event.ids());
+        }
+    }
+
+    /**
+     * Load the copy after startup and apply queued changes in the background.
+     */
+    @Scheduled(fixedDelayString = "${app.columnar.refresh-interval:PT1S}",
+            initialDelayString = "${app.columnar.refresh-interval:PT1S}")
+    public void refresh() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            catchUp();
+        } catch (RuntimeException e) {
+            logger.error("Columnar copy refresh failed", e);
+        }
+    }
+
+    /**
+     * Compute summary statistics over the matching samples.
+     *
+     * @param filter which samples to include
+     * @param interval histogram period
+     * @param top how many of the most frequent collectors and locations to list
+     * @return the statistics
+     * @throws IllegalArgumentException if the filter is invalid
+     * @throws FeatureDisabledException if the columnar copy is disabled
+     */
+    public SampleStatsResponse stats(SampleFilter filter, SampleStatsResponse.Interval interval, Integer top) {
+        requireEnabled();
+        int limit = top == null ? DEFAULT_TOP : top;
+        if (limit < 0 || limit > 100) {
+            throw new IllegalArgumentException("top must be between 0 and 100");
+        }
+        catchUp();
+        lock.readLock().lock();
+        try {
+            long[] mask = select(filter);
+            int[] typeCounts = new int[GeologicalSample.SampleType.values().length];
+            int[] collectorCounts = new int[columns.collectorCodes()];
+            int[] locationCounts = new int[columns.locationCodes()];
+            int total = 0;
+            int located = 0;
+            int minDay = Integer.MAX_VALUE;
+            int maxDay = Integer.MIN_VALUE;
+            double minLatitude = Double.POSITIVE_INFINITY;
+            double maxLatitude = Double.NEGATIVE_INFINITY;
+            double minLongitude = Double.POSITIVE_INFINITY;
+            double maxLongitude = Double.NEGATIVE_INFINITY;
+            for (int slot = SampleColumns.next(mask, 0); slot >= 0; slot = SampleColumns.next(mask, slot + 1)) {
+                total++;
+                typeCounts[columns.type(slot).ordinal()]++;
+                collectorCounts[columns.collectorCode(slot)]++;
+                locationCounts[columns.locationCode(slot)]++;
+                int day = columns.collectionDay(slot);
+                minDay = Math.min(minDay, day);
+                maxDay = Math.max(maxDay, day);
+                double latitude = columns.latitude(slot);
+                if (!Double.isNaN(latitude)) {
+                    located++;
+                    double longitude = columns.longitude(slot);
+                    minLatitude = Math.min(minLatitude, latitude);
+                    maxLatitude = Math.max(maxLatitude, latitude);
+                    minLongitude = Math.min(minLongitude, longitude);
+                    maxLongitude = Math.max(maxLongitude, longitude);
+                }
+            }
+
+            Map<GeologicalSample.SampleType, Long> byType = new EnumMap<>(GeologicalSample.SampleType.class);
+            for (GeologicalSample.SampleType type : GeologicalSample.SampleType.values()) {
+                byType.put(type, (long) typeCounts[type.ordinal()]);
+            }
+            // Code 0 is "no location", which is not a value worth ranking
+            locationCounts[0] = 0;
+            return SampleStatsResponse.builder()
+                    .total(total)
+                    .byType(byType)
+                    .earliestCollectionDate(total == 0 ? null : LocalDate.ofEpochDay(minDay))
+                    .latestCollectionDate(total == 0 ? null : LocalDate.ofEpochDay(maxDay))
+                    .located(located)
+                    .minLatitude(located == 0 ? null : minLatitude)
+                    .maxLatitude(located == 0 ? null : maxLatitude)
+                    .minLongitude(located == 0 ? null : minLongitude)
+                    .maxLongitude(located == 0 ? null : maxLongitude)
+                    .topCollectors(top(collectorCounts, limit, columns::collectorName))
+                    .topLocations(top(locationCounts, limit, columns::locationName))
+                    .interval(interval)
+                    .histogram(total == 0 ? List.of() : histogram(mask, interval, minDay, maxDay))
+                    .asOf(asOf)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * List one page of the matching samples, in no particular order.
+     *
+     * @param filter which samples to include
+     * @param offset matching samples to skip
+     * @param limit page size, at most {@code app.columnar.max-results}
+     * @return the page and the total number of matches
+     * @throws IllegalArgumentException if the filter or page is invalid
+     * @throws FeatureDisabledException if the columnar copy is disabled
+     */
+    public SampleFilterResponse filter(SampleFilter filter, int offset, int limit) {
+        requireEnabled();
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        if (limit < 0 || limit > properties.getMaxResults()) {
+            throw new IllegalArgumentException("limit must be between 0 and " + properties.getMaxResults());
+        }
+        catchUp();
+        lock.readLock().lock();
+        try {
+            long[] mask = select(filter);
+            List<SampleFilterResponse.Row> rows = new ArrayList<>(Math.min(limit, 1024));
+            int skipped = 0;
+            for (int slot = SampleColumns.next(mask, 0); slot >= 0 && rows.size() < limit;
+                 slot = SampleColumns.next(mask, slot + 1)) {
+                if (skipped++ < offset) {
+                    continue;
+                }
+                double latitude = columns.latitude(slot);
+                double longitude = columns.longitude(slot);
+                rows.add(SampleFilterResponse.Row.builder()
+                        .id(columns.id(slot))
+                        .sampleType(columns.type(slot))
+                        .collectionDate(LocalDate.ofEpochDay(columns.collectionDay(slot)))
+                        .latitude(Double.isNaN(latitude) ? null : latitude)
+                        .longitude(Double.isNaN(longitude) ? null : longitude)
+                        .collectorName(columns.collectorName(columns.collectorCode(slot)))
+                        .locationName(columns.locationName(columns.locationCode(slot)))
+                        .build());
+            }
+            return SampleFilterResponse.builder()
+                    .total(SampleColumns.count(mask))
+                    .offset(offset)
+                    .samples(rows)
+                    .asOf(asOf)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Apply queued changes, loading or reloading the copy first if needed.
+     */
+    void catchUp() {
+        synchronized (refreshLock) {
+            if (columns == null || reloadRequested.getAndSet(false)) {
+                reload();
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            LocalDateTime start = LocalDateTime.now();
+            List<UUID> ids = new ArrayList<>(pending);
+            pending.removeAll(ids);
+            int batchSize = Math.max(1, properties.getReloadBatchSize());
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                List<UUID> batch = ids.subList(from, Math.min(ids.size(), from + batchSize));
+                List<Row> rows = jdbcTemplate.query(SELECT_COLUMNS + " AND id IN ("
+                                + String.join(",", Collections.nCopies(batch.size(), "?")) + ")",
+                        (row, rowNum) -> read(row), batch.stream().map(SampleColumnStore::bytes).toArray());
+                lock.writeLock().lock();
+                try {
+                    Set<UUID> present = new HashSet<>();
+                    for (Row row : rows) {
+                        row.applyTo(columns);
+                        present.add(row.id());
+                    }
+                    // Samples that are no longer readable were deleted
+                    for (UUID id : batch) {
+                        if (!present.contains(id)) {
+                            columns.remove(id);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            asOf = start;
+            logger.debug("Applied {} sample changes to the columnar copy", ids.size());
+        }
+    }
+
+    private void reload() {
+        long startNanos = System.nanoTime();
+        LocalDateTime start = LocalDateTime.now();
+        SampleColumns loaded = new SampleColumns();
+        jdbcTemplate.query(SELECT_COLUMNS, row -> {
+            read(row).applyTo(loaded);
+        });
+        lock.writeLock().lock();
+        try {
+            columns = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        asOf = start;
+        logger.info("Loaded columnar copy of {} samples in {} ms ({} MB heap, {} MB off-heap)", loaded.size(),
+                (System.nanoTime() - startNanos) / 1_000_000, loaded.heapBytes() >> 20, loaded.offHeapBytes() >> 20);
+    }
+
+    private long[] select(SampleFilter filter) {
+        long[] mask = columns.liveMask();
+        if (filter == null) {
+            return mask;
+        }
+        if (filter.getSampleTypes() != null && !filter.getSampleTypes().isEmpty()) {
+            int typeBits = 0;
+            for (GeologicalSample.SampleType type : filter.getSampleTypes()) {
+                typeBits |= 1 << type.ordinal();
+            }
+            columns.retainTypes(mask, typeBits);
+        }
+        if (filter.getCollectedFrom() != null || filter.getCollectedTo() != null) {
+            int from = filter.getCollectedFrom() == null
+                    ? SampleColumns.MIN_DAY : (int) filter.getCollectedFrom().toEpochDay();
+            int to = filter.getCollectedTo() == null
+                    ? SampleColumns.MAX_DAY : (int) filter.getCollectedTo().toEpochDay();
+            if (from > to) {
+                throw new IllegalArgumentException("collectedFrom must not be after collectedTo");
+            }
+            columns.retainCollectionDays(mask, from, to);
+        }
+        if (filter.getMinLat() != null || filter.getMaxLat() != null
+                || filter.getMinLon() != null || filter.getMaxLon() != null) {
+            double minLatitude = filter.getMinLat() == null ? -90.0 : filter.getMinLat();
+            double maxLatitude = filter.getMaxLat() == null ? 90.0 : filter.getMaxLat();
+            double minLongitude = filter.getMinLon() == null ? -180.0 : filter.getMinLon();
+            double maxLongitude = filter.getMaxLon() == null ? 180.0 : filter.getMaxLon();
+            if (!(minLatitude <= maxLatitude) || !(minLongitude <= maxLongitude)) {
+                throw new IllegalArgumentException("Invalid bounding box");
+            }
+            columns.retainBoundingBox(mask, minLatitude, maxLatitude, minLongitude, maxLongitude);
+        }
+        if (filter.getCollector() != null && !filter.getCollector().isBlank()) {
+            columns.retainCollector(mask, filter.getCollector().trim());
+        }
+        if (filter.getLocation() != null && !filter.getLocation().isBlank()) {
+            columns.retainLocation(mask, filter.getLocation().trim());
+        }
+        // Last, because it is the only filter that reads text
+        if (filter.getText() != null && !filter.getText().isBlank()) {
+            columns.retainDescriptionContaining(mask, filter.getText().trim());
+        }
+        return mask;
+    }
+
+    /**
+     * Count per day first, then fold days into periods, so dates are only
+     * converted once per distinct day rather than once per sample.
+     */
+    private List<SampleStatsResponse.Bucket> histogram(long[] mask, SampleStatsResponse.Interval interval,
+                                                       int minDay, int maxDay) {
+        int[] perDay = new int[maxDay - minDay + 1];
+        for (int slot = SampleColumns.next(mask, 0); slot >= 0; slot = SampleColumns.next(mask, slot + 1)) {
+            perDay[columns.collectionDay(slot) - minDay]++;
+        }
+        List<SampleStatsResponse.Bucket> buckets = new ArrayList<>();
+        SampleStatsResponse.Bucket current = null;
+        for (int i = 0; i < perDay.length; i++) {
+            if (perDay[i] == 0) {
+                continue;
+            }
+            LocalDate day = LocalDate.ofEpochDay(minDay + i);
+            LocalDate start = switch (interval) {
+                case DAY -> day;
+                case MONTH -> day.withDayOfMonth(1);
+                case YEAR -> day.withDayOfYear(1);
+            };
+            if (current == null || !current.getStart().equals(start)) {
+                current = new SampleStatsResponse.Bucket(start, 0);
+                buckets.add(current);
+            }
+            current.setCount(current.getCount() + perDay[i]);
+        }
+        return buckets;
+    }
+
+    private static List<SampleStatsResponse.ValueCount> top(int[] counts, int limit,
+                                                            IntFunction<String> names) {
+        List<SampleStatsResponse.ValueCount> top = new ArrayList<>();
+        boolean[] taken = new boolean[counts.length];
+        for (int n = 0; n < limit; n++) {
+            int best = -1;
+            for (int code = 1; code < counts.length; code++) {
+                if (!taken[code] && counts[code] > 0 && (best < 0 || counts[code] > counts[best])) {
+                    best = code;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            taken[best] = true;
+            top.add(new SampleStatsResponse.ValueCount(names.apply(best), counts[best]));
+        }
+        return top;
+    }
+
+    private void requireEnabled() {
+        if (!properties.isEnabled()) {
+            throw new FeatureDisabledException("Columnar analytics are disabled; set COLUMNAR_ENABLED=true to enable them");
+        }
+    }
+
+    private static Row read(ResultSet row) throws SQLException {
+        ByteBuffer id = ByteBuffer.wrap(row.getBytes("id"));
+        double latitude = row.getDouble("latitude");
+        Double boxedLatitude = row.wasNull() ? null : latitude;
+        double longitude = row.getDouble("longitude");
+        Double boxedLongitude = row.wasNull() ? null : longitude;
+        return new Row(new UUID(id.getLong(), id.getLong()),
+                GeologicalSample.SampleType.valueOf(row.getString("sample_type")),
+                row.getDate("collection_date").toLocalDate(), boxedLatitude, boxedLongitude,
+                row.getString("collector_name"), row.getString("location_name"), row.getString("description"));
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+
+    /**
+     * A sample row as read from the database.
+     */
+    private record Row(UUID id, GeologicalSample.SampleType type, LocalDate collectionDate, Double latitude,
+                       Double longitude, String collectorName, String locationName, String description) {
+
+        void applyTo(SampleColumns target) {
+            target.upsert(id, type, collectionDate, latitude, longitude, collectorName, locationName, description);
+        }
+    }
+}
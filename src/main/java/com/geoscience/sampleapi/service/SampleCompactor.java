@@ -0,0 +1,222 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.CompactionProperties;
+import com.geoscience.sampleapi.config.SyncProperties;
+import com.geoscience.sampleapi.dto.VacuumConversionResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Purges soft-deleted samples and expired sync tombstones, then returns the
+ * freed pages to the file system.
+ *
+ * Deleting a sample only marks its row, so the compactor does the actual
+ * removal in the background: one short transaction per batch with a pause in
+ * between, so that regular writes can interleave. Freed pages are released
+ * with {@code PRAGMA incremental_vacuum}, a bounded number per run, instead of
+ * a full {@code VACUUM} that would rewrite the whole file. With partitioned
+ * storage, every partition file is compacted the same way after the main one.
+ *
+ * Incremental vacuum only works on files in {@code auto_vacuum = INCREMENTAL}
+ * mode. Switching an existing file takes a full {@code VACUUM}, which holds
+ * the write lock for as long as it runs, so the scheduled run never does it:
+ * an admin triggers it once with {@link #convertToIncremental()}.
+ */
+@Component
+public class SampleCompactor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleCompactor.class);
+
+    private static final String PURGE_SAMPLES = "DELETE FROM samples WHERE id IN "
+            + "(SELECT id FROM samples WHERE deleted_at IS NOT NULL AND deleted_at < ? LIMIT ?)";
+    private static final String PURGE_TOMBSTONES = "DELETE FROM sample_tombstones WHERE id IN "
+            + "(SELECT id FROM sample_tombstones WHERE deleted_at < ? LIMIT ?)";
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+    private static final String MAIN_DATABASE = "main";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CompactionProperties properties;
+    private final SyncProperties syncProperties;
+    private final SamplePartitions partitions;
+
+    public SampleCompactor(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                           CompactionProperties properties, SyncProperties syncProperties, SamplePartitions partitions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.syncProperties = syncProperties;
+        this.partitions = partitions;
+    }
+
+    /**
+     * Scheduled entry point; does nothing when compaction is disabled.
+     */
+    @Scheduled(fixedDelayString = "${app.compaction.interval:PT1H}",
+            initialDelayString = "${app.compaction.initial-delay:PT1M}")
+    public synchronized void scheduledCompaction() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            logger.error("Compaction failed", e);
+        }
+        if (partitions.isEnabled()) {
+            for (String partition : partitions.names()) {
+                try {
+                    partitions.callIn(partition, this::compact);
+                } catch (RuntimeException e) {
+                    logger.error("Compaction of partition {} failed", partition, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Purge expired rows and release free pages.
+     *
+     * @return what was purged and released
+     */
+    public Result compact() {
+        LocalDateTime now = LocalDateTime.now();
+        int samples = purge(PURGE_SAMPLES, now.minus(properties.getPurgeAfter()));
+        int tombstones = purge(PURGE_TOMBSTONES, now.minus(syncProperties.getTombstoneRetention()));
+        long pages = releaseFreePages();
+        Result result = new Result(samples, tombstones, pages);
+        if (samples > 0 || tombstones > 0 || pages > 0) {
+            logger.info("Compaction purged {} deleted samples and {} tombstones, released {} pages",
+                    samples, tombstones, pages);
+        }
+        return result;
+    }
+
+    private int purge(String statement, LocalDateTime before) {
+        int total = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status ->
+                    jdbcTemplate.update(statement, Timestamp.valueOf(before), properties.getBatchSize()));
+            if (deleted == null || deleted == 0) {
+                return total;
+            }
+            total += deleted;
+            if (deleted < properties.getBatchSize()) {
+                return total;
+            }
+            pause();
+        }
+    }
+
+    /**
+     * Switch the main database, and every partition file, to incremental
+     * auto-vacuum so that compaction can release free pages. Files already in
+     * that mode are left alone.
+     *
+     * Each conversion rewrites the file with a full {@code VACUUM}: writes to
+     * it wait (and may time out) until it finishes, and it needs free disk
+     * space for a second copy of the file. Run it in a quiet period.
+     *
+     * @return one entry per database file
+     */
+    public synchronized List<VacuumConversionResponse> convertToIncremental() {
+        List<VacuumConversionResponse> results = new ArrayList<>();
+        results.add(convert(MAIN_DATABASE));
+        if (partitions.isEnabled()) {
+            for (String partition : partitions.names()) {
+                results.add(partitions.callIn(partition, () -> convert(partition)));
+            }
+        }
+        return results;
+    }
+
+    private VacuumConversionResponse convert(String database) {
+        long sizeBefore = databaseSize();
+        VacuumConversionResponse.VacuumConversionResponseBuilder result = VacuumConversionResponse.builder()
+                .database(database)
+                .sizeBeforeBytes(sizeBefore)
+                .sizeAfterBytes(sizeBefore);
+        if (isIncremental()) {
+            return result.converted(false).build();
+        }
+        logger.info("Converting database {} to incremental auto-vacuum", database);
+        long start = System.nanoTime();
+        // The mode of an existing database only changes with a full VACUUM
+        // on the same connection (outside a transaction)
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA auto_vacuum = INCREMENTAL");
+                statement.execute("VACUUM");
+            }
+            return null;
+        });
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        long sizeAfter = databaseSize();
+        logger.info("Converted database {} in {} ms, {} -> {} bytes", database, durationMs, sizeBefore, sizeAfter);
+        return result.converted(true).sizeAfterBytes(sizeAfter).durationMs(durationMs).build();
+    }
+
+    private boolean isIncremental() {
+        Integer mode = jdbcTemplate.queryForObject("PRAGMA auto_vacuum", Integer.class);
+        return mode != null && mode == AUTO_VACUUM_INCREMENTAL;
+    }
+
+    private long databaseSize() {
+        Long pages = jdbcTemplate.queryForObject("PRAGMA page_count", Long.class);
+        Long pageSize = jdbcTemplate.queryForObject("PRAGMA page_size", Long.class);
+        return pages == null || pageSize == null ? 0 : pages * pageSize;
+    }
+
+    private long releaseFreePages() {
+        if (!isIncremental()) {
+            logger.debug("Database is not in incremental auto-vacuum mode, free pages are kept");
+            return 0;
+        }
+        Long before = jdbcTemplate.queryForObject("PRAGMA freelist_count", Long.class);
+        if (before == null || before == 0) {
+            return 0;
+        }
+        // The pragma frees one page per step, but the driver steps it only once
+        // per execution, so it is repeated (in one transaction)
+        long pages = Math.min(before, properties.getVacuumPagesPerRun());
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                for (long i = 0; i < pages; i++) {
+                    statement.execute("PRAGMA incremental_vacuum(1)");
+                }
+            }
+            return null;
+        }));
+        Long after = jdbcTemplate.queryForObject("PRAGMA freelist_count", Long.class);
+        return before - (after == null ? 0 : after);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(properties.getBatchPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Outcome of one compaction run.
+     *
+     * @param purgedSamples soft-deleted samples removed
+     * @param purgedTombstones sync tombstones removed
+     * @param releasedPages free pages returned to the file system
+     */
+    public record Result(int purgedSamples, int purgedTombstones, long releasedPages) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.columnar.ExportFormat;
+import com.geoscience.sampleapi.columnar.SampleBatch;
+import com.geoscience.sampleapi.columnar.SampleBatchWriter;
+import com.geoscience.sampleapi.config.ExportProperties;
+import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Bulk export of the live samples in a columnar format (see
+ * {@link ExportFormat}).
+ *
+ * Rows are read with a single forward-only query, which the SQLite driver
+ * steps through lazily, and collected into one reusable {@link SampleBatch}
+ * that is written out whenever it fills up. Memory use is therefore bounded
+ * by the batch size, whatever the size of the catalogue. With partitioned
+ * storage the partitions are exported one after the other into the same
+ * stream. Rows come in storage order, not sorted.
+ */
+@Service
+public class SampleExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleExportService.class);
+
+    private static final String SELECT_SAMPLES = "SELECT id, sample_identifier, sample_name, sample_type, "
+            + "collection_date, latitude, longitude, location_name, collector_name, description, "
+            + "storage_location, created_at, updated_at FROM samples WHERE deleted_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SamplePartitions partitions;
+    private final ExportProperties properties;
+
+    public SampleExportService(JdbcTemplate jdbcTemplate, SamplePartitions partitions, ExportProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitions = partitions;
+        this.properties = properties;
+    }
+
+    /**
+     * Write every live sample to a stream.
+     *
+     * @param format the file format
+     * @param out where to write; not closed
+     * @return the number of samples written
+     */
+    public long export(ExportFormat format, OutputStream out) throws IOException {
+        SampleBatchWriter writer = format.open(out);
+        SampleBatch batch = new SampleBatch(properties.getBatchSize());
+        long[] count = {0};
+        try {
+            if (!partitions.isEnabled()) {
+                exportRows(writer, batch, count);
+            } else {
+                for (String partition : partitions.names()) {
+                    partitions.callIn(partition, () -> exportRows(writer, batch, count));
+                }
+            }
+            if (batch.size() > 0) {
+                writer.write(batch);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        logger.info("Exported {} samples as {}", count[0], format);
+        return count[0];
+    }
+
+    private Void exportRows(SampleBatchWriter writer, SampleBatch batch, long[] count) {
+        jdbcTemplate.query(SELECT_SAMPLES, row -> {
+            ByteBuffer id = ByteBuffer.wrap(row.getBytes("id"));
+            double latitude = row.getDouble("latitude");
+            Double boxedLatitude = row.wasNull() ? null : latitude;
+            double longitude = row.getDouble("longitude");
+            Double boxedLongitude = row.wasNull() ? null : longitude;
+            batch.add(SampleResponse.builder()
+                    .id(new UUID(id.getLong(), id.getLong()))
+                    .sampleIdentifier(row.getString("sample_identifier"))
+                    .sampleName(row.getString("sample_name"))
+                    .sampleType(GeologicalSample.SampleType.valueOf(row.getString("sample_type")))
+                    .collectionDate(row.getDate("collection_date").toLocalDate())
+                    .latitude(boxedLatitude)
+                    .longitude(boxedLongitude)
+                    .locationName(row.getString("location_name"))
+                    .collectorName(row.getString("collector_name"))
+                    .description(row.getString("description"))
+                    .storageLocation(row.getString("storage_location"))
+                    .createdAt(row.getTimestamp("created_at").toLocalDateTime())
+                    .updatedAt(row.getTimestamp("updated_at").toLocalDateTime())
+                    .build());
+            count[0]++;
+            if (batch.isFull()) {
+                try {
+                    writer.write(batch);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                batch.clear();
+            }
+        });
+        return null;
+    }
+}
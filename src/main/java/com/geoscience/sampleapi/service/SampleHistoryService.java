@@ -0,0 +1,369 @@
+package com.geoscience.sampleapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.geoscience.sampleapi.config.HistoryProperties;
+import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.dto.SampleRevisionResponse;
+import com.geoscience.sampleapi.exception.SampleNotFoundException;
+import com.geoscience.sampleapi.model.SampleRevision;
+import com.geoscience.sampleapi.repository.SampleRepository;
+import com.geoscience.sampleapi.repository.SampleRevisionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Append-only revision history of samples, for chain of custody.
+ *
+ * The samples row always holds the newest state, so the history only needs
+ * to say how to go back: each revision stores the previous values of the
+ * fields it changed. Creating a sample appends a marker without data, and an
+ * update appends about as much as it changed. Every
+ * {@code app.history.snapshot-interval}-th revision, and every deletion, also
+ * stores the full state after it, so that a past state is rebuilt from the
+ * nearest later snapshot (or the live row) by undoing a bounded number of
+ * deltas. Revisions are appended by {@link SampleService} in the transaction
+ * of the write they record.
+ *
+ * Samples that existed before the history was introduced have no revisions
+ * for their earlier changes; their history starts at their first change
+ * afterwards, and states before their last modification at that time are
+ * unknown.
+ */
+@Service
+@Transactional
+public class SampleHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleHistoryService.class);
+
+    /**
+     * Equal to the revision's change time, so not listed among the changes.
+     */
+    private static final String UPDATED_AT = "updatedAt";
+
+    private final SampleRevisionRepository revisionRepository;
+    private final SampleRepository sampleRepository;
+    private final HistoryProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public SampleHistoryService(SampleRevisionRepository revisionRepository, SampleRepository sampleRepository,
+                                HistoryProperties properties, ObjectMapper objectMapper) {
+        this.revisionRepository = revisionRepository;
+        this.sampleRepository = sampleRepository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Record newly created samples.
+     *
+     * @param samples the samples as saved
+     */
+    public void recordCreated(List<SampleResponse> samples) {
+        for (SampleResponse sample : samples) {
+            append(sample.getId(), 1, SampleRevision.Kind.CREATED, sample.getUpdatedAt(), null, () -> state(sample));
+        }
+    }
+
+    /**
+     * Record an update of a loaded sample. Nothing is recorded if no field
+     * changed.
+     *
+     * @param before the sample before the update
+     * @param after the sample after the update has been flushed
+     */
+    public void recordUpdated(SampleResponse before, SampleResponse after) {
+        ObjectNode oldState = state(before);
+        ObjectNode newState = state(after);
+        Set<String> fields = new LinkedHashSet<>();
+        oldState.fieldNames().forEachRemaining(fields::add);
+        newState.fieldNames().forEachRemaining(fields::add);
+        ObjectNode previous = objectMapper.createObjectNode();
+        for (String field : fields) {
+            JsonNode oldValue = oldState.path(field).isMissingNode() ? NullNode.getInstance() : oldState.get(field);
+            JsonNode newValue = newState.path(field).isMissingNode() ? NullNode.getInstance() : newState.get(field);
+            if (!oldValue.equals(newValue)) {
+                previous.set(field, oldValue);
+            }
+        }
+        if (previous.isEmpty()) {
+            return;
+        }
+        append(after.getId(), nextRevision(after.getId()), SampleRevision.Kind.UPDATED, after.getUpdatedAt(),
+                previous, () -> newState);
+    }
+
+    /**
+     * Record the same update of many samples, made without loading them.
+     *
+     * @param before for each updated sample, the values of {@code fields} before the update
+     * @param fields the updated fields, including {@code updatedAt}
+     * @param values the new values by field name
+     * @param changedAt the new modification time
+     */
+    public void recordUpdated(Map<UUID, Object[]> before, List<String> fields, Map<String, Object> values,
+                              LocalDateTime changedAt) {
+        if (before.isEmpty()) {
+            return;
+        }
+        Map<UUID, Integer> latest = new HashMap<>();
+        for (Object[] row : revisionRepository.findLatestRevisions(before.keySet())) {
+            latest.put((UUID) row[0], ((Number) row[1]).intValue());
+        }
+        // Full states are only needed for the samples reaching a snapshot
+        Map<UUID, Integer> revisions = new HashMap<>();
+        List<UUID> snapshotDue = new ArrayList<>();
+        for (UUID id : before.keySet()) {
+            int revision = latest.getOrDefault(id, 0) + 1;
+            revisions.put(id, revision);
+            if (isSnapshotDue(revision)) {
+                snapshotDue.add(id);
+            }
+        }
+        Map<UUID, ObjectNode> snapshots = new HashMap<>();
+        sampleRepository.findAllById(snapshotDue)
+                .forEach(sample -> snapshots.put(sample.getId(), state(SampleService.mapToResponse(sample))));
+
+        before.forEach((id, oldValues) -> {
+            ObjectNode previous = objectMapper.createObjectNode();
+            for (int i = 0; i < fields.size(); i++) {
+                String field = fields.get(i);
+                Object newValue = field.equals(UPDATED_AT) ? changedAt : values.get(field);
+                if (!Objects.equals(oldValues[i], newValue)) {
+                    previous.set(field, objectMapper.valueToTree(oldValues[i]));
+                }
+            }
+            append(id, revisions.get(id), SampleRevision.Kind.UPDATED, changedAt, previous, () -> snapshots.get(id));
+        });
+        logger.debug("Recorded bulk update of {} samples, {} with snapshots", before.size(), snapshotDue.size());
+    }
+
+    /**
+     * Record the deletion of a sample, with its final state.
+     *
+     * @param sample the sample as it was when deleted
+     * @param deletedAt the deletion time
+     */
+    public void recordDeleted(SampleResponse sample, LocalDateTime deletedAt) {
+        append(sample.getId(), nextRevision(sample.getId()), SampleRevision.Kind.DELETED, deletedAt, null,
+                () -> state(sample));
+    }
+
+    /**
+     * List the revisions of a sample, newest first, with the fields each one
+     * changed. A creation lists every field with its initial value.
+     *
+     * @param id the sample ID
+     * @param limit maximum number of revisions
+     * @return the revisions; empty for a sample that has not changed since the history was introduced
+     * @throws SampleNotFoundException if the sample has neither a history nor a row
+     * @throws IllegalArgumentException if the limit is out of range
+     */
+    @Transactional(readOnly = true)
+    public List<SampleRevisionResponse> getHistory(UUID id, int limit) {
+        if (limit < 1 || limit > properties.getMaxRevisions()) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + properties.getMaxRevisions());
+        }
+        List<SampleRevision> revisions = revisionRepository.findBySampleIdOrderByRevisionDesc(id, Limit.of(limit));
+        ObjectNode after = revisions.isEmpty() || revisions.get(0).getSnapshot() == null
+                ? currentState(id)
+                : read(revisions.get(0).getSnapshot());
+        if (after == null) {
+            throw new SampleNotFoundException(id);
+        }
+
+        List<SampleRevisionResponse> responses = new ArrayList<>(revisions.size());
+        for (SampleRevision revision : revisions) {
+            Map<String, SampleRevisionResponse.FieldChange> changes = new LinkedHashMap<>();
+            ObjectNode before = after;
+            if (revision.getKind() == SampleRevision.Kind.CREATED) {
+                for (Iterator<Map.Entry<String, JsonNode>> fields = after.fields(); fields.hasNext(); ) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    if (!field.getKey().equals(UPDATED_AT)) {
+                        changes.put(field.getKey(), new SampleRevisionResponse.FieldChange(null, field.getValue()));
+                    }
+                }
+            } else if (revision.getPrevious() != null) {
+                ObjectNode previous = read(revision.getPrevious());
+                for (Iterator<Map.Entry<String, JsonNode>> fields = previous.fields(); fields.hasNext(); ) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    if (!field.getKey().equals(UPDATED_AT)) {
+                        changes.put(field.getKey(),
+                                new SampleRevisionResponse.FieldChange(field.getValue(), after.get(field.getKey())));
+                    }
+                }
+                before = after.deepCopy();
+                before.setAll(previous);
+            }
+            responses.add(SampleRevisionResponse.builder()
+                    .revision(revision.getRevision())
+                    .kind(revision.getKind())
+                    .changedAt(revision.getChangedAt())
+                    .changes(changes)
+                    .build());
+            after = before;
+        }
+        return responses;
+    }
+
+    /**
+     * Reconstruct a sample as it was at a point in time.
+     *
+     * @param id the sample ID
+     * @param asOf the point in time
+     * @return the sample's state then, with its {@code updatedAt} at that time
+     * @throws SampleNotFoundException if the sample did not exist then, had been deleted, or its
+     *                                 state then is older than its recorded history
+     */
+    @Transactional(readOnly = true)
+    public SampleResponse getSampleAsOf(UUID id, LocalDateTime asOf) {
+        ObjectNode state;
+        SampleRevision next = revisionRepository.findFirstBySampleIdAndChangedAtAfterOrderByRevision(id, asOf)
+                .orElse(null);
+        if (next == null) {
+            // Unchanged since, so the newest state applies unless it is a deletion
+            List<SampleRevision> newest = revisionRepository.findBySampleIdOrderByRevisionDesc(id, Limit.of(1));
+            if (!newest.isEmpty() && newest.get(0).getKind() == SampleRevision.Kind.DELETED) {
+                throw new SampleNotFoundException("Sample " + id + " was deleted at " + newest.get(0).getChangedAt());
+            }
+            state = currentState(id);
+        } else if (next.getKind() == SampleRevision.Kind.CREATED) {
+            throw new SampleNotFoundException("Sample " + id + " did not exist at " + asOf);
+        } else {
+            state = undoFrom(id, next.getRevision());
+        }
+        if (state == null) {
+            throw new SampleNotFoundException(id);
+        }
+
+        SampleResponse sample = toResponse(id, state);
+        if (asOf.isBefore(sample.getCreatedAt())) {
+            throw new SampleNotFoundException("Sample " + id + " did not exist at " + asOf);
+        }
+        if (asOf.isBefore(sample.getUpdatedAt())) {
+            throw new SampleNotFoundException("No revision of sample " + id + " is recorded at " + asOf
+                    + ", its history starts at " + sample.getUpdatedAt());
+        }
+        return sample;
+    }
+
+    /**
+     * The state just before a revision: start from the first snapshot at or
+     * after it (or the live row) and undo the revisions back to it.
+     */
+    private ObjectNode undoFrom(UUID id, int revision) {
+        int window = properties.getSnapshotInterval() + 1;
+        List<SampleRevision> revisions = revisionRepository.findBySampleIdAndRevisionGreaterThanEqualOrderByRevision(
+                id, revision, Limit.of(window));
+        int start = indexOfSnapshot(revisions);
+        if (start < 0 && revisions.size() == window) {
+            // Snapshots were written with a larger interval
+            revisions = revisionRepository.findBySampleIdAndRevisionGreaterThanEqualOrderByRevision(
+                    id, revision, Limit.unlimited());
+            start = indexOfSnapshot(revisions);
+        }
+        ObjectNode state;
+        if (start >= 0) {
+            state = read(revisions.get(start).getSnapshot());
+        } else {
+            state = currentState(id);
+            start = revisions.size() - 1;
+        }
+        if (state == null) {
+            return null;
+        }
+        for (int i = start; i >= 0; i--) {
+            String previous = revisions.get(i).getPrevious();
+            if (previous != null) {
+                state.setAll(read(previous));
+            }
+        }
+        return state;
+    }
+
+    private static int indexOfSnapshot(List<SampleRevision> revisions) {
+        for (int i = 0; i < revisions.size(); i++) {
+            if (revisions.get(i).getSnapshot() != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void append(UUID id, int revision, SampleRevision.Kind kind, LocalDateTime changedAt,
+                        ObjectNode previous, Supplier<ObjectNode> state) {
+        ObjectNode snapshot = kind == SampleRevision.Kind.DELETED || isSnapshotDue(revision) ? state.get() : null;
+        revisionRepository.append(id, revision, kind.name(), changedAt,
+                previous == null ? null : write(previous), snapshot == null ? null : write(snapshot));
+    }
+
+    private boolean isSnapshotDue(int revision) {
+        return revision % Math.max(1, properties.getSnapshotInterval()) == 0;
+    }
+
+    private int nextRevision(UUID id) {
+        Integer latest = revisionRepository.findLatestRevision(id);
+        return latest == null ? 1 : latest + 1;
+    }
+
+    private ObjectNode currentState(UUID id) {
+        return sampleRepository.findById(id)
+                .map(sample -> state(SampleService.mapToResponse(sample)))
+                .orElse(null);
+    }
+
+    /**
+     * The recorded fields of a sample; the ID is the row key.
+     */
+    private ObjectNode state(SampleResponse sample) {
+        ObjectNode state = objectMapper.valueToTree(sample);
+        state.remove("id");
+        return state;
+    }
+
+    private SampleResponse toResponse(UUID id, ObjectNode state) {
+        try {
+            SampleResponse sample = objectMapper.treeToValue(state, SampleResponse.class);
+            sample.setId(id);
+            return sample;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable revision of sample " + id, e);
+        }
+    }
+
+    private ObjectNode read(String json) {
+        try {
+            return (ObjectNode) objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String write(ObjectNode node) {
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.PartitionProperties;
+import com.geoscience.sampleapi.exception.WriteQueueFullException;
+import com.geoscience.sampleapi.partition.PartitionKey;
+import com.geoscience.sampleapi.partition.PartitionRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The partition files of partitioned storage and the threads that work on
+ * them.
+ *
+ * Each partition is a SQLite file {@code samples-<partition>.db} with the
+ * full schema (applied by Flyway from {@code db/migration}) and its own small
+ * connection pool. Every partition has a single writer thread, so writes to
+ * one partition never wait for the file lock of another and never contend
+ * with each other for their own. Reads run on a shared pool, one task per
+ * partition, so a query over all partitions takes about as long as the
+ * slowest one.
+ *
+ * All partition work runs on these threads, never on the calling thread: a
+ * request thread may already hold a connection to the main database (open
+ * session in view), which would otherwise be reused.
+ */
+@Service
+public class SamplePartitions {
+
+    private static final Logger logger = LoggerFactory.getLogger(SamplePartitions.class);
+
+    private static final Pattern FILE_NAME = Pattern.compile("samples-([a-z0-9.-]+)\\.db");
+    private static final String QUERY_CACHE = "spring.jpa.properties.hibernate.cache.use_query_cache";
+
+    /**
+     * Sample IDs in the order SQLite sorts them: the 16-byte BLOB compared as
+     * unsigned bytes.
+     */
+    public static final Comparator<UUID> ID_ORDER = Comparator
+            .comparing((UUID id) -> id.getMostSignificantBits(), Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private final PartitionProperties properties;
+    private final PartitionRoutingDataSource routing;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final Map<String, HikariDataSource> dataSources = new ConcurrentHashMap<>();
+    private final Map<String, ThreadPoolExecutor> writers = new ConcurrentHashMap<>();
+    private final ReentrantLock multiPartitionWrite = new ReentrantLock();
+    private final ExecutorService readers;
+
+    public SamplePartitions(PartitionProperties properties, DataSource dataSource,
+                            PlatformTransactionManager transactionManager, Environment environment) {
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        if (!properties.isEnabled()) {
+            this.routing = null;
+            this.readers = null;
+            return;
+        }
+        if (!(dataSource instanceof PartitionRoutingDataSource partitionRouting)) {
+            throw new IllegalStateException("Partitioned storage needs the routing DataSource from PartitionConfig as the primary DataSource");
+        }
+        // Cached query results would be shared between partitions
+        if (environment.getProperty(QUERY_CACHE, Boolean.class, false)) {
+            throw new IllegalStateException("Partitioned storage cannot be combined with the Hibernate query cache");
+        }
+        this.routing = partitionRouting;
+        int threads = properties.getReadThreads() > 0
+                ? properties.getReadThreads() : Runtime.getRuntime().availableProcessors();
+        this.readers = Executors.newFixedThreadPool(threads, daemonThreads("partition-reader-"));
+        openExisting();
+    }
+
+    /**
+     * @return whether partitioned storage is enabled
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * @return the open partitions, sorted by name
+     */
+    public List<String> names() {
+        return dataSources.keySet().stream().sorted().toList();
+    }
+
+    /**
+     * Partition a sample belongs to under the configured key.
+     */
+    public String partitionOf(LocalDate collectionDate, Double latitude, Double longitude) {
+        return properties.getKey().partitionOf(collectionDate, latitude, longitude, properties.getGridDegrees());
+    }
+
+    /**
+     * The open partitions that may hold samples matching a date range and a
+     * set of boxes (see {@link PartitionKey#mayContain}).
+     */
+    public List<String> prune(LocalDate from, LocalDate to, List<double[]> boxes) {
+        return names().stream()
+                .filter(partition -> PartitionKey.mayContain(partition, from, to, boxes))
+                .toList();
+    }
+
+    /**
+     * Run {@code work} on the calling thread with connections going to a
+     * partition, without starting a transaction. For background jobs that
+     * manage their own transactions.
+     */
+    public <T> T callIn(String partition, Supplier<T> work) {
+        return routing.callIn(partition, work);
+    }
+
+    /**
+     * Run {@code work} in a read-only transaction on a partition.
+     *
+     * @param partition an open partition
+     * @param work what to run
+     * @return the result of {@code work}
+     */
+    public <T> T read(String partition, Supplier<T> work) {
+        return await(readers.submit(() -> inTransaction(readOnlyTemplate, partition, work)));
+    }
+
+    /**
+     * Run {@code work} in a read-only transaction on each partition, in
+     * parallel.
+     *
+     * @param partitions open partitions
+     * @param work what to run on each
+     * @return the results, in the order of {@code partitions}
+     */
+    public <T> List<T> readAll(Collection<String> partitions, Supplier<T> work) {
+        List<Future<T>> futures = new ArrayList<>(partitions.size());
+        for (String partition : partitions) {
+            futures.add(readers.submit(() -> inTransaction(readOnlyTemplate, partition, work)));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        RuntimeException failure = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(await(future));
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * Run {@code work} in a transaction on a partition's writer thread,
+     * creating the partition if it does not exist yet.
+     *
+     * @param partition the partition name
+     * @param work what to run
+     * @return the result of {@code work}
+     * @throws WriteQueueFullException if the partition's writer has too many writes waiting
+     */
+    public <T> T write(String partition, Supplier<T> work) {
+        return await(submitWrite(partition, () -> inTransaction(transactionTemplate, partition, work)));
+    }
+
+    /**
+     * Run work on several partitions, each in a transaction on its writer
+     * thread, so that either all transactions commit or none do.
+     *
+     * Each transaction runs its work and flushes it, then waits until every
+     * other partition has got that far; only then do they all commit. If any
+     * of them fails, the others roll back. A failure in the final commit
+     * itself (e.g. a full disk) can still leave the partitions that committed
+     * before it. One multi-partition write runs at a time, so two of them
+     * cannot wait for each other's writer threads.
+     *
+     * @param work what to run, by partition
+     * @return the results, by partition
+     * @throws WriteQueueFullException if a partition's writer has too many writes waiting
+     */
+    public <T> Map<String, T> writeAll(Map<String, Supplier<T>> work) {
+        if (work.size() == 1) {
+            Map.Entry<String, Supplier<T>> only = work.entrySet().iterator().next();
+            return Map.of(only.getKey(), write(only.getKey(), only.getValue()));
+        }
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        multiPartitionWrite.lock();
+        try {
+            CountDownLatch prepared = new CountDownLatch(work.size());
+            CompletableFuture<Boolean> commit = new CompletableFuture<>();
+            boolean allPrepared = false;
+            try {
+                work.forEach((partition, task) -> futures.put(partition, submitWrite(partition, () ->
+                        routing.callIn(partition, () -> transactionTemplate.execute(status -> {
+                            T result;
+                            try {
+                                result = task.get();
+                                status.flush();
+                            } catch (RuntimeException | Error e) {
+                                commit.complete(false);
+                                prepared.countDown();
+                                throw e;
+                            }
+                            prepared.countDown();
+                            if (!commit.join()) {
+                                status.setRollbackOnly();
+                            }
+                            return result;
+                        })))));
+                prepared.await();
+                allPrepared = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while writing to partitions", e);
+            } finally {
+                commit.complete(allPrepared);
+            }
+            Map<String, T> results = new LinkedHashMap<>();
+            RuntimeException failure = null;
+            for (Map.Entry<String, Future<T>> entry : futures.entrySet()) {
+                try {
+                    results.put(entry.getKey(), await(entry.getValue()));
+                } catch (RuntimeException e) {
+                    failure = failure == null ? e : failure;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return results;
+        } finally {
+            multiPartitionWrite.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (readers != null) {
+            readers.shutdownNow();
+        }
+        writers.values().forEach(ThreadPoolExecutor::shutdown);
+        for (ThreadPoolExecutor writer : writers.values()) {
+            try {
+                writer.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        dataSources.values().forEach(HikariDataSource::close);
+    }
+
+    private <T> T inTransaction(TransactionTemplate template, String partition, Supplier<T> work) {
+        return routing.callIn(partition, () -> template.execute(status -> work.get()));
+    }
+
+    private <T> Future<T> submitWrite(String partition, Callable<T> task) {
+        open(partition);
+        ThreadPoolExecutor writer = writers.computeIfAbsent(partition, name -> {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(properties.getWriteQueueCapacity()),
+                    daemonThreads("partition-writer-" + name + "-"));
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        });
+        try {
+            return writer.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new WriteQueueFullException("Too many writes waiting for partition " + partition + ", retry later");
+        }
+    }
+
+    /**
+     * Open the partitions found in the partition directory.
+     */
+    private void openExisting() {
+        Path directory = Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> FILE_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> matcher.group(1))
+                    .sorted()
+                    .forEach(this::open);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list partitions in " + directory, e);
+        }
+        logger.info("Opened {} sample partitions in {}", dataSources.size(), directory);
+    }
+
+    /**
+     * Open a partition, creating its file and schema if needed.
+     */
+    private synchronized void open(String partition) {
+        if (dataSources.containsKey(partition)) {
+            return;
+        }
+        if (!FILE_NAME.matcher("samples-" + partition + ".db").matches()) {
+            throw new IllegalArgumentException("Invalid partition name: " + partition);
+        }
+        Path directory = Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create partition directory " + directory, e);
+        }
+        HikariDataSource main = (HikariDataSource) routing.getMain();
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("partition-" + partition);
+        config.setJdbcUrl("jdbc:sqlite:" + directory.resolve("samples-" + partition + ".db"));
+        config.setDriverClassName(main.getDriverClassName());
+        config.setDataSourceProperties(main.getDataSourceProperties());
+        config.setMaximumPoolSize(properties.getPoolSize());
+        config.setMinimumIdle(0);
+        HikariDataSource dataSource = new HikariDataSource(config);
+        try {
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .locations("classpath:db/migration")
+                    .load()
+                    .migrate();
+        } catch (RuntimeException e) {
+            dataSource.close();
+            throw e;
+        }
+        routing.addPartition(partition, dataSource);
+        dataSources.put(partition, dataSource);
+        logger.debug("Opened partition {}", partition);
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a partition", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,34 +1,112 @@
 package com.geoscience.sampleapi.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geoscience.sampleapi.config.SpatialProperties;
+import com.geoscience.sampleapi.config.SyncProperties;
+import com.geoscience.sampleapi.dto.NearbySampleResponse;
+import com.geoscience.sampleapi.dto.SampleBulkPatchResponse;
 import com.geoscience.sampleapi.dto.SampleRequest;
 import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.dto.SampleRevisionResponse;
+import com.geoscience.sampleapi.dto.StorageRelocationResponse;
+import com.geoscience.sampleapi.dto.SyncResponse;
 import com.geoscience.sampleapi.exception.SampleNotFoundException;
+import com.geoscience.sampleapi.exception.SyncTokenExpiredException;
 import com.geoscience.sampleapi.model.GeologicalSample;
+import com.geoscience.sampleapi.model.SampleTombstone;
+import com.geoscience.sampleapi.profiling.SampleMappingEvent;
+import com.geoscience.sampleapi.profiling.SampleOperationEvent;
 import com.geoscience.sampleapi.repository.SampleRepository;
+import com.geoscience.sampleapi.repository.SampleTombstoneRepository;
+import com.geoscience.sampleapi.spatial.PreparedPolygon;
+import com.geoscience.sampleapi.spatial.SpatialKeys;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * Service layer for geological sample business logic.
  * 
  * Handles sample CRUD operations, validation, and data transformation
- * between DTOs and entities.
+ * between DTOs and entities. Spatial keys are derived from the coordinates
+ * here on every write so that proximity queries never redo the trigonometry,
+ * and so is the storage path, whose location counts are kept up to date in
+ * the same transaction ({@link StorageInventoryService}).
+ * Every write appends to the revision history ({@link SampleHistoryService})
+ * in the write's own transaction, so a revision is only kept if the change
+ * is. With partitioned storage, {@link PartitionedSampleService} takes its
+ * place; {@link com.geoscience.sampleapi.config.PartitionConfig} registers
+ * whichever of the two the configuration asks for.
  */
-@Service
 @Transactional
 public class SampleService {
 
     private static final Logger logger = LoggerFactory.getLogger(SampleService.class);
+    private static final double MIN_SEARCH_RADIUS_METERS = 50;
+    private static final int AREA_CHUNK_SIZE = 500;
+    private static final int PARALLEL_TEST_THRESHOLD = 10_000;
+    private static final int MAX_STORAGE_LOCATION_LENGTH = 200;
+
+    /**
+     * Fields a bulk patch may set; identifiers are unique so they cannot be
+     * shared by several samples.
+     */
+    private static final Set<String> BULK_PATCH_FIELDS = Set.of("sampleName", "sampleType", "collectionDate",
+            "latitude", "longitude", "locationName", "collectorName", "description", "storageLocation");
+
     private final SampleRepository sampleRepository;
+    private final SampleTombstoneRepository tombstoneRepository;
+    private final SampleHistoryService historyService;
+    private final StorageInventoryService inventory;
+    private final SpatialProperties spatialProperties;
+    private final SyncProperties syncProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
-    public SampleService(SampleRepository sampleRepository) {
+    public SampleService(SampleRepository sampleRepository, SampleTombstoneRepository tombstoneRepository,
+                         SampleHistoryService historyService, StorageInventoryService inventory,
+                         SpatialProperties spatialProperties, SyncProperties syncProperties,
+                         ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper, Validator validator) {
         this.sampleRepository = sampleRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.historyService = historyService;
+        this.inventory = inventory;
+        this.spatialProperties = spatialProperties;
+        this.syncProperties = syncProperties;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
 
     /**
@@ -38,7 +116,9 @@ public class SampleService {
      * @return the created sample response
      */
     public SampleResponse createSample(SampleRequest request) {
+        SampleOperationEvent event = SampleOperationEvent.start("createSample");
         logger.info("Creating new sample with identifier: {}", request.getSampleIdentifier());
+        validateCoordinates(request);
         
         // Check if sample identifier already exists
         if (sampleRepository.existsBySampleIdentifier(request.getSampleIdentifier())) {
@@ -46,22 +126,67 @@ public class SampleService {
             throw new IllegalArgumentException("Sample identifier already exists: " + request.getSampleIdentifier());
         }
 
-        GeologicalSample sample = GeologicalSample.builder()
-                .sampleIdentifier(request.getSampleIdentifier())
-                .sampleName(request.getSampleName())
-                .sampleType(request.getSampleType())
-                .collectionDate(request.getCollectionDate())
-                .latitude(request.getLatitude())
-                .longitude(request.getLongitude())
-                .locationName(request.getLocationName())
-                .collectorName(request.getCollectorName())
-                .description(request.getDescription())
-                .storageLocation(request.getStorageLocation())
-                .build();
-
-        GeologicalSample savedSample = sampleRepository.save(sample);
+        sampleRepository.purgeDeletedIdentifiers(List.of(request.getSampleIdentifier()));
+        GeologicalSample savedSample = sampleRepository.save(mapToEntity(request));
+        inventory.moved(null, savedSample.getStoragePath());
+        SampleResponse response = mapToResponse(savedSample);
+        historyService.recordCreated(List.of(response));
+        eventPublisher.publishEvent(new SampleChangedEvent(SampleChangedEvent.Kind.CREATED, List.of(savedSample.getId())));
         logger.info("Successfully created sample with id: {}", savedSample.getId());
-        return mapToResponse(savedSample);
+        event.finish(1);
+        return response;
+    }
+
+    /**
+     * Create several samples in a single transaction (group commit).
+     *
+     * Either all samples are created or none are.
+     *
+     * @param requests the sample creation requests
+     * @return the created samples, in request order
+     * @throws IllegalArgumentException if any identifier is duplicated or already exists
+     */
+    public List<SampleResponse> createSamples(List<SampleRequest> requests) {
+        SampleOperationEvent event = SampleOperationEvent.start("createSamples");
+        logger.info("Creating batch of {} samples", requests.size());
+
+        Set<String> identifiers = new HashSet<>();
+        for (SampleRequest request : requests) {
+            validateCoordinates(request);
+            if (!identifiers.add(request.getSampleIdentifier())) {
+                throw new IllegalArgumentException("Duplicate sample identifier in batch: " + request.getSampleIdentifier());
+            }
+        }
+        List<String> existing = sampleRepository.findExistingIdentifiers(identifiers);
+        if (!existing.isEmpty()) {
+            logger.warn("Sample identifiers already exist: {}", existing);
+            throw new IllegalArgumentException("Sample identifier already exists: " + String.join(", ", existing));
+        }
+        sampleRepository.purgeDeletedIdentifiers(identifiers);
+
+        SampleMappingEvent toEntity = SampleMappingEvent.start(SampleMappingEvent.TO_ENTITY);
+        List<GeologicalSample> samples = new ArrayList<>(requests.size());
+        for (SampleRequest request : requests) {
+            samples.add(mapToEntity(request));
+        }
+        toEntity.finish(samples.size());
+        List<GeologicalSample> savedSamples = sampleRepository.saveAll(samples);
+        Map<String, Integer> stored = new HashMap<>();
+        for (GeologicalSample sample : savedSamples) {
+            if (sample.getStoragePath() != null) {
+                stored.merge(sample.getStoragePath(), 1, Integer::sum);
+            }
+        }
+        inventory.adjust(stored);
+        SampleMappingEvent toResponse = SampleMappingEvent.start(SampleMappingEvent.TO_RESPONSE);
+        List<SampleResponse> responses = savedSamples.stream().map(SampleService::mapToResponse).toList();
+        toResponse.finish(responses.size());
+        historyService.recordCreated(responses);
+        eventPublisher.publishEvent(new SampleChangedEvent(SampleChangedEvent.Kind.CREATED,
+                savedSamples.stream().map(GeologicalSample::getId).toList()));
+        logger.info("Successfully created batch of {} samples", savedSamples.size());
+        event.finish(responses.size());
+        return responses;
     }
 
     /**
@@ -72,9 +197,14 @@ public class SampleService {
      */
     @Transactional(readOnly = true)
     public Page<SampleResponse> getAllSamples(Pageable pageable) {
+        SampleOperationEvent event = SampleOperationEvent.start("getAllSamples");
         logger.debug("Fetching all samples with pagination: {}", pageable);
-        return sampleRepository.findAll(pageable)
-                .map(this::mapToResponse);
+        Page<GeologicalSample> samples = sampleRepository.findAll(pageable);
+        SampleMappingEvent toResponse = SampleMappingEvent.start(SampleMappingEvent.TO_RESPONSE);
+        Page<SampleResponse> page = samples.map(SampleService::mapToResponse);
+        toResponse.finish(page.getNumberOfElements());
+        event.finish(page.getNumberOfElements());
+        return page;
     }
 
     /**
@@ -95,6 +225,135 @@ public class SampleService {
         return mapToResponse(sample);
     }
 
+    /**
+     * Find samples within a radius of a point, nearest first.
+     *
+     * The search area is covered by a few spatial key ranges, each fetched with
+     * an index range scan; candidates are then filtered exactly with a dot
+     * product against their stored unit-sphere position. The search starts
+     * with a fraction of the radius and widens until enough samples are found.
+     *
+     * @param latitude centre latitude in degrees
+     * @param longitude centre longitude in degrees
+     * @param radiusMeters search radius in meters
+     * @param limit maximum number of samples to return
+     * @return matching samples with their distance, nearest first
+     */
+    @Transactional(readOnly = true)
+    public List<NearbySampleResponse> findNearby(double latitude, double longitude, double radiusMeters, int limit) {
+        logger.debug("Finding samples within {} m of ({}, {})", radiusMeters, latitude, longitude);
+        if (latitude < -90.0 || latitude > 90.0 || longitude < -180.0 || longitude > 180.0) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + ", " + longitude);
+        }
+        if (!(radiusMeters > 0)) {
+            throw new IllegalArgumentException("Radius must be positive");
+        }
+
+        // Search an expanding radius: once a circle holds at least `limit`
+        // samples they are the nearest ones, so dense clusters never scan the
+        // full search area
+        double[] centre = SpatialKeys.unitVector(latitude, longitude);
+        Map<UUID, Double> distances = new HashMap<>();
+        int scanned = 0;
+        double searchRadius = Math.min(radiusMeters, Math.max(MIN_SEARCH_RADIUS_METERS, radiusMeters / 64));
+        while (true) {
+            distances.clear();
+            double minDot = SpatialKeys.minDotWithin(searchRadius);
+            for (double[] box : SpatialKeys.boundingBoxes(latitude, longitude, searchRadius)) {
+                for (long[] range : SpatialKeys.coverRanges(box[0], box[1], box[2], box[3], spatialProperties.getMaxCoverRanges())) {
+                    for (SampleRepository.SpatialCandidate candidate : sampleRepository.findSpatialCandidates(range[0], range[1])) {
+                        scanned++;
+                        double dot = centre[0] * candidate.getUnitX() + centre[1] * candidate.getUnitY()
+                                + centre[2] * candidate.getUnitZ();
+                        if (dot >= minDot) {
+                            distances.put(candidate.getId(), SpatialKeys.distanceMeters(dot));
+                        }
+                    }
+                }
+            }
+            if (distances.size() >= limit || searchRadius >= radiusMeters) {
+                break;
+            }
+            searchRadius = Math.min(radiusMeters, searchRadius * 4);
+        }
+
+        // Only the nearest samples are loaded in full
+        List<UUID> nearest = distances.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+        List<NearbySampleResponse> results = new ArrayList<>(nearest.size());
+        for (GeologicalSample sample : sampleRepository.findAllById(nearest)) {
+            results.add(NearbySampleResponse.builder()
+                    .sample(mapToResponse(sample))
+                    .distanceMeters(distances.get(sample.getId()))
+                    .build());
+        }
+        results.sort(Comparator.comparingDouble(NearbySampleResponse::getDistanceMeters));
+        logger.debug("Proximity search scanned {} candidates, {} within radius", scanned, distances.size());
+        return results;
+    }
+
+    /**
+     * Find the samples inside a GeoJSON polygon or multipolygon.
+     *
+     * The area is validated and prepared before this returns. As the iterator
+     * is consumed, the bounding box of each polygon is covered by spatial key
+     * ranges; the coordinates in each range are read with an index range
+     * scan and tested against the prepared polygon (in parallel for large
+     * ranges), and matching samples are loaded in chunks, so results can be
+     * streamed while later ranges are still being searched.
+     *
+     * The iterator is consumed after this method returns (by the response
+     * stream), so it does not run in one transaction: each range scan and
+     * each chunk load reads in its own short read-only transaction. A search
+     * that overlaps writes may therefore miss a sample that moves into a
+     * range already scanned, and reports a sample with the values it has
+     * when its chunk is loaded.
+     *
+     * @param geoJson a GeoJSON Polygon, MultiPolygon, Feature or FeatureCollection
+     * @return chunks of matching samples, in no particular order
+     * @throws IllegalArgumentException if the GeoJSON is not a valid polygon
+     */
+    public Iterator<List<SampleResponse>> findWithin(JsonNode geoJson) {
+        PreparedPolygon area = PreparedPolygon.fromGeoJson(geoJson, spatialProperties.getMaxPolygonVertices());
+        List<long[]> ranges = SpatialKeys.coverRanges(area.boundingBoxes(), spatialProperties.getMaxCoverRanges());
+        logger.debug("Area search: {} polygons, {} vertices, {} key ranges",
+                area.boundingBoxes().size(), area.vertexCount(), ranges.size());
+
+        return new Iterator<>() {
+            private final ArrayDeque<UUID> matched = new ArrayDeque<>();
+            private int nextRange;
+
+            @Override
+            public boolean hasNext() {
+                while (matched.isEmpty() && nextRange < ranges.size()) {
+                    long[] range = ranges.get(nextRange++);
+                    List<SampleRepository.SamplePosition> candidates =
+                            sampleRepository.findPositionsInKeyRange(range[0], range[1]);
+                    (candidates.size() >= PARALLEL_TEST_THRESHOLD ? candidates.parallelStream() : candidates.stream())
+                            .filter(candidate -> area.contains(candidate.latitude(), candidate.longitude()))
+                            .map(SampleRepository.SamplePosition::id)
+                            .forEachOrdered(matched::add);
+                }
+                return !matched.isEmpty();
+            }
+
+            @Override
+            public List<SampleResponse> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<UUID> ids = new ArrayList<>(Math.min(AREA_CHUNK_SIZE, matched.size()));
+                while (ids.size() < AREA_CHUNK_SIZE && !matched.isEmpty()) {
+                    ids.add(matched.poll());
+                }
+                return sampleRepository.findAllById(ids).stream().map(SampleService::mapToResponse).toList();
+            }
+        };
+    }
+
     /**
      * Update an existing sample.
      * 
@@ -104,7 +363,9 @@ public class SampleService {
      * @throws SampleNotFoundException if sample not found
      */
     public SampleResponse updateSample(UUID id, SampleRequest request) {
+        SampleOperationEvent event = SampleOperationEvent.start("updateSample");
         logger.info("Updating sample with id: {}", id);
+        validateCoordinates(request);
         
         GeologicalSample sample = sampleRepository.findById(id)
                 .orElseThrow(() -> {
@@ -112,53 +373,485 @@ public class SampleService {
                     return new SampleNotFoundException(id);
                 });
 
-        // Check if new identifier conflicts with existing sample (excluding current)
+        SampleResponse before = mapToResponse(sample);
+        String storagePath = sample.getStoragePath();
+        checkIdentifierChange(sample, request);
+        applyRequest(sample, request);
+
+        GeologicalSample updatedSample = sampleRepository.save(sample);
+        inventory.moved(storagePath, updatedSample.getStoragePath());
+        recordUpdate(before, updatedSample);
+        eventPublisher.publishEvent(new SampleChangedEvent(SampleChangedEvent.Kind.UPDATED, List.of(id)));
+        logger.info("Successfully updated sample with id: {}", updatedSample.getId());
+        event.finish(1);
+        return mapToResponse(updatedSample);
+    }
+
+    /**
+     * Partially update a sample with a JSON Merge Patch (RFC 7396).
+     *
+     * Fields present in the patch replace the stored values and {@code null}
+     * clears them; the result must be a valid sample. Only the columns that
+     * actually changed are written.
+     *
+     * @param id the sample ID
+     * @param patch a JSON object with the fields to change
+     * @return the updated sample response
+     * @throws SampleNotFoundException if sample not found
+     * @throws IllegalArgumentException if the patch is malformed or names an unknown field
+     * @throws ConstraintViolationException if the patched sample is invalid
+     */
+    public SampleResponse patchSample(UUID id, JsonNode patch) {
+        logger.info("Patching sample with id: {}", id);
+        GeologicalSample sample = sampleRepository.findById(id)
+                .orElseThrow(() -> {
+                    logger.warn("Sample not found with id: {}", id);
+                    return new SampleNotFoundException(id);
+                });
+
+        SampleResponse before = mapToResponse(sample);
+        SampleRequest request = mergePatch(mapToRequest(sample), patch);
+        Set<ConstraintViolation<SampleRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        validateCoordinates(request);
+        String storagePath = sample.getStoragePath();
+        checkIdentifierChange(sample, request);
+        applyRequest(sample, request);
+
+        GeologicalSample updatedSample = sampleRepository.save(sample);
+        inventory.moved(storagePath, updatedSample.getStoragePath());
+        recordUpdate(before, updatedSample);
+        eventPublisher.publishEvent(new SampleChangedEvent(SampleChangedEvent.Kind.UPDATED, List.of(id)));
+        logger.info("Successfully patched sample with id: {}", updatedSample.getId());
+        return mapToResponse(updatedSample);
+    }
+
+    /**
+     * Apply the same JSON Merge Patch to many samples with one set-based
+     * {@code UPDATE}, e.g. to move a shelf of samples to a new storage location.
+     *
+     * Samples are not loaded; each patched field is validated on its own, and
+     * latitude and longitude must be patched together so the spatial columns
+     * can be derived once for all samples. Unknown and deleted IDs are skipped.
+     *
+     * @param ids the samples to update
+     * @param patch a JSON object with the fields to change; {@code sampleIdentifier} is not allowed
+     * @return how many samples were requested and updated
+     * @throws IllegalArgumentException if the patch is malformed, empty or names a field that cannot be set in bulk
+     * @throws ConstraintViolationException if a patched value is invalid
+     */
+    public SampleBulkPatchResponse patchSamples(Collection<UUID> ids, JsonNode patch) {
+        SampleRequest patched = mergePatch(new SampleRequest(), patch);
+        BeanWrapper fields = new BeanWrapperImpl(patched);
+        Map<String, Object> values = new LinkedHashMap<>();
+        Set<ConstraintViolation<SampleRequest>> violations = new HashSet<>();
+        for (Iterator<String> names = patch.fieldNames(); names.hasNext(); ) {
+            String field = names.next();
+            if (!BULK_PATCH_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Field cannot be patched in bulk: " + field);
+            }
+            Object value = fields.getPropertyValue(field);
+            violations.addAll(validator.validateValue(SampleRequest.class, field, value));
+            values.put(field, value);
+        }
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Patch does not change any field");
+        }
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        List<String> recordedFields = new ArrayList<>(values.keySet());
+        recordedFields.add("updatedAt");
+        if (values.containsKey("latitude") || values.containsKey("longitude")) {
+            if (!values.containsKey("latitude") || !values.containsKey("longitude")) {
+                throw new IllegalArgumentException("Latitude and longitude must be patched together");
+            }
+            validateCoordinates(patched);
+            GeologicalSample position = GeologicalSample.builder()
+                    .latitude(normalizeCoordinate(patched.getLatitude()))
+                    .longitude(normalizeCoordinate(patched.getLongitude()))
+                    .build();
+            applySpatialKeys(position);
+            values.put("latitude", position.getLatitude());
+            values.put("longitude", position.getLongitude());
+            values.put("spatialKey", position.getSpatialKey());
+            values.put("unitX", position.getUnitX());
+            values.put("unitY", position.getUnitY());
+            values.put("unitZ", position.getUnitZ());
+        }
+        if (values.containsKey("storageLocation")) {
+            values.put("storagePath", StoragePaths.of(patched.getStorageLocation()));
+        }
+
+        Set<UUID> unique = new LinkedHashSet<>(ids);
+        logger.info("Patching {} samples: {}", unique.size(), values.keySet());
+        // The previous values are read first, in one query, for the revision
+        // history and (after the recorded fields) the location counts
+        List<String> queried = recordedFields;
+        int storagePathColumn = -1;
+        if (values.containsKey("storagePath")) {
+            queried = new ArrayList<>(recordedFields);
+            storagePathColumn = queried.size();
+            queried.add("storagePath");
+        }
+        Map<UUID, Object[]> before = sampleRepository.findValues(unique, queried);
+        LocalDateTime now = LocalDateTime.now();
+        int updated = sampleRepository.updateAll(unique, values, now);
+        if (storagePathColumn >= 0 && !before.isEmpty()) {
+            Map<String, Integer> stored = new HashMap<>();
+            for (Object[] row : before.values()) {
+                if (row[storagePathColumn] != null) {
+                    stored.merge((String) row[storagePathColumn], -1, Integer::sum);
+                }
+            }
+            if (values.get("storagePath") != null) {
+                stored.merge((String) values.get("storagePath"), before.size(), Integer::sum);
+            }
+            inventory.adjust(stored);
+        }
+        if (updated > 0) {
+            historyService.recordUpdated(before, recordedFields, values, now);
+            eventPublisher.publishEvent(new SampleChangedEvent(SampleChangedEvent.Kind.UPDATED, List.copyOf(unique)));
+        }
+        logger.info("Successfully patched {} of {} samples", updated, unique.size());
+        return SampleBulkPatchResponse.builder()
+                .requested(unique.size())
+                .updated(updated)
+                .build();
+    }
+
+    /**
+     * Delete a sample by its ID.
+     *
+     * The row is only marked as deleted (one UPDATE, no lookup first) and
+     * disappears from all reads; {@link SampleCompactor} purges it later. A
+     * tombstone for sync clients and a revision holding the sample's final
+     * state are recorded in the same transaction.
+     * 
+     * @param id the sample ID
+     * @throws SampleNotFoundException if sample not found
+     */
+    public void deleteSample(UUID id) {
+        SampleOperationEvent event = SampleOperationEvent.start("deleteSample");
+        logger.info("Deleting sample with id: {}", id);
+        LocalDateTime now = LocalDateTime.now();
+
+        if (sampleRepository.softDelete(id, now) == 0) {
+            logger.warn("Sample not found with id: {}", id);
+            throw new SampleNotFoundException(id);
+        }
+
+        tombstoneRepository.recordDeletion(id, now);
+        sampleRepository.findIncludingDeleted(id).ifPresent(sample -> {
+            inventory.moved(sample.getStoragePath(), null);
+            historyService.recordDeleted(mapToResponse(sample), now);
+        });
+        eventPublisher.publishEvent(new SampleChangedEvent(SampleChangedEvent.Kind.DELETED, List.of(id)));
+        logger.info("Successfully deleted sample with id: {}", id);
+        event.finish(1);
+    }
+
+    /**
+     * Move a storage location, with every sample stored in it or below it, to
+     * another place in the tree: e.g. {@code "Core Shed 2 / Rack 14"} to
+     * {@code "Core Shed 3 / Rack 2"} turns {@code "Core Shed 2 / Rack 14 / Tray C"}
+     * into {@code "Core Shed 3 / Rack 2 / Tray C"}.
+     *
+     * The samples are moved with one set-based {@code UPDATE} on the storage
+     * path index and their storage locations are rewritten in normalised
+     * form; the location counts are moved node by node rather than per sample.
+     *
+     * @param from the location to move
+     * @param to the location it becomes
+     * @return the normalised locations and how many samples were moved
+     * @throws IllegalArgumentException if a location is blank, the target lies
+     *         inside the source, or a moved location would become too long
+     */
+    public StorageRelocationResponse relocateStorage(String from, String to) {
+        String fromPath = StoragePaths.of(from);
+        String targetPath = StoragePaths.of(to);
+        if (fromPath == null || targetPath == null) {
+            throw new IllegalArgumentException("Storage location is required");
+        }
+        if (!fromPath.equals(targetPath) && StoragePaths.isWithin(targetPath, fromPath)) {
+            throw new IllegalArgumentException("Cannot move a storage location inside itself");
+        }
+        StorageRelocationResponse.StorageRelocationResponseBuilder response = StorageRelocationResponse.builder()
+                .from(StoragePaths.display(fromPath))
+                .to(StoragePaths.display(targetPath));
+        if (fromPath.equals(targetPath)) {
+            return response.build();
+        }
+
+        // The previous values are read first, for the revision history; the
+        // samples of one old location all get the same new one
+        String upperBound = StoragePaths.upperBound(fromPath);
+        Map<String, Map<UUID, Object[]>> beforeByLocation = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        for (Object[] row : sampleRepository.findStorageInPathRange(fromPath, upperBound)) {
+            String location = StoragePaths.display(targetPath + ((String) row[3]).substring(fromPath.length()));
+            if (location.length() > MAX_STORAGE_LOCATION_LENGTH) {
+                throw new IllegalArgumentException("Storage location would exceed " + MAX_STORAGE_LOCATION_LENGTH
+                        + " characters: " + location);
+            }
+            beforeByLocation.computeIfAbsent(location, key -> new HashMap<>())
+                    .put((UUID) row[0], Arrays.copyOfRange(row, 1, 3));
+            ids.add((UUID) row[0]);
+        }
+        logger.info("Relocating {} samples from {} to {}", ids.size(), fromPath, targetPath);
+        if (ids.isEmpty()) {
+            return response.build();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int relocated = sampleRepository.relocateStorage(fromPath, upperBound, targetPath, now);
+        inventory.relocate(fromPath, targetPath);
+        List<String> recordedFields = List.of("storageLocation", "updatedAt");
+        beforeByLocation.forEach((location, before) ->
+                historyService.recordUpdated(before, recordedFields, Map.of("storageLocation", location), now));
+        eventPublisher.publishEvent(new SampleChangedEvent(SampleChangedEvent.Kind.UPDATED, ids));
+        logger.info("Successfully relocated {} samples", relocated);
+        return response.relocated(relocated).build();
+    }
+
+    /**
+     * Fetch the next batch of changes for an incremental sync client.
+     *
+     * Changes are read with keyset cursors on {@code (updated_at, id)} and
+     * {@code (deleted_at, id)}, so a batch costs the same however far the
+     * client is behind, and a client that reconnects only pays for what
+     * changed since its token. Changes inside the settle window are held back
+     * until the next sync (see {@link SyncProperties#getSettleWindow()}).
+     *
+     * @param token the token from the previous batch, or null for a full sync
+     * @param limit maximum changed samples (and, separately, deletions) per batch
+     * @return the changes and the token for the next batch
+     * @throws IllegalArgumentException if the token or limit is invalid
+     * @throws SyncTokenExpiredException if tombstones newer than the token may have been purged
+     */
+    @Transactional(readOnly = true)
+    public SyncResponse getChanges(String token, Integer limit) {
+        SyncToken position = SyncToken.decode(token);
+        int batchSize = limit != null ? limit : syncProperties.getDefaultBatchSize();
+        if (batchSize < 1 || batchSize > syncProperties.getMaxBatchSize()) {
+            throw new IllegalArgumentException("Sync batch size must be between 1 and " + syncProperties.getMaxBatchSize());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (position != SyncToken.INITIAL && position.deletedAt().isBefore(now.minus(syncProperties.getTombstoneRetention()))) {
+            throw new SyncTokenExpiredException("Sync token is older than the tombstone retention, start a full sync");
+        }
+        LocalDateTime until = now.minus(syncProperties.getSettleWindow());
+        logger.debug("Sync from {} up to {}", position, until);
+
+        List<GeologicalSample> changed = findChangedAfter(position.changedAt(), position.changedId(), until, batchSize);
+        List<SampleTombstone> deleted = findDeletedAfter(position.deletedAt(), position.deletedId(), until, batchSize);
+
+        // A feed that returned less than a full batch has been read up to the
+        // horizon, so its cursor moves there; an idle client's token thus
+        // records when it last synced, which is what expiry is checked against
+        SyncToken next = position;
+        if (changed.size() < batchSize) {
+            next = new SyncToken(until, SyncToken.MAX_ID, next.deletedAt(), next.deletedId());
+        } else {
+            GeologicalSample last = changed.get(changed.size() - 1);
+            next = new SyncToken(last.getUpdatedAt(), last.getId(), next.deletedAt(), next.deletedId());
+        }
+        if (deleted.size() < batchSize) {
+            next = new SyncToken(next.changedAt(), next.changedId(), until, SyncToken.MAX_ID);
+        } else {
+            SampleTombstone last = deleted.get(deleted.size() - 1);
+            next = new SyncToken(next.changedAt(), next.changedId(), last.getDeletedAt(), last.getId());
+        }
+        return SyncResponse.builder()
+                .changed(changed.stream().map(SampleService::mapToResponse).toList())
+                .deleted(deleted.stream().map(SampleTombstone::getId).toList())
+                .nextToken(next.encode())
+                .hasMore(changed.size() == batchSize || deleted.size() == batchSize)
+                .build();
+    }
+
+    /**
+     * List the revisions of a sample, newest first (see
+     * {@link SampleHistoryService#getHistory}).
+     *
+     * @param id the sample ID
+     * @param limit maximum number of revisions
+     * @return the revisions
+     * @throws SampleNotFoundException if the sample has neither a history nor a row
+     */
+    @Transactional(readOnly = true)
+    public List<SampleRevisionResponse> getHistory(UUID id, int limit) {
+        return historyService.getHistory(id, limit);
+    }
+
+    /**
+     * Reconstruct a sample as it was at a point in time (see
+     * {@link SampleHistoryService#getSampleAsOf}).
+     *
+     * @param id the sample ID
+     * @param asOf the point in time
+     * @return the sample's state then
+     * @throws SampleNotFoundException if the sample did not exist then
+     */
+    @Transactional(readOnly = true)
+    public SampleResponse getSampleAsOf(UUID id, LocalDateTime asOf) {
+        return historyService.getSampleAsOf(id, asOf);
+    }
+
+    /**
+     * Samples changed after a sync cursor, in {@code (updated_at, id)} order.
+     */
+    protected List<GeologicalSample> findChangedAfter(LocalDateTime changedAt, UUID changedId,
+                                                      LocalDateTime until, int limit) {
+        return sampleRepository.findChangedAfter(changedAt, changedId, until, limit);
+    }
+
+    /**
+     * Deletions after a sync cursor, in {@code (deleted_at, id)} order.
+     */
+    protected List<SampleTombstone> findDeletedAfter(LocalDateTime deletedAt, UUID deletedId,
+                                                     LocalDateTime until, int limit) {
+        return tombstoneRepository.findDeletedAfter(deletedAt, deletedId, until, limit);
+    }
+
+    /**
+     * Apply a JSON Merge Patch to a request; unknown fields are rejected.
+     */
+    private SampleRequest mergePatch(SampleRequest target, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Patch must be a JSON object");
+        }
+        try {
+            return objectMapper.readerForUpdating(target)
+                    .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(patch);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid patch: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Flush an updated sample, which sets its modification time if anything
+     * changed, and record the revision.
+     */
+    private void recordUpdate(SampleResponse before, GeologicalSample sample) {
+        sampleRepository.flush();
+        historyService.recordUpdated(before, mapToResponse(sample));
+    }
+
+    /**
+     * A changed identifier must not belong to another sample.
+     */
+    private void checkIdentifierChange(GeologicalSample sample, SampleRequest request) {
         if (!sample.getSampleIdentifier().equals(request.getSampleIdentifier())) {
             if (sampleRepository.existsBySampleIdentifier(request.getSampleIdentifier())) {
                 logger.warn("Sample identifier already exists: {}", request.getSampleIdentifier());
                 throw new IllegalArgumentException("Sample identifier already exists: " + request.getSampleIdentifier());
             }
+            sampleRepository.purgeDeletedIdentifiers(List.of(request.getSampleIdentifier()));
         }
+    }
 
-        // Update sample fields
+    /**
+     * Copy request fields onto an existing entity. Unchanged values leave the
+     * entity clean, so they are not written.
+     */
+    private static void applyRequest(GeologicalSample sample, SampleRequest request) {
         sample.setSampleIdentifier(request.getSampleIdentifier());
         sample.setSampleName(request.getSampleName());
         sample.setSampleType(request.getSampleType());
         sample.setCollectionDate(request.getCollectionDate());
-        sample.setLatitude(request.getLatitude());
-        sample.setLongitude(request.getLongitude());
+        sample.setLatitude(normalizeCoordinate(request.getLatitude()));
+        sample.setLongitude(normalizeCoordinate(request.getLongitude()));
+        applySpatialKeys(sample);
         sample.setLocationName(request.getLocationName());
         sample.setCollectorName(request.getCollectorName());
         sample.setDescription(request.getDescription());
         sample.setStorageLocation(request.getStorageLocation());
+        sample.setStoragePath(StoragePaths.of(request.getStorageLocation()));
+    }
 
-        GeologicalSample updatedSample = sampleRepository.save(sample);
-        logger.info("Successfully updated sample with id: {}", updatedSample.getId());
-        return mapToResponse(updatedSample);
+    /**
+     * Map an entity to the request that would recreate it.
+     */
+    private static SampleRequest mapToRequest(GeologicalSample sample) {
+        return SampleRequest.builder()
+                .sampleIdentifier(sample.getSampleIdentifier())
+                .sampleName(sample.getSampleName())
+                .sampleType(sample.getSampleType())
+                .collectionDate(sample.getCollectionDate())
+                .latitude(sample.getLatitude())
+                .longitude(sample.getLongitude())
+                .locationName(sample.getLocationName())
+                .collectorName(sample.getCollectorName())
+                .description(sample.getDescription())
+                .storageLocation(sample.getStorageLocation())
+                .build();
     }
 
     /**
-     * Delete a sample by its ID.
-     * 
-     * @param id the sample ID
-     * @throws SampleNotFoundException if sample not found
+     * Map request DTO to a new entity.
      */
-    public void deleteSample(UUID id) {
-        logger.info("Deleting sample with id: {}", id);
-        
-        if (!sampleRepository.existsById(id)) {
-            logger.warn("Sample not found with id: {}", id);
-            throw new SampleNotFoundException(id);
+    private GeologicalSample mapToEntity(SampleRequest request) {
+        GeologicalSample sample = GeologicalSample.builder()
+                .sampleIdentifier(request.getSampleIdentifier())
+                .sampleName(request.getSampleName())
+                .sampleType(request.getSampleType())
+                .collectionDate(request.getCollectionDate())
+                .latitude(normalizeCoordinate(request.getLatitude()))
+                .longitude(normalizeCoordinate(request.getLongitude()))
+                .locationName(request.getLocationName())
+                .collectorName(request.getCollectorName())
+                .description(request.getDescription())
+                .storageLocation(request.getStorageLocation())
+                .storagePath(StoragePaths.of(request.getStorageLocation()))
+                .build();
+        applySpatialKeys(sample);
+        return sample;
+    }
+
+    /**
+     * Derive the Morton key and unit-sphere position from the sample's
+     * coordinates, or clear them when the sample has no coordinates.
+     */
+    private static void applySpatialKeys(GeologicalSample sample) {
+        if (sample.getLatitude() == null || sample.getLongitude() == null) {
+            sample.setSpatialKey(null);
+            sample.setUnitX(null);
+            sample.setUnitY(null);
+            sample.setUnitZ(null);
+            return;
         }
-        
-        sampleRepository.deleteById(id);
-        logger.info("Successfully deleted sample with id: {}", id);
+        double[] unit = SpatialKeys.unitVector(sample.getLatitude(), sample.getLongitude());
+        sample.setSpatialKey(SpatialKeys.mortonKey(sample.getLatitude(), sample.getLongitude()));
+        sample.setUnitX(unit[0]);
+        sample.setUnitY(unit[1]);
+        sample.setUnitZ(unit[2]);
+    }
+
+    /**
+     * Coordinates are optional, but a position needs both of them.
+     */
+    private void validateCoordinates(SampleRequest request) {
+        if ((request.getLatitude() == null) != (request.getLongitude() == null)) {
+            throw new IllegalArgumentException("Latitude and longitude must be provided together");
+        }
+    }
+
+    /**
+     * Canonicalise negative zero so equal positions get equal keys.
+     */
+    private static Double normalizeCoordinate(Double value) {
+        return value != null && value == 0.0 ? Double.valueOf(0.0) : value;
     }
 
     /**
      * Map entity to response DTO.
      */
-    private SampleResponse mapToResponse(GeologicalSample sample) {
+    static SampleResponse mapToResponse(GeologicalSample sample) {
         return SampleResponse.builder()
                 .id(sample.getId())
                 .sampleIdentifier(sample.getSampleIdentifier())
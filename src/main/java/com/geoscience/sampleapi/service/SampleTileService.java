@@ -0,0 +1,293 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.SpatialProperties;
+import com.geoscience.sampleapi.config.TileProperties;
+import com.geoscience.sampleapi.repository.SampleRepository;
+import com.geoscience.sampleapi.spatial.MapTiles;
+import com.geoscience.sampleapi.spatial.SpatialKeys;
+import com.geoscience.sampleapi.spatial.VectorTileEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Renders samples as Mapbox Vector Tiles for the map frontend.
+ *
+ * A tile is built from the spatial key index: its latitude/longitude box,
+ * widened by {@code app.tiles.buffer}, is covered by key ranges that are read
+ * with index range scans. Samples falling into the same cell of the cluster
+ * grid become one point feature with a {@code count}, so a tile never holds
+ * more than a grid's worth of features however many samples it covers.
+ *
+ * Rendered tiles are gzipped once and kept in an LRU cache bounded by
+ * {@code app.tiles.cache-size}. Each cached tile remembers a hash of every
+ * sample it shows. After a write commits, the tiles showing a changed sample
+ * (its old position) and the tiles around its new position are evicted at
+ * every zoom level; all other tiles stay cached. A tile rendered while a
+ * write commits is served but not cached.
+ */
+@Service
+public class SampleTileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleTileService.class);
+
+    static final String LAYER = "samples";
+    private static final List<String> KEYS = List.of("id", "type", "name", "count");
+
+    /**
+     * Changes to more samples than this clear the whole cache instead of
+     * looking up every sample's tiles.
+     */
+    private static final int MAX_TARGETED_INVALIDATION = 1000;
+
+    private final SampleRepository sampleRepository;
+    private final TileProperties properties;
+    private final SpatialProperties spatialProperties;
+    private final LinkedHashMap<Long, RenderedTile> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes;
+    private long invalidations;
+
+    public SampleTileService(SampleRepository sampleRepository, TileProperties properties,
+                             SpatialProperties spatialProperties) {
+        this.sampleRepository = sampleRepository;
+        this.properties = properties;
+        this.spatialProperties = spatialProperties;
+    }
+
+    /**
+     * A rendered tile.
+     *
+     * @param gzipped the gzipped MVT bytes
+     * @param etag weak entity tag of the tile content
+     * @param sampleHashes sorted hashes of the IDs of all samples in the tile
+     */
+    public record RenderedTile(byte[] gzipped, String etag, long[] sampleHashes) {
+
+        long weight() {
+            return gzipped.length + sampleHashes.length * 8L + 64;
+        }
+    }
+
+    /**
+     * Get a tile, from the cache or freshly rendered.
+     *
+     * @param zoom zoom level
+     * @param x tile column
+     * @param y tile row
+     * @return the tile
+     * @throws IllegalArgumentException if the tile address is invalid
+     */
+    public RenderedTile getTile(int zoom, int x, int y) {
+        if (zoom < 0 || zoom > properties.getMaxZoom()) {
+            throw new IllegalArgumentException("Zoom must be between 0 and " + properties.getMaxZoom());
+        }
+        int tiles = 1 << zoom;
+        if (x < 0 || x >= tiles || y < 0 || y >= tiles) {
+            throw new IllegalArgumentException("Tile " + zoom + "/" + x + "/" + y + " does not exist");
+        }
+        long key = MapTiles.key(zoom, x, y);
+        long version;
+        synchronized (this) {
+            RenderedTile cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            version = invalidations;
+        }
+
+        RenderedTile tile = render(zoom, x, y);
+        synchronized (this) {
+            if (version == invalidations) {
+                RenderedTile previous = cache.put(key, tile);
+                cachedBytes += tile.weight() - (previous == null ? 0 : previous.weight());
+                trim();
+            }
+        }
+        return tile;
+    }
+
+    /**
+     * Evict the tiles affected by a committed write.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSampleChanged(SampleChangedEvent event) {
+        List<UUID> ids = event.ids();
+        if (ids.isEmpty() || ids.size() > MAX_TARGETED_INVALIDATION) {
+            clear();
+            return;
+        }
+        long[] changed = ids.stream().mapToLong(SampleTileService::hash).sorted().toArray();
+        List<SampleRepository.SamplePosition> positions = event.kind() == SampleChangedEvent.Kind.DELETED
+                ? List.of()
+                : sampleRepository.findPositionsByIdIn(ids);
+        double margin = (double) properties.getBuffer() / properties.getExtent();
+
+        synchronized (this) {
+            invalidations++;
+            int evicted = 0;
+            // Old positions: tiles that show one of the samples
+            for (Iterator<RenderedTile> tiles = cache.values().iterator(); tiles.hasNext(); ) {
+                RenderedTile tile = tiles.next();
+                if (containsAny(tile.sampleHashes(), changed)) {
+                    tiles.remove();
+                    cachedBytes -= tile.weight();
+                    evicted++;
+                }
+            }
+            // New positions: tiles whose buffered area contains the sample
+            for (SampleRepository.SamplePosition position : positions) {
+                for (int zoom = 0; zoom <= properties.getMaxZoom(); zoom++) {
+                    int last = (1 << zoom) - 1;
+                    double tileX = MapTiles.tileX(position.longitude(), zoom);
+                    double tileY = MapTiles.tileY(position.latitude(), zoom);
+                    for (int x = clamp(tileX - margin, last); x <= clamp(tileX + margin, last); x++) {
+                        for (int y = clamp(tileY - margin, last); y <= clamp(tileY + margin, last); y++) {
+                            RenderedTile tile = cache.remove(MapTiles.key(zoom, x, y));
+                            if (tile != null) {
+                                cachedBytes -= tile.weight();
+                                evicted++;
+                            }
+                        }
+                    }
+                }
+            }
+            logger.debug("Evicted {} tiles after {} of {} samples", evicted, event.kind(), ids.size());
+        }
+    }
+
+    /**
+     * Drop all cached tiles.
+     */
+    public synchronized void clear() {
+        invalidations++;
+        cache.clear();
+        cachedBytes = 0;
+    }
+
+    private RenderedTile render(int zoom, int x, int y) {
+        long start = System.nanoTime();
+        int extent = properties.getExtent();
+        int buffer = properties.getBuffer();
+        double margin = (double) buffer / extent;
+        int last = (1 << zoom) - 1;
+        // Edge rows also show samples beyond the latitude where Web Mercator ends
+        double north = y == 0 ? 90.0 : MapTiles.latitude(y - margin, zoom);
+        double south = y == last ? -90.0 : MapTiles.latitude(y + 1 + margin, zoom);
+        double west = Math.max(-180.0, MapTiles.longitude(x - margin, zoom));
+        double east = Math.min(180.0, MapTiles.longitude(x + 1 + margin, zoom));
+        List<long[]> ranges = SpatialKeys.coverRanges(List.of(new double[] {south, north, west, east}),
+                spatialProperties.getMaxCoverRanges());
+
+        int cellSize = Math.max(1, extent / Math.max(1, properties.getClusterGrid()));
+        int cellsPerRow = (extent + 2 * buffer) / cellSize + 1;
+        Map<Integer, Cluster> clusters = new HashMap<>();
+        long[] hashes = new long[64];
+        int sampleCount = 0;
+        for (long[] range : ranges) {
+            for (SampleRepository.TilePoint point : sampleRepository.findTilePointsInKeyRange(range[0], range[1])) {
+                double px = (MapTiles.tileX(point.longitude(), zoom) - x) * extent;
+                double py = (MapTiles.tileY(point.latitude(), zoom) - y) * extent;
+                if (px < -buffer || px >= extent + buffer || py < -buffer || py >= extent + buffer) {
+                    continue;
+                }
+                int ix = (int) Math.floor(px);
+                int iy = (int) Math.floor(py);
+                int cell = (iy + buffer) / cellSize * cellsPerRow + (ix + buffer) / cellSize;
+                Cluster cluster = clusters.get(cell);
+                if (cluster == null) {
+                    clusters.put(cell, new Cluster(point, ix, iy));
+                } else {
+                    cluster.count++;
+                }
+                if (sampleCount == hashes.length) {
+                    hashes = Arrays.copyOf(hashes, sampleCount * 2);
+                }
+                hashes[sampleCount++] = hash(point.id());
+            }
+        }
+
+        VectorTileEncoder encoder = new VectorTileEncoder(LAYER, extent, KEYS);
+        for (Cluster cluster : clusters.values()) {
+            SampleRepository.TilePoint point = cluster.point;
+            encoder.addPoint(cluster.x, cluster.y, point.id().toString(), point.sampleType().name(),
+                    point.sampleName(), cluster.count);
+        }
+        byte[] mvt = encoder.encode();
+        hashes = Arrays.copyOf(hashes, sampleCount);
+        Arrays.sort(hashes);
+        CRC32 crc = new CRC32();
+        crc.update(mvt);
+        RenderedTile tile = new RenderedTile(gzip(mvt), "W/\"" + Long.toHexString(crc.getValue()) + "\"", hashes);
+        logger.debug("Rendered tile {}/{}/{}: {} samples as {} features, {} bytes gzipped in {} ms", zoom, x, y,
+                sampleCount, encoder.size(), tile.gzipped().length, (System.nanoTime() - start) / 1_000_000);
+        return tile;
+    }
+
+    /**
+     * Drop least recently used tiles until the cache fits its size.
+     */
+    private void trim() {
+        long limit = properties.getCacheSize().toBytes();
+        for (Iterator<RenderedTile> tiles = cache.values().iterator(); cachedBytes > limit && tiles.hasNext(); ) {
+            cachedBytes -= tiles.next().weight();
+            tiles.remove();
+        }
+    }
+
+    private static boolean containsAny(long[] sortedHashes, long[] sortedIds) {
+        for (long id : sortedIds) {
+            if (Arrays.binarySearch(sortedHashes, id) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int clamp(double tile, int last) {
+        return (int) Math.max(0, Math.min(last, Math.floor(tile)));
+    }
+
+    private static long hash(UUID id) {
+        return id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Samples merged into one feature; the first one found represents them.
+     */
+    private static final class Cluster {
+        private final SampleRepository.TilePoint point;
+        private final int x;
+        private final int y;
+        private int count = 1;
+
+        Cluster(SampleRepository.TilePoint point, int x, int y) {
+            this.point = point;
+            this.x = x;
+            this.y = y;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.WriteBehindProperties;
+import com.geoscience.sampleapi.dto.SampleRequest;
+import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.dto.WriteTicketResponse;
+import com.geoscience.sampleapi.exception.WriteQueueFullException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind queue for accepted-async sample creation.
+ *
+ * Requests are parked in a bounded in-memory queue and acknowledged with a
+ * ticket. A single writer thread drains the queue and commits up to
+ * {@code maxBatchSize} samples per transaction, so a burst of submissions
+ * costs one SQLite commit instead of one per sample. When a batch is rejected
+ * (e.g. a duplicate identifier), its samples are retried one by one so that
+ * only the offending tickets fail.
+ *
+ * Queued samples are held in memory only: they are flushed on graceful
+ * shutdown but lost if the process dies, which is why clients must poll the
+ * ticket until it is {@code COMMITTED}.
+ */
+@Service
+public class SampleWriteQueue implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleWriteQueue.class);
+    private static final int MAX_BUSY_RETRIES = 3;
+
+    private final SampleService sampleService;
+    private final WriteBehindProperties properties;
+    private final BlockingQueue<PendingWrite> queue;
+    private final Map<UUID, WriteTicketResponse> tickets = new ConcurrentHashMap<>();
+    private final Object submitLock = new Object();
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean accepting = true;
+    private volatile boolean running;
+    private Thread writer;
+    private long lastSweepNanos = System.nanoTime();
+
+    public SampleWriteQueue(SampleService sampleService, WriteBehindProperties properties, MeterRegistry meterRegistry) {
+        this.sampleService = sampleService;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Gauge.builder("sampleapi.writes.behind.queued", queue, BlockingQueue::size)
+                .description("Samples accepted but not yet committed")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("sampleapi.writes.behind.batch.size")
+                .description("Samples committed per write-behind transaction")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether async creation is enabled.
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Accept a sample for asynchronous creation.
+     *
+     * @param request the sample creation request
+     * @return a {@code PENDING} ticket
+     * @throws WriteQueueFullException if the queue is full or shutting down
+     */
+    public WriteTicketResponse submit(SampleRequest request) {
+        return submitAll(List.of(request)).get(0);
+    }
+
+    /**
+     * Accept several samples for asynchronous creation. Either all of them are
+     * queued or, if there is not enough room, none are.
+     *
+     * @param requests the sample creation requests
+     * @return one {@code PENDING} ticket per request, in request order
+     * @throws WriteQueueFullException if the queue lacks room or is shutting down
+     */
+    public List<WriteTicketResponse> submitAll(List<SampleRequest> requests) {
+        List<WriteTicketResponse> accepted = new ArrayList<>(requests.size());
+        // Producers are serialised so the capacity check cannot race another
+        // producer; the writer only ever frees space
+        synchronized (submitLock) {
+            if (!accepting) {
+                throw new WriteQueueFullException("Write queue is shutting down");
+            }
+            if (queue.remainingCapacity() < requests.size()) {
+                logger.warn("Write queue full ({} queued), rejecting {} samples", queue.size(), requests.size());
+                throw new WriteQueueFullException("Write queue is full, please retry later");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (SampleRequest request : requests) {
+                WriteTicketResponse ticket = WriteTicketResponse.builder()
+                        .ticketId(UUID.randomUUID())
+                        .status(WriteTicketResponse.Status.PENDING)
+                        .sampleIdentifier(request.getSampleIdentifier())
+                        .submittedAt(now)
+                        .build();
+                tickets.put(ticket.getTicketId(), ticket);
+                queue.add(new PendingWrite(ticket.getTicketId(), request));
+                accepted.add(snapshot(ticket));
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Look up the current state of a ticket.
+     *
+     * @param ticketId the ticket ID
+     * @return the ticket, or empty if unknown or expired
+     */
+    public Optional<WriteTicketResponse> getTicket(UUID ticketId) {
+        WriteTicketResponse ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            return Optional.empty();
+        }
+        synchronized (ticket) {
+            return Optional.of(snapshot(ticket));
+        }
+    }
+
+    /**
+     * Number of samples waiting to be committed.
+     */
+    public int getQueued() {
+        return queue.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        accepting = true;
+        writer = new Thread(this::drainLoop, "sample-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Write-behind queue started (capacity {}, batch size {})",
+                properties.getQueueCapacity(), properties.getMaxBatchSize());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        synchronized (submitLock) {
+            accepting = false;
+        }
+        running = false;
+        int queued = queue.size();
+        long start = System.nanoTime();
+        logger.info("Stopping write-behind queue, flushing {} queued samples", queued);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Write-behind queue stopped, flushed {} samples in {} ms", queued - queue.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop after the web server has stopped accepting requests, but before the
+     * data source is closed.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drainLoop() {
+        List<PendingWrite> batch = new ArrayList<>(properties.getMaxBatchSize());
+        long batchDelayNanos = properties.getMaxBatchDelay().toNanos();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    // Linger briefly so a burst lands in one transaction
+                    long deadline = System.nanoTime() + batchDelayNanos;
+                    while (batch.size() < properties.getMaxBatchSize()) {
+                        queue.drainTo(batch, properties.getMaxBatchSize() - batch.size());
+                        long remaining = deadline - System.nanoTime();
+                        if (batch.size() >= properties.getMaxBatchSize() || remaining <= 0) {
+                            break;
+                        }
+                        PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    commit(batch);
+                    batch.clear();
+                }
+                sweepExpiredTickets();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.error("Write-behind batch failed unexpectedly", e);
+                fail(batch, "Unexpected error while writing sample");
+                batch.clear();
+            }
+        }
+        fail(new ArrayList<>(queue), "Write queue stopped before the sample was written");
+        logger.info("Write-behind queue stopped");
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        List<SampleRequest> requests = batch.stream().map(PendingWrite::request).toList();
+        try {
+            List<SampleResponse> created = withBusyRetry(() -> sampleService.createSamples(requests));
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i).ticketId(), created.get(i).getId(), null);
+            }
+            batchSizes.record(batch.size());
+            logger.debug("Committed write-behind batch of {} samples", batch.size());
+        } catch (RuntimeException batchFailure) {
+            if (batch.size() == 1) {
+                complete(batch.get(0).ticketId(), null, describe(batchFailure));
+                return;
+            }
+            logger.warn("Write-behind batch of {} rejected ({}), retrying individually",
+                    batch.size(), batchFailure.getMessage());
+            for (PendingWrite write : batch) {
+                try {
+                    SampleResponse created = withBusyRetry(() -> sampleService.createSample(write.request()));
+                    complete(write.ticketId(), created.getId(), null);
+                    batchSizes.record(1);
+                } catch (RuntimeException e) {
+                    complete(write.ticketId(), null, describe(e));
+                }
+            }
+        }
+    }
+
+    private <T> T withBusyRetry(Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write.get();
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= MAX_BUSY_RETRIES) {
+                    throw e;
+                }
+                logger.debug("Database busy, retrying write-behind commit (attempt {})", attempt);
+                try {
+                    Thread.sleep(50L * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * The error reported on a failed ticket. As in {@code GlobalExceptionHandler},
+     * only rejected input is described to the client; anything else is
+     * logged and reported generically, so internal details do not leak
+     * through {@code GET /writes/{ticketId}}.
+     */
+    private static String describe(RuntimeException e) {
+        if (e instanceof IllegalArgumentException) {
+            return e.getMessage();
+        }
+        if (e instanceof ConstraintViolationException violations) {
+            return violations.getConstraintViolations().stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ", "Validation failed: ", ""));
+        }
+        if (e instanceof PessimisticLockingFailureException busy) {
+            logger.warn("Write-behind sample not written, database busy: {}", busy.getMostSpecificCause().getMessage());
+            return "The database was busy, please resubmit the sample";
+        }
+        logger.error("Write-behind sample failed unexpectedly", e);
+        return "Unexpected error while writing sample";
+    }
+
+    private void fail(List<PendingWrite> writes, String error) {
+        for (PendingWrite write : writes) {
+            complete(write.ticketId(), null, error);
+        }
+    }
+
+    private void complete(UUID ticketId, UUID sampleId, String error) {
+        WriteTicketResponse ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            return;
+        }
+        synchronized (ticket) {
+            ticket.setStatus(error == null ? WriteTicketResponse.Status.COMMITTED : WriteTicketResponse.Status.FAILED);
+            ticket.setSampleId(sampleId);
+            ticket.setError(error);
+            ticket.setCompletedAt(LocalDateTime.now());
+        }
+    }
+
+    private void sweepExpiredTickets() {
+        long now = System.nanoTime();
+        if (now - lastSweepNanos < TimeUnit.SECONDS.toNanos(10)) {
+            return;
+        }
+        lastSweepNanos = now;
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getTicketRetention());
+        tickets.values().removeIf(ticket -> {
+            synchronized (ticket) {
+                return ticket.getCompletedAt() != null && ticket.getCompletedAt().isBefore(cutoff);
+            }
+        });
+    }
+
+    private static WriteTicketResponse snapshot(WriteTicketResponse ticket) {
+        return ticket.toBuilder().build();
+    }
+
+    private record PendingWrite(UUID ticketId, SampleRequest request) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.SpatialProperties;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import com.geoscience.sampleapi.spatial.SpatialKeys;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Backfills spatial keys for samples written before the keys existed.
+ *
+ * Runs once in the background after startup, one short transaction per batch
+ * so that regular writes can interleave with it. Only the derived columns are
+ * written, with plain JDBC batch updates: going through the entity would bump
+ * {@code updated_at} and cost one statement round-trip per row. Cached samples
+ * are evicted afterwards, since Hibernate does not see these updates, and a
+ * {@link SampleChangedEvent} is published for in-memory views.
+ */
+@Component
+public class SpatialKeyBackfill implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpatialKeyBackfill.class);
+
+    private static final String SELECT_MISSING = "SELECT id, latitude, longitude FROM samples "
+            + "WHERE spatial_key IS NULL AND latitude IS NOT NULL AND longitude IS NOT NULL LIMIT ?";
+    private static final String UPDATE_KEYS = "UPDATE samples SET spatial_key = ?, unit_x = ?, unit_y = ?, unit_z = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SpatialProperties properties;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SpatialKeyBackfill(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              SpatialProperties properties, EntityManagerFactory entityManagerFactory,
+                              ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isBackfillOnStartup()) {
+            return;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                backfill();
+            } catch (RuntimeException e) {
+                logger.error("Spatial key backfill failed", e);
+            }
+        }, "spatial-key-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Compute spatial keys for every sample that has coordinates but no keys.
+     *
+     * @return the number of samples updated
+     */
+    public int backfill() {
+        int total = 0;
+        while (true) {
+            Integer updated = transactionTemplate.execute(status -> {
+                List<Object[]> batch = new ArrayList<>();
+                jdbcTemplate.query(SELECT_MISSING, row -> {
+                    double latitude = row.getDouble("latitude");
+                    double longitude = row.getDouble("longitude");
+                    double[] unit = SpatialKeys.unitVector(latitude, longitude);
+                    batch.add(new Object[] {SpatialKeys.mortonKey(latitude, longitude),
+                            unit[0], unit[1], unit[2], row.getBytes("id")});
+                }, properties.getBackfillBatchSize());
+                if (!batch.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_KEYS, batch);
+                }
+                return batch.size();
+            });
+            if (updated == null || updated == 0) {
+                break;
+            }
+            total += updated;
+            logger.debug("Backfilled spatial keys for {} samples", total);
+        }
+        if (total > 0) {
+            entityManagerFactory.getCache().evict(GeologicalSample.class);
+            eventPublisher.publishEvent(new SampleChangedEvent(SampleChangedEvent.Kind.UPDATED, List.of()));
+            logger.info("Backfilled spatial keys for {} samples", total);
+        }
+        return total;
+    }
+}
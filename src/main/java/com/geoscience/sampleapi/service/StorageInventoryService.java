@@ -0,0 +1,194 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.dto.StorageLocationResponse;
+import com.geoscience.sampleapi.model.StorageLocation;
+import com.geoscience.sampleapi.repository.SampleRepository;
+import com.geoscience.sampleapi.repository.StorageLocationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Storage-location inventory: the tree of occupied locations with per-node
+ * sample counts.
+ *
+ * Counts are maintained incrementally in the writing transaction: a sample
+ * stored at a path adds one to that node's direct count and to the subtree
+ * count of the node and each of its ancestors, one upsert per level. Nodes
+ * whose subtree becomes empty are removed. Subtree listings are index range
+ * scans on the samples' materialized paths (see {@link StoragePaths}).
+ */
+@Service
+@Transactional
+public class StorageInventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageInventoryService.class);
+
+    private final StorageLocationRepository locationRepository;
+    private final SampleRepository sampleRepository;
+
+    public StorageInventoryService(StorageLocationRepository locationRepository, SampleRepository sampleRepository) {
+        this.locationRepository = locationRepository;
+        this.sampleRepository = sampleRepository;
+    }
+
+    /**
+     * Record that a sample moved between storage paths; either may be null.
+     */
+    public void moved(String oldPath, String newPath) {
+        if (oldPath != null && oldPath.equals(newPath)) {
+            return;
+        }
+        Map<String, Integer> changes = new TreeMap<>();
+        if (oldPath != null) {
+            changes.merge(oldPath, -1, Integer::sum);
+        }
+        if (newPath != null) {
+            changes.merge(newPath, 1, Integer::sum);
+        }
+        adjust(changes);
+    }
+
+    /**
+     * Apply changes to the number of samples stored at some paths.
+     *
+     * @param changes sample count change by storage path
+     */
+    public void adjust(Map<String, Integer> changes) {
+        Map<String, int[]> deltas = new TreeMap<>();
+        changes.forEach((path, change) -> {
+            for (String ancestor : StoragePaths.ancestors(path)) {
+                int[] delta = deltas.computeIfAbsent(ancestor, key -> new int[2]);
+                delta[1] += change;
+                if (ancestor.equals(path)) {
+                    delta[0] += change;
+                }
+            }
+        });
+        apply(deltas);
+    }
+
+    /**
+     * Move the nodes of a subtree below another location, after its samples
+     * have been moved (see {@link SampleService#relocateStorage}). Nodes that
+     * land on existing ones are merged with them.
+     *
+     * @param from the path of the location being moved
+     * @param target the path it moves to, not inside {@code from}
+     */
+    public void relocate(String from, String target) {
+        List<StorageLocation> subtree = locationRepository.findInRange(from, StoragePaths.upperBound(from));
+        if (subtree.isEmpty()) {
+            return;
+        }
+        int moved = subtree.get(0).getPath().equals(from) ? subtree.get(0).getTotalCount() : 0;
+        locationRepository.deleteInRange(from, StoragePaths.upperBound(from));
+
+        Map<String, int[]> deltas = new TreeMap<>();
+        for (String ancestor : StoragePaths.ancestors(StoragePaths.parent(from))) {
+            deltas.computeIfAbsent(ancestor, key -> new int[2])[1] -= moved;
+        }
+        for (String ancestor : StoragePaths.ancestors(StoragePaths.parent(target))) {
+            deltas.computeIfAbsent(ancestor, key -> new int[2])[1] += moved;
+        }
+        for (StorageLocation node : subtree) {
+            int[] delta = deltas.computeIfAbsent(target + node.getPath().substring(from.length()), key -> new int[2]);
+            delta[0] += node.getSampleCount();
+            delta[1] += node.getTotalCount();
+        }
+        apply(deltas);
+        logger.debug("Moved {} storage locations holding {} samples", subtree.size(), moved);
+    }
+
+    /**
+     * Get a storage location with its occupancy and its children.
+     *
+     * @param location the location, as free text; blank for the root of the tree
+     * @return the location; a location holding no samples has zero counts and no children
+     */
+    @Transactional(readOnly = true)
+    public StorageLocationResponse getLocation(String location) {
+        String path = StoragePaths.of(location);
+        List<StorageLocationResponse> children = locationRepository.findByParentPathOrderByPath(path == null ? "" : path)
+                .stream()
+                .map(StorageInventoryService::mapToResponse)
+                .toList();
+        if (path == null) {
+            int total = children.stream().mapToInt(StorageLocationResponse::getTotalCount).sum();
+            return StorageLocationResponse.builder()
+                    .path("")
+                    .name("")
+                    .totalCount(total)
+                    .children(children)
+                    .build();
+        }
+        StorageLocationResponse response = locationRepository.findById(path)
+                .map(StorageInventoryService::mapToResponse)
+                .orElseGet(() -> StorageLocationResponse.builder()
+                        .path(StoragePaths.display(path))
+                        .name(StoragePaths.name(path))
+                        .depth(StoragePaths.depth(path))
+                        .build());
+        response.setChildren(children);
+        return response;
+    }
+
+    /**
+     * List the samples stored in a location or below it.
+     *
+     * @param location the location, as free text
+     * @param pageable pagination parameters
+     * @return page of samples
+     * @throws IllegalArgumentException if the location is blank
+     */
+    @Transactional(readOnly = true)
+    public Page<SampleResponse> getSamples(String location, Pageable pageable) {
+        String path = StoragePaths.of(location);
+        if (path == null) {
+            throw new IllegalArgumentException("Storage location is required");
+        }
+        logger.debug("Fetching samples stored in {} with pagination: {}", path, pageable);
+        return sampleRepository.findByStoragePathRange(path, StoragePaths.upperBound(path), pageable)
+                .map(SampleService::mapToResponse);
+    }
+
+    /**
+     * Apply {@code [sampleCount, totalCount]} changes by path, then remove
+     * the nodes that became empty.
+     */
+    private void apply(Map<String, int[]> deltas) {
+        List<String> shrunk = new ArrayList<>();
+        deltas.forEach((path, delta) -> {
+            if (delta[0] == 0 && delta[1] == 0) {
+                return;
+            }
+            locationRepository.adjust(path, StoragePaths.parent(path), StoragePaths.name(path),
+                    StoragePaths.depth(path), delta[0], delta[1]);
+            if (delta[1] < 0) {
+                shrunk.add(path);
+            }
+        });
+        if (!shrunk.isEmpty()) {
+            locationRepository.deleteEmpty(shrunk);
+        }
+    }
+
+    private static StorageLocationResponse mapToResponse(StorageLocation location) {
+        return StorageLocationResponse.builder()
+                .path(StoragePaths.display(location.getPath()))
+                .name(location.getName())
+                .depth(location.getDepth())
+                .sampleCount(location.getSampleCount())
+                .totalCount(location.getTotalCount())
+                .build();
+    }
+}
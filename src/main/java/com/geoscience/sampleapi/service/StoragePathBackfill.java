@@ -0,0 +1,138 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.StorageLocationProperties;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Backfills storage paths, and the location counts, for samples written
+ * before the storage-location inventory existed.
+ *
+ * Runs once in the background after startup (in the main database and every
+ * partition), one short transaction per batch so that regular writes can
+ * interleave with it. A batch adds its samples to the location counts in the
+ * same transaction, so the counts stay exact while it runs. Samples are read
+ * in ID order, which skips locations that have no segments without looking at
+ * them again. Backfilled samples are evicted from the cache, since Hibernate
+ * does not see these updates and a cached sample without its path would not
+ * leave its location's count when moved.
+ */
+@Component
+public class StoragePathBackfill implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoragePathBackfill.class);
+
+    private static final String SELECT_MISSING = "SELECT id, storage_location FROM samples WHERE storage_path IS NULL "
+            + "AND storage_location IS NOT NULL AND deleted_at IS NULL AND id > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_PATH = "UPDATE samples SET storage_path = ? "
+            + "WHERE id = ? AND storage_path IS NULL AND deleted_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StorageInventoryService inventory;
+    private final StorageLocationProperties properties;
+    private final EntityManagerFactory entityManagerFactory;
+    private final SamplePartitions partitions;
+
+    public StoragePathBackfill(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               StorageInventoryService inventory, StorageLocationProperties properties,
+                               EntityManagerFactory entityManagerFactory, SamplePartitions partitions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.inventory = inventory;
+        this.properties = properties;
+        this.entityManagerFactory = entityManagerFactory;
+        this.partitions = partitions;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isBackfillOnStartup()) {
+            return;
+        }
+        Thread worker = new Thread(() -> {
+            if (!partitions.isEnabled()) {
+                try {
+                    backfill();
+                } catch (RuntimeException e) {
+                    logger.error("Storage path backfill failed", e);
+                }
+                return;
+            }
+            for (String partition : partitions.names()) {
+                try {
+                    partitions.callIn(partition, this::backfill);
+                } catch (RuntimeException e) {
+                    logger.error("Storage path backfill of partition {} failed", partition, e);
+                }
+            }
+        }, "storage-path-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Derive the storage path of every live sample that has a storage
+     * location but no path, and count it in the inventory.
+     *
+     * @return the number of samples updated
+     */
+    public int backfill() {
+        int total = 0;
+        byte[] after = new byte[0];
+        while (true) {
+            List<Object[]> batch = new ArrayList<>();
+            List<UUID> ids = new ArrayList<>();
+            byte[][] last = {after};
+            Integer updated = transactionTemplate.execute(status -> {
+                jdbcTemplate.query(SELECT_MISSING, row -> {
+                    byte[] id = row.getBytes("id");
+                    last[0] = id;
+                    String path = StoragePaths.of(row.getString("storage_location"));
+                    if (path != null) {
+                        batch.add(new Object[] {path, id});
+                    }
+                }, last[0], properties.getBackfillBatchSize());
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+                int[] counts = jdbcTemplate.batchUpdate(UPDATE_PATH, batch);
+                Map<String, Integer> stored = new HashMap<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] > 0) {
+                        stored.merge((String) batch.get(i)[0], 1, Integer::sum);
+                        ByteBuffer id = ByteBuffer.wrap((byte[]) batch.get(i)[1]);
+                        ids.add(new UUID(id.getLong(), id.getLong()));
+                    }
+                }
+                inventory.adjust(stored);
+                return ids.size();
+            });
+            ids.forEach(id -> entityManagerFactory.getCache().evict(GeologicalSample.class, id));
+            if (last[0] == after) {
+                break;
+            }
+            after = last[0];
+            total += updated == null ? 0 : updated;
+            logger.debug("Backfilled storage paths for {} samples", total);
+        }
+        if (total > 0) {
+            logger.info("Backfilled storage paths for {} samples", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,110 @@
+package com.geoscience.sampleapi.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Materialized paths for storage locations.
+ *
+ * A free-text storage location such as {@code "Core Shed 2 / Rack 14 / Tray C"}
+ * is split on {@code /}; each segment is trimmed with its inner whitespace
+ * collapsed, empty segments are dropped, and the segments are joined with
+ * {@code /} and a trailing {@code /}: {@code "Core Shed 2/Rack 14/Tray C/"}.
+ * Segments are case-sensitive.
+ *
+ * The trailing separator makes every path a string prefix of exactly the
+ * paths below it, so a subtree is the index range
+ * {@code [path, upperBound(path))}.
+ */
+public final class StoragePaths {
+
+    /**
+     * Separator between path segments.
+     */
+    public static final char SEPARATOR = '/';
+
+    private static final String DISPLAY_SEPARATOR = " / ";
+
+    private StoragePaths() {
+    }
+
+    /**
+     * Normalise a storage location to its path.
+     *
+     * @param storageLocation free-text storage location, may be null
+     * @return the path, or null if the location has no segments
+     */
+    public static String of(String storageLocation) {
+        if (storageLocation == null) {
+            return null;
+        }
+        StringBuilder path = new StringBuilder(storageLocation.length() + 1);
+        for (String segment : storageLocation.split(String.valueOf(SEPARATOR))) {
+            String name = segment.strip().replaceAll("\\s+", " ");
+            if (!name.isEmpty()) {
+                path.append(name).append(SEPARATOR);
+            }
+        }
+        return path.isEmpty() ? null : path.toString();
+    }
+
+    /**
+     * @return the exclusive upper bound of the paths in a subtree: the path
+     *         with its trailing separator replaced by the next character
+     */
+    public static String upperBound(String path) {
+        return path.substring(0, path.length() - 1) + (char) (SEPARATOR + 1);
+    }
+
+    /**
+     * @return whether {@code path} is {@code ancestor} or lies below it
+     */
+    public static boolean isWithin(String path, String ancestor) {
+        return path.startsWith(ancestor);
+    }
+
+    /**
+     * @return the path and all its ancestors, outermost first
+     */
+    public static List<String> ancestors(String path) {
+        List<String> ancestors = new ArrayList<>();
+        for (int end = path.indexOf(SEPARATOR); end >= 0; end = path.indexOf(SEPARATOR, end + 1)) {
+            ancestors.add(path.substring(0, end + 1));
+        }
+        return ancestors;
+    }
+
+    /**
+     * @return the parent path, or an empty string for a top-level location
+     */
+    public static String parent(String path) {
+        return path.substring(0, path.lastIndexOf(SEPARATOR, path.length() - 2) + 1);
+    }
+
+    /**
+     * @return the last segment of a path
+     */
+    public static String name(String path) {
+        return path.substring(path.lastIndexOf(SEPARATOR, path.length() - 2) + 1, path.length() - 1);
+    }
+
+    /**
+     * @return the number of segments, 1 for a top-level location
+     */
+    public static int depth(String path) {
+        int depth = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == SEPARATOR) {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * @return the path as a storage location, segments separated by {@code " / "}
+     */
+    public static String display(String path) {
+        return path.substring(0, path.length() - 1).replace(String.valueOf(SEPARATOR), DISPLAY_SEPARATOR);
+    }
+}
@@ -0,0 +1,90 @@
+package com.geoscience.sampleapi.service;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Resumable position in the change feed of incremental sync.
+ *
+ * Holds two keyset cursors: the last changed sample seen, by
+ * {@code (updatedAt, id)}, and the last tombstone seen, by
+ * {@code (deletedAt, id)}. Clients treat the encoded form as opaque and send
+ * back the token of the last batch they fully applied.
+ *
+ * @param changedAt modification time of the last changed sample seen
+ * @param changedId ID of the last changed sample seen
+ * @param deletedAt deletion time of the last tombstone seen
+ * @param deletedId ID of the last tombstone seen
+ */
+public record SyncToken(LocalDateTime changedAt, UUID changedId, LocalDateTime deletedAt, UUID deletedId) {
+
+    /**
+     * Position before any change, for a client without local data.
+     */
+    public static final SyncToken INITIAL = new SyncToken(LocalDateTime.of(1900, 1, 1, 0, 0), new UUID(0, 0),
+            LocalDateTime.of(1900, 1, 1, 0, 0), new UUID(0, 0));
+
+    /**
+     * Greatest ID in the database's byte order, for cursors placed after
+     * every row with a given timestamp.
+     */
+    public static final UUID MAX_ID = new UUID(-1L, -1L);
+
+    private static final byte VERSION = 1;
+    private static final int LENGTH = 1 + 2 * (Long.BYTES + 16);
+
+    /**
+     * URL-safe encoded form of this token.
+     */
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH)
+                .put(VERSION)
+                .putLong(toMillis(changedAt))
+                .putLong(changedId.getMostSignificantBits())
+                .putLong(changedId.getLeastSignificantBits())
+                .putLong(toMillis(deletedAt))
+                .putLong(deletedId.getMostSignificantBits())
+                .putLong(deletedId.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Parse a token produced by {@link #encode()}.
+     *
+     * @param token the encoded token, or null/blank for {@link #INITIAL}
+     * @return the decoded token
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static SyncToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return INITIAL;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+        if (bytes.length != LENGTH || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, LENGTH - 1);
+        LocalDateTime changedAt = fromMillis(buffer.getLong());
+        UUID changedId = new UUID(buffer.getLong(), buffer.getLong());
+        LocalDateTime deletedAt = fromMillis(buffer.getLong());
+        UUID deletedId = new UUID(buffer.getLong(), buffer.getLong());
+        return new SyncToken(changedAt, changedId, deletedAt, deletedId);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
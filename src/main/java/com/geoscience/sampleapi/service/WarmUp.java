@@ -0,0 +1,115 @@
+package com.geoscience.sampleapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geoscience.sampleapi.config.WarmUpProperties;
+import com.geoscience.sampleapi.dto.SampleResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Warms up a freshly started instance before it reports ready.
+ *
+ * After startup, a background thread runs the main read paths in process
+ * (list, get by ID, nearby search and sync, each serialized to JSON) for
+ * {@code app.warm-up.iterations} rounds, so the JIT has compiled them and the
+ * caches hold the leading list pages before real traffic arrives. The
+ * columnar copy is loaded first when it is enabled.
+ *
+ * As the {@code warmUp} health indicator, which is part of the readiness
+ * group, it reports {@code OUT_OF_SERVICE} until the warm-up has finished or
+ * {@code app.warm-up.max-duration} has passed.
+ */
+@Component
+public class WarmUp implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmUp.class);
+
+    private static final int PAGE_SIZE = 20;
+    private static final double NEARBY_RADIUS_METERS = 10_000;
+    private static final int NEARBY_LIMIT = 50;
+    private static final int SYNC_LIMIT = 100;
+
+    private final SampleService sampleService;
+    private final SampleColumnStore columnStore;
+    private final ObjectMapper objectMapper;
+    private final WarmUpProperties properties;
+    private volatile boolean finished;
+    private volatile int rounds;
+
+    public WarmUp(SampleService sampleService, SampleColumnStore columnStore, ObjectMapper objectMapper,
+                  WarmUpProperties properties) {
+        this.sampleService = sampleService;
+        this.columnStore = columnStore;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!properties.isEnabled()) {
+            finished = true;
+            return;
+        }
+        Thread thread = new Thread(this::run, "warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = finished ? Health.up() : Health.outOfService();
+        return health.withDetail("rounds", rounds).build();
+    }
+
+    /**
+     * @return true once the instance is warm (or warm-up is disabled)
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    void run() {
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxDuration().toNanos();
+        try {
+            columnStore.refresh();
+            // Same default order as GET /api/v1/samples
+            Page<SampleResponse> first = sampleService.getAllSamples(PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+            List<SampleResponse> samples = first.getContent();
+            int pages = Math.max(1, Math.min(first.getTotalPages(), properties.getPages()));
+            for (int i = 0; i < properties.getIterations() && System.nanoTime() < deadline; i++) {
+                serialize(sampleService.getAllSamples(PageRequest.of(i % pages, PAGE_SIZE, Sort.by("id"))));
+                if (!samples.isEmpty()) {
+                    SampleResponse sample = samples.get(i % samples.size());
+                    serialize(sampleService.getSampleById(sample.getId()));
+                    if (sample.getLatitude() != null && sample.getLongitude() != null) {
+                        serialize(sampleService.findNearby(sample.getLatitude(), sample.getLongitude(),
+                                NEARBY_RADIUS_METERS, NEARBY_LIMIT));
+                    }
+                }
+                serialize(sampleService.getChanges(null, SYNC_LIMIT));
+                rounds = i + 1;
+            }
+            logger.info("Warm-up finished: {} rounds in {} ms", rounds, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException | IOException e) {
+            logger.warn("Warm-up stopped after {} rounds: {}", rounds, e.getMessage());
+        } finally {
+            finished = true;
+        }
+    }
+
+    private void serialize(Object response) throws IOException {
+        objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,248 @@
+package com.geoscience.sampleapi.spatial;
+
+import java.util.Arrays;
+
+/**
+ * Static 3-d tree over points on the unit sphere, for k-nearest-neighbour
+ * queries.
+ *
+ * The tree is stored implicitly in flat primitive arrays: every range of
+ * slots {@code [lo, hi)} is a subtree whose root is the middle slot, points
+ * left of it lie on the low side of its split plane and points right of it
+ * on the high side. There are no node objects, so a tree over a few hundred
+ * thousand samples is a handful of arrays and is cheap to rebuild.
+ *
+ * Distances are squared chord lengths between unit vectors, which order
+ * points exactly like great-circle distance (see {@link #chordToMeters}).
+ * A built tree is immutable and may be queried from many threads at once.
+ */
+public final class KdTree {
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+    private final int[] items;
+    private final byte[] axes;
+
+    private KdTree(double[] xs, double[] ys, double[] zs, int[] items) {
+        this.xs = xs;
+        this.ys = ys;
+        this.zs = zs;
+        this.items = items;
+        this.axes = new byte[items.length];
+    }
+
+    /**
+     * Build a tree over the given points. The arrays are copied.
+     *
+     * @param x unit vector x components
+     * @param y unit vector y components
+     * @param z unit vector z components
+     * @param count number of points to use from the start of the arrays
+     * @return the tree; results refer to points by their index in the arrays
+     */
+    public static KdTree build(double[] x, double[] y, double[] z, int count) {
+        int[] items = new int[count];
+        for (int i = 0; i < count; i++) {
+            items[i] = i;
+        }
+        KdTree tree = new KdTree(Arrays.copyOf(x, count), Arrays.copyOf(y, count),
+                Arrays.copyOf(z, count), items);
+        tree.build(0, count);
+        return tree;
+    }
+
+    /**
+     * @return the number of points in the tree
+     */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Find the points nearest to a query point.
+     *
+     * @param qx query unit vector x component
+     * @param qy query unit vector y component
+     * @param qz query unit vector z component
+     * @param k maximum number of neighbours
+     * @param maxChord2 only points with a smaller squared chord distance are returned
+     * @param found receives the indices of the neighbours, nearest first (length at least k)
+     * @param chord2 receives their squared chord distances (length at least k)
+     * @return the number of neighbours found
+     */
+    public int nearest(double qx, double qy, double qz, int k, double maxChord2, int[] found, double[] chord2) {
+        Search search = new Search(qx, qy, qz, k, maxChord2, found, chord2);
+        search(search, 0, items.length);
+        return search.count;
+    }
+
+    /**
+     * Squared chord distance between two points on the unit sphere that are
+     * {@code meters} apart on the surface of the earth.
+     */
+    public static double metersToChord2(double meters) {
+        double angle = Math.min(Math.PI, meters / SpatialKeys.EARTH_RADIUS_METERS);
+        double chord = 2 * Math.sin(angle / 2);
+        return chord * chord;
+    }
+
+    /**
+     * Great-circle distance in meters for a squared chord distance.
+     */
+    public static double chordToMeters(double chord2) {
+        return SpatialKeys.distanceMeters(1 - chord2 / 2);
+    }
+
+    private void search(Search search, int lo, int hi) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            double dx = search.qx - xs[mid];
+            double dy = search.qy - ys[mid];
+            double dz = search.qz - zs[mid];
+            search.offer(items[mid], dx * dx + dy * dy + dz * dz);
+            if (hi - lo == 1) {
+                return;
+            }
+            double diff = switch (axes[mid]) {
+                case 0 -> dx;
+                case 1 -> dy;
+                default -> dz;
+            };
+            // Descend into the near side first; visit the far side only if the
+            // split plane is closer than the current k-th neighbour
+            int nearLo = diff < 0 ? lo : mid + 1;
+            int nearHi = diff < 0 ? mid : hi;
+            int farLo = diff < 0 ? mid + 1 : lo;
+            int farHi = diff < 0 ? hi : mid;
+            search(search, nearLo, nearHi);
+            if (diff * diff >= search.worst()) {
+                return;
+            }
+            lo = farLo;
+            hi = farHi;
+        }
+    }
+
+    private void build(int lo, int hi) {
+        while (hi - lo > 1) {
+            int axis = widestAxis(lo, hi);
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi - 1, mid, coordinates(axis));
+            axes[mid] = (byte) axis;
+            build(lo, mid);
+            lo = mid + 1;
+        }
+    }
+
+    private int widestAxis(int lo, int hi) {
+        double best = -1;
+        int axis = 0;
+        for (int a = 0; a < 3; a++) {
+            double[] values = coordinates(a);
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = lo; i < hi; i++) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            if (max - min > best) {
+                best = max - min;
+                axis = a;
+            }
+        }
+        return axis;
+    }
+
+    private double[] coordinates(int axis) {
+        return axis == 0 ? xs : axis == 1 ? ys : zs;
+    }
+
+    /**
+     * Quickselect: reorder {@code [left, right]} so that slot {@code n} holds
+     * the point it would hold if sorted by {@code values}, with smaller
+     * values before it and larger ones after it.
+     */
+    private void select(int left, int right, int n, double[] values) {
+        while (right > left) {
+            double pivot = values[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (n <= j) {
+                right = j;
+            } else if (n >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        double x = xs[a];
+        xs[a] = xs[b];
+        xs[b] = x;
+        double y = ys[a];
+        ys[a] = ys[b];
+        ys[b] = y;
+        double z = zs[a];
+        zs[a] = zs[b];
+        zs[b] = z;
+        int item = items[a];
+        items[a] = items[b];
+        items[b] = item;
+    }
+
+    /**
+     * Bounded list of the best candidates so far, sorted by distance.
+     */
+    private static final class Search {
+        private final double qx;
+        private final double qy;
+        private final double qz;
+        private final int k;
+        private final double maxChord2;
+        private final int[] found;
+        private final double[] chord2;
+        private int count;
+
+        Search(double qx, double qy, double qz, int k, double maxChord2, int[] found, double[] chord2) {
+            this.qx = qx;
+            this.qy = qy;
+            this.qz = qz;
+            this.k = k;
+            this.maxChord2 = maxChord2;
+            this.found = found;
+            this.chord2 = chord2;
+        }
+
+        double worst() {
+            return count < k ? maxChord2 : chord2[k - 1];
+        }
+
+        void offer(int item, double distance) {
+            if (distance >= worst()) {
+                return;
+            }
+            int i = count < k ? count++ : k - 1;
+            while (i > 0 && chord2[i - 1] > distance) {
+                found[i] = found[i - 1];
+                chord2[i] = chord2[i - 1];
+                i--;
+            }
+            found[i] = item;
+            chord2[i] = distance;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.geoscience.sampleapi.spatial;
+
+/**
+ * Web Mercator (EPSG:3857) tile arithmetic for the {@code z/x/y} scheme used
+ * by web maps: tile {@code 0/0/0} covers the world, x grows eastwards and y
+ * southwards.
+ */
+public final class MapTiles {
+
+    /**
+     * Latitude at which the Web Mercator square ends.
+     */
+    public static final double MAX_LATITUDE = 85.05112877980659;
+
+    private MapTiles() {
+    }
+
+    /**
+     * Fractional tile column of a longitude.
+     */
+    public static double tileX(double longitude, int zoom) {
+        return (longitude + 180.0) / 360.0 * (1L << zoom);
+    }
+
+    /**
+     * Fractional tile row of a latitude; latitudes beyond
+     * {@link #MAX_LATITUDE} are clamped.
+     */
+    public static double tileY(double latitude, int zoom) {
+        double lat = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+        return (1.0 - Math.log(Math.tan(lat) + 1.0 / Math.cos(lat)) / Math.PI) / 2.0 * (1L << zoom);
+    }
+
+    /**
+     * Longitude of a (fractional) tile column.
+     */
+    public static double longitude(double tileX, int zoom) {
+        return tileX / (1L << zoom) * 360.0 - 180.0;
+    }
+
+    /**
+     * Latitude of a (fractional) tile row.
+     */
+    public static double latitude(double tileY, int zoom) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1.0 - 2.0 * tileY / (1L << zoom)))));
+    }
+
+    /**
+     * Pack a tile address into one key. Valid for zoom levels up to 28.
+     */
+    public static long key(int zoom, int x, int y) {
+        return ((long) zoom << 56) | ((long) x << 28) | y;
+    }
+}
@@ -0,0 +1,271 @@
+package com.geoscience.sampleapi.spatial;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Polygon or multipolygon (with holes) prepared for many point-in-polygon
+ * tests.
+ *
+ * Coordinates are treated as planar longitude/latitude, as in GeoJSON
+ * (RFC 7946): areas crossing the antimeridian must be split into several
+ * polygons. A point is inside when a ray from it towards the east crosses an
+ * odd number of ring edges, so holes and the parts of a multipolygon need no
+ * special handling. Points exactly on an edge may fall on either side.
+ *
+ * The edges are indexed by horizontal latitude bands: a test only looks at
+ * the edges overlapping the point's band, so it costs a few edge checks
+ * rather than one per vertex even for survey areas with many thousands of
+ * vertices. A prepared polygon is immutable and may be tested from many
+ * threads at once.
+ */
+public final class PreparedPolygon {
+
+    /**
+     * Average number of edges per band to aim for.
+     */
+    private static final int EDGES_PER_BAND = 4;
+    private static final int MAX_BANDS = 1 << 16;
+
+    private final List<double[]> boundingBoxes;
+    private final int vertexCount;
+    private final double minLat;
+    private final double maxLat;
+    private final double minLon;
+    private final double maxLon;
+    private final double bandHeight;
+    private final int bands;
+    private final int[] bandStart;
+    /**
+     * Edges of each band, four values each: {@code lat1, lon1, lat2, lon2}.
+     */
+    private final double[] bandEdges;
+
+    /**
+     * Prepare polygons given as closed rings of {@code lon, lat} pairs.
+     *
+     * @param polygons for each polygon, its exterior ring followed by its holes;
+     *                 each ring is a flat array {@code lon0, lat0, lon1, lat1, ...}
+     *                 whose last position repeats the first
+     */
+    public PreparedPolygon(List<List<double[]>> polygons) {
+        List<double[]> boxes = new ArrayList<>(polygons.size());
+        double south = Double.POSITIVE_INFINITY;
+        double north = Double.NEGATIVE_INFINITY;
+        double west = Double.POSITIVE_INFINITY;
+        double east = Double.NEGATIVE_INFINITY;
+        int vertices = 0;
+        for (List<double[]> rings : polygons) {
+            // The exterior ring bounds the polygon; holes lie inside it
+            double[] exterior = rings.get(0);
+            double[] box = {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                    Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+            for (int i = 0; i < exterior.length; i += 2) {
+                box[0] = Math.min(box[0], exterior[i + 1]);
+                box[1] = Math.max(box[1], exterior[i + 1]);
+                box[2] = Math.min(box[2], exterior[i]);
+                box[3] = Math.max(box[3], exterior[i]);
+            }
+            boxes.add(box);
+            south = Math.min(south, box[0]);
+            north = Math.max(north, box[1]);
+            west = Math.min(west, box[2]);
+            east = Math.max(east, box[3]);
+            for (double[] ring : rings) {
+                vertices += ring.length / 2 - 1;
+            }
+        }
+        this.boundingBoxes = List.copyOf(boxes);
+        this.vertexCount = vertices;
+        this.minLat = south;
+        this.maxLat = north;
+        this.minLon = west;
+        this.maxLon = east;
+        this.bands = Math.max(1, Math.min(MAX_BANDS, vertices / EDGES_PER_BAND));
+        this.bandHeight = (north - south) / bands;
+
+        // Two passes over the edges: count per band, then fill (CSR layout)
+        int[] counts = new int[bands + 1];
+        forEachEdge(polygons, (lat1, lon1, lat2, lon2) -> {
+            for (int band = band(Math.min(lat1, lat2)); band <= band(Math.max(lat1, lat2)); band++) {
+                counts[band + 1]++;
+            }
+        });
+        for (int band = 0; band < bands; band++) {
+            counts[band + 1] += counts[band];
+        }
+        this.bandStart = counts.clone();
+        this.bandEdges = new double[counts[bands] * 4];
+        int[] fill = counts;
+        forEachEdge(polygons, (lat1, lon1, lat2, lon2) -> {
+            for (int band = band(Math.min(lat1, lat2)); band <= band(Math.max(lat1, lat2)); band++) {
+                int at = fill[band]++ * 4;
+                bandEdges[at] = lat1;
+                bandEdges[at + 1] = lon1;
+                bandEdges[at + 2] = lat2;
+                bandEdges[at + 3] = lon2;
+            }
+        });
+    }
+
+    /**
+     * Parse and prepare a GeoJSON {@code Polygon} or {@code MultiPolygon}, or a
+     * {@code Feature} or {@code FeatureCollection} of them (all features
+     * together form the area).
+     *
+     * @param geoJson the GeoJSON object
+     * @param maxVertices the largest number of vertices to accept
+     * @return the prepared area
+     * @throws IllegalArgumentException if the GeoJSON is not a valid polygon or has too many vertices
+     */
+    public static PreparedPolygon fromGeoJson(JsonNode geoJson, int maxVertices) {
+        List<List<double[]>> polygons = new ArrayList<>();
+        collectPolygons(geoJson, polygons);
+        if (polygons.isEmpty()) {
+            throw new IllegalArgumentException("GeoJSON contains no polygon");
+        }
+        long vertices = polygons.stream().flatMap(List::stream).mapToLong(ring -> ring.length / 2 - 1).sum();
+        if (vertices > maxVertices) {
+            throw new IllegalArgumentException("Area has " + vertices + " vertices, at most " + maxVertices
+                    + " are allowed");
+        }
+        return new PreparedPolygon(polygons);
+    }
+
+    /**
+     * Whether a point lies inside the area.
+     *
+     * @param latitude latitude in degrees
+     * @param longitude longitude in degrees
+     * @return true if the point is inside an exterior ring and outside its holes
+     */
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLat || latitude > maxLat || longitude < minLon || longitude > maxLon) {
+            return false;
+        }
+        int band = band(latitude);
+        boolean inside = false;
+        for (int at = bandStart[band] * 4, end = bandStart[band + 1] * 4; at < end; at += 4) {
+            double lat1 = bandEdges[at];
+            double lat2 = bandEdges[at + 2];
+            if ((lat1 > latitude) != (lat2 > latitude)) {
+                double lon1 = bandEdges[at + 1];
+                double crossing = lon1 + (latitude - lat1) * (bandEdges[at + 3] - lon1) / (lat2 - lat1);
+                if (longitude < crossing) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * @return one bounding box per polygon, as {@code {minLat, maxLat, minLon, maxLon}}
+     */
+    public List<double[]> boundingBoxes() {
+        return boundingBoxes;
+    }
+
+    /**
+     * @return the number of distinct vertices over all rings
+     */
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    private int band(double latitude) {
+        if (!(bandHeight > 0)) {
+            return 0;
+        }
+        return Math.max(0, Math.min(bands - 1, (int) ((latitude - minLat) / bandHeight)));
+    }
+
+    private static void forEachEdge(List<List<double[]>> polygons, EdgeConsumer consumer) {
+        for (List<double[]> rings : polygons) {
+            for (double[] ring : rings) {
+                for (int i = 0; i + 3 < ring.length; i += 2) {
+                    if (ring[i + 1] != ring[i + 3]) {
+                        // Horizontal edges never cross an eastward ray
+                        consumer.accept(ring[i + 1], ring[i], ring[i + 3], ring[i + 2]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void collectPolygons(JsonNode node, List<List<double[]>> polygons) {
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("GeoJSON must be an object");
+        }
+        String type = node.path("type").asText();
+        switch (type) {
+            case "Polygon" -> polygons.add(parsePolygon(node.path("coordinates")));
+            case "MultiPolygon" -> {
+                JsonNode coordinates = requireArray(node.path("coordinates"), "MultiPolygon coordinates");
+                for (JsonNode polygon : coordinates) {
+                    polygons.add(parsePolygon(polygon));
+                }
+            }
+            case "Feature" -> collectPolygons(node.path("geometry"), polygons);
+            case "FeatureCollection" -> {
+                for (JsonNode feature : requireArray(node.path("features"), "FeatureCollection features")) {
+                    collectPolygons(feature, polygons);
+                }
+            }
+            default -> throw new IllegalArgumentException(
+                    "Unsupported GeoJSON type '" + type + "', expected Polygon, MultiPolygon, Feature or FeatureCollection");
+        }
+    }
+
+    private static List<double[]> parsePolygon(JsonNode coordinates) {
+        requireArray(coordinates, "Polygon coordinates");
+        if (coordinates.isEmpty()) {
+            throw new IllegalArgumentException("Polygon needs an exterior ring");
+        }
+        List<double[]> rings = new ArrayList<>(coordinates.size());
+        for (JsonNode ring : coordinates) {
+            rings.add(parseRing(ring));
+        }
+        return rings;
+    }
+
+    private static double[] parseRing(JsonNode ring) {
+        requireArray(ring, "Linear ring");
+        if (ring.size() < 4) {
+            throw new IllegalArgumentException("Linear ring needs at least 4 positions, got " + ring.size());
+        }
+        double[] flat = new double[ring.size() * 2];
+        for (int i = 0; i < ring.size(); i++) {
+            JsonNode position = ring.get(i);
+            if (!position.isArray() || position.size() < 2 || !position.get(0).isNumber() || !position.get(1).isNumber()) {
+                throw new IllegalArgumentException("Position must be [longitude, latitude]: " + position);
+            }
+            double longitude = position.get(0).asDouble();
+            double latitude = position.get(1).asDouble();
+            if (latitude < -90.0 || latitude > 90.0 || longitude < -180.0 || longitude > 180.0) {
+                throw new IllegalArgumentException("Position out of range: " + position);
+            }
+            flat[i * 2] = longitude;
+            flat[i * 2 + 1] = latitude;
+        }
+        int last = flat.length - 2;
+        if (flat[0] != flat[last] || flat[1] != flat[last + 1]) {
+            throw new IllegalArgumentException("Linear ring must end with its first position");
+        }
+        return flat;
+    }
+
+    private static JsonNode requireArray(JsonNode node, String what) {
+        if (!node.isArray()) {
+            throw new IllegalArgumentException(what + " must be an array");
+        }
+        return node;
+    }
+
+    @FunctionalInterface
+    private interface EdgeConsumer {
+        void accept(double lat1, double lon1, double lat2, double lon2);
+    }
+}
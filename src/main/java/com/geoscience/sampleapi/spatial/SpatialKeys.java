@@ -0,0 +1,227 @@
+package com.geoscience.sampleapi.spatial;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed spatial keys for sample coordinates.
+ *
+ * Two representations are derived from a latitude/longitude pair:
+ * <ul>
+ *   <li>a Morton (Z-order) key that interleaves 31-bit quantized longitude and
+ *   latitude, so that nearby points mostly share a key prefix and a bounding
+ *   box can be covered by a handful of key ranges (index range scans);</li>
+ *   <li>the point on the unit sphere, so that the great-circle distance between
+ *   two stored points only needs a dot product and one {@code acos}.</li>
+ * </ul>
+ *
+ * Keys have ~1 cm resolution, which is finer than any field GPS fix.
+ */
+public final class SpatialKeys {
+
+    /**
+     * Mean Earth radius in meters (IUGG).
+     */
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private static final int BITS = 31;
+    private static final long CELLS = 1L << BITS;
+    private static final long MAX_CELL = CELLS - 1;
+
+    private SpatialKeys() {
+    }
+
+    /**
+     * Morton key of a coordinate pair. Keys are non-negative.
+     *
+     * @param latitude latitude in degrees, [-90, 90]
+     * @param longitude longitude in degrees, [-180, 180]
+     * @return the Z-order key
+     */
+    public static long mortonKey(double latitude, double longitude) {
+        return interleave(lonCell(longitude), latCell(latitude));
+    }
+
+    /**
+     * Unit-sphere position of a coordinate pair (x towards 0°E on the equator,
+     * z towards the north pole).
+     *
+     * @return {@code {x, y, z}}
+     */
+    public static double[] unitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[] {cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat)};
+    }
+
+    /**
+     * Great-circle distance between two unit vectors.
+     *
+     * @param dot the dot product of the two unit vectors
+     * @return the distance in meters
+     */
+    public static double distanceMeters(double dot) {
+        return EARTH_RADIUS_METERS * Math.acos(Math.max(-1.0, Math.min(1.0, dot)));
+    }
+
+    /**
+     * Smallest dot product two unit vectors can have while being at most
+     * {@code radiusMeters} apart.
+     */
+    public static double minDotWithin(double radiusMeters) {
+        return Math.cos(Math.min(Math.PI, radiusMeters / EARTH_RADIUS_METERS));
+    }
+
+    /**
+     * Bounding boxes (one, or two when the circle crosses the antimeridian)
+     * containing every point within {@code radiusMeters} of the centre.
+     *
+     * @return boxes as {@code {minLat, maxLat, minLon, maxLon}}
+     */
+    public static List<double[]> boundingBoxes(double latitude, double longitude, double radiusMeters) {
+        double angular = Math.toDegrees(radiusMeters / EARTH_RADIUS_METERS);
+        double minLat = latitude - angular;
+        double maxLat = latitude + angular;
+        if (minLat <= -90.0 || maxLat >= 90.0 || angular >= 90.0) {
+            // The circle contains a pole: every longitude is reachable
+            return List.of(new double[] {Math.max(-90.0, minLat), Math.min(90.0, maxLat), -180.0, 180.0});
+        }
+        double deltaLon = Math.toDegrees(Math.asin(Math.sin(Math.toRadians(angular)) / Math.cos(Math.toRadians(latitude))));
+        double minLon = longitude - deltaLon;
+        double maxLon = longitude + deltaLon;
+        if (minLon < -180.0) {
+            return List.of(new double[] {minLat, maxLat, minLon + 360.0, 180.0},
+                    new double[] {minLat, maxLat, -180.0, maxLon});
+        }
+        if (maxLon > 180.0) {
+            return List.of(new double[] {minLat, maxLat, minLon, 180.0},
+                    new double[] {minLat, maxLat, -180.0, maxLon - 360.0});
+        }
+        return List.of(new double[] {minLat, maxLat, minLon, maxLon});
+    }
+
+    /**
+     * Cover a latitude/longitude box with at most {@code maxRanges} inclusive
+     * Morton key ranges. The cover may include keys outside the box (callers
+     * filter exactly afterwards) but never misses a key inside it.
+     *
+     * @return sorted, non-overlapping ranges as {@code {from, to}}
+     */
+    public static List<long[]> coverRanges(double minLat, double maxLat, double minLon, double maxLon, int maxRanges) {
+        return coverRanges(List.of(new double[] {minLat, maxLat, minLon, maxLon}), maxRanges);
+    }
+
+    /**
+     * Cover several boxes with at most {@code maxRanges} inclusive Morton key
+     * ranges in total. Overlapping boxes yield no overlapping ranges, so no key
+     * is scanned twice.
+     *
+     * @param boxes boxes as {@code {minLat, maxLat, minLon, maxLon}}
+     * @return sorted, non-overlapping ranges as {@code {from, to}}
+     */
+    public static List<long[]> coverRanges(List<double[]> boxes, int maxRanges) {
+        List<long[]> ranges = new ArrayList<>();
+        for (double[] box : boxes) {
+            long x0 = lonCell(box[2]);
+            long x1 = lonCell(box[3]);
+            long y0 = latCell(box[0]);
+            long y1 = latCell(box[1]);
+
+            // Start at the deepest level whose cells are still at least as large as
+            // the box, then refine a few levels so the cover hugs the box
+            long extent = Math.max(x1 - x0, y1 - y0) + 1;
+            int startLevel = Math.max(0, BITS - (64 - Long.numberOfLeadingZeros(extent)));
+            int maxLevel = Math.min(BITS, startLevel + 4);
+
+            long shift = BITS - startLevel;
+            for (long cx = x0 >>> shift; cx <= x1 >>> shift; cx++) {
+                for (long cy = y0 >>> shift; cy <= y1 >>> shift; cy++) {
+                    cover(cx, cy, startLevel, maxLevel, x0, x1, y0, y1, ranges);
+                }
+            }
+        }
+        ranges.sort((a, b) -> Long.compare(a[0], b[0]));
+        return coalesce(ranges, Math.max(1, maxRanges));
+    }
+
+    private static void cover(long cx, long cy, int level, int maxLevel,
+                              long x0, long x1, long y0, long y1, List<long[]> ranges) {
+        int shift = BITS - level;
+        long minX = cx << shift;
+        long maxX = minX + (1L << shift) - 1;
+        long minY = cy << shift;
+        long maxY = minY + (1L << shift) - 1;
+        if (maxX < x0 || minX > x1 || maxY < y0 || minY > y1) {
+            return;
+        }
+        boolean inside = minX >= x0 && maxX <= x1 && minY >= y0 && maxY <= y1;
+        if (inside || level == maxLevel) {
+            long from = interleave(minX, minY);
+            ranges.add(new long[] {from, from + (1L << (2 * shift)) - 1});
+            return;
+        }
+        for (int child = 0; child < 4; child++) {
+            cover((cx << 1) | (child & 1), (cy << 1) | (child >>> 1), level + 1, maxLevel, x0, x1, y0, y1, ranges);
+        }
+    }
+
+    /**
+     * Merge touching ranges, then close the smallest gaps until at most
+     * {@code maxRanges} remain.
+     */
+    private static List<long[]> coalesce(List<long[]> sorted, int maxRanges) {
+        List<long[]> merged = new ArrayList<>(sorted.size());
+        for (long[] range : sorted) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(new long[] {range[0], range[1]});
+            }
+        }
+        while (merged.size() > maxRanges) {
+            int smallest = 0;
+            long smallestGap = Long.MAX_VALUE;
+            for (int i = 0; i < merged.size() - 1; i++) {
+                long gap = merged.get(i + 1)[0] - merged.get(i)[1];
+                if (gap < smallestGap) {
+                    smallestGap = gap;
+                    smallest = i;
+                }
+            }
+            merged.get(smallest)[1] = merged.remove(smallest + 1)[1];
+        }
+        return merged;
+    }
+
+    private static long lonCell(double longitude) {
+        return quantize((longitude + 180.0) / 360.0);
+    }
+
+    private static long latCell(double latitude) {
+        return quantize((latitude + 90.0) / 180.0);
+    }
+
+    private static long quantize(double fraction) {
+        long cell = (long) Math.floor(fraction * CELLS);
+        return Math.max(0, Math.min(MAX_CELL, cell));
+    }
+
+    private static long interleave(long x, long y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    /**
+     * Spread the low 32 bits of {@code v} so that bit {@code i} moves to bit {@code 2i}.
+     */
+    private static long spread(long v) {
+        v &= 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+}
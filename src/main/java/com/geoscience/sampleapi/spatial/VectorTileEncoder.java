@@ -0,0 +1,144 @@
+package com.geoscience.sampleapi.spatial;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encoder for a single-layer Mapbox Vector Tile (MVT 2.1) of point features.
+ *
+ * The protobuf wire format is written directly: a tile is one {@code Layer}
+ * message holding the features, then the de-duplicated property keys and
+ * values. Property values may be strings or integers.
+ */
+public final class VectorTileEncoder {
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+    private static final int GEOMETRY_POINT = 1;
+    private static final int COMMAND_MOVE_TO_ONE = (1 << 3) | 1;
+
+    private final String layerName;
+    private final int extent;
+    private final List<String> keys;
+    private final Map<Object, Integer> values = new LinkedHashMap<>();
+    private final Buffer features = new Buffer();
+    private final Buffer feature = new Buffer();
+    private final Buffer packed = new Buffer();
+    private int featureCount;
+
+    /**
+     * @param layerName name of the layer
+     * @param extent tile coordinate range, usually 4096
+     * @param keys property names; {@link #addPoint} takes values in this order
+     */
+    public VectorTileEncoder(String layerName, int extent, List<String> keys) {
+        this.layerName = layerName;
+        this.extent = extent;
+        this.keys = List.copyOf(keys);
+    }
+
+    /**
+     * Add a point feature.
+     *
+     * @param x column in tile coordinates; may lie in the buffer outside {@code [0, extent)}
+     * @param y row in tile coordinates, growing downwards
+     * @param properties one value per key (String, Integer or Long); null values are left out
+     */
+    public void addPoint(int x, int y, Object... properties) {
+        feature.reset();
+        packed.reset();
+        for (int i = 0; i < properties.length; i++) {
+            if (properties[i] != null) {
+                packed.varint(i);
+                packed.varint(values.computeIfAbsent(properties[i], value -> values.size()));
+            }
+        }
+        feature.bytes(2, packed);
+        feature.tag(3, WIRE_VARINT).varint(GEOMETRY_POINT);
+        packed.reset();
+        packed.varint(COMMAND_MOVE_TO_ONE).varint(zigZag(x)).varint(zigZag(y));
+        feature.bytes(4, packed);
+        features.bytes(2, feature);
+        featureCount++;
+    }
+
+    /**
+     * @return number of features added
+     */
+    public int size() {
+        return featureCount;
+    }
+
+    /**
+     * @return the encoded tile; empty when no feature was added
+     */
+    public byte[] encode() {
+        if (featureCount == 0) {
+            return new byte[0];
+        }
+        Buffer layer = new Buffer();
+        layer.tag(15, WIRE_VARINT).varint(2);
+        layer.string(1, layerName);
+        layer.append(features);
+        for (String key : keys) {
+            layer.string(3, key);
+        }
+        Buffer value = new Buffer();
+        for (Object v : values.keySet()) {
+            value.reset();
+            if (v instanceof String text) {
+                value.string(1, text);
+            } else {
+                // int_value
+                value.tag(4, WIRE_VARINT).varint(((Number) v).longValue());
+            }
+            layer.bytes(4, value);
+        }
+        layer.tag(5, WIRE_VARINT).varint(extent);
+
+        Buffer tile = new Buffer();
+        tile.bytes(3, layer);
+        return tile.toByteArray();
+    }
+
+    private static long zigZag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    /**
+     * Growable byte buffer with protobuf field writers.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer tag(int field, int wireType) {
+            return varint(((long) field << 3) | wireType);
+        }
+
+        Buffer varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+            return this;
+        }
+
+        void string(int field, String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            tag(field, WIRE_LENGTH_DELIMITED).varint(utf8.length);
+            write(utf8, 0, utf8.length);
+        }
+
+        void bytes(int field, Buffer message) {
+            tag(field, WIRE_LENGTH_DELIMITED).varint(message.size());
+            append(message);
+        }
+
+        void append(Buffer other) {
+            write(other.buf, 0, other.size());
+        }
+    }
+}
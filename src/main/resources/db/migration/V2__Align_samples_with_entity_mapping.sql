@@ -0,0 +1,33 @@
+-- Rebuild the samples table so it matches the GeologicalSample mapping
+-- (UUID primary key stored as a 16-byte BLOB, Hibernate column types),
+-- allowing the application to run with ddl-auto=validate.
+-- Existing BLOB ids are preserved; legacy integer ids receive a random UUID.
+
+CREATE TABLE samples_new (
+    id BLOB NOT NULL PRIMARY KEY,
+    sample_identifier VARCHAR(50) NOT NULL UNIQUE,
+    sample_name VARCHAR(200) NOT NULL,
+    sample_type VARCHAR(20) NOT NULL CHECK (sample_type IN ('ROCK','MINERAL','SOIL','FOSSIL','SEDIMENT','OTHER')),
+    collection_date DATE NOT NULL,
+    latitude FLOAT,
+    longitude FLOAT,
+    location_name VARCHAR(200),
+    collector_name VARCHAR(100) NOT NULL,
+    description TEXT,
+    storage_location VARCHAR(200),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO samples_new (id, sample_identifier, sample_name, sample_type, collection_date, latitude, longitude,
+                         location_name, collector_name, description, storage_location, created_at, updated_at)
+SELECT CASE WHEN typeof(id) = 'blob' AND length(id) = 16 THEN id ELSE randomblob(16) END,
+       sample_identifier, sample_name, sample_type, collection_date, latitude, longitude,
+       location_name, collector_name, description, storage_location, created_at, updated_at
+FROM samples;
+
+DROP TABLE samples;
+
+ALTER TABLE samples_new RENAME TO samples;
+
+CREATE INDEX IF NOT EXISTS idx_collection_date ON samples(collection_date);
@@ -0,0 +1,11 @@
+-- Derived spatial columns maintained by the application on every write:
+-- a Morton (Z-order) key for index range scans and the unit-sphere position
+-- for cheap distance arithmetic. Existing rows are filled in by the
+-- spatial key backfill job on startup.
+
+ALTER TABLE samples ADD COLUMN spatial_key BIGINT;
+ALTER TABLE samples ADD COLUMN unit_x FLOAT;
+ALTER TABLE samples ADD COLUMN unit_y FLOAT;
+ALTER TABLE samples ADD COLUMN unit_z FLOAT;
+
+CREATE INDEX IF NOT EXISTS idx_spatial_key ON samples(spatial_key);
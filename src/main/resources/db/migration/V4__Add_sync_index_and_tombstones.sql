@@ -0,0 +1,12 @@
+-- Incremental sync: changed samples are read in (updated_at, id) order, and
+-- deletions are recorded as tombstones so that offline clients can learn
+-- about them on their next sync.
+
+CREATE INDEX IF NOT EXISTS idx_updated_at_id ON samples(updated_at, id);
+
+CREATE TABLE IF NOT EXISTS sample_tombstones (
+    id BLOB NOT NULL PRIMARY KEY,
+    deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_tombstone_deleted_at_id ON sample_tombstones(deleted_at, id);
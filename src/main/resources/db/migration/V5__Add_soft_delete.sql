@@ -0,0 +1,8 @@
+-- Soft delete: deleteSample marks the row instead of removing it, and the
+-- background compactor purges marked rows after a grace period. The partial
+-- index only holds deleted rows, so it stays small and costs live writes
+-- nothing.
+
+ALTER TABLE samples ADD COLUMN deleted_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_deleted_at ON samples(deleted_at) WHERE deleted_at IS NOT NULL;
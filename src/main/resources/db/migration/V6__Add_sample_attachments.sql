@@ -0,0 +1,17 @@
+-- Attachments (photos, thin sections, instrument files) are stored as files
+-- named by their SHA-256 in the attachment store; only their metadata lives
+-- here, so sample rows and list queries stay small. Identical files uploaded
+-- twice share one stored copy.
+
+CREATE TABLE IF NOT EXISTS sample_attachments (
+    id BLOB NOT NULL PRIMARY KEY,
+    sample_id BLOB NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    sha256 VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_attachment_sample_id ON sample_attachments(sample_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_attachment_sha256 ON sample_attachments(sha256);
@@ -0,0 +1,19 @@
+-- Revision history for chain of custody. The live samples row is the newest
+-- state; each revision stores only the previous values of the fields it
+-- changed (a reverse delta), so creating a sample appends a few bytes and an
+-- update appends about as much as it changed. Every few revisions, and on
+-- deletion, the full state is stored as well, so reconstructing a past state
+-- never applies more than a bounded number of deltas.
+--
+-- Without a rowid the table is ordered by (sample_id, revision): a sample's
+-- history is contiguous, and no secondary index adds to the cost of writes.
+
+CREATE TABLE IF NOT EXISTS sample_revisions (
+    sample_id BLOB NOT NULL,
+    revision INTEGER NOT NULL,
+    kind VARCHAR(10) NOT NULL,
+    changed_at TIMESTAMP NOT NULL,
+    previous TEXT,
+    snapshot TEXT,
+    PRIMARY KEY (sample_id, revision)
+) WITHOUT ROWID;
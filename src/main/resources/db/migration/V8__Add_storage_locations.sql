@@ -0,0 +1,21 @@
+-- Structured storage locations. storage_path is the normalised materialized
+-- path of the free-text storage_location ("Core Shed 2/Rack 14/Tray C/"), so
+-- everything in a rack is one index range scan rather than a LIKE over the
+-- whole table. storage_locations holds one row per occupied node of the tree
+-- with its direct and subtree sample counts, kept up to date by every write.
+-- Existing rows are filled in by the storage path backfill job on startup.
+
+ALTER TABLE samples ADD COLUMN storage_path VARCHAR(255);
+
+CREATE INDEX IF NOT EXISTS idx_storage_path ON samples(storage_path);
+
+CREATE TABLE IF NOT EXISTS storage_locations (
+    path VARCHAR(255) NOT NULL PRIMARY KEY,
+    parent_path VARCHAR(255) NOT NULL,
+    name VARCHAR(200) NOT NULL,
+    depth INTEGER NOT NULL,
+    sample_count INTEGER NOT NULL,
+    total_count INTEGER NOT NULL
+) WITHOUT ROWID;
+
+CREATE INDEX IF NOT EXISTS idx_storage_location_parent ON storage_locations(parent_path);
@@ -0,0 +1,137 @@
+package com.geoscience.sampleapi.columnar;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Minimal reader for Arrow IPC streams written by {@link ArrowStreamWriter},
+ * checking framing and alignment on the way.
+ */
+public final class ArrowStreamReader {
+
+    private ArrowStreamReader() {
+    }
+
+    public record Message(int headerType, Table header, ByteBuffer body) {
+    }
+
+    /**
+     * Split a stream into messages.
+     */
+    public static List<Message> readStream(byte[] bytes) {
+        ByteBuffer stream = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        List<Message> messages = new ArrayList<>();
+        while (true) {
+            assertEquals(0, stream.position() % 8);
+            assertEquals(0xFFFFFFFF, stream.getInt());
+            int length = stream.getInt();
+            if (length == 0) {
+                assertFalse(stream.hasRemaining());
+                return messages;
+            }
+            assertEquals(0, length % 8);
+            ByteBuffer metadata = stream.slice(stream.position(), length).order(ByteOrder.LITTLE_ENDIAN);
+            stream.position(stream.position() + length);
+            Table message = Table.root(metadata);
+            assertEquals(4, message.scalar(0, 2));
+            int bodyLength = (int) message.scalar(3, 8);
+            ByteBuffer body = stream.slice(stream.position(), bodyLength).order(ByteOrder.LITTLE_ENDIAN);
+            stream.position(stream.position() + bodyLength);
+            messages.add(new Message((int) message.scalar(1, 1), message.table(2), body));
+        }
+    }
+
+    /**
+     * Read the UTF-8 column whose three buffers start at {@code firstBuffer}.
+     */
+    public static List<String> readStrings(Table recordBatch, ByteBuffer body, int firstBuffer) {
+        int length = (int) recordBatch.scalar(0, 8);
+        List<long[]> buffers = recordBatch.structs(2);
+        int offsets = (int) buffers.get(firstBuffer + 1)[0];
+        int data = (int) buffers.get(firstBuffer + 2)[0];
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            int start = body.getInt(offsets + 4 * i);
+            int end = body.getInt(offsets + 4 * i + 4);
+            byte[] value = new byte[end - start];
+            body.get(data + start, value);
+            values.add(new String(value, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    /**
+     * Read access to a FlatBuffers table.
+     */
+    public record Table(ByteBuffer buffer, int position) {
+
+        public static Table root(ByteBuffer buffer) {
+            return new Table(buffer, buffer.getInt(0));
+        }
+
+        private int field(int slot) {
+            int vtable = position - buffer.getInt(position);
+            int entry = 4 + 2 * slot;
+            return entry < buffer.getShort(vtable) ? buffer.getShort(vtable + entry) : 0;
+        }
+
+        public long scalar(int slot, int size) {
+            int offset = field(slot);
+            if (offset == 0) {
+                return 0;
+            }
+            int at = position + offset;
+            assertEquals(0, at % size, "misaligned scalar");
+            return switch (size) {
+                case 1 -> buffer.get(at);
+                case 2 -> buffer.getShort(at);
+                case 4 -> buffer.getInt(at);
+                default -> buffer.getLong(at);
+            };
+        }
+
+        private int reference(int slot) {
+            int at = position + field(slot);
+            return at + buffer.getInt(at);
+        }
+
+        public Table table(int slot) {
+            return new Table(buffer, reference(slot));
+        }
+
+        public String string(int slot) {
+            int at = reference(slot);
+            byte[] value = new byte[buffer.getInt(at)];
+            buffer.get(at + 4, value);
+            return new String(value, StandardCharsets.UTF_8);
+        }
+
+        public List<Table> tables(int slot) {
+            int at = reference(slot);
+            List<Table> tables = new ArrayList<>();
+            for (int i = 0; i < buffer.getInt(at); i++) {
+                int element = at + 4 + 4 * i;
+                tables.add(new Table(buffer, element + buffer.getInt(element)));
+            }
+            return tables;
+        }
+
+        /**
+         * Read a vector of structs of two longs (field nodes or buffers).
+         */
+        public List<long[]> structs(int slot) {
+            int at = reference(slot);
+            assertEquals(0, (at + 4) % 8, "misaligned struct vector");
+            List<long[]> structs = new ArrayList<>();
+            for (int i = 0; i < buffer.getInt(at); i++) {
+                structs.add(new long[] {buffer.getLong(at + 4 + 16 * i), buffer.getLong(at + 12 + 16 * i)});
+            }
+            return structs;
+        }
+    }
+}
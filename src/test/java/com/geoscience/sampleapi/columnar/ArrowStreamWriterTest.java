@@ -0,0 +1,117 @@
+package com.geoscience.sampleapi.columnar;
+
+import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static com.geoscience.sampleapi.columnar.ArrowStreamReader.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrowStreamWriterTest {
+
+    private static final int LATITUDE = 5;
+    private static final int COLLECTOR_NAME = 8;
+
+    @Test
+    void testWrite_WritesSchemaDictionariesAndRecordBatch() throws IOException {
+        SampleBatch batch = new SampleBatch(4);
+        batch.add(sample("S-1", 45.5, "Dr. Smith"));
+        batch.add(sample("S-2", null, "Dr. Jones"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter writer = new ArrowStreamWriter(out);
+        writer.write(batch);
+        writer.finish();
+
+        List<Message> messages = readStream(out.toByteArray());
+        assertEquals(List.of(1, 2, 2, 3), messages.stream().map(Message::headerType).toList());
+
+        List<Table> fields = messages.get(0).header().tables(1);
+        assertEquals(13, fields.size());
+        assertEquals("id", fields.get(0).string(0));
+        assertEquals("collectionDate", fields.get(4).string(0));
+        assertEquals(8, fields.get(4).scalar(2, 1));
+        assertEquals("latitude", fields.get(LATITUDE).string(0));
+        assertEquals(1, fields.get(LATITUDE).scalar(1, 1));
+        assertEquals(1, fields.get(COLLECTOR_NAME).table(4).scalar(0, 8));
+
+        // Collector dictionary (ID 1): names in order of first use
+        Table collectors = messages.get(2).header();
+        assertEquals(1, collectors.scalar(0, 8));
+        assertEquals(List.of("Dr. Smith", "Dr. Jones"), readStrings(collectors.table(1), messages.get(2).body(), 0));
+
+        Table recordBatch = messages.get(3).header();
+        ByteBuffer body = messages.get(3).body();
+        assertEquals(2, recordBatch.scalar(0, 8));
+        assertEquals(List.of("S-1", "S-2"), readStrings(recordBatch, body, 3));
+
+        // Latitude: one null, so a validity bitmap with only the first bit set
+        long[] latitudeNode = recordBatch.structs(1).get(LATITUDE);
+        assertEquals(1, latitudeNode[1]);
+        long[] validity = recordBatch.structs(2).get(13);
+        assertEquals(1, body.get((int) validity[0]));
+        long[] latitudes = recordBatch.structs(2).get(14);
+        assertEquals(45.5, body.getDouble((int) latitudes[0]));
+
+        long[] collectorIndices = recordBatch.structs(2).get(21);
+        assertEquals(0, body.getInt((int) collectorIndices[0]));
+        assertEquals(1, body.getInt((int) collectorIndices[0] + 4));
+    }
+
+    @Test
+    void testWrite_SendsNewCollectorsAsDeltaDictionary() throws IOException {
+        SampleBatch batch = new SampleBatch(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter writer = new ArrowStreamWriter(out);
+        batch.add(sample("S-1", 1.0, "Dr. Smith"));
+        writer.write(batch);
+        batch.clear();
+        batch.add(sample("S-2", 2.0, "Dr. Smith"));
+        writer.write(batch);
+        batch.clear();
+        batch.add(sample("S-3", 3.0, "Field Team A"));
+        writer.write(batch);
+        writer.finish();
+
+        List<Message> messages = readStream(out.toByteArray());
+        assertEquals(List.of(1, 2, 2, 3, 3, 2, 3), messages.stream().map(Message::headerType).toList());
+        Table delta = messages.get(5).header();
+        assertEquals(1, delta.scalar(2, 1));
+        assertEquals(List.of("Field Team A"), readStrings(delta.table(1), messages.get(5).body(), 0));
+        ByteBuffer lastBody = messages.get(6).body();
+        long[] collectorIndices = messages.get(6).header().structs(2).get(21);
+        assertEquals(1, lastBody.getInt((int) collectorIndices[0]));
+    }
+
+    @Test
+    void testFinish_EmptyExportIsValidStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ArrowStreamWriter(out).finish();
+
+        List<Message> messages = readStream(out.toByteArray());
+        assertEquals(List.of(1, 2, 2), messages.stream().map(Message::headerType).toList());
+        assertEquals(List.of(), readStrings(messages.get(2).header().table(1), messages.get(2).body(), 0));
+    }
+
+    private static SampleResponse sample(String identifier, Double latitude, String collector) {
+        return SampleResponse.builder()
+                .id(UUID.randomUUID())
+                .sampleIdentifier(identifier)
+                .sampleName("Sample " + identifier)
+                .sampleType(GeologicalSample.SampleType.ROCK)
+                .collectionDate(LocalDate.of(2024, 3, 15))
+                .latitude(latitude)
+                .longitude(latitude)
+                .collectorName(collector)
+                .createdAt(LocalDateTime.of(2024, 3, 16, 10, 0))
+                .updatedAt(LocalDateTime.of(2024, 3, 16, 10, 0))
+                .build();
+    }
+}
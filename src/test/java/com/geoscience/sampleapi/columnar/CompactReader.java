@@ -0,0 +1,95 @@
+package com.geoscience.sampleapi.columnar;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Thrift compact protocol reader: structs as maps by field ID, integers
+ * as longs, binaries as byte arrays.
+ */
+public final class CompactReader {
+
+    private final ByteBuffer buffer;
+    int position;
+
+    public CompactReader(ByteBuffer buffer, int position) {
+        this.buffer = buffer;
+        this.position = position;
+    }
+
+    public Map<Integer, Object> readStruct() {
+        Map<Integer, Object> fields = new HashMap<>();
+        int last = 0;
+        while (true) {
+            int header = buffer.get(position++) & 0xFF;
+            if (header == 0) {
+                return fields;
+            }
+            int delta = header >>> 4;
+            int field = delta != 0 ? last + delta : (int) readZigZag();
+            fields.put(field, readValue(header & 0x0F));
+            last = field;
+        }
+    }
+
+    private Object readValue(int type) {
+        return switch (type) {
+            case 1 -> true;
+            case 2 -> false;
+            case 4, 5, 6 -> readZigZag();
+            case 8 -> {
+                byte[] bytes = new byte[(int) readVarint()];
+                buffer.get(position, bytes);
+                position += bytes.length;
+                yield bytes;
+            }
+            case 9 -> {
+                int header = buffer.get(position++) & 0xFF;
+                long size = header >>> 4 == 15 ? readVarint() : header >>> 4;
+                List<Object> elements = new ArrayList<>();
+                for (long i = 0; i < size; i++) {
+                    elements.add(readValue(header & 0x0F));
+                }
+                yield elements;
+            }
+            case 12 -> readStruct();
+            default -> throw new AssertionError("Unexpected type " + type);
+        };
+    }
+
+    long readVarint() {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get(position++);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Read the file metadata from the footer of a Parquet file, checking the
+     * magic numbers at both ends.
+     */
+    public static Map<Integer, Object> readFooter(ByteBuffer file) {
+        byte[] magic = new byte[4];
+        file.get(0, magic);
+        assertEquals("PAR1", new String(magic, StandardCharsets.US_ASCII));
+        file.get(file.limit() - 4, magic);
+        assertEquals("PAR1", new String(magic, StandardCharsets.US_ASCII));
+        int footerLength = file.getInt(file.limit() - 8);
+        return new CompactReader(file, file.limit() - 8 - footerLength).readStruct();
+    }
+
+    private long readZigZag() {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,182 @@
+package com.geoscience.sampleapi.columnar;
+
+import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParquetWriterTest {
+
+    private static final int SAMPLE_TYPE = 3;
+    private static final int LATITUDE = 5;
+
+    @Test
+    void testEncodeHybrid_UsesRunsAndBitPackedGroups() {
+        int[] values = {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 3, 1, 2};
+        ByteSink sink = new ByteSink();
+
+        ParquetWriter.encodeHybrid(sink, values.length, i -> values[i], 2);
+
+        // RLE run of ten 0s, then one bit-packed group of 3, 1, 2 padded with zeros
+        assertArrayEquals(new byte[] {20, 0, 3, 3 | 1 << 2 | 2 << 4, 0}, sink.toByteArray());
+    }
+
+    @Test
+    void testWrite_WritesRowGroupPerBatchAndFooter() throws IOException {
+        SampleBatch batch = new SampleBatch(2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ParquetWriter writer = new ParquetWriter(out);
+        batch.add(sample("S-1", 45.5, GeologicalSample.SampleType.SOIL));
+        batch.add(sample("S-2", null, GeologicalSample.SampleType.ROCK));
+        writer.write(batch);
+        batch.clear();
+        batch.add(sample("S-3", -12.25, GeologicalSample.SampleType.SOIL));
+        writer.write(batch);
+        writer.finish();
+
+        ByteBuffer file = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals("PAR1", ascii(file, 0));
+        assertEquals("PAR1", ascii(file, file.limit() - 4));
+        int footerLength = file.getInt(file.limit() - 8);
+        Map<Integer, Object> metadata = new CompactReader(file, file.limit() - 8 - footerLength).readStruct();
+
+        assertEquals(1L, metadata.get(1));
+        assertEquals(3L, metadata.get(3));
+        List<Map<Integer, Object>> schema = list(metadata.get(2));
+        assertEquals(14, schema.size());
+        assertEquals("latitude", string(schema.get(1 + LATITUDE).get(4)));
+        assertEquals(1L, schema.get(1 + LATITUDE).get(3));
+        List<Map<Integer, Object>> rowGroups = list(metadata.get(4));
+        assertEquals(2, rowGroups.size());
+        assertEquals(2L, rowGroups.get(0).get(3));
+        assertEquals(1L, rowGroups.get(1).get(3));
+
+        // Latitude in the first row group: definition levels 1, 0 and one value
+        List<Map<Integer, Object>> columns = list(rowGroups.get(0).get(1));
+        Map<Integer, Object> latitude = struct(columns.get(LATITUDE).get(3));
+        CompactReader page = new CompactReader(file, offset(latitude.get(9)));
+        Map<Integer, Object> header = page.readStruct();
+        assertEquals(0L, header.get(1));
+        assertEquals(2L, struct(header.get(5)).get(1));
+        int levels = file.getInt(page.position);
+        assertEquals(List.of(1, 0), readHybrid(file, page.position + 4, 1, 2));
+        assertEquals(45.5, file.getDouble(page.position + 4 + levels));
+        assertEquals(4L + levels + 8, header.get(3));
+
+        // Sample types: the dictionary page lists every type, the data page indexes it
+        Map<Integer, Object> sampleType = struct(columns.get(SAMPLE_TYPE).get(3));
+        page = new CompactReader(file, offset(sampleType.get(11)));
+        header = page.readStruct();
+        assertEquals(2L, header.get(1));
+        assertEquals((long) GeologicalSample.SampleType.values().length, struct(header.get(7)).get(1));
+        assertEquals("ROCK", utf8(file, page.position));
+        page = new CompactReader(file, offset(sampleType.get(9)));
+        header = page.readStruct();
+        assertEquals(2L, struct(header.get(5)).get(2));
+        int bitWidth = file.get(page.position);
+        assertEquals(List.of(GeologicalSample.SampleType.SOIL.ordinal(), GeologicalSample.SampleType.ROCK.ordinal()),
+                readHybrid(file, page.position + 1, bitWidth, 2));
+    }
+
+    @Test
+    void testFinish_EmptyExportHasSchemaAndNoRowGroups() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ParquetWriter(out).finish();
+
+        ByteBuffer file = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        int footerLength = file.getInt(file.limit() - 8);
+        assertEquals(file.limit(), 4 + footerLength + 8);
+        Map<Integer, Object> metadata = new CompactReader(file, 4).readStruct();
+        assertEquals(0L, metadata.get(3));
+        assertEquals(14, list(metadata.get(2)).size());
+        assertEquals(0, list(metadata.get(4)).size());
+    }
+
+    private static SampleResponse sample(String identifier, Double latitude, GeologicalSample.SampleType type) {
+        return SampleResponse.builder()
+                .id(UUID.randomUUID())
+                .sampleIdentifier(identifier)
+                .sampleName("Sample " + identifier)
+                .sampleType(type)
+                .collectionDate(LocalDate.of(2024, 3, 15))
+                .latitude(latitude)
+                .longitude(latitude)
+                .collectorName("Dr. Smith")
+                .createdAt(LocalDateTime.of(2024, 3, 16, 10, 0))
+                .updatedAt(LocalDateTime.of(2024, 3, 16, 10, 0))
+                .build();
+    }
+
+    /**
+     * Decode {@code count} values of RLE / bit-packed hybrid data.
+     */
+    private static List<Integer> readHybrid(ByteBuffer file, int position, int bitWidth, int count) {
+        CompactReader reader = new CompactReader(file, position);
+        List<Integer> values = new ArrayList<>();
+        while (values.size() < count) {
+            long header = reader.readVarint();
+            if ((header & 1) == 0) {
+                int value = file.get(reader.position++);
+                for (long i = 0; i < header >>> 1; i++) {
+                    values.add(value);
+                }
+            } else {
+                long bits = 0;
+                int available = 0;
+                for (int i = 0; i < (header >>> 1) * 8; i++) {
+                    while (available < bitWidth) {
+                        bits |= (long) (file.get(reader.position++) & 0xFF) << available;
+                        available += 8;
+                    }
+                    values.add((int) (bits & ((1 << bitWidth) - 1)));
+                    bits >>>= bitWidth;
+                    available -= bitWidth;
+                }
+            }
+        }
+        return values.subList(0, count);
+    }
+
+    private static String ascii(ByteBuffer file, int position) {
+        byte[] bytes = new byte[4];
+        file.get(position, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static String utf8(ByteBuffer file, int position) {
+        byte[] bytes = new byte[file.getInt(position)];
+        file.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int offset(Object value) {
+        return ((Long) value).intValue();
+    }
+
+    private static String string(Object value) {
+        return new String((byte[]) value, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<Integer, Object>> list(Object value) {
+        return (List<Map<Integer, Object>>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Integer, Object> struct(Object value) {
+        return (Map<Integer, Object>) value;
+    }
+}
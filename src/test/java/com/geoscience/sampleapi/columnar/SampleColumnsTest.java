@@ -0,0 +1,115 @@
+package com.geoscience.sampleapi.columnar;
+
+import com.geoscience.sampleapi.model.GeologicalSample;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleColumnsTest {
+
+    private static final GeologicalSample.SampleType[] TYPES = GeologicalSample.SampleType.values();
+    private static final String[] COLLECTORS = {"Dr. Smith", "Dr. Jones", "Field Team A"};
+
+    @Test
+    void testFilters_MatchReferenceAfterRandomWrites() {
+        Random random = new Random(11);
+        SampleColumns columns = new SampleColumns();
+        Map<UUID, Reference> reference = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+
+        // Enough inserts to grow the table, with updates and removals mixed in
+        for (int step = 0; step < 20_000; step++) {
+            int action = random.nextInt(10);
+            if (action < 2 && !ids.isEmpty()) {
+                UUID id = ids.remove(random.nextInt(ids.size()));
+                assertTrue(columns.remove(id));
+                reference.remove(id);
+                continue;
+            }
+            UUID id = action < 4 && !ids.isEmpty() ? ids.get(random.nextInt(ids.size())) : UUID.randomUUID();
+            Reference sample = new Reference(TYPES[random.nextInt(TYPES.length)],
+                    LocalDate.of(2000, 1, 1).plusDays(random.nextInt(9000)),
+                    random.nextInt(5) == 0 ? null : -80 + random.nextDouble() * 160,
+                    -170 + random.nextDouble() * 340,
+                    COLLECTORS[random.nextInt(COLLECTORS.length)],
+                    random.nextBoolean() ? "Core " + random.nextInt(1000) + " with QUARTZ veins" : "plain");
+            if (!reference.containsKey(id)) {
+                ids.add(id);
+            }
+            reference.put(id, sample);
+            columns.upsert(id, sample.type, sample.date, sample.latitude, sample.latitude == null ? null : sample.longitude,
+                    sample.collector, null, sample.description);
+        }
+        assertEquals(reference.size(), columns.size());
+
+        long[] mask = columns.liveMask();
+        int typeBits = 1 << GeologicalSample.SampleType.ROCK.ordinal() | 1 << GeologicalSample.SampleType.SOIL.ordinal();
+        columns.retainTypes(mask, typeBits);
+        LocalDate from = LocalDate.of(2005, 1, 1);
+        LocalDate to = LocalDate.of(2015, 12, 31);
+        columns.retainCollectionDays(mask, (int) from.toEpochDay(), (int) to.toEpochDay());
+        columns.retainBoundingBox(mask, 0, 80, -170, 170);
+        columns.retainCollector(mask, "dr. SMITH");
+        columns.retainDescriptionContaining(mask, "quartz");
+
+        Set<UUID> expected = new HashSet<>();
+        reference.forEach((id, sample) -> {
+            if ((sample.type == GeologicalSample.SampleType.ROCK || sample.type == GeologicalSample.SampleType.SOIL)
+                    && !sample.date.isBefore(from) && !sample.date.isAfter(to)
+                    && sample.latitude != null && sample.latitude >= 0
+                    && sample.collector.equals("Dr. Smith") && sample.description.contains("QUARTZ")) {
+                expected.add(id);
+            }
+        });
+        Set<UUID> actual = new HashSet<>();
+        for (int slot = SampleColumns.next(mask, 0); slot >= 0; slot = SampleColumns.next(mask, slot + 1)) {
+            actual.add(columns.id(slot));
+            Reference sample = reference.get(columns.id(slot));
+            assertEquals(sample.type, columns.type(slot));
+            assertEquals(sample.description, columns.description(slot));
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), SampleColumns.count(mask));
+    }
+
+    @Test
+    void testRemove_ReusesSlotAndForgetsValues() {
+        SampleColumns columns = new SampleColumns();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        columns.upsert(first, GeologicalSample.SampleType.ROCK, LocalDate.of(2024, 1, 1), 1.0, 2.0,
+                "Dr. Smith", "Site A", "Granite");
+
+        assertTrue(columns.remove(first));
+        assertFalse(columns.remove(first));
+        columns.upsert(second, GeologicalSample.SampleType.FOSSIL, LocalDate.of(2024, 2, 1), null, null,
+                "Dr. Jones", null, null);
+
+        long[] mask = columns.liveMask();
+        int slot = SampleColumns.next(mask, 0);
+        assertEquals(0, slot);
+        assertEquals(-1, SampleColumns.next(mask, slot + 1));
+        assertEquals(second, columns.id(slot));
+        assertTrue(Double.isNaN(columns.latitude(slot)));
+        assertNull(columns.locationName(columns.locationCode(slot)));
+        assertNull(columns.description(slot));
+
+        columns.retainBoundingBox(mask, -90, 90, -180, 180);
+        assertEquals(0, SampleColumns.count(mask));
+    }
+
+    private record Reference(GeologicalSample.SampleType type, LocalDate date, Double latitude, double longitude,
+                             String collector, String description) {
+    }
+}
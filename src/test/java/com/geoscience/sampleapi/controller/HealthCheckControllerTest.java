@@ -1,10 +1,16 @@
 package com.geoscience.sampleapi.controller;
 
+import com.geoscience.sampleapi.dto.HealthSnapshot;
+import com.geoscience.sampleapi.service.HealthSampler;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -14,6 +20,9 @@ class HealthCheckControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @MockBean
+    private HealthSampler healthSampler;
+
     @Test
     void testHealthCheck() throws Exception {
         mockMvc.perform(get("/healthcheck"))
@@ -22,5 +31,32 @@ class HealthCheckControllerTest {
                 .andExpect(jsonPath("$.service").value("Geological Sample Management API"))
                 .andExpect(jsonPath("$.timestamp").exists());
     }
-}
 
+    @Test
+    void testLive() throws Exception {
+        when(healthSampler.isLive()).thenReturn(true);
+        mockMvc.perform(get("/healthcheck/live"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+
+        when(healthSampler.isLive()).thenReturn(false);
+        mockMvc.perform(get("/healthcheck/live"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void testReady_ServesSnapshot() throws Exception {
+        when(healthSampler.readiness()).thenReturn(HealthSnapshot.builder()
+                .status(HealthSnapshot.UP).problems(List.of()).databaseLatencyMs(2L).writeLockWaitMs(0L).build());
+        mockMvc.perform(get("/healthcheck/ready"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.databaseLatencyMs").value(2));
+
+        when(healthSampler.readiness()).thenReturn(HealthSnapshot.builder()
+                .status(HealthSnapshot.DOWN).problems(List.of("Shutting down")).build());
+        mockMvc.perform(get("/healthcheck/ready"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.problems[0]").value("Shutting down"));
+    }
+}
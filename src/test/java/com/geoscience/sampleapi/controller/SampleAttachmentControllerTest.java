@@ -0,0 +1,141 @@
+package com.geoscience.sampleapi.controller;
+
+import com.geoscience.sampleapi.dto.AttachmentResponse;
+import com.geoscience.sampleapi.exception.AttachmentTooLargeException;
+import com.geoscience.sampleapi.service.AttachmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SampleAttachmentController.class)
+class SampleAttachmentControllerTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+    private static final String SHA256 = "a".repeat(64);
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AttachmentService attachmentService;
+
+    private UUID sampleId;
+    private UUID attachmentId;
+    private AttachmentResponse metadata;
+    private String url;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sampleId = UUID.randomUUID();
+        attachmentId = UUID.randomUUID();
+        metadata = AttachmentResponse.builder()
+                .id(attachmentId)
+                .sampleId(sampleId)
+                .fileName("thin section.txt")
+                .contentType("text/plain")
+                .size(CONTENT.length())
+                .sha256(SHA256)
+                .createdAt(LocalDateTime.now())
+                .build();
+        Path file = Files.writeString(tempDir.resolve(SHA256), CONTENT);
+        when(attachmentService.open(sampleId, attachmentId)).thenReturn(new AttachmentService.StoredAttachment(metadata, file));
+        url = "/api/v1/samples/" + sampleId + "/attachments/" + attachmentId;
+    }
+
+    @Test
+    void testUpload_StreamsBody() throws Exception {
+        when(attachmentService.store(eq(sampleId), eq("photo.jpg"), eq("image/jpeg"), eq(3L), any()))
+                .thenReturn(metadata);
+
+        mockMvc.perform(post("/api/v1/samples/" + sampleId + "/attachments")
+                        .contentType("image/jpeg")
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"photo.jpg\"")
+                        .content(new byte[]{1, 2, 3}))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost" + url))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + SHA256 + "\""))
+                .andExpect(jsonPath("$.sha256").value(SHA256));
+
+        mockMvc.perform(post("/api/v1/samples/" + sampleId + "/attachments")
+                        .contentType("multipart/form-data; boundary=x")
+                        .content("--x--"))
+                .andExpect(status().isBadRequest());
+
+        when(attachmentService.store(eq(sampleId), any(), any(), anyLong(), any()))
+                .thenThrow(new AttachmentTooLargeException("Attachment exceeds the limit of 1 bytes"));
+        mockMvc.perform(post("/api/v1/samples/" + sampleId + "/attachments").content(new byte[]{1, 2}))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void testDownload_WholeFileAndRanges() throws Exception {
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + SHA256 + "\""))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length()))
+                .andExpect(content().contentType("text/plain"))
+                .andExpect(content().string(CONTENT));
+
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=5-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/20"))
+                .andExpect(content().string("56789"));
+
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 16-19/20"))
+                .andExpect(content().string("ghij"));
+
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=15-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(CONTENT.substring(15).getBytes(StandardCharsets.UTF_8)));
+
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */20"));
+
+        // Several ranges, a malformed header or a stale If-Range: the whole file
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=0-1,5-6"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "lines=1-2"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=0-1").header(HttpHeaders.IF_RANGE, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void testDownload_ConditionalAndHead() throws Exception {
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, "\"other\", \"" + SHA256 + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(head(url))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length()))
+                .andExpect(content().string(""));
+    }
+}
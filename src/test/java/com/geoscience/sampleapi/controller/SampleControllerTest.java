@@ -1,10 +1,24 @@
 package com.geoscience.sampleapi.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.geoscience.sampleapi.dto.NearbySampleResponse;
+import com.geoscience.sampleapi.dto.SampleBulkPatchResponse;
 import com.geoscience.sampleapi.dto.SampleRequest;
 import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.dto.SampleRevisionResponse;
+import com.geoscience.sampleapi.dto.SyncResponse;
+import com.geoscience.sampleapi.dto.WriteTicketResponse;
+import com.geoscience.sampleapi.exception.WriteQueueFullException;
 import com.geoscience.sampleapi.model.GeologicalSample;
+import com.geoscience.sampleapi.model.SampleRevision;
 import com.geoscience.sampleapi.service.SampleService;
+import com.geoscience.sampleapi.service.SampleWriteQueue;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,14 +29,21 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -40,6 +61,9 @@ class SampleControllerTest {
     @MockBean
     private SampleService sampleService;
 
+    @MockBean
+    private SampleWriteQueue writeQueue;
+
     private SampleRequest sampleRequest;
     private SampleResponse sampleResponse;
     private UUID testId;
@@ -121,6 +145,38 @@ class SampleControllerTest {
         verify(sampleService, times(1)).getSampleById(testId);
     }
 
+    @Test
+    void testGetSampleById_AsOf() throws Exception {
+        LocalDateTime asOf = LocalDateTime.of(2024, 2, 1, 12, 30);
+        when(sampleService.getSampleAsOf(testId, asOf)).thenReturn(sampleResponse);
+
+        mockMvc.perform(get("/api/v1/samples/" + testId).param("asOf", "2024-02-01T12:30:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sampleIdentifier").value("GS-2024-001"));
+
+        verify(sampleService, never()).getSampleById(any());
+    }
+
+    @Test
+    void testGetSampleHistory() throws Exception {
+        LocalDateTime changedAt = LocalDateTime.of(2024, 2, 1, 12, 30);
+        SampleRevisionResponse revision = SampleRevisionResponse.builder()
+                .revision(2)
+                .kind(SampleRevision.Kind.UPDATED)
+                .changedAt(changedAt)
+                .changes(Map.of("storageLocation", new SampleRevisionResponse.FieldChange(
+                        TextNode.valueOf("Shelf A"), TextNode.valueOf("Shelf B"))))
+                .build();
+        when(sampleService.getHistory(testId, 100)).thenReturn(List.of(revision));
+
+        mockMvc.perform(get("/api/v1/samples/" + testId + "/history"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].revision").value(2))
+                .andExpect(jsonPath("$[0].kind").value("UPDATED"))
+                .andExpect(jsonPath("$[0].changes.storageLocation.from").value("Shelf A"))
+                .andExpect(jsonPath("$[0].changes.storageLocation.to").value("Shelf B"));
+    }
+
     @Test
     void testUpdateSample() throws Exception {
         when(sampleService.updateSample(eq(testId), any(SampleRequest.class))).thenReturn(sampleResponse);
@@ -135,6 +191,75 @@ class SampleControllerTest {
         verify(sampleService, times(1)).updateSample(eq(testId), any(SampleRequest.class));
     }
 
+    @Test
+    void testPatchSample() throws Exception {
+        when(sampleService.patchSample(eq(testId), any(JsonNode.class))).thenReturn(sampleResponse);
+
+        mockMvc.perform(patch("/api/v1/samples/" + testId)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"storageLocation\": \"B-12\", \"description\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(testId.toString()));
+
+        verify(sampleService).patchSample(eq(testId), argThat(patch ->
+                patch.get("storageLocation").asText().equals("B-12") && patch.get("description").isNull()));
+    }
+
+    @Test
+    void testPatchSample_ValidationFailure() throws Exception {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        when(sampleService.patchSample(eq(testId), any(JsonNode.class))).thenThrow(
+                new ConstraintViolationException(validator.validate(new SampleRequest())));
+
+        mockMvc.perform(patch("/api/v1/samples/" + testId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sampleName\": null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation failed"))
+                .andExpect(jsonPath("$.details.sampleName").value("Sample name is required"));
+    }
+
+    @Test
+    void testPatchSamples() throws Exception {
+        UUID other = UUID.randomUUID();
+        when(sampleService.patchSamples(eq(List.of(testId, other)), any(JsonNode.class)))
+                .thenReturn(SampleBulkPatchResponse.builder().requested(2).updated(1).build());
+
+        mockMvc.perform(patch("/api/v1/samples")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"ids\": [\"" + testId + "\", \"" + other + "\"], "
+                                + "\"patch\": {\"storageLocation\": \"B-12\"}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(2))
+                .andExpect(jsonPath("$.updated").value(1));
+
+        mockMvc.perform(patch("/api/v1/samples")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [], \"patch\": {\"storageLocation\": \"B-12\"}}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details.ids").exists());
+    }
+
+    @Test
+    void testFindWithin_StreamsNdjson() throws Exception {
+        when(sampleService.findWithin(any(JsonNode.class)))
+                .thenReturn(List.of(List.of(sampleResponse), List.of(sampleResponse)).iterator());
+
+        MvcResult result = mockMvc.perform(post("/api/v1/samples/within")
+                        .contentType("application/geo+json")
+                        .content("{\"type\": \"Polygon\", \"coordinates\": [[[0, 0], [1, 0], [1, 1], [0, 0]]]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(testId.toString(), objectMapper.readTree(lines[0]).get("id").asText());
+    }
+
     @Test
     void testDeleteSample() throws Exception {
         doNothing().when(sampleService).deleteSample(testId);
@@ -159,5 +284,167 @@ class SampleControllerTest {
 
         verify(sampleService, never()).createSample(any());
     }
-}
 
+    @Test
+    void testCreateSampleAsync() throws Exception {
+        UUID ticketId = UUID.randomUUID();
+        when(writeQueue.isEnabled()).thenReturn(true);
+        when(writeQueue.submit(any(SampleRequest.class))).thenReturn(WriteTicketResponse.builder()
+                .ticketId(ticketId)
+                .status(WriteTicketResponse.Status.PENDING)
+                .sampleIdentifier("GS-2024-001")
+                .build());
+
+        mockMvc.perform(post("/api/v1/samples")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sampleRequest)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/samples/writes/" + ticketId))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verify(sampleService, never()).createSample(any());
+    }
+
+    @Test
+    void testCreateSampleAsync_QueueFull() throws Exception {
+        when(writeQueue.isEnabled()).thenReturn(true);
+        when(writeQueue.submit(any(SampleRequest.class))).thenThrow(new WriteQueueFullException("Write queue is full"));
+
+        mockMvc.perform(post("/api/v1/samples")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sampleRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void testCreateSamplesBatch() throws Exception {
+        when(sampleService.createSamples(any())).thenReturn(List.of(sampleResponse));
+
+        mockMvc.perform(post("/api/v1/samples/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"samples\":[" + objectMapper.writeValueAsString(sampleRequest) + "]}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].id").value(testId.toString()));
+    }
+
+    @Test
+    void testGetWriteStatus() throws Exception {
+        UUID ticketId = UUID.randomUUID();
+        when(writeQueue.getTicket(ticketId)).thenReturn(Optional.of(WriteTicketResponse.builder()
+                .ticketId(ticketId)
+                .status(WriteTicketResponse.Status.COMMITTED)
+                .sampleId(testId)
+                .build()));
+
+        mockMvc.perform(get("/api/v1/samples/writes/" + ticketId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMMITTED"))
+                .andExpect(jsonPath("$.sampleId").value(testId.toString()));
+
+        when(writeQueue.getTicket(any())).thenReturn(Optional.empty());
+        UUID unknown = UUID.randomUUID();
+        mockMvc.perform(get("/api/v1/samples/writes/" + unknown))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Write ticket not found with id: " + unknown));
+    }
+
+    @Test
+    void testFindNearby() throws Exception {
+        when(sampleService.findNearby(40.7128, -74.0060, 500.0, 50)).thenReturn(List.of(
+                NearbySampleResponse.builder().sample(sampleResponse).distanceMeters(12.5).build()));
+
+        mockMvc.perform(get("/api/v1/samples/nearby")
+                        .param("lat", "40.7128")
+                        .param("lon", "-74.0060")
+                        .param("radius", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testId.toString()))
+                .andExpect(jsonPath("$[0].distanceMeters").value(12.5));
+
+        mockMvc.perform(get("/api/v1/samples/nearby").param("lat", "40.7128"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetSampleAsCbor() throws Exception {
+        when(sampleService.getSampleById(testId)).thenReturn(sampleResponse);
+
+        byte[] body = mockMvc.perform(get("/api/v1/samples/" + testId)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode node = new CBORMapper().readTree(body);
+        assertArrayEquals(uuidBytes(testId), node.get("id").binaryValue());
+        assertEquals(GeologicalSample.SampleType.ROCK.getCode(), node.get("sampleType").intValue());
+        assertEquals(LocalDate.of(2024, 1, 15).toEpochDay(), node.get("collectionDate").longValue());
+        assertEquals("GS-2024-001", node.get("sampleIdentifier").textValue());
+    }
+
+    @Test
+    void testCreateSampleFromCbor() throws Exception {
+        when(sampleService.createSample(any(SampleRequest.class))).thenReturn(sampleResponse);
+
+        CBORMapper cbor = new CBORMapper();
+        var request = cbor.createObjectNode()
+                .put("sampleIdentifier", "GS-2024-001")
+                .put("sampleName", "Granite Sample")
+                .put("sampleType", GeologicalSample.SampleType.FOSSIL.getCode())
+                .put("collectionDate", LocalDate.of(2024, 1, 15).toEpochDay())
+                .put("latitude", 40.7128)
+                .put("longitude", -74.0060)
+                .put("collectorName", "Dr. Jane Smith");
+
+        mockMvc.perform(post("/api/v1/samples")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(testId.toString()));
+
+        verify(sampleService).createSample(argThat(r -> r.getSampleType() == GeologicalSample.SampleType.FOSSIL
+                && LocalDate.of(2024, 1, 15).equals(r.getCollectionDate())));
+    }
+
+    @Test
+    void testJsonRemainsDefault() throws Exception {
+        when(sampleService.getSampleById(testId)).thenReturn(sampleResponse);
+
+        mockMvc.perform(get("/api/v1/samples/" + testId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.sampleType").value("ROCK"))
+                .andExpect(jsonPath("$.collectionDate").value("2024-01-15"));
+    }
+
+    @Test
+    void testSync() throws Exception {
+        when(sampleService.getChanges("abc", 100)).thenReturn(SyncResponse.builder()
+                .changed(List.of(sampleResponse))
+                .deleted(List.of(UUID.fromString("00000000-0000-0000-0000-000000000001")))
+                .nextToken("def")
+                .hasMore(false)
+                .build());
+
+        mockMvc.perform(get("/api/v1/samples/sync").param("token", "abc").param("limit", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed[0].id").value(testId.toString()))
+                .andExpect(jsonPath("$.deleted[0]").value("00000000-0000-0000-0000-000000000001"))
+                .andExpect(jsonPath("$.nextToken").value("def"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        when(sampleService.getChanges("bad", null)).thenThrow(new IllegalArgumentException("Invalid sync token"));
+        mockMvc.perform(get("/api/v1/samples/sync").param("token", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static byte[] uuidBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,61 @@
+package com.geoscience.sampleapi.controller;
+
+import com.geoscience.sampleapi.columnar.ExportFormat;
+import com.geoscience.sampleapi.service.SampleExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SampleExportController.class)
+class SampleExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SampleExportService exportService;
+
+    @Test
+    void testExport_StreamsParquetByDefault() throws Exception {
+        when(exportService.export(eq(ExportFormat.PARQUET), any())).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("PAR1".getBytes(StandardCharsets.US_ASCII));
+            return 0L;
+        });
+
+        mockMvc.perform(get("/api/v1/samples/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.apache.parquet"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"samples.parquet\""))
+                .andExpect(content().string("PAR1"));
+    }
+
+    @Test
+    void testExport_ArrowStream() throws Exception {
+        mockMvc.perform(get("/api/v1/samples/export").param("format", "ARROW"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.apache.arrow.stream"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"samples.arrows\""));
+
+        verify(exportService).export(eq(ExportFormat.ARROW), any());
+    }
+
+    @Test
+    void testExport_UnknownFormatIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/samples/export").param("format", "csv"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(exportService);
+    }
+}
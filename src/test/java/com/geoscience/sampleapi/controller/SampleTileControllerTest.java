@@ -0,0 +1,76 @@
+package com.geoscience.sampleapi.controller;
+
+import com.geoscience.sampleapi.service.SampleTileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SampleTileController.class)
+class SampleTileControllerTest {
+
+    private static final byte[] TILE = "not really a tile".getBytes(StandardCharsets.UTF_8);
+    private static final String ETAG = "W/\"1234abcd\"";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SampleTileService tileService;
+
+    private byte[] gzipped;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(TILE);
+        }
+        gzipped = out.toByteArray();
+        when(tileService.getTile(3, 2, 1)).thenReturn(new SampleTileService.RenderedTile(gzipped, ETAG, new long[0]));
+        when(tileService.getTile(25, 0, 0)).thenThrow(new IllegalArgumentException("Zoom must be between 0 and 20"));
+    }
+
+    @Test
+    void testGetTile_SendsGzippedBytesToGzipClients() throws Exception {
+        mockMvc.perform(get("/api/v1/tiles/3/2/1.mvt").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.mapbox-vector-tile"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().bytes(gzipped));
+    }
+
+    @Test
+    void testGetTile_DecompressesForOtherClients() throws Exception {
+        mockMvc.perform(get("/api/v1/tiles/3/2/1.mvt").header(HttpHeaders.ACCEPT_ENCODING, "identity, gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(TILE));
+    }
+
+    @Test
+    void testGetTile_NotModifiedWhenEtagMatches() throws Exception {
+        mockMvc.perform(get("/api/v1/tiles/3/2/1.mvt").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void testGetTile_InvalidAddressIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/tiles/25/0/0.mvt"))
+                .andExpect(status().isBadRequest());
+    }
+}
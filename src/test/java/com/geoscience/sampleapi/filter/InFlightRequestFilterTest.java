@@ -0,0 +1,90 @@
+package com.geoscience.sampleapi.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightRequestFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private InFlightRequestFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new InFlightRequestFilter(new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+    }
+
+    @Test
+    void testDrain_WaitsForInFlightRequests() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<MockHttpServletResponse> slow = executor.submit(() -> {
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                filter.doFilter(new MockHttpServletRequest("PUT", "/api/v1/samples/1"), response, (req, res) -> {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                return response;
+            });
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            assertEquals(1, filter.getInFlight());
+
+            // Times out while the request is still running
+            assertFalse(filter.drain(Duration.ofMillis(50)));
+
+            // New requests are turned away while draining
+            MockHttpServletResponse rejected = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/samples"), rejected,
+                    (req, res) -> fail("Request should not be processed while draining"));
+            assertEquals(503, rejected.getStatus());
+            assertEquals("close", rejected.getHeader("Connection"));
+            assertEquals("1", rejected.getHeader("Retry-After"));
+            assertEquals(1.0, meterRegistry.get(RateLimitFilter.SHED_METRIC).tag("reason", "draining").counter().count());
+
+            release.countDown();
+            assertTrue(filter.drain(Duration.ofSeconds(5)));
+            assertEquals(200, slow.get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals(0, filter.getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testStreamingResponse_InFlightUntilComplete() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/samples/analytics/nearest");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+
+        assertEquals(1, filter.getInFlight());
+        assertFalse(filter.drain(Duration.ZERO));
+        AsyncContext asyncContext = request.getAsyncContext();
+        ((MockAsyncContext) asyncContext).complete();
+        assertEquals(0, filter.getInFlight());
+        assertTrue(filter.drain(Duration.ZERO));
+    }
+}
@@ -0,0 +1,186 @@
+package com.geoscience.sampleapi.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.geoscience.sampleapi.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private RateLimitProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setRead(new RateLimitProperties.Bucket(2, 0.001));
+        properties.setWrite(new RateLimitProperties.Bucket(1, 0.001));
+        properties.setTrustedProxies(List.of("127.0.0.1"));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private RateLimitFilter newFilter() {
+        return new RateLimitFilter(properties, new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+    }
+
+    private MockHttpServletResponse perform(RateLimitFilter filter, String method, String client) throws Exception {
+        return perform(filter, method, "/api/v1/samples", client);
+    }
+
+    private MockHttpServletResponse perform(RateLimitFilter filter, String method, String uri, String client)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.addHeader("X-Client-Id", client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void testReadBudgetExhausted_Returns429WithRetryAfter() throws Exception {
+        RateLimitFilter filter = newFilter();
+
+        assertEquals(200, perform(filter, "GET", "lims").getStatus());
+        assertEquals(200, perform(filter, "GET", "lims").getStatus());
+        MockHttpServletResponse rejected = perform(filter, "GET", "lims");
+
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("Rate limit exceeded"));
+        assertEquals(1.0, meterRegistry.get(RateLimitFilter.SHED_METRIC)
+                .tag("reason", "rate_limited").tag("kind", "read").counter().count());
+    }
+
+    @Test
+    void testReadAndWriteBudgetsAreIndependentPerClient() throws Exception {
+        RateLimitFilter filter = newFilter();
+
+        assertEquals(200, perform(filter, "POST", "tablet-1").getStatus());
+        assertEquals(429, perform(filter, "POST", "tablet-1").getStatus());
+        assertEquals(200, perform(filter, "GET", "tablet-1").getStatus());
+        assertEquals(200, perform(filter, "POST", "tablet-2").getStatus());
+    }
+
+    @Test
+    void testUntrustedClient_RotatingIdsShareRemoteAddressBudget() throws Exception {
+        properties.setTrustedProxies(List.of("10.0.0.1"));
+        RateLimitFilter filter = newFilter();
+
+        assertEquals(200, perform(filter, "POST", "bulk-1").getStatus());
+        assertEquals(429, perform(filter, "POST", "bulk-2").getStatus());
+        assertEquals(429, perform(filter, "POST", "bulk-3").getStatus());
+        assertEquals(1.0, meterRegistry.get("sampleapi.ratelimit.clients").gauge().value());
+    }
+
+    @Test
+    void testFullClientMap_NewClientsShareOverflowBudget() throws Exception {
+        properties.setMaxClients(2);
+        RateLimitFilter filter = newFilter();
+
+        assertEquals(200, perform(filter, "POST", "tablet-1").getStatus());
+        assertEquals(200, perform(filter, "POST", "tablet-2").getStatus());
+        int admitted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (perform(filter, "GET", "bulk-" + i).getStatus() == 200) {
+                admitted++;
+            }
+        }
+        assertEquals(2, admitted);
+        assertEquals(200, perform(filter, "POST", "bulk-100").getStatus());
+        assertEquals(429, perform(filter, "POST", "bulk-101").getStatus());
+        assertEquals(200, perform(filter, "GET", "tablet-1").getStatus());
+        assertEquals(2.0, meterRegistry.get("sampleapi.ratelimit.clients").gauge().value());
+    }
+
+    @Test
+    void testFullClientMap_EvictsIdleClients() throws Exception {
+        properties.setMaxClients(1);
+        properties.setClientIdleTimeout(Duration.ofMillis(1));
+        RateLimitFilter filter = newFilter();
+
+        assertEquals(200, perform(filter, "POST", "tablet-1").getStatus());
+        Thread.sleep(10);
+        assertEquals(200, perform(filter, "POST", "tablet-2").getStatus());
+        assertEquals(429, perform(filter, "POST", "tablet-2").getStatus());
+        // The next sweep is not due yet, so this client gets the overflow budget
+        assertEquals(200, perform(filter, "POST", "tablet-3").getStatus());
+        assertEquals(1.0, meterRegistry.get("sampleapi.ratelimit.clients").gauge().value());
+    }
+
+    @Test
+    void testAnalyticsQueriesUseReadBudget() throws Exception {
+        RateLimitFilter filter = newFilter();
+
+        assertEquals(200, perform(filter, "POST", "/api/v1/samples/analytics/nearest", "gis").getStatus());
+        assertEquals(200, perform(filter, "POST", "/api/v1/samples/analytics/nearest", "gis").getStatus());
+        assertEquals(429, perform(filter, "GET", "gis").getStatus());
+        assertEquals(200, perform(filter, "POST", "gis").getStatus());
+    }
+
+    @Test
+    void testDisabled_PassesEverythingThrough() throws Exception {
+        properties.setEnabled(false);
+        RateLimitFilter filter = newFilter();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, perform(filter, "POST", "bulk").getStatus());
+        }
+    }
+
+    @Test
+    void testConcurrencyLimiter_ShedsWhenQueueFull() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 4, 0, 1_000_000_000L);
+
+        assertEquals(AdaptiveConcurrencyLimiter.Outcome.ACQUIRED, limiter.acquire(0));
+        assertEquals(AdaptiveConcurrencyLimiter.Outcome.QUEUE_FULL, limiter.acquire(0));
+
+        limiter.release(1_000L, false);
+        assertEquals(AdaptiveConcurrencyLimiter.Outcome.ACQUIRED, limiter.acquire(0));
+    }
+
+    @Test
+    void testConcurrencyLimiter_AdaptsToLatency() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 8, 10, 1_000_000L);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire(0);
+            limiter.release(10_000_000L, false);
+        }
+        assertEquals(1, limiter.getLimit());
+
+        for (int i = 0; i < 200; i++) {
+            limiter.acquire(0);
+            limiter.release(1_000L, false);
+        }
+        assertTrue(limiter.getLimit() > 1);
+        assertEquals(AdaptiveConcurrencyLimiter.Outcome.QUEUE_TIMEOUT, saturateAndWait(limiter));
+    }
+
+    @Test
+    void testConcurrencyLimiter_BacksOffOnLockContention() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 8, 10, 1_000_000_000L);
+
+        limiter.acquire(0);
+        limiter.release(1_000L, true);
+
+        assertEquals(7, limiter.getLimit());
+    }
+
+    private AdaptiveConcurrencyLimiter.Outcome saturateAndWait(AdaptiveConcurrencyLimiter limiter)
+            throws InterruptedException {
+        while (limiter.getInFlight() < limiter.getLimit()) {
+            limiter.acquire(0);
+        }
+        return limiter.acquire(1_000_000L);
+    }
+}
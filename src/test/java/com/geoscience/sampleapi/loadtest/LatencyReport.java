@@ -0,0 +1,138 @@
+package com.geoscience.sampleapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+
+/**
+ * Per-operation latency histograms and status counts for a load-test run.
+ *
+ * Latencies are recorded in microseconds with 3 significant digits, up to one
+ * minute. 429 and 503 responses are counted as shed (admission control working
+ * as intended), anything else outside 2xx as errors; all of them are included
+ * in the latency distribution.
+ */
+final class LatencyReport {
+
+    private static final long MAX_MICROS = 60_000_000L;
+
+    private final Map<LoadTestRunner.Operation, Histogram> histograms = new EnumMap<>(LoadTestRunner.Operation.class);
+    private final Map<LoadTestRunner.Operation, Map<Integer, LongAdder>> statuses = new EnumMap<>(LoadTestRunner.Operation.class);
+    private final Histogram total = new ConcurrentHistogram(MAX_MICROS, 3);
+
+    LatencyReport() {
+        for (LoadTestRunner.Operation operation : LoadTestRunner.Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(MAX_MICROS, 3));
+            statuses.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+
+    void record(LoadTestRunner.Operation operation, int status, long latencyNanos) {
+        long micros = Math.max(1, Math.min(MAX_MICROS, latencyNanos / 1_000));
+        histograms.get(operation).recordValue(micros);
+        total.recordValue(micros);
+        statuses.get(operation).computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    void print(PrintStream out, Duration duration) {
+        out.println();
+        out.printf("%-13s %9s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "shed", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (LoadTestRunner.Operation operation : LoadTestRunner.Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() > 0) {
+                printRow(out, operation.name().toLowerCase(), histogram, shed(operation), errors(operation), duration);
+            }
+        }
+        long shed = 0;
+        long errors = 0;
+        for (LoadTestRunner.Operation operation : LoadTestRunner.Operation.values()) {
+            shed += shed(operation);
+            errors += errors(operation);
+        }
+        printRow(out, "total", total, shed, errors, duration);
+        out.println();
+        for (LoadTestRunner.Operation operation : LoadTestRunner.Operation.values()) {
+            if (!statuses.get(operation).isEmpty()) {
+                out.printf("%-13s status codes %s%n", operation.name().toLowerCase(), statusCounts(operation));
+            }
+        }
+    }
+
+    ObjectNode toJson(ObjectMapper mapper, Duration duration) {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("durationSeconds", duration.toSeconds());
+        ObjectNode operations = root.putObject("operations");
+        long shed = 0;
+        long errors = 0;
+        for (LoadTestRunner.Operation operation : LoadTestRunner.Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() > 0) {
+                ObjectNode node = summary(operations.putObject(operation.name().toLowerCase()), histogram, duration);
+                node.put("shed", shed(operation));
+                node.put("errors", errors(operation));
+                ObjectNode codes = node.putObject("statusCodes");
+                statusCounts(operation).forEach((status, count) -> codes.put(String.valueOf(status), count));
+                shed += shed(operation);
+                errors += errors(operation);
+            }
+        }
+        ObjectNode totals = summary(root.putObject("total"), total, duration);
+        totals.put("shed", shed);
+        totals.put("errors", errors);
+        return root;
+    }
+
+    private static ObjectNode summary(ObjectNode node, Histogram histogram, Duration duration) {
+        node.put("requests", histogram.getTotalCount());
+        node.put("throughput", histogram.getTotalCount() / (double) duration.toSeconds());
+        node.put("p50Ms", millis(histogram, 50));
+        node.put("p90Ms", millis(histogram, 90));
+        node.put("p99Ms", millis(histogram, 99));
+        node.put("p999Ms", millis(histogram, 99.9));
+        node.put("maxMs", histogram.getMaxValue() / 1000.0);
+        return node;
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, long shed, long errors, Duration duration) {
+        out.printf("%-13s %9d %9.1f %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(),
+                histogram.getTotalCount() / (double) duration.toSeconds(), shed, errors,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private long shed(LoadTestRunner.Operation operation) {
+        return count(operation, status -> status == 429 || status == 503);
+    }
+
+    private long errors(LoadTestRunner.Operation operation) {
+        return count(operation, status -> (status < 200 || status >= 300) && status != 429 && status != 503);
+    }
+
+    private long count(LoadTestRunner.Operation operation, IntPredicate match) {
+        return statuses.get(operation).entrySet().stream()
+                .filter(entry -> match.test(entry.getKey()))
+                .mapToLong(entry -> entry.getValue().sum())
+                .sum();
+    }
+
+    private Map<Integer, Long> statusCounts(LoadTestRunner.Operation operation) {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.get(operation).forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+}
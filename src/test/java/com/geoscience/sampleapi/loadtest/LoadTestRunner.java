@@ -0,0 +1,319 @@
+package com.geoscience.sampleapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.geoscience.sampleapi.dto.SampleRequest;
+import com.geoscience.sampleapi.model.GeologicalSample;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a scripted workload against a running API and reports throughput and
+ * latency percentiles per operation.
+ *
+ * Each virtual user sends requests with its own {@code X-Client-Id}, which
+ * the rate limiter only believes from a trusted proxy address. With
+ * {@code --rate} the load is open-loop: every user follows a fixed schedule
+ * and latency is measured from the scheduled start, so a stalled server shows
+ * up in the tail instead of silently lowering the offered load (coordinated
+ * omission). Without {@code --rate} each user sends back-to-back requests.
+ *
+ * Usage: {@code make loadtest URL=http://localhost:8080 WORKLOAD=mixed DURATION=60 RATE=200}
+ */
+public final class LoadTestRunner {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = SyntheticDataGenerator.argument(args, "--url", "http://localhost:8080");
+        Workload workload = Workload.valueOf(SyntheticDataGenerator.argument(args, "--workload", "mixed")
+                .toUpperCase().replace('-', '_'));
+        int users = Integer.parseInt(SyntheticDataGenerator.argument(args, "--users", "32"));
+        double rate = Double.parseDouble(SyntheticDataGenerator.argument(args, "--rate", "0"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(SyntheticDataGenerator.argument(args, "--warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(SyntheticDataGenerator.argument(args, "--duration", "60")));
+        String db = SyntheticDataGenerator.argument(args, "--db", "");
+        Path reportDir = Path.of(SyntheticDataGenerator.argument(args, "--report-dir", "target/loadtest"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String api = url.replaceAll("/$", "") + "/api/v1/samples";
+
+        List<KnownSample> pool = db.isEmpty() ? sampleFromApi(client, api) : sampleFromDatabase(db);
+        if (pool.isEmpty()) {
+            throw new IllegalStateException("No samples found to read/update; generate data first (make loadtest-data)");
+        }
+        System.out.printf("Workload %s against %s: %d users, %s, %ds warm-up + %ds measured, %d known samples%n",
+                workload, api, users, rate > 0 ? String.format("open-loop %.0f req/s", rate) : "closed-loop",
+                warmup.toSeconds(), duration.toSeconds(), pool.size());
+
+        LatencyReport report = new LatencyReport();
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        AtomicLong created = new AtomicLong();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            VirtualUser user = new VirtualUser(u, client, api, workload, pool, report, runId, created,
+                    rate > 0 ? (long) (1e9 * users / rate) : 0, start, measureFrom, end);
+            Thread thread = new Thread(user, "loadtest-user-" + u);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        report.print(System.out, duration);
+        Files.createDirectories(reportDir);
+        Path file = reportDir.resolve("report-" + workload.name().toLowerCase() + "-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        ObjectNode json = report.toJson(MAPPER, duration);
+        json.put("workload", workload.name());
+        json.put("url", api);
+        json.put("users", users);
+        json.put("targetRate", rate);
+        Files.writeString(file, MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(json));
+        System.out.println("Report written to " + file);
+    }
+
+    /**
+     * Operations issued by the harness, modelled on the production traffic mix.
+     */
+    enum Operation {
+        LIST, GET, NEARBY, CREATE, CREATE_ASYNC, UPDATE
+    }
+
+    /**
+     * Scripted traffic mixes (weights per operation, in percent).
+     */
+    enum Workload {
+        /** Typical office use: browsing and lookups with occasional edits. */
+        MIXED(Map.of(Operation.LIST, 25, Operation.GET, 45, Operation.NEARBY, 10, Operation.CREATE, 10, Operation.UPDATE, 10)),
+        /** Read-only browsing of the collection. */
+        BROWSE(Map.of(Operation.LIST, 40, Operation.GET, 45, Operation.NEARBY, 15)),
+        /** Field devices syncing bursts of new samples. */
+        FIELD_SYNC(Map.of(Operation.CREATE, 70, Operation.GET, 20, Operation.LIST, 10)),
+        /** Field sync using the write-behind queue. */
+        FIELD_SYNC_ASYNC(Map.of(Operation.CREATE_ASYNC, 70, Operation.GET, 20, Operation.LIST, 10)),
+        /** Map views: proximity searches around known samples. */
+        MAP(Map.of(Operation.NEARBY, 80, Operation.GET, 20));
+
+        private final Operation[] table;
+
+        Workload(Map<Operation, Integer> weights) {
+            List<Operation> slots = new ArrayList<>();
+            new EnumMap<>(weights).forEach((operation, weight) -> {
+                for (int i = 0; i < weight; i++) {
+                    slots.add(operation);
+                }
+            });
+            this.table = slots.toArray(new Operation[0]);
+        }
+
+        Operation next(ThreadLocalRandom random) {
+            return table[random.nextInt(table.length)];
+        }
+    }
+
+    record KnownSample(UUID id, String identifier, Double latitude, Double longitude) {
+    }
+
+    private static final class VirtualUser implements Runnable {
+
+        private final int index;
+        private final HttpClient client;
+        private final String api;
+        private final Workload workload;
+        private final List<KnownSample> pool;
+        private final LatencyReport report;
+        private final String runId;
+        private final AtomicLong created;
+        private final long intervalNanos;
+        private final long start;
+        private final long measureFrom;
+        private final long end;
+
+        VirtualUser(int index, HttpClient client, String api, Workload workload, List<KnownSample> pool,
+                    LatencyReport report, String runId, AtomicLong created, long intervalNanos,
+                    long start, long measureFrom, long end) {
+            this.index = index;
+            this.client = client;
+            this.api = api;
+            this.workload = workload;
+            this.pool = pool;
+            this.report = report;
+            this.runId = runId;
+            this.created = created;
+            this.intervalNanos = intervalNanos;
+            this.start = start;
+            this.measureFrom = measureFrom;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            // Stagger users across one interval so the schedule is smooth
+            long intended = start + (intervalNanos > 0 ? random.nextLong(intervalNanos) : 0);
+            while (true) {
+                if (intervalNanos > 0) {
+                    long wait = intended - System.nanoTime();
+                    if (wait > 0) {
+                        sleepNanos(wait);
+                    }
+                } else {
+                    intended = System.nanoTime();
+                }
+                if (intended >= end) {
+                    return;
+                }
+                Operation operation = workload.next(random);
+                int status;
+                try {
+                    status = client.send(request(operation, random), HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    status = -1;
+                }
+                long latency = System.nanoTime() - intended;
+                if (intended >= measureFrom) {
+                    report.record(operation, status, latency);
+                }
+                intended += intervalNanos;
+            }
+        }
+
+        private HttpRequest request(Operation operation, ThreadLocalRandom random) throws Exception {
+            KnownSample sample = pool.get(random.nextInt(pool.size()));
+            HttpRequest.Builder builder = HttpRequest.newBuilder()
+                    .timeout(Duration.ofSeconds(30))
+                    .header("X-Client-Id", "loadtest-" + index);
+            switch (operation) {
+                case LIST -> builder.uri(URI.create(api + "?page=" + (int) Math.min(49, -Math.log(1 - random.nextDouble()) * 5)
+                        + "&size=20" + (random.nextBoolean() ? "&sort=collectionDate,desc" : "")));
+                case GET -> builder.uri(URI.create(api + "/" + sample.id()));
+                case NEARBY -> {
+                    double latitude = sample.latitude() != null ? sample.latitude() : 46.5;
+                    double longitude = sample.longitude() != null ? sample.longitude() : 9.0;
+                    int radius = new int[] {500, 2_000, 10_000}[random.nextInt(3)];
+                    builder.uri(URI.create(api + "/nearby?lat=" + latitude + "&lon=" + longitude
+                            + "&radius=" + radius + "&limit=50"));
+                }
+                case CREATE, CREATE_ASYNC -> {
+                    String identifier = "LT-" + runId + "-" + created.incrementAndGet();
+                    builder.uri(URI.create(api))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofByteArray(body(identifier, sample, random)));
+                    if (operation == Operation.CREATE_ASYNC) {
+                        builder.header("Prefer", "respond-async");
+                    }
+                }
+                case UPDATE -> builder.uri(URI.create(api + "/" + sample.id()))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofByteArray(body(sample.identifier(), sample, random)));
+            }
+            return builder.build();
+        }
+
+        private static byte[] body(String identifier, KnownSample near, ThreadLocalRandom random) throws Exception {
+            SampleRequest request = SampleRequest.builder()
+                    .sampleIdentifier(identifier)
+                    .sampleName("Load test sample")
+                    .sampleType(GeologicalSample.SampleType.values()[random.nextInt(GeologicalSample.SampleType.values().length)])
+                    .collectionDate(LocalDate.now().minusDays(random.nextInt(3650)))
+                    .latitude(near.latitude() == null ? null : Math.max(-90, Math.min(90, near.latitude() + random.nextGaussian() * 0.01)))
+                    .longitude(near.latitude() == null ? null : Math.max(-180, Math.min(180, near.longitude() + random.nextGaussian() * 0.01)))
+                    .locationName("Load test site")
+                    .collectorName("Load Tester")
+                    .description("x".repeat((int) Math.min(4000, Math.exp(5.1 + random.nextGaussian() * 1.1))))
+                    .storageLocation("Lab-LT-Shelf-01")
+                    .build();
+            return MAPPER.writeValueAsBytes(request);
+        }
+
+        private static void sleepNanos(long nanos) {
+            try {
+                Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Random sample of existing rows, read straight from the database file.
+     */
+    private static List<KnownSample> sampleFromDatabase(String db) throws Exception {
+        List<KnownSample> pool = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + db);
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id, sample_identifier, latitude, longitude FROM samples "
+                     + "WHERE rowid IN (SELECT abs(random()) % (SELECT max(rowid) FROM samples) + 1 FROM samples LIMIT 20000)")) {
+            while (rows.next()) {
+                ByteBuffer id = ByteBuffer.wrap(rows.getBytes(1));
+                double latitude = rows.getDouble(3);
+                boolean located = !rows.wasNull();
+                double longitude = rows.getDouble(4);
+                pool.add(new KnownSample(new UUID(id.getLong(), id.getLong()), rows.getString(2),
+                        located ? latitude : null, located ? longitude : null));
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Samples from the first list pages, for when the database file is not local.
+     */
+    private static List<KnownSample> sampleFromApi(HttpClient client, String api) throws Exception {
+        List<KnownSample> pool = new ArrayList<>();
+        for (int page = 0; page < 20; page++) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                    URI.create(api + "?page=" + page + "&size=100")).header("X-Client-Id", "loadtest-setup").build(),
+                    HttpResponse.BodyHandlers.ofString());
+            JsonNode content = MAPPER.readTree(response.body()).path("content");
+            if (!content.isArray() || content.isEmpty()) {
+                break;
+            }
+            for (JsonNode sample : content) {
+                pool.add(new KnownSample(UUID.fromString(sample.get("id").asText()),
+                        sample.get("sampleIdentifier").asText(),
+                        sample.hasNonNull("latitude") ? sample.get("latitude").asDouble() : null,
+                        sample.hasNonNull("longitude") ? sample.get("longitude").asDouble() : null));
+            }
+        }
+        return pool;
+    }
+}
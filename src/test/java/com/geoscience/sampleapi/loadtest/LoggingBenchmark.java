@@ -0,0 +1,192 @@
+package com.geoscience.sampleapi.loadtest;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.geoscience.sampleapi.logging.JsonLineEncoder;
+import com.geoscience.sampleapi.logging.SamplingTurboFilter;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the logging cost per API request under different logging setups.
+ *
+ * Each simulated request emits the log lines that a real create and list
+ * request emit in {@code SampleController} and {@code SampleService} (three
+ * INFO lines, with a {@code Pageable} and identifiers as arguments), plus a
+ * not-found warning on every tenth request. Latency is the time the request
+ * thread spends inside the logging calls. Requests are paced at
+ * {@code --rate} per second in total; {@code --rate 0} runs them back to back,
+ * which saturates the appenders.
+ *
+ * <ul>
+ *   <li>{@code sync-text}: the previous setup, a console appender with the
+ *   plain pattern on the request thread;</li>
+ *   <li>{@code async-text}, {@code async-json}: the same behind an
+ *   {@code AsyncAppender};</li>
+ *   <li>{@code async-json-sampled}: async JSON with the prod sampling
+ *   (one in 100 INFO lines per template, 10 warnings per second).</li>
+ * </ul>
+ *
+ * Log output goes to {@code --sink} (a file by default, so that writes cost
+ * real system calls). The {@code lines} column counts what reached the sink:
+ * the async setups drop events instead of blocking when their queue is full.
+ *
+ * Usage: {@code mvn -Ploadtest test-compile exec:java -Dloadtest.main=LoggingBenchmark -Dloadtest.args="--threads 4 --rate 2000"}
+ */
+public final class LoggingBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss} - %level [%logger{36}] - %msg%n";
+    private static final long MAX_NANOS = 1_000_000_000L;
+
+    private LoggingBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.parseInt(SyntheticDataGenerator.argument(args, "--threads", "4"));
+        int requests = Integer.parseInt(SyntheticDataGenerator.argument(args, "--requests", "100000"));
+        double rate = Double.parseDouble(SyntheticDataGenerator.argument(args, "--rate", "2000"));
+        Path sink = Path.of(SyntheticDataGenerator.argument(args, "--sink", "target/loadtest/logging-benchmark.log"));
+        if (sink.getParent() != null) {
+            Files.createDirectories(sink.getParent());
+        }
+
+        System.out.printf("%d threads x %d requests at %s, output to %s%n%n", threads, requests / threads,
+                rate > 0 ? String.format("%.0f requests/s", rate) : "full speed", sink);
+        System.out.printf("%-20s %10s %10s %10s %10s %12s %12s%n",
+                "setup", "p50 us", "p99 us", "p99.9 us", "max us", "requests/s", "lines");
+        for (String setup : new String[] {"sync-text", "async-text", "async-json", "async-json-sampled"}) {
+            // First pass warms up the JIT, second pass is measured
+            run(setup, threads, requests / 4, 0, sink);
+            Result result = run(setup, threads, requests, rate, sink);
+            Histogram h = result.histogram();
+            long lines;
+            try (var stream = Files.lines(sink)) {
+                lines = stream.count();
+            }
+            System.out.printf("%-20s %10.1f %10.1f %10.1f %10.1f %,12.0f %,12d%n", setup,
+                    h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0,
+                    h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0,
+                    requests / (result.elapsedNanos() / 1e9), lines);
+        }
+    }
+
+    private static Result run(String setup, int threads, int requests, double rate, Path sink) throws Exception {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(sink.toFile()), 8192);
+        Appender<ILoggingEvent> appender = configure(context, setup, out);
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+
+        Logger controller = context.getLogger("com.geoscience.sampleapi.controller.SampleController");
+        Logger service = context.getLogger("com.geoscience.sampleapi.service.SampleService");
+        PageRequest pageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        Histogram histogram = new ConcurrentHistogram(MAX_NANOS, 3);
+        CountDownLatch start = new CountDownLatch(1);
+        long intervalNanos = rate > 0 ? (long) (threads * 1e9 / rate) : 0;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int perThread = requests / threads;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long next = System.nanoTime();
+                for (int i = 0; i < perThread; i++) {
+                    if (intervalNanos > 0) {
+                        next += intervalNanos;
+                        LockSupport.parkNanos(next - System.nanoTime());
+                    }
+                    UUID id = UUID.randomUUID();
+                    String identifier = "GS-" + i;
+                    long begin = System.nanoTime();
+                    controller.info("POST /api/v1/samples - Creating new sample: {}", identifier);
+                    service.info("Successfully created sample with id: {}", id);
+                    controller.info("GET /api/v1/samples - Fetching all samples with pagination: {}", pageable);
+                    if (i % 10 == 0) {
+                        service.warn("Sample not found with id: {}", id);
+                    }
+                    histogram.recordValue(Math.min(MAX_NANOS, System.nanoTime() - begin));
+                }
+            }, "request-" + t);
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        context.stop();
+        out.close();
+        return new Result(histogram, elapsed);
+    }
+
+    private static Appender<ILoggingEvent> configure(LoggerContext context, String setup, OutputStream out) {
+        Encoder<ILoggingEvent> encoder;
+        if (setup.contains("json")) {
+            encoder = new JsonLineEncoder();
+        } else {
+            PatternLayoutEncoder pattern = new PatternLayoutEncoder();
+            pattern.setPattern(PATTERN);
+            encoder = pattern;
+        }
+        encoder.setContext(context);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setName("console");
+        console.setContext(context);
+        console.setEncoder(encoder);
+        console.setOutputStream(out);
+        console.start();
+
+        if (setup.endsWith("sampled")) {
+            SamplingTurboFilter filter = new SamplingTurboFilter();
+            filter.setContext(context);
+            filter.setSampledLoggers("com.geoscience.sampleapi.controller.SampleController,com.geoscience.sampleapi.service.SampleService");
+            filter.setRateLimitedLoggers("com.geoscience.sampleapi");
+            filter.setInfoSampleEvery(100);
+            filter.setWarnPerSecond(10);
+            filter.start();
+            context.addTurboFilter(filter);
+        }
+        if (!setup.startsWith("async")) {
+            return console;
+        }
+        AsyncAppender async = new AsyncAppender();
+        async.setName("async");
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.addAppender(console);
+        async.start();
+        return async;
+    }
+
+    private record Result(Histogram histogram, long elapsedNanos) {
+    }
+}
@@ -0,0 +1,272 @@
+package com.geoscience.sampleapi.loadtest;
+
+import com.geoscience.sampleapi.model.GeologicalSample;
+import com.geoscience.sampleapi.spatial.SpatialKeys;
+import org.flywaydb.core.Flyway;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Generates a synthetic sample database for load testing.
+ *
+ * The schema is created with the application's Flyway migrations, so the
+ * result can be served directly with the {@code prod} profile. Rows are
+ * written with plain JDBC batches (not through the API) to reach millions of
+ * samples in minutes. The data is shaped like a real collection:
+ * <ul>
+ *   <li>samples cluster around a few hundred field sites, with a long tail of
+ *   isolated finds and ~5% of samples without coordinates;</li>
+ *   <li>sample types follow a skewed distribution (rocks and soils dominate);</li>
+ *   <li>description lengths are log-normal, from empty to several kilobytes;</li>
+ *   <li>collection dates span 30 years, with more recent samples.</li>
+ * </ul>
+ * The same seed always produces the same database.
+ *
+ * Usage: {@code make loadtest-data ROWS=1000000 DB=target/loadtest/samples.db}
+ */
+public final class SyntheticDataGenerator {
+
+    private static final String INSERT = "INSERT INTO samples (id, sample_identifier, sample_name, sample_type, "
+            + "collection_date, latitude, longitude, spatial_key, unit_x, unit_y, unit_z, location_name, "
+            + "collector_name, description, storage_location, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 5_000;
+    private static final int ROWS_PER_TRANSACTION = 100_000;
+
+    private static final GeologicalSample.SampleType[] TYPES = GeologicalSample.SampleType.values();
+    private static final double[] TYPE_WEIGHTS = cumulative(new double[] {0.38, 0.14, 0.24, 0.06, 0.14, 0.04});
+
+    private static final String[] ROCK_NAMES = {"Granite", "Basalt", "Sandstone", "Limestone", "Shale", "Gneiss",
+            "Schist", "Quartzite", "Marble", "Andesite", "Rhyolite", "Dolomite", "Obsidian", "Pumice", "Slate"};
+    private static final String[] QUALIFIERS = {"Fine-grained", "Coarse-grained", "Weathered", "Fresh", "Banded",
+            "Porphyritic", "Foliated", "Vesicular", "Laminated", "Fractured", "Altered", "Massive"};
+    private static final String[] WORDS = ("sample collected from outcrop exposure near contact zone with visible "
+            + "quartz feldspar mica hornblende pyroxene olivine calcite veins fractures bedding planes cross "
+            + "lamination ripple marks fossil fragments shell bioturbation oxidation staining iron manganese "
+            + "coating grain size poorly sorted well rounded angular clasts matrix supported cement alteration "
+            + "chlorite epidote sericite hydrothermal metamorphic grade greenschist amphibolite facies strike "
+            + "dip measured approximately degrees north east south west trending fold axis plunging hinge "
+            + "limb joint set spacing centimetres metres thin section requested geochemistry assay pending").split(" ");
+    private static final String[] COLLECTORS = {"Dr. Jane Smith", "Dr. Ahmed Hassan", "Prof. Maria Garcia",
+            "Dr. Kenji Tanaka", "Dr. Olivia Brown", "Dr. Samuel Okafor", "Prof. Ingrid Larsen", "Dr. Priya Nair",
+            "Dr. Lucas Martin", "Dr. Chen Wei", "Field Team A", "Field Team B"};
+
+    private SyntheticDataGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String db = argument(args, "--db", "target/loadtest/samples.db");
+        long rows = Long.parseLong(argument(args, "--rows", "1000000"));
+        long seed = Long.parseLong(argument(args, "--seed", "42"));
+        int sites = Integer.parseInt(argument(args, "--sites", "400"));
+
+        Path dbPath = Path.of(db).toAbsolutePath();
+        Files.createDirectories(dbPath.getParent());
+        for (String suffix : new String[] {"", "-wal", "-shm"}) {
+            Files.deleteIfExists(Path.of(dbPath + suffix));
+        }
+        String url = "jdbc:sqlite:" + dbPath;
+        Flyway.configure().dataSource(url, null, null).locations("classpath:db/migration").load().migrate();
+
+        long started = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(url)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=OFF");
+            }
+            connection.setAutoCommit(false);
+            generate(connection, rows, seed, sites);
+            connection.commit();
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+                statement.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("Generated %,d samples in %.1f s (%,.0f rows/s) into %s%n",
+                rows, seconds, rows / seconds, dbPath);
+    }
+
+    private static void generate(Connection connection, long rows, long seed, int siteCount) throws Exception {
+        SplittableRandom random = new SplittableRandom(seed);
+        Site[] sites = createSites(new Random(seed), siteCount);
+        double[] siteWeights = cumulative(zipfWeights(siteCount));
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate today = LocalDate.of(2025, 1, 1);
+
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            for (long i = 0; i < rows; i++) {
+                Site site = sites[pick(random, siteWeights)];
+                GeologicalSample.SampleType type = TYPES[pick(random, TYPE_WEIGHTS)];
+
+                int p = 1;
+                insert.setBytes(p++, uuidBytes(new UUID(random.nextLong(), random.nextLong())));
+                insert.setString(p++, String.format("GS-%s-%08d", site.code, i));
+                insert.setString(p++, QUALIFIERS[random.nextInt(QUALIFIERS.length)] + " "
+                        + ROCK_NAMES[random.nextInt(ROCK_NAMES.length)] + " " + type.name().toLowerCase());
+                insert.setString(p++, type.name());
+                // Skewed towards recent years
+                LocalDate collected = today.minusDays((long) (Math.pow(random.nextDouble(), 2) * 365 * 30));
+                insert.setLong(p++, collected.atStartOfDay(zone).toInstant().toEpochMilli());
+
+                if (random.nextDouble() < 0.05) {
+                    for (int k = 0; k < 6; k++) {
+                        insert.setObject(p++, null);
+                    }
+                } else {
+                    double latitude;
+                    double longitude;
+                    if (random.nextDouble() < 0.1) {
+                        // Isolated finds anywhere on land-ish latitudes
+                        latitude = -60 + random.nextDouble() * 135;
+                        longitude = -180 + random.nextDouble() * 360;
+                    } else {
+                        latitude = clamp(site.latitude + gaussian(random) * site.spreadDegrees, -90, 90);
+                        longitude = wrap(site.longitude + gaussian(random) * site.spreadDegrees
+                                / Math.max(0.1, Math.cos(Math.toRadians(site.latitude))));
+                    }
+                    latitude = Math.round(latitude * 1e6) / 1e6;
+                    longitude = Math.round(longitude * 1e6) / 1e6;
+                    double[] unit = SpatialKeys.unitVector(latitude, longitude);
+                    insert.setDouble(p++, latitude);
+                    insert.setDouble(p++, longitude);
+                    insert.setLong(p++, SpatialKeys.mortonKey(latitude, longitude));
+                    insert.setDouble(p++, unit[0]);
+                    insert.setDouble(p++, unit[1]);
+                    insert.setDouble(p++, unit[2]);
+                }
+
+                insert.setString(p++, site.name);
+                insert.setString(p++, COLLECTORS[random.nextInt(COLLECTORS.length)]);
+                insert.setString(p++, description(random));
+                insert.setString(p++, random.nextDouble() < 0.8
+                        ? String.format("Lab-%c-Shelf-%02d", 'A' + random.nextInt(8), 1 + random.nextInt(40)) : null);
+                long created = collected.atStartOfDay(zone).toInstant().toEpochMilli()
+                        + (long) (random.nextDouble() * 90 * 86_400_000L);
+                insert.setLong(p++, created);
+                insert.setLong(p, random.nextDouble() < 0.3
+                        ? created + (long) (random.nextDouble() * 365 * 86_400_000L) : created);
+                insert.addBatch();
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+                if ((i + 1) % ROWS_PER_TRANSACTION == 0) {
+                    connection.commit();
+                    System.out.printf("  %,d rows%n", i + 1);
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Log-normal lengths: median ~160 characters, a few percent above 2 kB,
+     * and ~8% empty.
+     */
+    private static String description(SplittableRandom random) {
+        if (random.nextDouble() < 0.08) {
+            return null;
+        }
+        int length = (int) Math.min(8_000, Math.exp(5.1 + gaussian(random) * 1.1));
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            if (!text.isEmpty()) {
+                text.append(random.nextInt(12) == 0 ? ". " : " ");
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static Site[] createSites(Random random, int count) {
+        // Field sites concentrate in a few regions (mountain belts, basins)
+        double[][] regions = {{46.5, 9.0}, {39.5, -106.0}, {-23.5, 133.0}, {-33.0, -70.0}, {61.0, 10.0},
+                {35.5, 138.5}, {-1.0, 36.5}, {64.0, -150.0}, {27.5, 86.5}, {-3.0, -60.0}, {51.0, -115.0}};
+        Site[] sites = new Site[count];
+        for (int i = 0; i < count; i++) {
+            double[] region = regions[random.nextInt(regions.length)];
+            double latitude = clamp(region[0] + random.nextGaussian() * 4, -85, 85);
+            double longitude = wrap(region[1] + random.nextGaussian() * 6);
+            double spread = 0.002 + Math.abs(random.nextGaussian()) * 0.05;
+            sites[i] = new Site(String.format("S%03d", i), "Site " + i + " (" + Math.round(latitude) + ", "
+                    + Math.round(longitude) + ")", latitude, longitude, spread);
+        }
+        return sites;
+    }
+
+    private static double[] zipfWeights(int count) {
+        double[] weights = new double[count];
+        for (int i = 0; i < count; i++) {
+            weights[i] = 1.0 / (i + 1);
+        }
+        return weights;
+    }
+
+    /**
+     * Running totals of {@code weights}, normalised so the last entry is 1.
+     */
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int pick(SplittableRandom random, double[] cumulative) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian on Java 17
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static double wrap(double longitude) {
+        return ((longitude + 540.0) % 360.0) - 180.0;
+    }
+
+    private static byte[] uuidBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    static String argument(String[] args, String name, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+
+    private record Site(String code, String name, double latitude, double longitude, double spreadDegrees) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.geoscience.sampleapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private SamplingTurboFilter filter;
+    private Logger controllerLogger;
+
+    @BeforeEach
+    void setUp() {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setSampledLoggers("com.geoscience.sampleapi.controller");
+        filter.setRateLimitedLoggers("com.geoscience.sampleapi");
+        filter.setInfoSampleEvery(10);
+        filter.setWarnPerSecond(3);
+        filter.start();
+        controllerLogger = context.getLogger("com.geoscience.sampleapi.controller.SampleController");
+    }
+
+    @Test
+    void testInfoIsSampledPerTemplate() {
+        int listLogged = 0;
+        int getLogged = 0;
+        for (int i = 0; i < 100; i++) {
+            if (decide(controllerLogger, Level.INFO, "GET /api/v1/samples - Fetching all samples: {}") == FilterReply.NEUTRAL) {
+                listLogged++;
+            }
+            if (i < 5 && decide(controllerLogger, Level.INFO, "GET /api/v1/samples/{} - Fetching sample") == FilterReply.NEUTRAL) {
+                getLogged++;
+            }
+        }
+
+        assertEquals(10, listLogged);
+        // A quiet endpoint still gets its first line logged
+        assertEquals(1, getLogged);
+    }
+
+    @Test
+    void testOtherLevelsAndLoggersAreNotSampled() {
+        Logger backupLogger = context.getLogger("com.geoscience.sampleapi.service.BackupService");
+        for (int i = 0; i < 20; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(backupLogger, Level.INFO, "Snapshot written"));
+            assertEquals(FilterReply.NEUTRAL, decide(controllerLogger, Level.ERROR, "Unexpected error"));
+            assertEquals(FilterReply.NEUTRAL, decide(controllerLogger, Level.DEBUG, "Debug detail {}"));
+        }
+    }
+
+    @Test
+    void testWarningsAreRateLimitedPerTemplate() {
+        int notFoundLogged = 0;
+        for (int i = 0; i < 50; i++) {
+            if (decide(controllerLogger, Level.WARN, "Sample not found: {}") == FilterReply.NEUTRAL) {
+                notFoundLogged++;
+            }
+        }
+
+        assertEquals(3, notFoundLogged);
+        assertEquals(FilterReply.NEUTRAL, decide(controllerLogger, Level.WARN, "Sample identifier already exists: {}"));
+    }
+
+    @Test
+    void testJsonLineEncoderEscapesMessage() {
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        LoggingEvent event = new LoggingEvent("test", controllerLogger, Level.WARN,
+                "Sample identifier already exists: {}", null, new Object[] {"GS-\"1\"\n"});
+
+        String line = new String(encoder.encode(event), StandardCharsets.UTF_8);
+
+        assertTrue(line.startsWith("{\"@timestamp\":\""));
+        assertTrue(line.contains("\"level\":\"WARN\""));
+        assertTrue(line.contains("\"message\":\"Sample identifier already exists: GS-\\\"1\\\"\\n\""));
+        assertTrue(line.endsWith("}\n"));
+    }
+
+    private FilterReply decide(Logger logger, Level level, String format) {
+        return filter.decide(null, logger, level, format, null, null);
+    }
+}
@@ -0,0 +1,47 @@
+package com.geoscience.sampleapi.partition;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionKeyTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 6, 15);
+
+    @Test
+    void testPartitionOf_NamesYearsAndGridCells() {
+        assertEquals("year-2024", PartitionKey.COLLECTION_YEAR.partitionOf(DATE, null, null, 10.0));
+        assertEquals("cell-10-13-18", PartitionKey.GRID_CELL.partitionOf(DATE, 46.5, 7.9, 10.0));
+        assertEquals("cell-2.5-0-0", PartitionKey.GRID_CELL.partitionOf(DATE, -90.0, -180.0, 2.5));
+        // The north pole and +180 fall into the last row and column
+        assertEquals("cell-10-17-35", PartitionKey.GRID_CELL.partitionOf(DATE, 90.0, 180.0, 10.0));
+        assertEquals("cell-none", PartitionKey.GRID_CELL.partitionOf(DATE, null, null, 10.0));
+    }
+
+    @Test
+    void testMayContain_PrunesByDateRange() {
+        assertTrue(PartitionKey.mayContain("year-2024", null, null, null));
+        assertTrue(PartitionKey.mayContain("year-2024", LocalDate.of(2024, 12, 31), null, null));
+        assertFalse(PartitionKey.mayContain("year-2023", LocalDate.of(2024, 1, 1), null, null));
+        assertFalse(PartitionKey.mayContain("year-2025", null, LocalDate.of(2024, 12, 31), null));
+        // Dates say nothing about grid cells
+        assertTrue(PartitionKey.mayContain("cell-10-13-18", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), null));
+    }
+
+    @Test
+    void testMayContain_PrunesByBoxes() {
+        List<double[]> alps = List.<double[]>of(new double[] {45.0, 48.0, 6.0, 11.0});
+        assertTrue(PartitionKey.mayContain("cell-10-13-18", null, null, alps));
+        assertTrue(PartitionKey.mayContain("cell-10-13-19", null, null, alps));
+        assertFalse(PartitionKey.mayContain("cell-10-12-18", null, null, alps));
+        assertFalse(PartitionKey.mayContain("cell-none", null, null, alps));
+        assertTrue(PartitionKey.mayContain("cell-none", null, null, null));
+        // Boxes say nothing about years, and unknown names are always searched
+        assertTrue(PartitionKey.mayContain("year-2024", null, null, alps));
+        assertTrue(PartitionKey.mayContain("cell-x-1-2", null, null, alps));
+        assertTrue(PartitionKey.mayContain("legacy", LocalDate.of(2024, 1, 1), null, alps));
+    }
+}
@@ -0,0 +1,183 @@
+package com.geoscience.sampleapi.repository;
+
+import com.geoscience.sampleapi.config.SpatialProperties;
+import com.geoscience.sampleapi.config.StorageLocationProperties;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import com.geoscience.sampleapi.service.SamplePartitions;
+import com.geoscience.sampleapi.service.SpatialKeyBackfill;
+import com.geoscience.sampleapi.service.StorageInventoryService;
+import com.geoscience.sampleapi.service.StoragePathBackfill;
+import com.geoscience.sampleapi.service.StoragePaths;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checks that cached samples and cached query results do not outlive the
+ * native and JDBC writes that bypass Hibernate's entity tracking. Each step
+ * runs in its own transaction, as requests do, so reads go through the
+ * second-level and query caches.
+ */
+@DataJpaTest(properties = "CACHE_ENABLED=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SampleRepositoryCacheTest {
+
+    @TempDir
+    static Path tempDir;
+
+    @Autowired
+    private SampleRepository sampleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + tempDir.resolve("samples.db"));
+        // Hibernate resolves classpath: only through the packaged application's class loader
+        registry.add("spring.jpa.properties.hibernate.javax.cache.uri",
+                () -> SampleRepositoryCacheTest.class.getResource("/ehcache.xml").toString());
+    }
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate.update("DELETE FROM samples");
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testSoftDelete_EvictsCachedSampleAndQueries() {
+        UUID id = save(sample("GS-1", "Shed 1"));
+        statistics.clear();
+
+        assertTrue(inTransaction(() -> sampleRepository.findById(id)).isPresent());
+        assertEquals(1, samples().getHitCount());
+        assertTrue(inTransaction(() -> sampleRepository.findBySampleIdentifier("GS-1")).isPresent());
+        assertTrue(inTransaction(() -> sampleRepository.findBySampleIdentifier("GS-1")).isPresent());
+        assertEquals(1, statistics.getQueryCacheMissCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        assertEquals(1, inTransaction(() -> sampleRepository.softDelete(id, LocalDateTime.now())));
+
+        assertFalse(inTransaction(() -> sampleRepository.findById(id)).isPresent());
+        assertFalse(inTransaction(() -> sampleRepository.findBySampleIdentifier("GS-1")).isPresent());
+        // Both came from the database: the entity was evicted and the query results went stale
+        assertEquals(1, samples().getHitCount());
+        assertEquals(1, samples().getMissCount());
+        assertEquals(2, statistics.getQueryCacheMissCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        assertEquals(1, inTransaction(() -> sampleRepository.purgeDeletedIdentifiers(List.of("GS-1"))));
+        assertTrue(inTransaction(() -> sampleRepository.findIncludingDeleted(id)).isEmpty());
+    }
+
+    @Test
+    void testRelocateStorage_EvictsCachedSamples() {
+        UUID id = save(sample("GS-1", "Shed 1 / Rack 2"));
+        statistics.clear();
+
+        String from = StoragePaths.of("Shed 1");
+        assertEquals(1, inTransaction(() -> sampleRepository.relocateStorage(from, StoragePaths.upperBound(from),
+                StoragePaths.of("Shed 3"), LocalDateTime.now())));
+
+        GeologicalSample moved = inTransaction(() -> sampleRepository.findById(id)).orElseThrow();
+        assertEquals("Shed 3 / Rack 2", moved.getStorageLocation());
+        assertEquals(0, samples().getHitCount());
+        assertEquals(1, samples().getMissCount());
+    }
+
+    @Test
+    void testBackfills_EvictBackfilledSamples() {
+        UUID id = save(sample("GS-1", "Shed 1"));
+        jdbcTemplate.update("UPDATE samples SET spatial_key = NULL, storage_path = NULL WHERE id = ?", bytes(id));
+        // The cache still holds the sample as saved
+        assertNotNull(inTransaction(() -> sampleRepository.findById(id)).orElseThrow().getSpatialKey());
+
+        assertEquals(1, new SpatialKeyBackfill(jdbcTemplate, transactionTemplate, new SpatialProperties(),
+                entityManagerFactory, event -> { }).backfill());
+        assertFalse(entityManagerFactory.getCache().contains(GeologicalSample.class, id));
+
+        inTransaction(() -> sampleRepository.findById(id));
+        assertEquals(1, new StoragePathBackfill(jdbcTemplate, transactionTemplate, mock(StorageInventoryService.class),
+                new StorageLocationProperties(), entityManagerFactory, mock(SamplePartitions.class)).backfill());
+        assertFalse(entityManagerFactory.getCache().contains(GeologicalSample.class, id));
+        assertEquals(StoragePaths.of("Shed 1"), inTransaction(() -> sampleRepository.findById(id)).orElseThrow().getStoragePath());
+    }
+
+    /** Saves the sample and loads it once, which puts it in the {@code samples} region. */
+    private UUID save(GeologicalSample sample) {
+        UUID id = inTransaction(() -> sampleRepository.save(sample)).getId();
+        inTransaction(() -> sampleRepository.findById(id));
+        assertTrue(entityManagerFactory.getCache().contains(GeologicalSample.class, id));
+        return id;
+    }
+
+    private CacheRegionStatistics samples() {
+        return statistics.getDomainDataRegionStatistics(GeologicalSample.CACHE_REGION);
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+
+    private static GeologicalSample sample(String identifier, String storageLocation) {
+        GeologicalSample sample = GeologicalSample.builder()
+                .sampleIdentifier(identifier)
+                .sampleName("Granite")
+                .sampleType(GeologicalSample.SampleType.ROCK)
+                .collectionDate(LocalDate.of(2024, 1, 15))
+                .latitude(40.7128)
+                .longitude(-74.0060)
+                .collectorName("Dr. Jane Smith")
+                .storageLocation(storageLocation)
+                .storagePath(StoragePaths.of(storageLocation))
+                .build();
+        sample.setSpatialKey(1L);
+        sample.setUnitX(0.0);
+        sample.setUnitY(0.0);
+        sample.setUnitZ(1.0);
+        return sample;
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
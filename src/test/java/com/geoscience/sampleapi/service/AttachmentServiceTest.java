@@ -0,0 +1,133 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.AttachmentProperties;
+import com.geoscience.sampleapi.dto.AttachmentResponse;
+import com.geoscience.sampleapi.exception.AttachmentTooLargeException;
+import com.geoscience.sampleapi.exception.ResourceNotFoundException;
+import com.geoscience.sampleapi.exception.SampleNotFoundException;
+import com.geoscience.sampleapi.model.SampleAttachment;
+import com.geoscience.sampleapi.repository.SampleAttachmentRepository;
+import com.geoscience.sampleapi.repository.SampleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AttachmentServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SampleAttachmentRepository attachmentRepository;
+    private SampleRepository sampleRepository;
+    private AttachmentProperties properties;
+    private AttachmentService attachmentService;
+    private final List<SampleAttachment> saved = new ArrayList<>();
+    private final UUID sampleId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        attachmentRepository = mock(SampleAttachmentRepository.class);
+        sampleRepository = mock(SampleRepository.class);
+        when(sampleRepository.existsById(sampleId)).thenReturn(true);
+        when(attachmentRepository.save(any(SampleAttachment.class))).thenAnswer(invocation -> {
+            SampleAttachment attachment = invocation.getArgument(0);
+            attachment.setId(UUID.randomUUID());
+            saved.add(attachment);
+            return attachment;
+        });
+        when(attachmentRepository.existsBySha256(anyString())).thenAnswer(invocation ->
+                saved.stream().anyMatch(attachment -> attachment.getSha256().equals(invocation.getArgument(0))));
+
+        properties = new AttachmentProperties();
+        properties.setDirectory(tempDir.resolve("attachments").toString());
+        attachmentService = new AttachmentService(attachmentRepository, sampleRepository, properties);
+    }
+
+    @Test
+    void testStore_DeduplicatesIdenticalContent() throws Exception {
+        byte[] content = "spectrum".repeat(20_000).getBytes();
+
+        AttachmentResponse first = attachmentService.store(sampleId, "C:\\lab\\xrf.csv", "text/csv", -1,
+                new ByteArrayInputStream(content));
+        AttachmentResponse second = attachmentService.store(sampleId, "../copy.csv", null, content.length,
+                new ByteArrayInputStream(content));
+
+        assertEquals("xrf.csv", first.getFileName());
+        assertEquals("copy.csv", second.getFileName());
+        assertEquals("application/octet-stream", second.getContentType());
+        assertEquals(content.length, first.getSize());
+        assertEquals(first.getSha256(), second.getSha256());
+        assertNotEquals(first.getId(), second.getId());
+
+        when(attachmentRepository.findByIdAndSampleId(first.getId(), sampleId)).thenReturn(Optional.of(saved.get(0)));
+        Path file = attachmentService.open(sampleId, first.getId()).file();
+        assertArrayEquals(content, Files.readAllBytes(file));
+        assertEquals(List.of(file), storedFiles());
+    }
+
+    @Test
+    void testStore_RejectsOversizedUploadsAndUnknownSamples() throws Exception {
+        properties.setMaxSize(DataSize.ofBytes(10));
+
+        assertThrows(AttachmentTooLargeException.class, () -> attachmentService.store(sampleId, "a", null, 11,
+                new ByteArrayInputStream(new byte[0])));
+        // No Content-Length: detected while streaming, and the partial file is removed
+        assertThrows(AttachmentTooLargeException.class, () -> attachmentService.store(sampleId, "a", null, -1,
+                new ByteArrayInputStream(new byte[11])));
+        assertThrows(SampleNotFoundException.class, () -> attachmentService.store(UUID.randomUUID(), "a", null, 1,
+                new ByteArrayInputStream(new byte[1])));
+        assertTrue(storedFiles().isEmpty());
+        assertTrue(saved.isEmpty());
+        assertThrows(ResourceNotFoundException.class, () -> attachmentService.delete(sampleId, UUID.randomUUID()));
+    }
+
+    @Test
+    void testCollectGarbage_RemovesUnreferencedFilesAndStalePartials() throws Exception {
+        AttachmentResponse kept = attachmentService.store(sampleId, "kept", null, -1,
+                new ByteArrayInputStream(new byte[]{1}));
+        AttachmentResponse dropped = attachmentService.store(sampleId, "dropped", null, -1,
+                new ByteArrayInputStream(new byte[]{2}));
+        saved.removeIf(attachment -> attachment.getId().equals(dropped.getId()));
+
+        Path partials = tempDir.resolve("attachments").resolve("tmp");
+        Path stale = Files.write(partials.resolve("upload-1.part"), new byte[]{3});
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        Path inProgress = Files.write(partials.resolve("upload-2.part"), new byte[]{4});
+
+        assertEquals(2, attachmentService.collectGarbage());
+
+        verify(attachmentRepository).deleteOrphaned();
+        List<Path> remaining = storedFiles();
+        assertEquals(2, remaining.size());
+        assertTrue(remaining.contains(inProgress));
+        assertTrue(remaining.stream().anyMatch(path -> path.getFileName().toString().equals(kept.getSha256())));
+    }
+
+    private List<Path> storedFiles() throws Exception {
+        Path root = tempDir.resolve("attachments");
+        if (!Files.exists(root)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+}
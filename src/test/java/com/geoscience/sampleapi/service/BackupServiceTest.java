@@ -0,0 +1,82 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.BackupProperties;
+import com.geoscience.sampleapi.config.DatabaseConfig;
+import com.geoscience.sampleapi.dto.BackupSnapshotResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sqlite.SQLiteDataSource;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackupServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private BackupProperties properties;
+    private BackupService backupService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + tempDir.resolve("samples.db"));
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE samples (id INTEGER PRIMARY KEY, name TEXT)");
+            for (int i = 0; i < 50; i++) {
+                statement.execute("INSERT INTO samples (name) VALUES ('sample-" + i + "')");
+            }
+        }
+
+        properties = new BackupProperties();
+        properties.setDirectory(tempDir.resolve("backups").toString());
+        properties.setPagesPerStep(1);
+        properties.setStepPause(Duration.ZERO);
+        properties.setRetain(2);
+        backupService = new BackupService(dataSource, properties);
+    }
+
+    @Test
+    void testCreateSnapshot_CopiesAllRows() throws Exception {
+        BackupSnapshotResponse snapshot = backupService.createSnapshot();
+
+        assertTrue(snapshot.getFileName().startsWith("samples-"));
+        assertTrue(snapshot.getSizeBytes() > 0);
+        assertNotNull(snapshot.getDurationMs());
+        try (Connection copy = DriverManager.getConnection("jdbc:sqlite:" + snapshot.getPath());
+             Statement statement = copy.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT count(*) FROM samples")) {
+            assertEquals(50, rows.getInt(1));
+        }
+    }
+
+    @Test
+    void testRetention_KeepsNewestSnapshots() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            backupService.createSnapshot();
+            Thread.sleep(5);
+        }
+
+        List<BackupSnapshotResponse> snapshots = backupService.listSnapshots();
+
+        assertEquals(2, snapshots.size());
+        assertTrue(snapshots.get(0).getFileName().compareTo(snapshots.get(1).getFileName()) > 0);
+    }
+
+    @Test
+    void testResolveDatabaseFile() {
+        assertEquals(Path.of("/app/data/samples.db"),
+                DatabaseConfig.resolveDatabaseFile("jdbc:sqlite:/app/data/samples.db?journal_mode=WAL").orElseThrow());
+        assertTrue(DatabaseConfig.resolveDatabaseFile("jdbc:sqlite::memory:").isEmpty());
+        assertTrue(DatabaseConfig.resolveDatabaseFile("jdbc:h2:mem:test").isEmpty());
+    }
+}
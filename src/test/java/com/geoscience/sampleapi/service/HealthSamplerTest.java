@@ -0,0 +1,111 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.HealthProperties;
+import com.geoscience.sampleapi.config.WriteBehindProperties;
+import com.geoscience.sampleapi.dto.HealthSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.util.unit.DataSize;
+import org.sqlite.SQLiteDataSource;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HealthSamplerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SQLiteDataSource dataSource;
+    private HealthProperties properties;
+    private SampleWriteQueue writeQueue;
+    private WarmUp warmUp;
+    private ApplicationAvailability availability;
+    private HealthSampler sampler;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + tempDir.resolve("samples.db"));
+        dataSource.setJournalMode("WAL");
+        dataSource.setBusyTimeout(200);
+        properties = new HealthProperties();
+        properties.setMaxWriteLockWait(Duration.ofMillis(100));
+        writeQueue = mock(SampleWriteQueue.class);
+        warmUp = mock(WarmUp.class);
+        availability = mock(ApplicationAvailability.class);
+        when(warmUp.isFinished()).thenReturn(true);
+        when(availability.getReadinessState()).thenReturn(ReadinessState.ACCEPTING_TRAFFIC);
+        sampler = new HealthSampler(dataSource, properties, writeQueue, new WriteBehindProperties(), warmUp,
+                availability);
+    }
+
+    @Test
+    void testReadiness_DownUntilFirstSample() {
+        HealthSnapshot before = sampler.readiness();
+        assertEquals(HealthSnapshot.DOWN, before.getStatus());
+
+        sampler.sample();
+        HealthSnapshot snapshot = sampler.readiness();
+        assertEquals(HealthSnapshot.UP, snapshot.getStatus(), () -> snapshot.getProblems().toString());
+        assertNotNull(snapshot.getDatabaseLatencyMs());
+        assertNotNull(snapshot.getWriteLockWaitMs());
+        assertTrue(snapshot.getDiskFreeBytes() > 0);
+        assertSame(snapshot, sampler.readiness());
+    }
+
+    @Test
+    void testSample_ReportsProblems() throws Exception {
+        when(writeQueue.getQueued()).thenReturn(9_500);
+        properties.setMinFreeDisk(DataSize.ofTerabytes(1024));
+        try (Connection writer = dataSource.getConnection(); Statement statement = writer.createStatement()) {
+            statement.execute("BEGIN IMMEDIATE");
+            sampler.sample();
+            statement.execute("ROLLBACK");
+        }
+
+        HealthSnapshot snapshot = sampler.readiness();
+        assertEquals(HealthSnapshot.DOWN, snapshot.getStatus());
+        List<String> problems = snapshot.getProblems();
+        assertEquals(3, problems.size(), problems::toString);
+        assertTrue(problems.get(0).startsWith("Write lock unavailable"));
+        assertTrue(problems.get(1).contains("free on the database volume"));
+        assertTrue(problems.get(2).startsWith("Write-behind queue holds 9500"));
+
+        // The next sample clears the problems
+        when(writeQueue.getQueued()).thenReturn(0);
+        properties.setMinFreeDisk(DataSize.ofBytes(0));
+        sampler.sample();
+        assertEquals(HealthSnapshot.UP, sampler.readiness().getStatus());
+    }
+
+    @Test
+    void testReadiness_FoldsInWarmUpShutdownAndStaleness() {
+        sampler.sample();
+
+        when(warmUp.isFinished()).thenReturn(false);
+        assertEquals(List.of("Warming up"), sampler.readiness().getProblems());
+        when(warmUp.isFinished()).thenReturn(true);
+
+        when(availability.getReadinessState()).thenReturn(ReadinessState.REFUSING_TRAFFIC);
+        assertEquals(List.of("Shutting down"), sampler.readiness().getProblems());
+        // The actuator indicator leaves shutdown to the readinessState indicator
+        assertEquals(HealthSnapshot.UP, sampler.health().getStatus().getCode());
+        when(availability.getReadinessState()).thenReturn(ReadinessState.ACCEPTING_TRAFFIC);
+
+        properties.setStaleAfter(Duration.ZERO);
+        HealthSnapshot stale = sampler.readiness();
+        assertEquals(HealthSnapshot.DOWN, stale.getStatus());
+        assertTrue(stale.getProblems().get(0).startsWith("Health sample is older than"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.ColumnarProperties;
+import com.geoscience.sampleapi.config.PartitionProperties;
+import com.geoscience.sampleapi.dto.SampleFilter;
+import com.geoscience.sampleapi.dto.SampleFilterResponse;
+import com.geoscience.sampleapi.dto.SampleStatsResponse;
+import com.geoscience.sampleapi.model.GeologicalSample.SampleType;
+import com.geoscience.sampleapi.partition.PartitionRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class PartitionedSampleAnalyticsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HikariDataSource main;
+    private JdbcTemplate jdbcTemplate;
+    private SamplePartitions partitions;
+    private PartitionedSampleAnalytics analytics;
+
+    @BeforeEach
+    void setUp() {
+        main = new HikariDataSource();
+        main.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("samples.db"));
+        main.setDriverClassName("org.sqlite.JDBC");
+        PartitionProperties properties = new PartitionProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(tempDir.resolve("partitions").toString());
+        PartitionRoutingDataSource routing = new PartitionRoutingDataSource(main);
+        jdbcTemplate = new JdbcTemplate(routing);
+        partitions = spy(new SamplePartitions(properties, routing, new DataSourceTransactionManager(routing),
+                new MockEnvironment()));
+        analytics = new PartitionedSampleAnalytics(partitions, jdbcTemplate, new ColumnarProperties());
+
+        insert("year-2023", new UUID(1, 0), SampleType.ROCK, LocalDate.of(2023, 3, 1), 10.0, 20.0, "Dr. Smith", false);
+        insert("year-2023", new UUID(2, 0), SampleType.MINERAL, LocalDate.of(2023, 9, 1), null, null, "Dr. Jones", false);
+        insert("year-2024", new UUID(-1, 0), SampleType.ROCK, LocalDate.of(2024, 2, 1), -5.0, 30.0, "Dr. Smith", false);
+        insert("year-2024", new UUID(3, 0), SampleType.SOIL, LocalDate.of(2024, 11, 1), 20.0, -40.0, "Dr. Smith", false);
+        insert("year-2024", new UUID(4, 0), SampleType.SOIL, LocalDate.of(2024, 12, 1), 80.0, 80.0, "Dr. Jones", true);
+        insert("year-2025", new UUID(5, 0), SampleType.ROCK, LocalDate.of(2025, 1, 1), 1.0, 1.0, "Dr. Jones", false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        partitions.shutdown();
+        main.close();
+    }
+
+    @Test
+    void testStats_MergesPrunedPartitions() {
+        SampleFilter filter = SampleFilter.builder().collectedFrom(LocalDate.of(2023, 6, 1))
+                .collectedTo(LocalDate.of(2024, 12, 31)).build();
+
+        SampleStatsResponse stats = analytics.stats(filter, SampleStatsResponse.Interval.YEAR, 2);
+
+        // year-2025 cannot hold a match and is not queried
+        verify(partitions).readAll(eq(List.of("year-2023", "year-2024")), any());
+        assertEquals(3, stats.getTotal());
+        assertEquals(1L, stats.getByType().get(SampleType.ROCK));
+        assertEquals(1L, stats.getByType().get(SampleType.MINERAL));
+        assertEquals(1L, stats.getByType().get(SampleType.SOIL));
+        assertEquals(2, stats.getLocated());
+        assertEquals(-5.0, stats.getMinLatitude());
+        assertEquals(20.0, stats.getMaxLatitude());
+        assertEquals(-40.0, stats.getMinLongitude());
+        assertEquals(30.0, stats.getMaxLongitude());
+        assertEquals(LocalDate.of(2023, 9, 1), stats.getEarliestCollectionDate());
+        assertEquals(LocalDate.of(2024, 11, 1), stats.getLatestCollectionDate());
+        assertEquals(List.of(new SampleStatsResponse.Bucket(LocalDate.of(2023, 1, 1), 1),
+                new SampleStatsResponse.Bucket(LocalDate.of(2024, 1, 1), 2)), stats.getHistogram());
+        assertEquals(List.of(new SampleStatsResponse.ValueCount("Dr. Smith", 2),
+                new SampleStatsResponse.ValueCount("Dr. Jones", 1)), stats.getTopCollectors());
+    }
+
+    @Test
+    void testFilter_MergesPagesInIdOrder() {
+        SampleFilterResponse page = analytics.filter(new SampleFilter(), 1, 3);
+
+        verify(partitions).readAll(eq(List.of("year-2023", "year-2024", "year-2025")), any());
+        assertEquals(5, page.getTotal());
+        // IDs compare as unsigned bytes, so 0xff... comes last
+        assertEquals(List.of(new UUID(2, 0), new UUID(3, 0), new UUID(5, 0)),
+                page.getSamples().stream().map(SampleFilterResponse.Row::getId).toList());
+        assertEquals(List.of(new UUID(-1, 0)),
+                analytics.filter(new SampleFilter(), 4, 3).getSamples().stream().map(SampleFilterResponse.Row::getId).toList());
+    }
+
+    private void insert(String partition, UUID id, SampleType type, LocalDate collectionDate, Double latitude,
+                        Double longitude, String collector, boolean deleted) {
+        Timestamp created = Timestamp.valueOf(LocalDateTime.of(2025, 3, 1, 10, 0));
+        partitions.write(partition, () -> jdbcTemplate.update("INSERT INTO samples (id, sample_identifier, sample_name, "
+                        + "sample_type, collection_date, latitude, longitude, collector_name, created_at, updated_at, "
+                        + "deleted_at) VALUES (?, ?, 'x', ?, ?, ?, ?, ?, ?, ?, ?)",
+                ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array(),
+                "S-" + id, type.name(), Date.valueOf(collectionDate), latitude, longitude, collector, created, created,
+                deleted ? created : null));
+    }
+}
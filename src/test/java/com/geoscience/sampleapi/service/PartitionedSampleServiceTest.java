@@ -0,0 +1,339 @@
+package com.geoscience.sampleapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.geoscience.sampleapi.config.PartitionProperties;
+import com.geoscience.sampleapi.config.SpatialProperties;
+import com.geoscience.sampleapi.config.SyncProperties;
+import com.geoscience.sampleapi.dto.SampleBulkPatchResponse;
+import com.geoscience.sampleapi.dto.SampleRequest;
+import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.exception.SampleNotFoundException;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import com.geoscience.sampleapi.partition.PartitionKey;
+import com.geoscience.sampleapi.repository.SampleRepository;
+import com.geoscience.sampleapi.repository.SampleRevisionRepository;
+import com.geoscience.sampleapi.repository.SampleTombstoneRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs {@link PartitionedSampleService} against partitions simulated by a
+ * {@link SamplePartitions} mock: work for a partition runs on the calling
+ * thread with {@link #current} set to its name, and the repository mocks
+ * answer according to it.
+ */
+class PartitionedSampleServiceTest {
+
+    private static final UUID ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private SampleRepository sampleRepository;
+    private SampleRevisionRepository revisionRepository;
+    private SampleHistoryService historyService;
+    private SamplePartitions partitions;
+    private PartitionProperties properties;
+    private PartitionedSampleService service;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<String> failedIn = new ArrayList<>();
+    private String current;
+
+    @BeforeEach
+    void setUp() {
+        sampleRepository = mock(SampleRepository.class);
+        revisionRepository = mock(SampleRevisionRepository.class);
+        historyService = mock(SampleHistoryService.class);
+        partitions = mock(SamplePartitions.class);
+        properties = new PartitionProperties();
+        properties.setEnabled(true);
+        service = new PartitionedSampleService(sampleRepository, mock(SampleTombstoneRepository.class), historyService,
+                mock(StorageInventoryService.class), new SpatialProperties(), new SyncProperties(),
+                mock(ApplicationEventPublisher.class), objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), partitions, properties, revisionRepository);
+
+        names.addAll(List.of("year-2023", "year-2024"));
+        when(partitions.names()).thenAnswer(invocation -> List.copyOf(names));
+        when(partitions.partitionOf(any(), any(), any())).thenAnswer(invocation -> properties.getKey()
+                .partitionOf(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2),
+                        properties.getGridDegrees()));
+        when(partitions.read(anyString(), any())).thenAnswer(invocation ->
+                in(invocation.getArgument(0), invocation.getArgument(1)));
+        when(partitions.write(anyString(), any())).thenAnswer(invocation ->
+                in(invocation.getArgument(0), invocation.getArgument(1)));
+        when(partitions.readAll(anyCollection(), any())).thenAnswer(invocation -> {
+            Supplier<?> work = invocation.getArgument(1);
+            List<Object> results = new ArrayList<>();
+            for (String partition : invocation.<Collection<String>>getArgument(0)) {
+                results.add(in(partition, work));
+            }
+            return results;
+        });
+        when(partitions.writeAll(anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> results = new LinkedHashMap<>();
+            invocation.<Map<String, Supplier<?>>>getArgument(0)
+                    .forEach((partition, work) -> results.put(partition, in(partition, work)));
+            return results;
+        });
+        when(sampleRepository.findIncludingDeleted(any())).thenReturn(Optional.empty());
+        when(revisionRepository.findLatestRevision(any())).thenReturn(null);
+        when(sampleRepository.save(any())).thenAnswer(invocation -> {
+            GeologicalSample sample = invocation.getArgument(0);
+            if (sample.getId() == null) {
+                sample.setId(UUID.randomUUID());
+            }
+            return sample;
+        });
+    }
+
+    @Test
+    void testGetAllSamples_MergesPartitionPagesInRequestedOrder() {
+        Map<String, List<GeologicalSample>> byPartition = Map.of(
+                "year-2023", List.of(sample(new UUID(1, 0), "Quartz", "year-2023"), sample(new UUID(2, 0), "Gneiss", "year-2023")),
+                "year-2024", List.of(sample(new UUID(3, 0), "Shale", "year-2024"), sample(new UUID(4, 0), "Basalt", "year-2024"),
+                        sample(new UUID(5, 0), "Andesite", "year-2024")));
+        List<Pageable> requested = new ArrayList<>();
+        when(sampleRepository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(0);
+            requested.add(pageable);
+            List<GeologicalSample> rows = byPartition.get(current);
+            return new PageImpl<>(rows.subList(0, Math.min(rows.size(), pageable.getPageSize())), pageable, rows.size());
+        });
+
+        Page<SampleResponse> page = service.getAllSamples(PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "sampleName")));
+
+        // Each partition returns its first offset + size rows, ties broken by ID
+        Sort sort = Sort.by(Sort.Direction.DESC, "sampleName").and(Sort.by("id"));
+        assertEquals(List.of(PageRequest.of(0, 4, sort), PageRequest.of(0, 4, sort)), requested);
+        assertEquals(5, page.getTotalElements());
+        assertEquals(List.of("Gneiss", "Basalt"), page.getContent().stream().map(SampleResponse::getSampleName).toList());
+    }
+
+    @Test
+    void testComparator_MatchesSqliteOrder() {
+        SampleResponse unnamed = SampleResponse.builder().id(new UUID(-1, 0)).sampleType(GeologicalSample.SampleType.ROCK).build();
+        SampleResponse named = SampleResponse.builder().id(new UUID(1, 0)).locationName("Ridge")
+                .sampleType(GeologicalSample.SampleType.MINERAL).build();
+
+        // Nulls sort first, and last when descending
+        assertTrue(PartitionedSampleService.comparator(Sort.by("locationName")).compare(unnamed, named) < 0);
+        assertTrue(PartitionedSampleService.comparator(Sort.by(Sort.Direction.DESC, "locationName")).compare(unnamed, named) > 0);
+        // Enums by name (MINERAL < ROCK), not by declaration order
+        assertTrue(PartitionedSampleService.comparator(Sort.by("sampleType")).compare(named, unnamed) < 0);
+        // IDs as unsigned bytes: 0xff... sorts after 0x00...
+        assertTrue(PartitionedSampleService.comparator(Sort.by("id")).compare(unnamed, named) > 0);
+        // Later orders only break ties
+        assertTrue(PartitionedSampleService.comparator(Sort.by("description", "id")).compare(named, unnamed) < 0);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PartitionedSampleService.comparator(Sort.by(Sort.Order.asc("sampleName").ignoreCase())));
+        assertThrows(IllegalArgumentException.class, () -> PartitionedSampleService.comparator(Sort.by("storagePath")));
+    }
+
+    @Test
+    void testCreateSample_RejectsIdentifierHeldByAnotherPartition() {
+        when(sampleRepository.findExistingIdentifiers(anyCollection())).thenAnswer(invocation ->
+                current.equals("year-2023") ? List.of("GS-1") : List.of());
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> service.createSample(request("GS-1", LocalDate.of(2024, 5, 1))));
+
+        assertEquals("Sample identifier already exists: GS-1", error.getMessage());
+        verify(partitions, never()).write(anyString(), any());
+    }
+
+    @Test
+    void testCreateSample_ReservesIdentifierUntilWriteCompletes() {
+        when(sampleRepository.findExistingIdentifiers(anyCollection())).thenReturn(List.of());
+        List<Exception> concurrent = new ArrayList<>();
+        doAnswer(invocation -> {
+            // A second write of the same identifier, to another partition, while the first is in progress
+            if (concurrent.isEmpty()) {
+                concurrent.add(assertThrows(IllegalArgumentException.class,
+                        () -> service.createSample(request("GS-1", LocalDate.of(2023, 5, 1)))));
+            }
+            GeologicalSample sample = invocation.getArgument(0);
+            sample.setId(UUID.randomUUID());
+            return sample;
+        }).when(sampleRepository).save(any());
+
+        service.createSample(request("GS-1", LocalDate.of(2024, 5, 1)));
+
+        assertEquals(1, concurrent.size());
+        verify(partitions, times(1)).write(eq("year-2024"), any());
+        // The reservation is released afterwards
+        service.createSample(request("GS-1", LocalDate.of(2023, 5, 1)));
+        verify(partitions).write(eq("year-2023"), any());
+    }
+
+    @Test
+    void testUpdateSample_KeepsOwnIdentifierButNotAnotherSamples() {
+        GeologicalSample stored = sample(ID, "Granite", "year-2024");
+        stubStoredIn("year-2024", stored);
+        when(sampleRepository.findBySampleIdentifier("GS-1")).thenAnswer(invocation ->
+                current.equals("year-2024") ? Optional.of(stored) : Optional.empty());
+        when(sampleRepository.findBySampleIdentifier("GS-2")).thenAnswer(invocation ->
+                current.equals("year-2023") ? Optional.of(sample(new UUID(9, 9), "Other", "year-2023")) : Optional.empty());
+
+        assertEquals("GS-1", service.updateSample(ID, request("GS-1", LocalDate.of(2024, 6, 1))).getSampleIdentifier());
+        assertThrows(IllegalArgumentException.class, () -> service.updateSample(ID, request("GS-2", LocalDate.of(2024, 6, 1))));
+        verify(partitions, times(1)).write(eq("year-2024"), any());
+    }
+
+    @Test
+    void testLocate_FindsDeletedSamplesAndSamplesWithOnlyHistory() {
+        LocalDateTime asOf = LocalDateTime.of(2024, 1, 1, 0, 0);
+        GeologicalSample deleted = sample(ID, "Granite", "year-2024");
+        deleted.setDeletedAt(asOf);
+        when(sampleRepository.findIncludingDeleted(ID)).thenAnswer(invocation ->
+                current.equals("year-2024") ? Optional.of(deleted) : Optional.empty());
+        UUID purged = new UUID(7, 7);
+        when(revisionRepository.findLatestRevision(purged)).thenAnswer(invocation ->
+                current.equals("year-2023") ? 3 : null);
+
+        service.getHistory(ID, 10);
+        service.getSampleAsOf(purged, asOf);
+
+        verify(partitions).read(eq("year-2024"), any());
+        verify(historyService).getHistory(ID, 10);
+        verify(partitions).read(eq("year-2023"), any());
+        verify(historyService).getSampleAsOf(purged, asOf);
+        assertThrows(SampleNotFoundException.class, () -> service.getHistory(new UUID(8, 8), 10));
+    }
+
+    @Test
+    void testUpdateSample_RejectsPartitionChange() {
+        stubStoredIn("year-2024", sample(ID, "Granite", "year-2024"));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> service.updateSample(ID, request("GS-1", LocalDate.of(2023, 6, 1))));
+
+        assertEquals("Update would move sample " + ID + " to another partition", error.getMessage());
+        verify(partitions, never()).write(anyString(), any());
+    }
+
+    @Test
+    void testPatchSample_RejectsPartitionChangeInsideTransaction() throws Exception {
+        stubStoredIn("year-2024", sample(ID, "Granite", "year-2024"));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> service.patchSample(ID, objectMapper.readTree("{\"collectionDate\": \"2023-06-01\"}")));
+
+        assertEquals("Patch would move sample " + ID + " to another partition", error.getMessage());
+        // Thrown from the partition's write, which rolls the patch back
+        assertEquals(List.of("year-2024"), failedIn);
+        verify(sampleRepository).save(any());
+
+        // Nothing is rolled back here, so start again from the stored state
+        stubStoredIn("year-2024", sample(ID, "Granite", "year-2024"));
+        assertEquals("Gabbro", service.patchSample(ID, objectMapper.readTree("{\"sampleName\": \"Gabbro\"}")).getSampleName());
+    }
+
+    @Test
+    void testPatchSamples_RejectsPartitionKeyFields() throws Exception {
+        JsonNode datePatch = objectMapper.readTree("{\"collectionDate\": \"2023-06-01\"}");
+        assertThrows(IllegalArgumentException.class, () -> service.patchSamples(List.of(ID), datePatch));
+
+        properties.setKey(PartitionKey.GRID_CELL);
+        JsonNode positionPatch = objectMapper.readTree("{\"latitude\": 1.0, \"longitude\": 2.0}");
+        assertThrows(IllegalArgumentException.class, () -> service.patchSamples(List.of(ID), positionPatch));
+        verify(partitions, never()).writeAll(anyMap());
+
+        when(sampleRepository.findValues(anyCollection(), anyList())).thenReturn(Map.of());
+        when(sampleRepository.updateAll(anyCollection(), anyMap(), any())).thenAnswer(invocation ->
+                current.equals("year-2023") ? 2 : 1);
+        SampleBulkPatchResponse response = service.patchSamples(List.of(ID, new UUID(1, 1), new UUID(2, 2), ID),
+                datePatch);
+        assertEquals(3, response.getRequested());
+        assertEquals(3, response.getUpdated());
+        verify(sampleRepository, times(2)).updateAll(anyCollection(), anyMap(), any());
+    }
+
+    @Test
+    void testFindNearby_OnlyQueriesPartitionsThatMayHoldMatches() {
+        properties.setKey(PartitionKey.GRID_CELL);
+        names.clear();
+        names.addAll(List.of("cell-10-0-0", "cell-10-9-17", "cell-10-9-18", "cell-none"));
+        when(partitions.prune(any(), any(), anyList())).thenAnswer(invocation -> names.stream()
+                .filter(name -> PartitionKey.mayContain(name, invocation.getArgument(0), invocation.getArgument(1),
+                        invocation.getArgument(2)))
+                .toList());
+        when(sampleRepository.findSpatialCandidates(anyLong(), anyLong())).thenReturn(List.of());
+        when(sampleRepository.findAllById(anyCollection())).thenReturn(List.of());
+
+        assertEquals(List.of(), service.findNearby(5.0, 5.0, 1000, 10));
+
+        verify(partitions).readAll(eq(List.of("cell-10-9-18")), any());
+    }
+
+    private <T> T in(String partition, Supplier<T> work) {
+        String previous = current;
+        current = partition;
+        try {
+            return work.get();
+        } catch (RuntimeException e) {
+            failedIn.add(partition);
+            throw e;
+        } finally {
+            current = previous;
+        }
+    }
+
+    private void stubStoredIn(String partition, GeologicalSample sample) {
+        when(sampleRepository.findIncludingDeleted(sample.getId())).thenAnswer(invocation ->
+                partition.equals(current) ? Optional.of(sample) : Optional.empty());
+        when(sampleRepository.findById(sample.getId())).thenAnswer(invocation ->
+                partition.equals(current) ? Optional.of(sample) : Optional.empty());
+    }
+
+    private static GeologicalSample sample(UUID id, String name, String partition) {
+        return GeologicalSample.builder()
+                .id(id)
+                .sampleIdentifier("GS-1")
+                .sampleName(name)
+                .sampleType(GeologicalSample.SampleType.ROCK)
+                .collectionDate(LocalDate.of(Integer.parseInt(partition.substring("year-".length())), 6, 1))
+                .collectorName("Dr. Jane Smith")
+                .build();
+    }
+
+    private static SampleRequest request(String identifier, LocalDate collectionDate) {
+        return SampleRequest.builder()
+                .sampleIdentifier(identifier)
+                .sampleName("Granite")
+                .sampleType(GeologicalSample.SampleType.ROCK)
+                .collectionDate(collectionDate)
+                .collectorName("Dr. Jane Smith")
+                .build();
+    }
+}
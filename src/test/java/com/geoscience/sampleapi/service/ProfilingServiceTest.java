@@ -0,0 +1,123 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.ProfilingProperties;
+import com.geoscience.sampleapi.dto.RecordingResponse;
+import com.geoscience.sampleapi.exception.ResourceNotFoundException;
+import com.geoscience.sampleapi.profiling.ProfilingMessageConverter;
+import com.geoscience.sampleapi.profiling.SampleMappingEvent;
+import com.geoscience.sampleapi.profiling.SampleOperationEvent;
+import com.geoscience.sampleapi.profiling.SerializationEvent;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfilingServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ProfilingService profilingService;
+
+    @BeforeEach
+    void setUp() {
+        ProfilingProperties properties = new ProfilingProperties();
+        properties.setDirectory(tempDir.toString());
+        properties.setRetain(2);
+        profilingService = new ProfilingService(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        profilingService.list().forEach(recording -> profilingService.delete(recording.getId()));
+    }
+
+    @Test
+    void testRecording_CapturesSampleEvents() throws Exception {
+        RecordingResponse started = profilingService.start(Duration.ofMinutes(1), null);
+        assertEquals("RUNNING", started.getState());
+        assertThrows(IllegalStateException.class, () -> profilingService.file(started.getId()));
+
+        SampleOperationEvent.start("getAllSamples").finish(20);
+        SampleMappingEvent.start(SampleMappingEvent.TO_RESPONSE).finish(20);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        new ProfilingMessageConverter(new MappingJackson2HttpMessageConverter())
+                .write(Map.of("name", "Basalt"), MediaType.APPLICATION_JSON, output);
+
+        RecordingResponse stopped = profilingService.stop(started.getId());
+        assertEquals("STOPPED", stopped.getState());
+        assertTrue(stopped.getSizeBytes() > 0);
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(profilingService.file(started.getId()));
+        RecordedEvent operation = only(events, SampleOperationEvent.NAME);
+        assertEquals("getAllSamples", operation.getString("operation"));
+        assertEquals(20, operation.getInt("rows"));
+        assertEquals("completed", operation.getString("outcome"));
+        assertEquals(20, only(events, SampleMappingEvent.NAME).getInt("rows"));
+        RecordedEvent serialization = only(events, SerializationEvent.NAME);
+        assertEquals("write", serialization.getString("direction"));
+        assertEquals(output.getBodyAsBytes().length, serialization.getLong("bytes"));
+    }
+
+    @Test
+    void testOperationEvent_CommitsWhenTransactionCompletes() throws Exception {
+        RecordingResponse started = profilingService.start(null, "profile");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            SampleOperationEvent.start("deleteSample");
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        profilingService.stop(started.getId());
+
+        RecordedEvent operation = only(RecordingFile.readAllEvents(profilingService.file(started.getId())),
+                SampleOperationEvent.NAME);
+        assertEquals("deleteSample", operation.getString("operation"));
+        assertEquals("rolled back", operation.getString("outcome"));
+    }
+
+    @Test
+    void testStart_RejectsInvalidRequestsAndKeepsRetainedRecordings() {
+        assertThrows(IllegalArgumentException.class, () -> profilingService.start(Duration.ofHours(1), null));
+        assertThrows(IllegalArgumentException.class, () -> profilingService.start(Duration.ZERO, null));
+        assertThrows(IllegalArgumentException.class, () -> profilingService.start(null, "verbose"));
+        assertThrows(ResourceNotFoundException.class, () -> profilingService.stop(-1));
+
+        long first = profilingService.start(null, null).getId();
+        assertThrows(IllegalStateException.class, () -> profilingService.start(null, null));
+        profilingService.stop(first);
+        Path firstFile = profilingService.file(first);
+        long second = profilingService.start(null, null).getId();
+        profilingService.stop(second);
+        long third = profilingService.start(null, null).getId();
+
+        List<RecordingResponse> recordings = profilingService.list();
+        assertEquals(List.of(third, second), recordings.stream().map(RecordingResponse::getId).toList());
+        assertFalse(Files.exists(firstFile));
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,171 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.AnalyticsProperties;
+import com.geoscience.sampleapi.dto.DensityResponse;
+import com.geoscience.sampleapi.dto.NearestNeighborRequest;
+import com.geoscience.sampleapi.dto.NearestNeighborResult;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import com.geoscience.sampleapi.spatial.SpatialKeys;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.sqlite.SQLiteDataSource;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleAnalyticsServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private AnalyticsProperties properties;
+    private SampleAnalyticsService analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + tempDir.resolve("samples.db"));
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // A row of rocks along the equator, one mineral in between, and
+        // samples that must be ignored: deleted, and without coordinates
+        for (int i = 0; i < 10; i++) {
+            insert(id(i), GeologicalSample.SampleType.ROCK, 0.0, i * 0.1, false);
+        }
+        insert(id(100), GeologicalSample.SampleType.MINERAL, 0.0, 0.45, false);
+        insert(id(101), GeologicalSample.SampleType.MINERAL, 0.0, 0.0, true);
+        insert(id(102), GeologicalSample.SampleType.SOIL, null, null, false);
+
+        properties = new AnalyticsProperties();
+        properties.setChunkSize(2);
+        analyticsService = new SampleAnalyticsService(jdbcTemplate, properties);
+    }
+
+    @Test
+    void testFindNearest_StreamsChunksInRequestOrder() {
+        NearestNeighborRequest request = NearestNeighborRequest.builder()
+                .points(List.of(point(0.0, 0.0), point(0.0, 0.91), point(0.0, 0.44)))
+                .k(2)
+                .build();
+
+        List<NearestNeighborResult> results = drain(analyticsService.findNearest(request));
+
+        assertEquals(3, results.size());
+        assertEquals(List.of(0, 1, 2), results.stream().map(NearestNeighborResult::getIndex).toList());
+        assertEquals(List.of(id(0), id(1)), neighborIds(results.get(0)));
+        assertEquals(0.0, results.get(0).getNeighbors().get(0).getDistanceMeters(), 0.01);
+        assertEquals(List.of(id(9), id(8)), neighborIds(results.get(1)));
+        assertEquals(List.of(id(100), id(4)), neighborIds(results.get(2)));
+        assertEquals(1112, results.get(2).getNeighbors().get(0).getDistanceMeters(), 1);
+    }
+
+    @Test
+    void testFindNearest_FiltersByTypeAndDistance() {
+        NearestNeighborRequest request = NearestNeighborRequest.builder()
+                .points(List.of(point(0.0, 0.0), point(0.0, 0.5)))
+                .k(3)
+                .sampleType(GeologicalSample.SampleType.MINERAL)
+                .maxDistanceMeters(10_000.0)
+                .build();
+
+        List<NearestNeighborResult> results = drain(analyticsService.findNearest(request));
+
+        // The deleted mineral at (0, 0) is not found, the live one is 50 km away
+        assertTrue(results.get(0).getNeighbors().isEmpty());
+        assertEquals(List.of(id(100)), neighborIds(results.get(1)));
+    }
+
+    @Test
+    void testFindNearest_RejectsInvalidRequests() {
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.findNearest(
+                NearestNeighborRequest.builder().points(List.of()).build()));
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.findNearest(
+                NearestNeighborRequest.builder().points(List.of(point(0.0, 0.0))).k(0).build()));
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.findNearest(
+                NearestNeighborRequest.builder().points(List.of(point(95.0, 0.0))).build()));
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.findNearest(
+                NearestNeighborRequest.builder().points(List.of(point(null, 0.0))).build()));
+    }
+
+    @Test
+    void testDensity_CountsPerCell() {
+        DensityResponse grid = analyticsService.density(0.5, null, -1.0, 1.0, -1.0, 1.0);
+
+        assertEquals(11, grid.getTotal());
+        assertEquals(2, grid.getCells().size());
+        DensityResponse.Cell first = grid.getCells().get(0);
+        assertEquals(0.0, first.getLatitude());
+        assertEquals(0.0, first.getLongitude());
+        assertEquals(6, first.getCount());
+        assertEquals(5, grid.getCells().get(1).getCount());
+
+        DensityResponse minerals = analyticsService.density(0.5, GeologicalSample.SampleType.MINERAL, -1.0, 1.0, -1.0, 1.0);
+        assertEquals(1, minerals.getTotal());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.density(0.0001, null, -90, 90, -180, 180));
+    }
+
+    @Test
+    void testSnapshot_RebuiltOnlyWhenStale() {
+        NearestNeighborRequest request = NearestNeighborRequest.builder().points(List.of(point(10.0, 10.0))).k(1).build();
+        assertEquals(List.of(id(9)), neighborIds(drain(analyticsService.findNearest(request)).get(0)));
+
+        insert(id(200), GeologicalSample.SampleType.ROCK, 10.0, 10.0, false);
+        analyticsService.refreshIfStale();
+        assertEquals(List.of(id(9)), neighborIds(drain(analyticsService.findNearest(request)).get(0)));
+
+        analyticsService.onSampleChanged(new SampleChangedEvent(SampleChangedEvent.Kind.CREATED, List.of(id(200))));
+        analyticsService.refreshIfStale();
+        assertEquals(List.of(id(200)), neighborIds(drain(analyticsService.findNearest(request)).get(0)));
+    }
+
+    private void insert(UUID id, GeologicalSample.SampleType type, Double latitude, Double longitude, boolean deleted) {
+        Object[] unit = latitude == null ? new Object[3]
+                : Arrays.stream(SpatialKeys.unitVector(latitude, longitude)).boxed().toArray();
+        Timestamp created = Timestamp.valueOf(LocalDateTime.of(2024, 1, 15, 10, 0));
+        jdbcTemplate.update("INSERT INTO samples (id, sample_identifier, sample_name, sample_type, collection_date, "
+                        + "latitude, longitude, collector_name, unit_x, unit_y, unit_z, created_at, updated_at, deleted_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                bytes(id), "S-" + id, "Sample " + id, type.name(), Date.valueOf(LocalDate.of(2024, 1, 15)),
+                latitude, longitude, "Dr. Smith", unit[0], unit[1], unit[2], created, created, deleted ? created : null);
+    }
+
+    private static UUID id(int n) {
+        return new UUID(0, n);
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+
+    private static NearestNeighborRequest.Point point(Double latitude, Double longitude) {
+        return new NearestNeighborRequest.Point(latitude, longitude);
+    }
+
+    private static List<NearestNeighborResult> drain(Iterator<List<NearestNeighborResult>> chunks) {
+        List<NearestNeighborResult> results = new ArrayList<>();
+        chunks.forEachRemaining(results::addAll);
+        return results;
+    }
+
+    private static List<UUID> neighborIds(NearestNeighborResult result) {
+        return result.getNeighbors().stream().map(NearestNeighborResult.Neighbor::getId).toList();
+    }
+}
@@ -0,0 +1,157 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.ColumnarProperties;
+import com.geoscience.sampleapi.dto.SampleFilter;
+import com.geoscience.sampleapi.dto.SampleFilterResponse;
+import com.geoscience.sampleapi.dto.SampleStatsResponse;
+import com.geoscience.sampleapi.exception.FeatureDisabledException;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.sqlite.SQLiteDataSource;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleColumnStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private ColumnarProperties properties;
+    private SampleColumnStore columnStore;
+
+    @BeforeEach
+    void setUp() {
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + tempDir.resolve("samples.db"));
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        insert(id(1), GeologicalSample.SampleType.ROCK, LocalDate.of(2023, 3, 10), 45.0, 7.0,
+                "Dr. Smith", "Alps", "Granite with quartz");
+        insert(id(2), GeologicalSample.SampleType.ROCK, LocalDate.of(2023, 8, 1), 46.0, 8.0,
+                "Dr. Smith", "Alps", "Gneiss");
+        insert(id(3), GeologicalSample.SampleType.MINERAL, LocalDate.of(2024, 1, 5), null, null,
+                "Dr. Jones", null, "Loose QUARTZ crystal");
+        insert(id(4), GeologicalSample.SampleType.SOIL, LocalDate.of(2024, 6, 30), -33.0, 151.0,
+                "Dr. Jones", "Sydney", null);
+        jdbcTemplate.update("UPDATE samples SET deleted_at = 1 WHERE id = ?", bytes(id(4)));
+
+        properties = new ColumnarProperties();
+        properties.setEnabled(true);
+        columnStore = new SampleColumnStore(jdbcTemplate, properties);
+    }
+
+    @Test
+    void testStats_SummarisesMatchingSamples() {
+        SampleStatsResponse stats = columnStore.stats(new SampleFilter(), SampleStatsResponse.Interval.YEAR, 5);
+
+        assertEquals(3, stats.getTotal());
+        assertEquals(2L, stats.getByType().get(GeologicalSample.SampleType.ROCK));
+        assertEquals(0L, stats.getByType().get(GeologicalSample.SampleType.SOIL));
+        assertEquals(LocalDate.of(2023, 3, 10), stats.getEarliestCollectionDate());
+        assertEquals(LocalDate.of(2024, 1, 5), stats.getLatestCollectionDate());
+        assertEquals(2, stats.getLocated());
+        assertEquals(45.0, stats.getMinLatitude());
+        assertEquals(8.0, stats.getMaxLongitude());
+        assertEquals(List.of(new SampleStatsResponse.ValueCount("Dr. Smith", 2),
+                new SampleStatsResponse.ValueCount("Dr. Jones", 1)), stats.getTopCollectors());
+        assertEquals(List.of(new SampleStatsResponse.ValueCount("Alps", 2)), stats.getTopLocations());
+        assertEquals(List.of(new SampleStatsResponse.Bucket(LocalDate.of(2023, 1, 1), 2),
+                new SampleStatsResponse.Bucket(LocalDate.of(2024, 1, 1), 1)), stats.getHistogram());
+        assertNotNull(stats.getAsOf());
+    }
+
+    @Test
+    void testFilter_CombinesCriteria() {
+        SampleFilter filter = SampleFilter.builder().text("quartz").build();
+        SampleFilterResponse page = columnStore.filter(filter, 0, 10);
+
+        assertEquals(2, page.getTotal());
+        assertEquals(List.of(id(1), id(3)), page.getSamples().stream().map(SampleFilterResponse.Row::getId).sorted().toList());
+
+        filter.setSampleTypes(List.of(GeologicalSample.SampleType.ROCK));
+        filter.setCollectedFrom(LocalDate.of(2023, 1, 1));
+        filter.setMinLat(44.0);
+        page = columnStore.filter(filter, 0, 10);
+        assertEquals(1, page.getTotal());
+        SampleFilterResponse.Row row = page.getSamples().get(0);
+        assertEquals(id(1), row.getId());
+        assertEquals(LocalDate.of(2023, 3, 10), row.getCollectionDate());
+        assertEquals("Alps", row.getLocationName());
+
+        SampleFilterResponse byCollector = columnStore.filter(SampleFilter.builder().collector("dr. smith").build(), 1, 10);
+        assertEquals(2, byCollector.getTotal());
+        assertEquals(1, byCollector.getSamples().size());
+
+        assertThrows(IllegalArgumentException.class, () -> columnStore.filter(SampleFilter.builder()
+                .collectedFrom(LocalDate.of(2024, 1, 1)).collectedTo(LocalDate.of(2023, 1, 1)).build(), 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> columnStore.filter(new SampleFilter(), 0, 5000));
+    }
+
+    @Test
+    void testChangeEvents_AppliedBeforeNextQuery() {
+        assertEquals(3, columnStore.filter(new SampleFilter(), 0, 0).getTotal());
+
+        insert(id(5), GeologicalSample.SampleType.FOSSIL, LocalDate.of(2022, 5, 5), 10.0, 10.0, "Dr. Smith", null, null);
+        jdbcTemplate.update("UPDATE samples SET sample_type = 'OTHER' WHERE id = ?", bytes(id(2)));
+        jdbcTemplate.update("UPDATE samples SET deleted_at = 1 WHERE id = ?", bytes(id(3)));
+        assertEquals(3, columnStore.filter(new SampleFilter(), 0, 0).getTotal());
+
+        columnStore.onSampleChanged(new SampleChangedEvent(SampleChangedEvent.Kind.CREATED, List.of(id(5))));
+        columnStore.onSampleChanged(new SampleChangedEvent(SampleChangedEvent.Kind.UPDATED, List.of(id(2))));
+        columnStore.onSampleChanged(new SampleChangedEvent(SampleChangedEvent.Kind.DELETED, List.of(id(3))));
+
+        SampleStatsResponse stats = columnStore.stats(null, SampleStatsResponse.Interval.MONTH, 0);
+        assertEquals(3, stats.getTotal());
+        assertEquals(1L, stats.getByType().get(GeologicalSample.SampleType.FOSSIL));
+        assertEquals(1L, stats.getByType().get(GeologicalSample.SampleType.OTHER));
+        assertEquals(0L, stats.getByType().get(GeologicalSample.SampleType.MINERAL));
+        assertEquals(LocalDate.of(2022, 5, 1), stats.getHistogram().get(0).getStart());
+
+        // A bulk change without IDs reloads everything
+        jdbcTemplate.update("UPDATE samples SET collector_name = 'Field Team'");
+        columnStore.onSampleChanged(new SampleChangedEvent(SampleChangedEvent.Kind.UPDATED, List.of()));
+        assertEquals(3, columnStore.filter(SampleFilter.builder().collector("Field Team").build(), 0, 0).getTotal());
+    }
+
+    @Test
+    void testDisabled_RejectsQueries() {
+        properties.setEnabled(false);
+
+        assertThrows(FeatureDisabledException.class, () -> columnStore.filter(new SampleFilter(), 0, 10));
+        assertThrows(FeatureDisabledException.class,
+                () -> columnStore.stats(new SampleFilter(), SampleStatsResponse.Interval.YEAR, null));
+    }
+
+    private void insert(UUID id, GeologicalSample.SampleType type, LocalDate collectionDate, Double latitude,
+                        Double longitude, String collector, String location, String description) {
+        Timestamp created = Timestamp.valueOf(LocalDateTime.of(2024, 1, 15, 10, 0));
+        jdbcTemplate.update("INSERT INTO samples (id, sample_identifier, sample_name, sample_type, collection_date, "
+                        + "latitude, longitude, collector_name, location_name, description, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                bytes(id), "S-" + id, "Sample " + id, type.name(), Date.valueOf(collectionDate), latitude, longitude,
+                collector, location, description, created, created);
+    }
+
+    private static UUID id(int n) {
+        return new UUID(0, n);
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
@@ -0,0 +1,99 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.CompactionProperties;
+import com.geoscience.sampleapi.config.SyncProperties;
+import com.geoscience.sampleapi.dto.VacuumConversionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.sqlite.SQLiteDataSource;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SampleCompactorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private CompactionProperties properties;
+    private SampleCompactor compactor;
+
+    @BeforeEach
+    void setUp() {
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + tempDir.resolve("samples.db"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE samples (id INTEGER PRIMARY KEY, notes TEXT, deleted_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE sample_tombstones (id INTEGER PRIMARY KEY, deleted_at TIMESTAMP NOT NULL)");
+
+        Timestamp longAgo = Timestamp.valueOf(LocalDateTime.now().minusDays(30));
+        Timestamp recently = Timestamp.valueOf(LocalDateTime.now().minusHours(1));
+        String notes = "x".repeat(2000);
+        for (int i = 0; i < 300; i++) {
+            // 100 live, 150 deleted long ago, 50 deleted recently
+            Timestamp deletedAt = i < 100 ? null : i < 250 ? longAgo : recently;
+            jdbcTemplate.update("INSERT INTO samples (id, notes, deleted_at) VALUES (?, ?, ?)", i, notes, deletedAt);
+        }
+        jdbcTemplate.update("INSERT INTO sample_tombstones (id, deleted_at) VALUES (1, ?), (2, ?)",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(120)), recently);
+
+        properties = new CompactionProperties();
+        properties.setBatchSize(40);
+        properties.setBatchPause(Duration.ZERO);
+        properties.setVacuumPagesPerRun(10);
+        compactor = new SampleCompactor(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                properties, new SyncProperties(), mock(SamplePartitions.class));
+    }
+
+    @Test
+    void testCompact_PurgesOnlyExpiredRowsInBatches() {
+        SampleCompactor.Result result = compactor.compact();
+
+        assertEquals(150, result.purgedSamples());
+        assertEquals(1, result.purgedTombstones());
+        assertEquals(150, jdbcTemplate.queryForObject("SELECT count(*) FROM samples", Integer.class));
+        assertEquals(50, jdbcTemplate.queryForObject("SELECT count(*) FROM samples WHERE deleted_at IS NOT NULL",
+                Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT id FROM sample_tombstones", Integer.class));
+    }
+
+    @Test
+    void testCompact_ReleasesFreePagesIncrementally() {
+        compactor.compact();
+        List<VacuumConversionResponse> conversion = compactor.convertToIncremental();
+        assertEquals(1, conversion.size());
+        assertTrue(conversion.get(0).isConverted());
+        assertTrue(conversion.get(0).getSizeAfterBytes() < conversion.get(0).getSizeBeforeBytes());
+        assertEquals(2, jdbcTemplate.queryForObject("PRAGMA auto_vacuum", Integer.class));
+        assertFalse(compactor.convertToIncremental().get(0).isConverted());
+
+        jdbcTemplate.update("DELETE FROM samples WHERE deleted_at IS NOT NULL");
+        long free = jdbcTemplate.queryForObject("PRAGMA freelist_count", Long.class);
+        assertTrue(free > properties.getVacuumPagesPerRun());
+
+        SampleCompactor.Result result = compactor.compact();
+
+        assertEquals(properties.getVacuumPagesPerRun(), result.releasedPages());
+        assertEquals(free - properties.getVacuumPagesPerRun(),
+                jdbcTemplate.queryForObject("PRAGMA freelist_count", Long.class));
+    }
+
+    @Test
+    void testCompact_NeverConvertsTheDatabase() {
+        SampleCompactor.Result result = compactor.compact();
+
+        assertEquals(0, result.releasedPages());
+        assertEquals(0, jdbcTemplate.queryForObject("PRAGMA auto_vacuum", Integer.class));
+    }
+}
@@ -0,0 +1,188 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.columnar.ArrowStreamReader;
+import com.geoscience.sampleapi.columnar.ArrowStreamReader.Message;
+import com.geoscience.sampleapi.columnar.ArrowStreamReader.Table;
+import com.geoscience.sampleapi.columnar.CompactReader;
+import com.geoscience.sampleapi.columnar.ExportFormat;
+import com.geoscience.sampleapi.config.ExportProperties;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.sqlite.SQLiteDataSource;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SampleExportServiceTest {
+
+    private static final int RECORD_BATCH = 3;
+    private static final int LATITUDE = 5;
+    // Buffer indices in a record batch (validity, offsets and data per string column)
+    private static final int COLLECTION_DATE_VALUES = 12;
+    private static final int LATITUDE_VALIDITY = 13;
+    private static final int LATITUDE_VALUES = 14;
+    private static final int CREATED_AT_VALUES = 29;
+
+    @TempDir
+    Path tempDir;
+
+    private DelegatingDataSource dataSource;
+    private SamplePartitions partitions;
+    private ExportProperties properties;
+    private SampleExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DelegatingDataSource(database("samples.db"));
+        partitions = mock(SamplePartitions.class);
+        properties = new ExportProperties();
+        properties.setBatchSize(2);
+        exportService = new SampleExportService(new JdbcTemplate(dataSource), partitions, properties);
+    }
+
+    @Test
+    void testExport_ArrowWritesLiveSamplesInBatches() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        insert(jdbcTemplate, id(1), LocalDate.of(2023, 3, 10), 45.5, false);
+        insert(jdbcTemplate, id(2), LocalDate.of(2023, 8, 1), null, false);
+        insert(jdbcTemplate, id(3), LocalDate.of(1969, 12, 31), -12.25, true);
+        insert(jdbcTemplate, id(4), LocalDate.of(2024, 1, 5), 10.0, false);
+        insert(jdbcTemplate, id(5), LocalDate.of(2024, 6, 30), -33.0, false);
+        insert(jdbcTemplate, id(6), LocalDate.of(1950, 2, 1), 0.0, false);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(5, exportService.export(ExportFormat.ARROW, out));
+
+        List<Message> batches = recordBatches(out.toByteArray());
+        assertEquals(List.of(2L, 2L, 1L), batches.stream().map(batch -> batch.header().scalar(0, 8)).toList());
+        List<String> ids = new ArrayList<>();
+        List<LocalDate> dates = new ArrayList<>();
+        List<Double> latitudes = new ArrayList<>();
+        for (Message batch : batches) {
+            Table header = batch.header();
+            ByteBuffer body = batch.body();
+            int rows = (int) header.scalar(0, 8);
+            ids.addAll(ArrowStreamReader.readStrings(header, body, 0));
+            List<long[]> buffers = header.structs(2);
+            long nulls = header.structs(1).get(LATITUDE)[1];
+            for (int row = 0; row < rows; row++) {
+                dates.add(LocalDate.ofEpochDay(body.getInt((int) buffers.get(COLLECTION_DATE_VALUES)[0] + 4 * row)));
+                boolean valid = nulls == 0
+                        || (body.get((int) buffers.get(LATITUDE_VALIDITY)[0] + row / 8) & 1 << row % 8) != 0;
+                latitudes.add(valid ? body.getDouble((int) buffers.get(LATITUDE_VALUES)[0] + 8 * row) : null);
+            }
+            long createdAt = body.getLong((int) buffers.get(CREATED_AT_VALUES)[0]);
+            assertEquals(LocalDateTime.of(2024, 3, 16, 10, 0).toInstant(ZoneOffset.UTC).toEpochMilli(), createdAt);
+        }
+
+        assertEquals(List.of(id(1), id(2), id(4), id(5), id(6)).stream().map(UUID::toString).toList(), ids);
+        assertEquals(List.of(LocalDate.of(2023, 3, 10), LocalDate.of(2023, 8, 1), LocalDate.of(2024, 1, 5),
+                LocalDate.of(2024, 6, 30), LocalDate.of(1950, 2, 1)), dates);
+        assertEquals(Arrays.asList(45.5, null, 10.0, -33.0, 0.0), latitudes);
+    }
+
+    @Test
+    void testExport_ParquetWritesRowGroupPerBatch() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int i = 1; i <= 5; i++) {
+            insert(jdbcTemplate, id(i), LocalDate.of(2024, 1, i), i % 2 == 0 ? null : (double) i, i == 3);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(4, exportService.export(ExportFormat.PARQUET, out));
+
+        Map<Integer, Object> metadata = CompactReader.readFooter(
+                ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN));
+        assertEquals(4L, metadata.get(3));
+        List<?> rowGroups = (List<?>) metadata.get(4);
+        assertEquals(List.of(2L, 2L), rowGroups.stream().map(group -> ((Map<?, ?>) group).get(3)).toList());
+    }
+
+    @Test
+    void testExport_PartitionsAreExportedInTurn() throws Exception {
+        DataSource main = dataSource.getTargetDataSource();
+        Map<String, DataSource> files = Map.of("2023", database("2023.db"), "2024", database("2024.db"));
+        insert(new JdbcTemplate(files.get("2023")), id(1), LocalDate.of(2023, 3, 10), 45.5, false);
+        insert(new JdbcTemplate(files.get("2023")), id(2), LocalDate.of(2023, 5, 1), null, true);
+        insert(new JdbcTemplate(files.get("2024")), id(3), LocalDate.of(2024, 1, 5), 10.0, false);
+        insert(new JdbcTemplate(files.get("2024")), id(4), LocalDate.of(2024, 2, 5), 11.0, false);
+        when(partitions.isEnabled()).thenReturn(true);
+        when(partitions.names()).thenReturn(List.of("2023", "2024"));
+        when(partitions.callIn(anyString(), any())).thenAnswer(invocation -> {
+            dataSource.setTargetDataSource(files.get(invocation.<String>getArgument(0)));
+            try {
+                return invocation.<Supplier<?>>getArgument(1).get();
+            } finally {
+                dataSource.setTargetDataSource(main);
+            }
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(3, exportService.export(ExportFormat.ARROW, out));
+
+        List<Message> batches = recordBatches(out.toByteArray());
+        assertEquals(List.of(2L, 1L), batches.stream().map(batch -> batch.header().scalar(0, 8)).toList());
+        List<String> ids = new ArrayList<>();
+        for (Message batch : batches) {
+            ids.addAll(ArrowStreamReader.readStrings(batch.header(), batch.body(), 0));
+        }
+        assertEquals(List.of(id(1), id(3), id(4)).stream().map(UUID::toString).toList(), ids);
+    }
+
+    private DataSource database(String fileName) {
+        SQLiteDataSource database = new SQLiteDataSource();
+        database.setUrl("jdbc:sqlite:" + tempDir.resolve(fileName));
+        Flyway.configure().dataSource(database).load().migrate();
+        return database;
+    }
+
+    private static List<Message> recordBatches(byte[] stream) {
+        return ArrowStreamReader.readStream(stream).stream()
+                .filter(message -> message.headerType() == RECORD_BATCH)
+                .toList();
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, UUID id, LocalDate collectionDate, Double latitude,
+                               boolean deleted) {
+        Timestamp created = Timestamp.valueOf(LocalDateTime.of(2024, 3, 16, 10, 0));
+        jdbcTemplate.update("INSERT INTO samples (id, sample_identifier, sample_name, sample_type, collection_date, "
+                        + "latitude, longitude, collector_name, created_at, updated_at, deleted_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                bytes(id), "S-" + id, "Sample " + id, GeologicalSample.SampleType.ROCK.name(),
+                Date.valueOf(collectionDate), latitude, latitude, "Dr. Smith", created, created,
+                deleted ? created : null);
+    }
+
+    private static UUID id(int n) {
+        return new UUID(0, n);
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
@@ -0,0 +1,192 @@
+package com.geoscience.sampleapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.geoscience.sampleapi.config.HistoryProperties;
+import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.dto.SampleRevisionResponse;
+import com.geoscience.sampleapi.exception.SampleNotFoundException;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import com.geoscience.sampleapi.model.SampleRevision;
+import com.geoscience.sampleapi.repository.SampleRepository;
+import com.geoscience.sampleapi.repository.SampleRevisionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SampleHistoryServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final List<SampleRevision> revisions = new ArrayList<>();
+    private SampleRepository sampleRepository;
+    private SampleHistoryService historyService;
+    private GeologicalSample current;
+    private final UUID id = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        sampleRepository = mock(SampleRepository.class);
+        when(sampleRepository.findById(id)).thenAnswer(invocation -> Optional.ofNullable(current));
+        when(sampleRepository.findAllById(anyIterable())).thenAnswer(invocation ->
+                current == null ? List.of() : List.of(current));
+
+        // An in-memory revision table with the repository's query semantics
+        SampleRevisionRepository revisionRepository = mock(SampleRevisionRepository.class);
+        doAnswer(invocation -> revisions.add(SampleRevision.builder()
+                .sampleId(invocation.getArgument(0))
+                .revision(invocation.getArgument(1))
+                .kind(SampleRevision.Kind.valueOf(invocation.getArgument(2)))
+                .changedAt(invocation.getArgument(3))
+                .previous(invocation.getArgument(4))
+                .snapshot(invocation.getArgument(5))
+                .build()))
+                .when(revisionRepository).append(any(), anyInt(), anyString(), any(), any(), any());
+        when(revisionRepository.findLatestRevision(id)).thenAnswer(invocation ->
+                revisions.isEmpty() ? null : revisions.get(revisions.size() - 1).getRevision());
+        when(revisionRepository.findLatestRevisions(anyCollection())).thenAnswer(invocation -> revisions.isEmpty()
+                ? List.of()
+                : List.<Object[]>of(new Object[] {id, revisions.get(revisions.size() - 1).getRevision()}));
+        when(revisionRepository.findBySampleIdOrderByRevisionDesc(eq(id), any(Limit.class))).thenAnswer(invocation ->
+                revisions.stream()
+                        .sorted(Comparator.comparingInt(SampleRevision::getRevision).reversed())
+                        .limit(invocation.<Limit>getArgument(1).max())
+                        .toList());
+        when(revisionRepository.findFirstBySampleIdAndChangedAtAfterOrderByRevision(eq(id), any())).thenAnswer(
+                invocation -> revisions.stream()
+                        .filter(revision -> revision.getChangedAt().isAfter(invocation.getArgument(1)))
+                        .findFirst());
+        when(revisionRepository.findBySampleIdAndRevisionGreaterThanEqualOrderByRevision(eq(id), anyInt(),
+                any(Limit.class))).thenAnswer(invocation -> {
+                    Limit limit = invocation.getArgument(2);
+                    return revisions.stream()
+                            .filter(revision -> revision.getRevision() >= invocation.<Integer>getArgument(1))
+                            .limit(limit.isLimited() ? limit.max() : Long.MAX_VALUE)
+                            .toList();
+                });
+
+        HistoryProperties properties = new HistoryProperties();
+        properties.setSnapshotInterval(4);
+        historyService = new SampleHistoryService(revisionRepository, sampleRepository, properties, objectMapper);
+    }
+
+    @Test
+    void testGetSampleAsOf_ReconstructsEveryRecordedState() {
+        current = sample("Granite", "Shelf A", T0);
+        historyService.recordCreated(List.of(SampleService.mapToResponse(current)));
+        List<SampleResponse> states = new ArrayList<>();
+        states.add(SampleService.mapToResponse(current));
+        for (int i = 1; i <= 10; i++) {
+            SampleResponse before = SampleService.mapToResponse(current);
+            current.setStorageLocation("Shelf " + (char) ('A' + i));
+            if (i % 3 == 0) {
+                current.setSampleName("Granite v" + i);
+            }
+            current.setUpdatedAt(T0.plusHours(i));
+            historyService.recordUpdated(before, SampleService.mapToResponse(current));
+            states.add(SampleService.mapToResponse(current));
+        }
+
+        assertEquals(11, revisions.size());
+        // Deltas hold only what changed, full states only every fourth revision
+        assertNull(revisions.get(0).getPrevious());
+        assertNull(revisions.get(0).getSnapshot());
+        assertFalse(revisions.get(1).getPrevious().contains("Granite"));
+        assertTrue(revisions.get(3).getPrevious().contains("Granite"));
+        assertEquals(List.of(4, 8), revisions.stream()
+                .filter(revision -> revision.getSnapshot() != null)
+                .map(SampleRevision::getRevision)
+                .toList());
+
+        for (int i = 0; i < states.size(); i++) {
+            assertEquals(states.get(i), historyService.getSampleAsOf(id, T0.plusHours(i).plusMinutes(30)));
+            assertEquals(states.get(i), historyService.getSampleAsOf(id, T0.plusHours(i)));
+        }
+        assertThrows(SampleNotFoundException.class, () -> historyService.getSampleAsOf(id, T0.minusSeconds(1)));
+    }
+
+    @Test
+    void testGetHistory_ListsChangesNewestFirstAndSurvivesDeletion() {
+        current = sample("Basalt", "Shelf A", T0);
+        historyService.recordCreated(List.of(SampleService.mapToResponse(current)));
+        SampleResponse before = SampleService.mapToResponse(current);
+        current.setStorageLocation("Shelf B");
+        current.setDescription(null);
+        current.setUpdatedAt(T0.plusDays(1));
+        historyService.recordUpdated(before, SampleService.mapToResponse(current));
+        // No change, no revision
+        historyService.recordUpdated(SampleService.mapToResponse(current), SampleService.mapToResponse(current));
+        historyService.recordDeleted(SampleService.mapToResponse(current), T0.plusDays(2));
+        GeologicalSample deleted = current;
+        current = null;
+
+        List<SampleRevisionResponse> history = historyService.getHistory(id, 100);
+        assertEquals(List.of(3, 2, 1), history.stream().map(SampleRevisionResponse::getRevision).toList());
+        assertEquals(SampleRevision.Kind.DELETED, history.get(0).getKind());
+        assertTrue(history.get(0).getChanges().isEmpty());
+        Map<String, SampleRevisionResponse.FieldChange> changes = history.get(1).getChanges();
+        assertEquals(List.of("description", "storageLocation"), changes.keySet().stream().sorted().toList());
+        assertEquals("Shelf A", changes.get("storageLocation").getFrom().asText());
+        assertEquals("Shelf B", changes.get("storageLocation").getTo().asText());
+        assertTrue(changes.get("description").getTo().isNull());
+        assertEquals("Basalt", history.get(2).getChanges().get("sampleName").getTo().asText());
+        assertEquals(T0.plusDays(1), history.get(1).getChangedAt());
+
+        assertEquals("Shelf A", historyService.getSampleAsOf(id, T0.plusHours(1)).getStorageLocation());
+        assertEquals(SampleService.mapToResponse(deleted), historyService.getSampleAsOf(id, T0.plusDays(1)));
+        assertThrows(SampleNotFoundException.class, () -> historyService.getSampleAsOf(id, T0.plusDays(3)));
+        assertThrows(IllegalArgumentException.class, () -> historyService.getHistory(id, 0));
+    }
+
+    @Test
+    void testRecordUpdated_BulkRecordsOnlyChangedFields() {
+        current = sample("Chalk", "Shelf A", T0);
+        current.setUpdatedAt(T0.plusDays(1));
+        LocalDateTime changedAt = T0.plusDays(2);
+        Object[] before = {"Shelf A", "Chalk", T0.plusDays(1)};
+
+        historyService.recordUpdated(Map.of(id, before), List.of("storageLocation", "sampleName", "updatedAt"),
+                Map.of("storageLocation", "Shelf Z", "sampleName", "Chalk"), changedAt);
+        current.setStorageLocation("Shelf Z");
+        current.setUpdatedAt(changedAt);
+
+        assertEquals(1, revisions.size());
+        assertEquals(1, revisions.get(0).getRevision());
+        assertFalse(revisions.get(0).getPrevious().contains("sampleName"));
+        // A sample from before the history: its earlier state is known back to its last modification
+        assertEquals("Shelf A", historyService.getSampleAsOf(id, T0.plusDays(1)).getStorageLocation());
+        assertEquals("Shelf Z", historyService.getSampleAsOf(id, changedAt).getStorageLocation());
+        assertThrows(SampleNotFoundException.class, () -> historyService.getSampleAsOf(id, T0.plusHours(1)));
+    }
+
+    private GeologicalSample sample(String name, String storageLocation, LocalDateTime createdAt) {
+        return GeologicalSample.builder()
+                .id(id)
+                .sampleIdentifier("GS-" + name)
+                .sampleName(name)
+                .sampleType(GeologicalSample.SampleType.ROCK)
+                .collectionDate(LocalDate.of(2024, 2, 1))
+                .latitude(46.5)
+                .longitude(7.9)
+                .collectorName("Dr. Jane Smith")
+                .description("Fresh surface")
+                .storageLocation(storageLocation)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build();
+    }
+}
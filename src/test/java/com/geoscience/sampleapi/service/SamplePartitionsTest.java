@@ -0,0 +1,136 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.PartitionProperties;
+import com.geoscience.sampleapi.partition.PartitionRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplePartitionsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HikariDataSource main;
+    private PartitionProperties properties;
+    private JdbcTemplate jdbcTemplate;
+    private SamplePartitions partitions;
+
+    @BeforeEach
+    void setUp() {
+        main = new HikariDataSource();
+        main.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("samples.db"));
+        main.setDriverClassName("org.sqlite.JDBC");
+        properties = new PartitionProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(tempDir.resolve("partitions").toString());
+        partitions = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        partitions.shutdown();
+        main.close();
+    }
+
+    @Test
+    void testWrite_CreatesPartitionWithSchemaAndRoutesToIt() {
+        partitions.write("year-2023", () -> insert("GS-1"));
+        partitions.write("year-2024", () -> insert("GS-2"));
+        partitions.write("year-2024", () -> insert("GS-3"));
+
+        assertEquals(List.of("year-2023", "year-2024"), partitions.names());
+        assertTrue(Files.exists(tempDir.resolve("partitions/samples-year-2024.db")));
+        assertEquals(List.of(1, 2), partitions.readAll(partitions.names(), this::count));
+        // Unbound connections still go to the main database, which has no samples table
+        assertThrows(RuntimeException.class, this::count);
+    }
+
+    @Test
+    void testWriteAll_CommitsAllPartitionsOrNone() {
+        Map<String, Supplier<Integer>> work = new LinkedHashMap<>();
+        work.put("year-2023", () -> insert("GS-1"));
+        work.put("year-2024", () -> insert("GS-2"));
+        assertEquals(Map.of("year-2023", 1, "year-2024", 1), partitions.writeAll(work));
+
+        // The duplicate identifier fails in one partition, so the other rolls back too
+        work.put("year-2023", () -> insert("GS-3"));
+        work.put("year-2024", () -> insert("GS-2"));
+        work.put("year-2025", () -> insert("GS-4"));
+        assertThrows(RuntimeException.class, () -> partitions.writeAll(work));
+        assertEquals(List.of(1, 1, 0), partitions.readAll(partitions.names(), this::count));
+    }
+
+    @Test
+    void testOpen_FindsExistingPartitions() {
+        partitions.write("cell-10-13-18", () -> insert("GS-1"));
+        partitions.shutdown();
+
+        partitions = open();
+
+        assertEquals(List.of("cell-10-13-18"), partitions.names());
+        assertEquals(1, partitions.read("cell-10-13-18", this::count));
+        assertThrows(IllegalArgumentException.class, () -> partitions.write("../escape", () -> 0));
+    }
+
+    @Test
+    void testIdOrder_MatchesSqliteOrder() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        ids.add(new UUID(-1L, 0L));
+        ids.add(new UUID(0L, -1L));
+        partitions.write("year-2024", () -> {
+            for (UUID id : ids) {
+                jdbcTemplate.update("INSERT INTO samples (id, sample_identifier, sample_name, sample_type, "
+                                + "collection_date, collector_name, created_at, updated_at) VALUES (?, ?, 'x', 'ROCK', 0, 'x', 0, 0)",
+                        ByteBuffer.allocate(16).putLong(id.getMostSignificantBits())
+                                .putLong(id.getLeastSignificantBits()).array(), id.toString());
+            }
+            return null;
+        });
+
+        List<UUID> sorted = partitions.read("year-2024", () -> jdbcTemplate.query("SELECT id FROM samples ORDER BY id",
+                (row, rowNum) -> {
+                    ByteBuffer id = ByteBuffer.wrap(row.getBytes(1));
+                    return new UUID(id.getLong(), id.getLong());
+                }));
+        assertEquals(ids.stream().sorted(SamplePartitions.ID_ORDER).toList(), sorted);
+    }
+
+    private SamplePartitions open() {
+        PartitionRoutingDataSource routing = new PartitionRoutingDataSource(main);
+        jdbcTemplate = new JdbcTemplate(routing);
+        return new SamplePartitions(properties, routing, new DataSourceTransactionManager(routing), new MockEnvironment());
+    }
+
+    private int insert(String identifier) {
+        UUID id = UUID.randomUUID();
+        return jdbcTemplate.update("INSERT INTO samples (id, sample_identifier, sample_name, sample_type, "
+                        + "collection_date, collector_name, created_at, updated_at) VALUES (?, ?, 'x', 'ROCK', 0, 'x', 0, 0)",
+                ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array(),
+                identifier);
+    }
+
+    private Integer count() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM samples", Integer.class);
+    }
+}
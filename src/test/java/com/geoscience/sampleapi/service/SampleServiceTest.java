@@ -1,29 +1,60 @@
 package com.geoscience.sampleapi.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.geoscience.sampleapi.config.SpatialProperties;
+import com.geoscience.sampleapi.config.SyncProperties;
+import com.geoscience.sampleapi.dto.NearbySampleResponse;
+import com.geoscience.sampleapi.dto.SampleBulkPatchResponse;
 import com.geoscience.sampleapi.dto.SampleRequest;
 import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.dto.StorageRelocationResponse;
+import com.geoscience.sampleapi.dto.SyncResponse;
 import com.geoscience.sampleapi.exception.SampleNotFoundException;
+import com.geoscience.sampleapi.exception.SyncTokenExpiredException;
 import com.geoscience.sampleapi.model.GeologicalSample;
+import com.geoscience.sampleapi.model.SampleTombstone;
 import com.geoscience.sampleapi.repository.SampleRepository;
+import com.geoscience.sampleapi.repository.SampleTombstoneRepository;
+import com.geoscience.sampleapi.spatial.SpatialKeys;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +63,30 @@ class SampleServiceTest {
     @Mock
     private SampleRepository sampleRepository;
 
+    @Mock
+    private SampleTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private SampleHistoryService historyService;
+
+    @Mock
+    private StorageInventoryService inventory;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SpatialProperties spatialProperties = new SpatialProperties();
+
+    @Spy
+    private SyncProperties syncProperties = new SyncProperties();
+
+    @Spy
+    private ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private SampleService sampleService;
 
@@ -84,7 +139,10 @@ class SampleServiceTest {
         assertEquals("GS-2024-001", response.getSampleIdentifier());
         assertEquals("Granite Sample", response.getSampleName());
         verify(sampleRepository, times(1)).existsBySampleIdentifier("GS-2024-001");
+        verify(sampleRepository, times(1)).purgeDeletedIdentifiers(List.of("GS-2024-001"));
         verify(sampleRepository, times(1)).save(any(GeologicalSample.class));
+        verify(historyService).recordCreated(List.of(response));
+        verify(eventPublisher).publishEvent(new SampleChangedEvent(SampleChangedEvent.Kind.CREATED, List.of(testId)));
     }
 
     @Test
@@ -149,6 +207,21 @@ class SampleServiceTest {
         assertEquals(testId, response.getId());
         verify(sampleRepository, times(1)).findById(testId);
         verify(sampleRepository, times(1)).save(any(GeologicalSample.class));
+        verify(sampleRepository).flush();
+        verify(historyService).recordUpdated(any(SampleResponse.class), any(SampleResponse.class));
+    }
+
+    @Test
+    void testUpdateSample_MovesStorageCount() {
+        sampleEntity.setStoragePath("Lab-A-Shelf-12/");
+        sampleRequest.setStorageLocation(" Core Shed 2 /Rack  14/ ");
+        when(sampleRepository.findById(testId)).thenReturn(Optional.of(sampleEntity));
+        when(sampleRepository.save(any(GeologicalSample.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        sampleService.updateSample(testId, sampleRequest);
+
+        assertEquals("Core Shed 2/Rack 14/", sampleEntity.getStoragePath());
+        verify(inventory).moved("Lab-A-Shelf-12/", "Core Shed 2/Rack 14/");
     }
 
     @Test
@@ -163,27 +236,390 @@ class SampleServiceTest {
         verify(sampleRepository, never()).save(any());
     }
 
+    @Test
+    void testPatchSample_ChangesOnlyPatchedFields() throws Exception {
+        when(sampleRepository.findById(testId)).thenReturn(Optional.of(sampleEntity));
+        when(sampleRepository.save(any(GeologicalSample.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Long spatialKey = SpatialKeys.mortonKey(40.7128, -74.0060);
+        sampleEntity.setSpatialKey(spatialKey);
+
+        SampleResponse response = sampleService.patchSample(testId,
+                objectMapper.readTree("{\"storageLocation\": \"B-12\", \"description\": null}"));
+
+        assertEquals("B-12", response.getStorageLocation());
+        assertNull(response.getDescription());
+        assertEquals("Granite Sample", response.getSampleName());
+        assertEquals(40.7128, response.getLatitude());
+        assertEquals(spatialKey, sampleEntity.getSpatialKey());
+        verify(sampleRepository, never()).existsBySampleIdentifier(anyString());
+        verify(eventPublisher).publishEvent(new SampleChangedEvent(SampleChangedEvent.Kind.UPDATED, List.of(testId)));
+    }
+
+    @Test
+    void testPatchSample_RejectsInvalidPatches() throws Exception {
+        when(sampleRepository.findById(testId)).thenReturn(Optional.of(sampleEntity));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> sampleService.patchSample(testId, objectMapper.readTree("[]")));
+        assertThrows(IllegalArgumentException.class,
+                () -> sampleService.patchSample(testId, objectMapper.readTree("{\"colour\": \"grey\"}")));
+        assertThrows(IllegalArgumentException.class,
+                () -> sampleService.patchSample(testId, objectMapper.readTree("{\"longitude\": null}")));
+        ConstraintViolationException invalid = assertThrows(ConstraintViolationException.class,
+                () -> sampleService.patchSample(testId, objectMapper.readTree("{\"sampleName\": null}")));
+        assertEquals("sampleName", invalid.getConstraintViolations().iterator().next().getPropertyPath().toString());
+
+        verify(sampleRepository, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPatchSamples_SingleSetBasedUpdate() throws Exception {
+        UUID other = UUID.randomUUID();
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 15, 10, 0);
+        List<String> recorded = List.of("storageLocation", "latitude", "longitude", "updatedAt");
+        Map<UUID, Object[]> before = new LinkedHashMap<>();
+        before.put(testId, new Object[] {"A-1", 1.0, 2.0, updatedAt, StoragePaths.of("A-1")});
+        before.put(other, new Object[] {null, null, null, updatedAt, null});
+        when(sampleRepository.findValues(anyCollection(), anyList())).thenReturn(before);
+        when(sampleRepository.updateAll(anyCollection(), anyMap(), any(LocalDateTime.class))).thenReturn(2);
+
+        SampleBulkPatchResponse response = sampleService.patchSamples(List.of(testId, other, testId),
+                objectMapper.readTree("{\"storageLocation\": \"B-12\", \"latitude\": 10.0, \"longitude\": 20.0}"));
+
+        // The previous storage paths are read with the recorded fields, not in a second query
+        List<String> queried = new ArrayList<>(recorded);
+        queried.add("storagePath");
+        verify(sampleRepository).findValues(Set.of(testId, other), queried);
+        verify(inventory).adjust(Map.of(StoragePaths.of("A-1"), -1, StoragePaths.of("B-12"), 2));
+        verify(historyService).recordUpdated(eq(before), eq(recorded), anyMap(), any(LocalDateTime.class));
+
+        assertEquals(2, response.getRequested());
+        assertEquals(2, response.getUpdated());
+        ArgumentCaptor<Map<String, Object>> values = ArgumentCaptor.forClass(Map.class);
+        verify(sampleRepository).updateAll(eq(Set.of(testId, other)), values.capture(), any(LocalDateTime.class));
+        assertEquals("B-12", values.getValue().get("storageLocation"));
+        assertEquals(SpatialKeys.mortonKey(10.0, 20.0), values.getValue().get("spatialKey"));
+        assertEquals(SpatialKeys.unitVector(10.0, 20.0)[2], values.getValue().get("unitZ"));
+        assertFalse(values.getValue().containsKey("sampleName"));
+        verify(eventPublisher).publishEvent(new SampleChangedEvent(SampleChangedEvent.Kind.UPDATED,
+                List.of(testId, other)));
+    }
+
+    @Test
+    void testPatchSamples_RejectsInvalidPatches() throws Exception {
+        List<UUID> ids = List.of(testId);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> sampleService.patchSamples(ids, objectMapper.readTree("{}")));
+        assertThrows(IllegalArgumentException.class,
+                () -> sampleService.patchSamples(ids, objectMapper.readTree("{\"sampleIdentifier\": \"GS-1\"}")));
+        assertThrows(IllegalArgumentException.class,
+                () -> sampleService.patchSamples(ids, objectMapper.readTree("{\"latitude\": 10.0}")));
+        assertThrows(ConstraintViolationException.class,
+                () -> sampleService.patchSamples(ids, objectMapper.readTree("{\"collectorName\": \" \"}")));
+        assertThrows(ConstraintViolationException.class, () -> sampleService.patchSamples(ids,
+                objectMapper.readTree("{\"latitude\": 95.0, \"longitude\": 20.0}")));
+
+        verify(sampleRepository, never()).updateAll(anyCollection(), anyMap(), any());
+    }
+
     @Test
     void testDeleteSample_Success() {
-        when(sampleRepository.existsById(testId)).thenReturn(true);
-        doNothing().when(sampleRepository).deleteById(testId);
+        when(sampleRepository.softDelete(eq(testId), any(LocalDateTime.class))).thenReturn(1);
 
         sampleService.deleteSample(testId);
 
-        verify(sampleRepository, times(1)).existsById(testId);
-        verify(sampleRepository, times(1)).deleteById(testId);
+        verify(sampleRepository, times(1)).softDelete(eq(testId), any(LocalDateTime.class));
+        verify(sampleRepository, never()).deleteById(any());
+        verify(tombstoneRepository).recordDeletion(eq(testId), any(LocalDateTime.class));
+        verify(eventPublisher).publishEvent(new SampleChangedEvent(SampleChangedEvent.Kind.DELETED, List.of(testId)));
+    }
+
+    @Test
+    void testDeleteSample_RecordsFinalStateInHistory() {
+        when(sampleRepository.softDelete(eq(testId), any(LocalDateTime.class))).thenReturn(1);
+        when(sampleRepository.findIncludingDeleted(testId)).thenReturn(Optional.of(sampleEntity));
+
+        sampleService.deleteSample(testId);
+
+        ArgumentCaptor<SampleResponse> finalState = ArgumentCaptor.forClass(SampleResponse.class);
+        verify(historyService).recordDeleted(finalState.capture(), any(LocalDateTime.class));
+        assertEquals(testId, finalState.getValue().getId());
+        assertEquals("Granite Sample", finalState.getValue().getSampleName());
+    }
+
+    @Test
+    void testRelocateStorage_MovesSubtreeWithOneUpdate() {
+        UUID other = UUID.randomUUID();
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 15, 10, 0);
+        when(sampleRepository.findStorageInPathRange("Core Shed 2/Rack 14/", "Core Shed 2/Rack 140")).thenReturn(List.of(
+                new Object[] {testId, "Core Shed 2 / Rack 14", updatedAt, "Core Shed 2/Rack 14/"},
+                new Object[] {other, "Core Shed 2/Rack 14/Tray C", updatedAt, "Core Shed 2/Rack 14/Tray C/"}));
+        when(sampleRepository.relocateStorage(eq("Core Shed 2/Rack 14/"), eq("Core Shed 2/Rack 140"),
+                eq("Core Shed 3/Rack 2/"), any(LocalDateTime.class))).thenReturn(2);
+
+        StorageRelocationResponse response = sampleService.relocateStorage("Core Shed 2 / Rack 14", "Core Shed 3/Rack 2");
+
+        assertEquals("Core Shed 2 / Rack 14", response.getFrom());
+        assertEquals("Core Shed 3 / Rack 2", response.getTo());
+        assertEquals(2, response.getRelocated());
+        verify(inventory).relocate("Core Shed 2/Rack 14/", "Core Shed 3/Rack 2/");
+        verify(historyService).recordUpdated(argThat(before -> before.keySet().equals(Set.of(testId))
+                        && Arrays.equals(before.get(testId), new Object[] {"Core Shed 2 / Rack 14", updatedAt})),
+                eq(List.of("storageLocation", "updatedAt")), eq(Map.of("storageLocation", "Core Shed 3 / Rack 2")),
+                any(LocalDateTime.class));
+        verify(historyService).recordUpdated(anyMap(), anyList(),
+                eq(Map.of("storageLocation", "Core Shed 3 / Rack 2 / Tray C")), any(LocalDateTime.class));
+        verify(eventPublisher).publishEvent(new SampleChangedEvent(SampleChangedEvent.Kind.UPDATED, List.of(testId, other)));
+    }
+
+    @Test
+    void testRelocateStorage_RejectsInvalidMoves() {
+        assertThrows(IllegalArgumentException.class, () -> sampleService.relocateStorage("Shed 2 / Rack 14", " / "));
+        assertThrows(IllegalArgumentException.class,
+                () -> sampleService.relocateStorage("Shed 2 / Rack 14", "Shed 2 / Rack 14 / Tray C"));
+
+        assertEquals(0, sampleService.relocateStorage("Shed 2 / Rack 14", "Shed 2/Rack 14").getRelocated());
+        assertEquals(0, sampleService.relocateStorage("Shed 2 / Rack 1", "Shed 2 / Rack 14").getRelocated());
+        verify(sampleRepository, never()).relocateStorage(anyString(), anyString(), anyString(), any());
     }
 
     @Test
     void testDeleteSample_NotFound() {
-        when(sampleRepository.existsById(testId)).thenReturn(false);
+        when(sampleRepository.softDelete(eq(testId), any(LocalDateTime.class))).thenReturn(0);
 
         assertThrows(SampleNotFoundException.class, () -> {
             sampleService.deleteSample(testId);
         });
 
-        verify(sampleRepository, times(1)).existsById(testId);
+        verify(sampleRepository, times(1)).softDelete(eq(testId), any(LocalDateTime.class));
         verify(sampleRepository, never()).deleteById(any());
+        verify(tombstoneRepository, never()).recordDeletion(any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
     }
-}
 
+    @Test
+    void testCreateSamples_Success() {
+        when(sampleRepository.findExistingIdentifiers(any())).thenReturn(List.of());
+        when(sampleRepository.saveAll(anyList())).thenReturn(List.of(sampleEntity));
+
+        List<SampleResponse> responses = sampleService.createSamples(List.of(sampleRequest));
+
+        assertEquals(1, responses.size());
+        assertEquals(testId, responses.get(0).getId());
+        verify(sampleRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void testCreateSamples_DuplicateInBatch() {
+        assertThrows(IllegalArgumentException.class,
+                () -> sampleService.createSamples(List.of(sampleRequest, sampleRequest)));
+
+        verify(sampleRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testCreateSample_ComputesSpatialKeys() {
+        when(sampleRepository.existsBySampleIdentifier(anyString())).thenReturn(false);
+        when(sampleRepository.save(any(GeologicalSample.class))).thenReturn(sampleEntity);
+
+        sampleService.createSample(sampleRequest);
+
+        ArgumentCaptor<GeologicalSample> saved = ArgumentCaptor.forClass(GeologicalSample.class);
+        verify(sampleRepository).save(saved.capture());
+        assertNotNull(saved.getValue().getSpatialKey());
+        double x = saved.getValue().getUnitX();
+        double y = saved.getValue().getUnitY();
+        double z = saved.getValue().getUnitZ();
+        assertEquals(1.0, x * x + y * y + z * z, 1e-12);
+    }
+
+    @Test
+    void testCreateSample_LatitudeWithoutLongitude() {
+        sampleRequest.setLongitude(null);
+
+        assertThrows(IllegalArgumentException.class, () -> sampleService.createSample(sampleRequest));
+        verify(sampleRepository, never()).save(any());
+    }
+
+    @Test
+    void testFindNearby_FiltersAndSortsByDistance() {
+        GeologicalSample near = sampleAt("NEAR", 40.7130, -74.0060);
+        GeologicalSample nearer = sampleAt("NEARER", 40.7128, -74.0061);
+        GeologicalSample outside = sampleAt("OUTSIDE", 40.8000, -74.0060);
+        when(sampleRepository.findSpatialCandidates(anyLong(), anyLong()))
+                .thenReturn(List.of(candidate(near), candidate(nearer), candidate(outside)));
+        when(sampleRepository.findAllById(any())).thenReturn(List.of(near, nearer));
+
+        List<NearbySampleResponse> results = sampleService.findNearby(40.7128, -74.0060, 1000, 10);
+
+        assertEquals(2, results.size());
+        assertEquals("NEARER", results.get(0).getSample().getSampleIdentifier());
+        assertEquals("NEAR", results.get(1).getSample().getSampleIdentifier());
+        assertTrue(results.get(0).getDistanceMeters() < results.get(1).getDistanceMeters());
+    }
+
+    @Test
+    void testFindNearby_StopsWideningOnceLimitIsReached() {
+        GeologicalSample near = sampleAt("NEAR", 40.7130, -74.0060);
+        GeologicalSample nearer = sampleAt("NEARER", 40.7128, -74.0061);
+        when(sampleRepository.findSpatialCandidates(anyLong(), anyLong()))
+                .thenReturn(List.of(candidate(near), candidate(nearer)));
+        when(sampleRepository.findAllById(any())).thenReturn(List.of(near, nearer));
+
+        List<NearbySampleResponse> results = sampleService.findNearby(40.7128, -74.0060, 10000, 2);
+
+        // Both lie inside the first circle (1/64 of the radius), so the full area is never scanned
+        int firstPass = 0;
+        for (double[] box : SpatialKeys.boundingBoxes(40.7128, -74.0060, 10000.0 / 64)) {
+            firstPass += SpatialKeys.coverRanges(box[0], box[1], box[2], box[3], spatialProperties.getMaxCoverRanges()).size();
+        }
+        verify(sampleRepository, times(firstPass)).findSpatialCandidates(anyLong(), anyLong());
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    void testFindNearby_WidensUntilLimitIsReached() {
+        GeologicalSample near = sampleAt("NEAR", 40.7130, -74.0060);
+        GeologicalSample nearer = sampleAt("NEARER", 40.7128, -74.0061);
+        GeologicalSample far = sampleAt("FAR", 40.7300, -74.0060);
+        when(sampleRepository.findSpatialCandidates(anyLong(), anyLong()))
+                .thenReturn(List.of(candidate(near), candidate(nearer), candidate(far)));
+        when(sampleRepository.findAllById(List.of(nearer.getId(), near.getId(), far.getId())))
+                .thenReturn(List.of(far, near, nearer));
+
+        List<NearbySampleResponse> results = sampleService.findNearby(40.7128, -74.0060, 10000, 3);
+
+        // FAR is about 1.9 km away, well outside the first 156 m circle
+        assertEquals(List.of("NEARER", "NEAR", "FAR"),
+                results.stream().map(result -> result.getSample().getSampleIdentifier()).toList());
+        assertEquals(1912.6, results.get(2).getDistanceMeters(), 1);
+    }
+
+    @Test
+    void testFindNearby_LoadsOnlyTheNearestSamples() {
+        GeologicalSample near = sampleAt("NEAR", 40.7130, -74.0060);
+        GeologicalSample nearer = sampleAt("NEARER", 40.7128, -74.0061);
+        when(sampleRepository.findSpatialCandidates(anyLong(), anyLong()))
+                .thenReturn(List.of(candidate(near), candidate(nearer)));
+        when(sampleRepository.findAllById(List.of(nearer.getId()))).thenReturn(List.of(nearer));
+
+        List<NearbySampleResponse> results = sampleService.findNearby(40.7128, -74.0060, 1000, 1);
+
+        assertEquals(1, results.size());
+        assertEquals("NEARER", results.get(0).getSample().getSampleIdentifier());
+        verify(sampleRepository).findAllById(List.of(nearer.getId()));
+    }
+
+    @Test
+    void testFindWithin_StreamsSamplesInsidePolygon() throws Exception {
+        GeologicalSample inside = sampleAt("INSIDE", 5.0, 5.0);
+        GeologicalSample inHole = sampleAt("IN_HOLE", 5.0, 5.5);
+        GeologicalSample outside = sampleAt("OUTSIDE", 5.0, 12.0);
+        when(sampleRepository.findPositionsInKeyRange(anyLong(), anyLong())).thenReturn(List.of(
+                position(inside), position(inHole), position(outside)), List.of());
+        when(sampleRepository.findAllById(List.of(inside.getId()))).thenReturn(List.of(inside));
+
+        Iterator<List<SampleResponse>> chunks = sampleService.findWithin(objectMapper.readTree("""
+                {"type": "Polygon", "coordinates": [
+                  [[0, 0], [10, 0], [10, 10], [0, 10], [0, 0]],
+                  [[5.2, 4.8], [5.8, 4.8], [5.8, 5.2], [5.2, 5.2], [5.2, 4.8]]]}"""));
+
+        assertTrue(chunks.hasNext());
+        List<SampleResponse> found = chunks.next();
+        assertEquals(1, found.size());
+        assertEquals("INSIDE", found.get(0).getSampleIdentifier());
+        assertFalse(chunks.hasNext());
+        assertThrows(IllegalArgumentException.class,
+                () -> sampleService.findWithin(objectMapper.readTree("{\"type\": \"Point\", \"coordinates\": [0, 0]}")));
+    }
+
+    private static SampleRepository.SamplePosition position(GeologicalSample sample) {
+        return new SampleRepository.SamplePosition(sample.getId(), sample.getLatitude(), sample.getLongitude());
+    }
+
+    private static GeologicalSample sampleAt(String identifier, double latitude, double longitude) {
+        double[] unit = SpatialKeys.unitVector(latitude, longitude);
+        return GeologicalSample.builder()
+                .id(UUID.randomUUID())
+                .sampleIdentifier(identifier)
+                .latitude(latitude)
+                .longitude(longitude)
+                .spatialKey(SpatialKeys.mortonKey(latitude, longitude))
+                .unitX(unit[0])
+                .unitY(unit[1])
+                .unitZ(unit[2])
+                .build();
+    }
+
+    private static SampleRepository.SpatialCandidate candidate(GeologicalSample sample) {
+        return new SampleRepository.SpatialCandidate() {
+            public UUID getId() {
+                return sample.getId();
+            }
+
+            public double getUnitX() {
+                return sample.getUnitX();
+            }
+
+            public double getUnitY() {
+                return sample.getUnitY();
+            }
+
+            public double getUnitZ() {
+                return sample.getUnitZ();
+            }
+        };
+    }
+
+    @Test
+    void testGetChanges_AdvancesBothCursors() {
+        UUID deletedId = UUID.randomUUID();
+        LocalDateTime deletedAt = LocalDateTime.now().minusHours(2).truncatedTo(ChronoUnit.MILLIS);
+        sampleEntity.setUpdatedAt(LocalDateTime.now().minusHours(3).truncatedTo(ChronoUnit.MILLIS));
+        when(sampleRepository.findChangedAfter(eq(SyncToken.INITIAL.changedAt()), eq(SyncToken.INITIAL.changedId()),
+                any(LocalDateTime.class), eq(1))).thenReturn(List.of(sampleEntity));
+        when(tombstoneRepository.findDeletedAfter(eq(SyncToken.INITIAL.deletedAt()), eq(SyncToken.INITIAL.deletedId()),
+                any(LocalDateTime.class), eq(1)))
+                .thenReturn(List.of(SampleTombstone.builder().id(deletedId).deletedAt(deletedAt).build()));
+
+        SyncResponse response = sampleService.getChanges(null, 1);
+
+        assertEquals(testId, response.getChanged().get(0).getId());
+        assertEquals(List.of(deletedId), response.getDeleted());
+        assertTrue(response.isHasMore());
+        SyncToken next = SyncToken.decode(response.getNextToken());
+        assertEquals(new SyncToken(sampleEntity.getUpdatedAt(), testId, deletedAt, deletedId), next);
+
+        // Once caught up, both cursors move to the settle horizon
+        when(sampleRepository.findChangedAfter(any(), any(), any(), anyInt())).thenReturn(List.of());
+        when(tombstoneRepository.findDeletedAfter(any(), any(), any(), anyInt())).thenReturn(List.of());
+        SyncResponse caughtUp = sampleService.getChanges(response.getNextToken(), null);
+        assertFalse(caughtUp.isHasMore());
+        SyncToken horizon = SyncToken.decode(caughtUp.getNextToken());
+        assertTrue(horizon.changedAt().isAfter(next.changedAt()));
+        assertEquals(SyncToken.MAX_ID, horizon.changedId());
+        assertEquals(horizon.changedAt(), horizon.deletedAt());
+        assertEquals(SyncToken.MAX_ID, horizon.deletedId());
+    }
+
+    @Test
+    void testGetChanges_ExpiredToken() {
+        LocalDateTime longAgo = LocalDateTime.now().minus(syncProperties.getTombstoneRetention()).minusDays(1);
+        String token = new SyncToken(longAgo, testId, longAgo, testId).encode();
+
+        assertThrows(SyncTokenExpiredException.class, () -> sampleService.getChanges(token, null));
+
+        verify(sampleRepository, never()).findChangedAfter(any(), any(), any(), anyInt());
+        verify(tombstoneRepository, never()).findDeletedAfter(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetChanges_RejectsInvalidTokenAndLimit() {
+        assertThrows(IllegalArgumentException.class, () -> sampleService.getChanges("not-a-token", null));
+        assertThrows(IllegalArgumentException.class, () -> sampleService.getChanges(null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> sampleService.getChanges(null, syncProperties.getMaxBatchSize() + 1));
+    }
+}
@@ -0,0 +1,133 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.SpatialProperties;
+import com.geoscience.sampleapi.config.TileProperties;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import com.geoscience.sampleapi.repository.SampleRepository;
+import com.geoscience.sampleapi.spatial.SpatialKeys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class SampleTileServiceTest {
+
+    private SampleRepository sampleRepository;
+    private SampleTileService tileService;
+    private final List<SampleRepository.TilePoint> points = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        sampleRepository = mock(SampleRepository.class);
+        // Serve the points whose spatial key falls in the requested range, like the index
+        when(sampleRepository.findTilePointsInKeyRange(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            long to = invocation.getArgument(1);
+            return points.stream()
+                    .filter(point -> {
+                        long key = SpatialKeys.mortonKey(point.latitude(), point.longitude());
+                        return key >= from && key <= to;
+                    })
+                    .toList();
+        });
+        tileService = new SampleTileService(sampleRepository, new TileProperties(), new SpatialProperties());
+    }
+
+    @Test
+    void testGetTile_EncodesSamplesInTileAndClustersNeighbours() throws Exception {
+        SampleRepository.TilePoint denver = point(39.74, -104.99, "Denver core");
+        SampleRepository.TilePoint nextToDenver = point(39.7401, -104.9901, "Denver chip");
+        SampleRepository.TilePoint perth = point(-31.95, 115.86, "Perth outcrop");
+        points.addAll(List.of(denver, nextToDenver, perth));
+
+        SampleTileService.RenderedTile world = tileService.getTile(0, 0, 0);
+        String worldText = new String(gunzip(world.gzipped()), StandardCharsets.ISO_8859_1);
+        assertTrue(worldText.contains("samples"));
+        assertTrue(worldText.contains(perth.id().toString()));
+        assertTrue(worldText.contains("Perth outcrop"));
+        // Both Denver samples fall into one grid cell; only the first is shown
+        assertTrue(worldText.contains("Denver core"));
+        assertFalse(worldText.contains("Denver chip"));
+        assertEquals(3, world.sampleHashes().length);
+        assertTrue(world.etag().startsWith("W/\""));
+
+        // Western hemisphere, northern half: Denver only
+        SampleTileService.RenderedTile northWest = tileService.getTile(1, 0, 0);
+        String northWestText = new String(gunzip(northWest.gzipped()), StandardCharsets.ISO_8859_1);
+        assertTrue(northWestText.contains("Denver core"));
+        assertFalse(northWestText.contains("Perth outcrop"));
+
+        // Empty tile
+        assertEquals(0, gunzip(tileService.getTile(1, 1, 0).gzipped()).length);
+    }
+
+    @Test
+    void testGetTile_ServesFromCacheUntilAffectingWrite() {
+        SampleRepository.TilePoint denver = point(39.74, -104.99, "Denver core");
+        SampleRepository.TilePoint perth = point(-31.95, 115.86, "Perth outcrop");
+        points.addAll(List.of(denver, perth));
+
+        SampleTileService.RenderedTile northWest = tileService.getTile(1, 0, 0);
+        SampleTileService.RenderedTile southEast = tileService.getTile(1, 1, 1);
+        assertSame(northWest, tileService.getTile(1, 0, 0));
+        assertSame(southEast, tileService.getTile(1, 1, 1));
+
+        // Denver's sample moves to the eastern hemisphere: its old tile and its new tile are evicted
+        SampleRepository.TilePoint moved = new SampleRepository.TilePoint(denver.id(), -20.0, 120.0,
+                denver.sampleType(), denver.sampleName());
+        points.set(0, moved);
+        when(sampleRepository.findPositionsByIdIn(any())).thenReturn(List.of(
+                new SampleRepository.SamplePosition(moved.id(), moved.latitude(), moved.longitude())));
+        tileService.onSampleChanged(new SampleChangedEvent(SampleChangedEvent.Kind.UPDATED, List.of(denver.id())));
+
+        SampleTileService.RenderedTile northWestAfter = tileService.getTile(1, 0, 0);
+        assertNotSame(northWest, northWestAfter);
+        assertEquals(0, northWestAfter.sampleHashes().length);
+        SampleTileService.RenderedTile southEastAfter = tileService.getTile(1, 1, 1);
+        assertNotSame(southEast, southEastAfter);
+        assertEquals(2, southEastAfter.sampleHashes().length);
+        assertNotEquals(southEast.etag(), southEastAfter.etag());
+
+        // A change elsewhere leaves the tile cached
+        UUID other = UUID.randomUUID();
+        when(sampleRepository.findPositionsByIdIn(any())).thenReturn(List.of(
+                new SampleRepository.SamplePosition(other, 60.0, -40.0)));
+        tileService.onSampleChanged(new SampleChangedEvent(SampleChangedEvent.Kind.CREATED, List.of(other)));
+        assertSame(southEastAfter, tileService.getTile(1, 1, 1));
+
+        // An unknown set of changes clears everything
+        tileService.onSampleChanged(new SampleChangedEvent(SampleChangedEvent.Kind.UPDATED, List.of()));
+        assertNotSame(southEastAfter, tileService.getTile(1, 1, 1));
+    }
+
+    @Test
+    void testGetTile_RejectsInvalidAddress() {
+        assertThrows(IllegalArgumentException.class, () -> tileService.getTile(21, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> tileService.getTile(-1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> tileService.getTile(2, 4, 0));
+        assertThrows(IllegalArgumentException.class, () -> tileService.getTile(2, 0, -1));
+        verifyNoInteractions(sampleRepository);
+    }
+
+    private static SampleRepository.TilePoint point(double latitude, double longitude, String name) {
+        return new SampleRepository.TilePoint(UUID.randomUUID(), latitude, longitude,
+                GeologicalSample.SampleType.ROCK, name);
+    }
+
+    private static byte[] gunzip(byte[] gzipped) throws Exception {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.config.WriteBehindProperties;
+import com.geoscience.sampleapi.dto.SampleRequest;
+import com.geoscience.sampleapi.dto.SampleResponse;
+import com.geoscience.sampleapi.dto.WriteTicketResponse;
+import com.geoscience.sampleapi.exception.WriteQueueFullException;
+import com.geoscience.sampleapi.model.GeologicalSample;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class SampleWriteQueueTest {
+
+    private SampleService sampleService;
+    private WriteBehindProperties properties;
+    private SampleWriteQueue writeQueue;
+
+    @BeforeEach
+    void setUp() {
+        sampleService = mock(SampleService.class);
+        properties = new WriteBehindProperties();
+        properties.setQueueCapacity(3);
+        properties.setMaxBatchDelay(Duration.ofMillis(50));
+        writeQueue = new SampleWriteQueue(sampleService, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeQueue.stop();
+    }
+
+    @Test
+    void testQueuedSamplesAreCommittedInOneBatch() throws Exception {
+        when(sampleService.createSamples(anyList())).thenAnswer(invocation -> {
+            List<SampleRequest> requests = invocation.getArgument(0);
+            return requests.stream().map(request -> response(request.getSampleIdentifier())).toList();
+        });
+
+        List<WriteTicketResponse> tickets = writeQueue.submitAll(List.of(request("GS-1"), request("GS-2")));
+        assertEquals(WriteTicketResponse.Status.PENDING, tickets.get(0).getStatus());
+
+        writeQueue.start();
+        WriteTicketResponse first = awaitCompletion(tickets.get(0).getTicketId());
+        WriteTicketResponse second = awaitCompletion(tickets.get(1).getTicketId());
+
+        assertEquals(WriteTicketResponse.Status.COMMITTED, first.getStatus());
+        assertEquals(WriteTicketResponse.Status.COMMITTED, second.getStatus());
+        assertNotNull(first.getSampleId());
+        verify(sampleService, times(1)).createSamples(anyList());
+    }
+
+    @Test
+    void testRejectedBatchIsRetriedIndividually() throws Exception {
+        when(sampleService.createSamples(anyList())).thenThrow(new IllegalArgumentException("Sample identifier already exists: GS-1"));
+        when(sampleService.createSample(any(SampleRequest.class))).thenAnswer(invocation -> {
+            SampleRequest request = invocation.getArgument(0);
+            if (request.getSampleIdentifier().equals("GS-1")) {
+                throw new IllegalArgumentException("Sample identifier already exists: GS-1");
+            }
+            return response(request.getSampleIdentifier());
+        });
+
+        List<WriteTicketResponse> tickets = writeQueue.submitAll(List.of(request("GS-1"), request("GS-2")));
+        writeQueue.start();
+
+        WriteTicketResponse failed = awaitCompletion(tickets.get(0).getTicketId());
+        WriteTicketResponse committed = awaitCompletion(tickets.get(1).getTicketId());
+        assertEquals(WriteTicketResponse.Status.FAILED, failed.getStatus());
+        assertTrue(failed.getError().contains("already exists"));
+        assertEquals(WriteTicketResponse.Status.COMMITTED, committed.getStatus());
+    }
+
+    @Test
+    void testUnexpectedFailureIsReportedGenerically() throws Exception {
+        when(sampleService.createSamples(anyList()))
+                .thenThrow(new IllegalStateException("SQLITE_CORRUPT: /data/samples.db is malformed"));
+
+        List<WriteTicketResponse> tickets = writeQueue.submitAll(List.of(request("GS-1")));
+        writeQueue.start();
+
+        WriteTicketResponse failed = awaitCompletion(tickets.get(0).getTicketId());
+        assertEquals(WriteTicketResponse.Status.FAILED, failed.getStatus());
+        assertEquals("Unexpected error while writing sample", failed.getError());
+    }
+
+    @Test
+    void testFullQueueRejectsSubmission() {
+        writeQueue.submitAll(List.of(request("GS-1"), request("GS-2")));
+
+        assertThrows(WriteQueueFullException.class,
+                () -> writeQueue.submitAll(List.of(request("GS-3"), request("GS-4"))));
+        assertEquals(2, writeQueue.getQueued());
+    }
+
+    private WriteTicketResponse awaitCompletion(UUID ticketId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            WriteTicketResponse ticket = writeQueue.getTicket(ticketId).orElseThrow();
+            if (ticket.getStatus() != WriteTicketResponse.Status.PENDING) {
+                return ticket;
+            }
+            Thread.sleep(10);
+        }
+        fail("Ticket " + ticketId + " was not completed in time");
+        return null;
+    }
+
+    private static SampleRequest request(String identifier) {
+        return SampleRequest.builder()
+                .sampleIdentifier(identifier)
+                .sampleName("Granite Sample")
+                .sampleType(GeologicalSample.SampleType.ROCK)
+                .build();
+    }
+
+    private static SampleResponse response(String identifier) {
+        return SampleResponse.builder()
+                .id(UUID.randomUUID())
+                .sampleIdentifier(identifier)
+                .build();
+    }
+}
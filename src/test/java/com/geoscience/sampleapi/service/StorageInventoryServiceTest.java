@@ -0,0 +1,96 @@
+package com.geoscience.sampleapi.service;
+
+import com.geoscience.sampleapi.dto.StorageLocationResponse;
+import com.geoscience.sampleapi.model.StorageLocation;
+import com.geoscience.sampleapi.repository.SampleRepository;
+import com.geoscience.sampleapi.repository.StorageLocationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StorageInventoryServiceTest {
+
+    @Mock
+    private StorageLocationRepository locationRepository;
+
+    @Mock
+    private SampleRepository sampleRepository;
+
+    @InjectMocks
+    private StorageInventoryService inventoryService;
+
+    @Test
+    void testMoved_CountsSampleInNodeAndAncestors() {
+        inventoryService.moved(null, "Shed 2/Rack 14/");
+
+        verify(locationRepository).adjust("Shed 2/", "", "Shed 2", 1, 0, 1);
+        verify(locationRepository).adjust("Shed 2/Rack 14/", "Shed 2/", "Rack 14", 2, 1, 1);
+        verify(locationRepository, never()).deleteEmpty(anyCollection());
+    }
+
+    @Test
+    void testMoved_SkipsSharedAncestorsAndRemovesEmptyNodes() {
+        inventoryService.moved("Shed 2/Rack 14/", "Shed 2/Rack 15/");
+
+        verify(locationRepository).adjust("Shed 2/Rack 14/", "Shed 2/", "Rack 14", 2, -1, -1);
+        verify(locationRepository).adjust("Shed 2/Rack 15/", "Shed 2/", "Rack 15", 2, 1, 1);
+        verify(locationRepository, never()).adjust(eq("Shed 2/"), anyString(), anyString(), anyInt(), anyInt(), anyInt());
+        verify(locationRepository).deleteEmpty(List.of("Shed 2/Rack 14/"));
+
+        inventoryService.moved("Shed 2/Rack 15/", "Shed 2/Rack 15/");
+        verifyNoMoreInteractions(locationRepository);
+    }
+
+    @Test
+    void testRelocate_MovesNodesAndAncestorCounts() {
+        when(locationRepository.findInRange("Shed 2/Rack 14/", "Shed 2/Rack 140")).thenReturn(List.of(
+                location("Shed 2/Rack 14/", 1, 3),
+                location("Shed 2/Rack 14/Tray C/", 2, 2)));
+
+        inventoryService.relocate("Shed 2/Rack 14/", "Shed 3/");
+
+        verify(locationRepository).deleteInRange("Shed 2/Rack 14/", "Shed 2/Rack 140");
+        verify(locationRepository).adjust("Shed 2/", "", "Shed 2", 1, 0, -3);
+        verify(locationRepository).adjust("Shed 3/", "", "Shed 3", 1, 1, 3);
+        verify(locationRepository).adjust("Shed 3/Tray C/", "Shed 3/", "Tray C", 2, 2, 2);
+        verify(locationRepository).deleteEmpty(List.of("Shed 2/"));
+    }
+
+    @Test
+    void testGetLocation_ReturnsNodeWithChildren() {
+        when(locationRepository.findById("Shed 2/")).thenReturn(Optional.of(location("Shed 2/", 0, 5)));
+        when(locationRepository.findByParentPathOrderByPath("Shed 2/")).thenReturn(List.of(
+                location("Shed 2/Rack 14/", 3, 3), location("Shed 2/Rack 15/", 2, 2)));
+
+        StorageLocationResponse response = inventoryService.getLocation(" Shed 2 ");
+
+        assertEquals("Shed 2", response.getPath());
+        assertEquals(5, response.getTotalCount());
+        assertEquals(List.of("Shed 2 / Rack 14", "Shed 2 / Rack 15"),
+                response.getChildren().stream().map(StorageLocationResponse::getPath).toList());
+        assertEquals(0, inventoryService.getLocation("Shed 9").getTotalCount());
+    }
+
+    private static StorageLocation location(String path, int sampleCount, int totalCount) {
+        return StorageLocation.builder()
+                .path(path)
+                .parentPath(StoragePaths.parent(path))
+                .name(StoragePaths.name(path))
+                .depth(StoragePaths.depth(path))
+                .sampleCount(sampleCount)
+                .totalCount(totalCount)
+                .build();
+    }
+}
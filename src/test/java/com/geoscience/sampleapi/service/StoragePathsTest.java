@@ -0,0 +1,47 @@
+package com.geoscience.sampleapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoragePathsTest {
+
+    @Test
+    void testOf_NormalisesSegments() {
+        assertEquals("Core Shed 2/Rack 14/Tray C/", StoragePaths.of("Core Shed 2 / Rack 14 / Tray C"));
+        assertEquals("Core Shed 2/Rack 14/Tray C/", StoragePaths.of(" Core  Shed 2//Rack 14/Tray C/ "));
+        assertEquals("Lab-A-Shelf-12/", StoragePaths.of("Lab-A-Shelf-12"));
+        assertNull(StoragePaths.of(" / "));
+        assertNull(StoragePaths.of(null));
+    }
+
+    @Test
+    void testTreeNavigation() {
+        String path = "Core Shed 2/Rack 14/Tray C/";
+
+        assertEquals(List.of("Core Shed 2/", "Core Shed 2/Rack 14/", path), StoragePaths.ancestors(path));
+        assertEquals("Core Shed 2/Rack 14/", StoragePaths.parent(path));
+        assertEquals("", StoragePaths.parent("Core Shed 2/"));
+        assertEquals("Tray C", StoragePaths.name(path));
+        assertEquals("Core Shed 2", StoragePaths.name("Core Shed 2/"));
+        assertEquals(3, StoragePaths.depth(path));
+        assertEquals("Core Shed 2 / Rack 14 / Tray C", StoragePaths.display(path));
+    }
+
+    @Test
+    void testUpperBound_CoversExactlyTheSubtree() {
+        String rack = StoragePaths.of("Core Shed 2 / Rack 14");
+        String upperBound = StoragePaths.upperBound(rack);
+
+        for (String inside : List.of("Core Shed 2/Rack 14/", "Core Shed 2/Rack 14/Tray C/", "Core Shed 2/Rack 14/~/")) {
+            assertTrue(inside.compareTo(rack) >= 0 && inside.compareTo(upperBound) < 0, inside);
+            assertTrue(StoragePaths.isWithin(inside, rack));
+        }
+        for (String outside : List.of("Core Shed 2/Rack 1/", "Core Shed 2/Rack 140/", "Core Shed 2/Rack 14-B/")) {
+            assertFalse(outside.compareTo(rack) >= 0 && outside.compareTo(upperBound) < 0, outside);
+            assertFalse(StoragePaths.isWithin(outside, rack));
+        }
+    }
+}
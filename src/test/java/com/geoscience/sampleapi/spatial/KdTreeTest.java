@@ -0,0 +1,87 @@
+package com.geoscience.sampleapi.spatial;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KdTreeTest {
+
+    @Test
+    void testNearest_MatchesBruteForce() {
+        Random random = new Random(7);
+        int count = 5000;
+        double[] x = new double[count];
+        double[] y = new double[count];
+        double[] z = new double[count];
+        for (int i = 0; i < count; i++) {
+            // Clustered like real sampling campaigns, plus duplicates
+            double latitude = i % 10 == 0 ? 45.0 : -60 + random.nextDouble() * 120;
+            double longitude = i % 10 == 0 ? 7.0 : -180 + random.nextDouble() * 360;
+            double[] unit = SpatialKeys.unitVector(latitude, longitude);
+            x[i] = unit[0];
+            y[i] = unit[1];
+            z[i] = unit[2];
+        }
+        KdTree tree = KdTree.build(x, y, z, count);
+        assertEquals(count, tree.size());
+
+        int k = 7;
+        int[] found = new int[k];
+        double[] chord2 = new double[k];
+        for (int trial = 0; trial < 200; trial++) {
+            double[] q = SpatialKeys.unitVector(-90 + random.nextDouble() * 180, -180 + random.nextDouble() * 360);
+            double[] distances = IntStream.range(0, count)
+                    .mapToDouble(i -> square(q[0] - x[i]) + square(q[1] - y[i]) + square(q[2] - z[i]))
+                    .sorted()
+                    .limit(k)
+                    .toArray();
+
+            int n = tree.nearest(q[0], q[1], q[2], k, Double.POSITIVE_INFINITY, found, chord2);
+
+            assertEquals(k, n);
+            assertArrayEquals(distances, Arrays.copyOf(chord2, n), 1e-12);
+            for (int i = 0; i < n; i++) {
+                int item = found[i];
+                assertEquals(chord2[i], square(q[0] - x[item]) + square(q[1] - y[item]) + square(q[2] - z[item]), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void testNearest_RespectsMaxDistance() {
+        double[][] points = {
+                SpatialKeys.unitVector(0, 0),
+                SpatialKeys.unitVector(0, 0.01),
+                SpatialKeys.unitVector(0, 1)
+        };
+        double[] x = Arrays.stream(points).mapToDouble(p -> p[0]).toArray();
+        double[] y = Arrays.stream(points).mapToDouble(p -> p[1]).toArray();
+        double[] z = Arrays.stream(points).mapToDouble(p -> p[2]).toArray();
+        KdTree tree = KdTree.build(x, y, z, 3);
+        int[] found = new int[3];
+        double[] chord2 = new double[3];
+
+        // 0.01 degrees of longitude at the equator is about 1112 m
+        int n = tree.nearest(x[0], y[0], z[0], 3, KdTree.metersToChord2(2000), found, chord2);
+
+        assertEquals(2, n);
+        assertEquals(0, found[0]);
+        assertEquals(1, found[1]);
+        assertEquals(1112, KdTree.chordToMeters(chord2[1]), 1);
+    }
+
+    @Test
+    void testBuild_EmptyTree() {
+        KdTree tree = KdTree.build(new double[0], new double[0], new double[0], 0);
+
+        assertEquals(0, tree.nearest(0, 0, 1, 5, Double.POSITIVE_INFINITY, new int[5], new double[5]));
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+}
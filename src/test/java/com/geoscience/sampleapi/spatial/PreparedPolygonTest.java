@@ -0,0 +1,95 @@
+package com.geoscience.sampleapi.spatial;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreparedPolygonTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testContains_MatchesBruteForceForLargeRingWithHole() {
+        // A wobbly ring with many vertices, so the band index is actually used
+        int vertices = 5000;
+        double[] exterior = new double[(vertices + 1) * 2];
+        for (int i = 0; i <= vertices; i++) {
+            double angle = 2 * Math.PI * (i % vertices) / vertices;
+            double radius = 1 + 0.2 * Math.sin(29 * angle);
+            exterior[i * 2] = 10 + 30 * radius * Math.cos(angle);
+            exterior[i * 2 + 1] = 20 * radius * Math.sin(angle);
+        }
+        double[] hole = {5, -5, 15, -5, 15, 5, 5, 5, 5, -5};
+        double[] island = {100, 10, 110, 10, 110, 20, 100, 20, 100, 10};
+        List<List<double[]>> polygons = List.of(List.of(exterior, hole), List.of(island));
+        PreparedPolygon area = new PreparedPolygon(polygons);
+
+        assertEquals(vertices + 4 + 4, area.vertexCount());
+        assertEquals(2, area.boundingBoxes().size());
+        assertTrue(area.contains(0, 0));
+        assertFalse(area.contains(0, 10));
+        assertTrue(area.contains(15, 105));
+        Random random = new Random(11);
+        for (int trial = 0; trial < 20_000; trial++) {
+            double latitude = -30 + random.nextDouble() * 60;
+            double longitude = -30 + random.nextDouble() * 150;
+            boolean expected = false;
+            for (List<double[]> rings : polygons) {
+                for (double[] ring : rings) {
+                    expected ^= crosses(ring, latitude, longitude);
+                }
+            }
+            assertEquals(expected, area.contains(latitude, longitude), latitude + ", " + longitude);
+        }
+    }
+
+    @Test
+    void testFromGeoJson_ParsesAndValidates() throws Exception {
+        PreparedPolygon feature = PreparedPolygon.fromGeoJson(objectMapper.readTree("""
+                {"type": "FeatureCollection", "features": [
+                  {"type": "Feature", "properties": {}, "geometry":
+                    {"type": "Polygon", "coordinates": [[[0, 0], [10, 0], [10, 10], [0, 10], [0, 0]]]}},
+                  {"type": "Feature", "properties": {}, "geometry":
+                    {"type": "MultiPolygon", "coordinates": [[[[20, 0], [30, 0], [30, 10], [20, 0]]]]}}
+                ]}"""), 100);
+        assertEquals(2, feature.boundingBoxes().size());
+        assertArrayEquals(new double[] {0, 10, 0, 10}, feature.boundingBoxes().get(0));
+        assertTrue(feature.contains(5, 5));
+        assertTrue(feature.contains(2, 28));
+        assertFalse(feature.contains(5, 15));
+
+        List<String> invalid = new ArrayList<>(List.of(
+                "{\"type\": \"Point\", \"coordinates\": [0, 0]}",
+                "{\"type\": \"Polygon\", \"coordinates\": [[[0, 0], [1, 0], [0, 0]]]}",
+                "{\"type\": \"Polygon\", \"coordinates\": [[[0, 0], [1, 0], [1, 1], [0, 1]]]}",
+                "{\"type\": \"Polygon\", \"coordinates\": [[[0, 0], [1, 0], [1, 91], [0, 0]]]}",
+                "{\"type\": \"Polygon\", \"coordinates\": []}",
+                "{\"type\": \"FeatureCollection\", \"features\": []}"));
+        for (String geoJson : invalid) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> PreparedPolygon.fromGeoJson(objectMapper.readTree(geoJson), 100), geoJson);
+        }
+        assertThrows(IllegalArgumentException.class, () -> PreparedPolygon.fromGeoJson(objectMapper.readTree(
+                "{\"type\": \"Polygon\", \"coordinates\": [[[0, 0], [1, 0], [1, 1], [0, 1], [0, 0]]]}"), 3));
+    }
+
+    private static boolean crosses(double[] ring, double latitude, double longitude) {
+        boolean inside = false;
+        for (int i = 0; i + 3 < ring.length; i += 2) {
+            double lon1 = ring[i];
+            double lat1 = ring[i + 1];
+            double lon2 = ring[i + 2];
+            double lat2 = ring[i + 3];
+            if ((lat1 > latitude) != (lat2 > latitude)
+                    && longitude < lon1 + (latitude - lat1) * (lon2 - lon1) / (lat2 - lat1)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
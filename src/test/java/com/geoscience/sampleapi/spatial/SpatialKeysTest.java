@@ -0,0 +1,89 @@
+package com.geoscience.sampleapi.spatial;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialKeysTest {
+
+    @Test
+    void testMortonKey_PreservesLocality() {
+        long origin = SpatialKeys.mortonKey(40.7128, -74.0060);
+        long near = SpatialKeys.mortonKey(40.7129, -74.0061);
+        long far = SpatialKeys.mortonKey(-33.8688, 151.2093);
+
+        assertTrue(origin >= 0);
+        assertTrue(Math.abs(origin - near) < Math.abs(origin - far));
+        assertEquals(0L, SpatialKeys.mortonKey(-90.0, -180.0));
+        assertTrue(SpatialKeys.mortonKey(90.0, 180.0) > 0);
+    }
+
+    @Test
+    void testDistance_MatchesHaversine() {
+        double[] nyc = SpatialKeys.unitVector(40.7128, -74.0060);
+        double[] london = SpatialKeys.unitVector(51.5074, -0.1278);
+        double dot = nyc[0] * london[0] + nyc[1] * london[1] + nyc[2] * london[2];
+
+        assertEquals(5_570_000, SpatialKeys.distanceMeters(dot), 10_000);
+        assertTrue(dot < SpatialKeys.minDotWithin(5_000_000));
+        assertTrue(dot > SpatialKeys.minDotWithin(6_000_000));
+    }
+
+    @Test
+    void testCoverRanges_ContainEveryPointInBox() {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 50; trial++) {
+            double minLat = -80 + random.nextDouble() * 150;
+            double minLon = -170 + random.nextDouble() * 330;
+            double size = Math.pow(10, -4 + random.nextDouble() * 5);
+            double maxLat = Math.min(90, minLat + size);
+            double maxLon = Math.min(180, minLon + size);
+
+            List<long[]> ranges = SpatialKeys.coverRanges(minLat, maxLat, minLon, maxLon, 8);
+            assertTrue(ranges.size() <= 8);
+
+            for (int i = 0; i < 200; i++) {
+                double lat = minLat + random.nextDouble() * (maxLat - minLat);
+                double lon = minLon + random.nextDouble() * (maxLon - minLon);
+                long key = SpatialKeys.mortonKey(lat, lon);
+                assertTrue(ranges.stream().anyMatch(range -> key >= range[0] && key <= range[1]),
+                        "Key for " + lat + "," + lon + " not covered");
+            }
+        }
+    }
+
+    @Test
+    void testCoverRanges_SeveralBoxesDoNotOverlap() {
+        List<double[]> boxes = List.of(new double[] {10, 20, 10, 20}, new double[] {15, 25, 15, 25},
+                new double[] {-40, -30, 100, 110});
+
+        List<long[]> ranges = SpatialKeys.coverRanges(boxes, 12);
+        assertTrue(ranges.size() <= 12);
+        for (int i = 1; i < ranges.size(); i++) {
+            assertTrue(ranges.get(i)[0] > ranges.get(i - 1)[1], "Ranges overlap");
+        }
+        for (double[] box : boxes) {
+            for (double[] corner : new double[][] {{box[0], box[2]}, {box[1], box[3]}, {box[0], box[3]}}) {
+                long key = SpatialKeys.mortonKey(corner[0], corner[1]);
+                assertTrue(ranges.stream().anyMatch(range -> key >= range[0] && key <= range[1]));
+            }
+        }
+    }
+
+    @Test
+    void testBoundingBoxes_SplitAtAntimeridian() {
+        List<double[]> boxes = SpatialKeys.boundingBoxes(0.0, 179.99, 10_000);
+
+        assertEquals(2, boxes.size());
+        assertEquals(180.0, boxes.get(0)[3]);
+        assertEquals(-180.0, boxes.get(1)[2]);
+
+        List<double[]> polar = SpatialKeys.boundingBoxes(89.99, 0.0, 10_000);
+        assertEquals(1, polar.size());
+        assertEquals(-180.0, polar.get(0)[2]);
+        assertEquals(180.0, polar.get(0)[3]);
+    }
+}
@@ -0,0 +1,103 @@
+package com.geoscience.sampleapi.spatial;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorTileEncoderTest {
+
+    @Test
+    void testEncode_WritesLayerWithSharedKeysAndValues() {
+        VectorTileEncoder encoder = new VectorTileEncoder("samples", 4096, List.of("id", "type", "count"));
+        encoder.addPoint(25, 17, "a", "CORE", 1);
+        encoder.addPoint(-3, 4100, "b", "CORE", null);
+
+        ByteBuffer tile = ByteBuffer.wrap(encoder.encode());
+        assertEquals((3 << 3) | 2, readVarint(tile));
+        ByteBuffer layer = readMessage(tile);
+        assertFalse(tile.hasRemaining());
+
+        String name = null;
+        long version = 0;
+        long extent = 0;
+        List<ByteBuffer> features = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<ByteBuffer> values = new ArrayList<>();
+        while (layer.hasRemaining()) {
+            int tag = (int) readVarint(layer);
+            switch (tag >>> 3) {
+                case 1 -> name = StandardCharsets.UTF_8.decode(readMessage(layer)).toString();
+                case 2 -> features.add(readMessage(layer));
+                case 3 -> keys.add(StandardCharsets.UTF_8.decode(readMessage(layer)).toString());
+                case 4 -> values.add(readMessage(layer));
+                case 5 -> extent = readVarint(layer);
+                case 15 -> version = readVarint(layer);
+                default -> fail("Unexpected layer field " + (tag >>> 3));
+            }
+        }
+        assertEquals("samples", name);
+        assertEquals(2, version);
+        assertEquals(4096, extent);
+        assertEquals(List.of("id", "type", "count"), keys);
+        // "a", "CORE", 1, "b": the shared type value is stored once
+        assertEquals(4, values.size());
+        assertEquals(2, features.size());
+
+        // First feature: tags id=0, type=1, count=2; MoveTo(25, 17) with zig-zag coordinates
+        ByteBuffer first = features.get(0);
+        assertEquals((2 << 3) | 2, readVarint(first));
+        assertEquals(List.of(0L, 0L, 1L, 1L, 2L, 2L), readPacked(readMessage(first)));
+        assertEquals(3 << 3, readVarint(first));
+        assertEquals(1, readVarint(first));
+        assertEquals((4 << 3) | 2, readVarint(first));
+        assertEquals(List.of(9L, 50L, 34L), readPacked(readMessage(first)));
+
+        // Second feature: null count left out, negative and buffer coordinates
+        ByteBuffer second = features.get(1);
+        readVarint(second);
+        assertEquals(List.of(0L, 3L, 1L, 1L), readPacked(readMessage(second)));
+        readVarint(second);
+        readVarint(second);
+        readVarint(second);
+        assertEquals(List.of(9L, 5L, 8200L), readPacked(readMessage(second)));
+    }
+
+    @Test
+    void testEncode_EmptyTileHasNoBytes() {
+        VectorTileEncoder encoder = new VectorTileEncoder("samples", 4096, List.of("id"));
+
+        assertEquals(0, encoder.size());
+        assertEquals(0, encoder.encode().length);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static ByteBuffer readMessage(ByteBuffer buffer) {
+        int length = (int) readVarint(buffer);
+        ByteBuffer message = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return message;
+    }
+
+    private static List<Long> readPacked(ByteBuffer buffer) {
+        List<Long> values = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            values.add(readVarint(buffer));
+        }
+        return values;
+    }
+}